@@ -1,294 +1,215 @@
 package shogi;
 
+import shogi.engine.Network;
+import shogi.engine.ParallelSearch;
+import shogi.engine.SearchLimits;
+import shogi.engine.SearchOptions;
+import shogi.engine.SearchResult;
+import shogi.engine.TimeManager;
 import shogi.model.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * AI játékos, amely automatikusan választ véletlenszerű, de szabályos lépést.
+ * AI játékos, amely alfa-béta kereséssel választ lépést.
  * 
  * Implementációs stratégia:
- * 1. Összes legális lépés összegyűjtése (táblán lévő bábuk és drop lépések)
- * 2. Véletlenszerű lépés választása a listaból
- * 3. Lépés végrehajtása
+ * 1. A játékállás átalakítása bitboard reprezentációvá
+ * 2. Negamax alfa-béta keresés iteratív mélyítéssel (shogi.engine.Search),
+ *    anyag + pozíciós értékeléssel
+ * 3. A legjobb lépés végrehajtása (a promóciót a keresés dönti el)
  * 
- * Jelenleg nincs stratégiai értékelés vagy előretekintés.
+ * A keresés korlátja példányonként állítható: mélység és/vagy időkeret,
+ * vagy sakkóra, amelyből a TimeManager lépésenként oszt időt.
+ * Több szál esetén Lazy SMP keresés fut (közös transzpozíciós táblával).
  * 
  * @author Domokos Erik Zsolt
  */
 public class AIPlayer extends Player {
     
-    private Random random;
+    /** Alapértelmezett időkeret lépésenként (ms) */
+    public static final long DEFAULT_TIME_MILLIS = 1000;
+    
+    /** Alapértelmezett szálszám */
+    public static final int DEFAULT_THREADS = 1;
+    
+    /** A kereső (példányonként egy, újrahasznált munkaterületekkel) */
+    private ParallelSearch search = new ParallelSearch(DEFAULT_THREADS);
+    
+    /** A keresés korlátai */
+    private SearchLimits limits;
+    
+    /** Sakkóra (null = a rögzített korlátok érvényesek) */
+    private GameClock clock;
+    
+    /** Az utolsó keresés eredménye (diagnosztikához) */
+    private SearchResult lastResult;
     
     /**
-     * Létrehoz egy új AI játékost.
+     * Létrehoz egy új AI játékost alapértelmezett időkerettel.
      * @param name Az AI neve
      * @param color Az AI színe (BLACK vagy WHITE)
      */
     public AIPlayer(String name, Piece.Color color) {
+        this(name, color, SearchLimits.time(DEFAULT_TIME_MILLIS));
+    }
+    
+    /**
+     * Létrehoz egy új AI játékost a megadott keresési korláttal.
+     * @param name Az AI neve
+     * @param color Az AI színe (BLACK vagy WHITE)
+     * @param limits Mélység és/vagy időkeret (pl. SearchLimits.depth(4))
+     */
+    public AIPlayer(String name, Piece.Color color, SearchLimits limits) {
         super(name, color);
-        this.random = new Random();
+        this.limits = limits;
     }
     
     /**
-     * Az AI választ egy véletlenszerű, de szabályos lépést.
-     * @param game A jelenlegi játékállás
-     * @return true, ha sikerült lépést választani és végrehajtani
+     * @return A keresés korlátai
      */
-    public boolean makeMove(ShogiGame game) {
-        // Összes lehetséges lépés összegyűjtése
-        List<Move> possibleMoves = getAllPossibleMoves(game);
-        
-        if (possibleMoves.isEmpty()) {
-            return false; // Nincs legális lépés
-        }
-        
-        // Véletlenszerű lépés kiválasztása
-        Move selectedMove = possibleMoves.get(random.nextInt(possibleMoves.size()));
-        
-        // Lépés végrehajtása
-        if (selectedMove.isDropMove()) {
-            return game.dropPiece(selectedMove.getPieceType(), selectedMove.getTo());
-        } else {
-            return game.makeMove(selectedMove.getFrom(), selectedMove.getTo());
-        }
+    public SearchLimits getLimits() {
+        return limits;
     }
     
     /**
-     * Összegyűjti az összes lehetséges lépést a jelenlegi pozícióban.
-     * @param game A jelenlegi játékállás
-     * @return A lehetséges lépések listája
+     * Beállítja a keresés korlátait.
+     * @param limits Mélység és/vagy időkeret
      */
-    private List<Move> getAllPossibleMoves(ShogiGame game) {
-        List<Move> moves = new ArrayList<>();
-        Board board = game.getBoard();
-        
-        // 1. Táblán lévő bábuk lépései
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                Piece piece = board.getPieceAt(row, col);
-                if (piece != null && piece.getColor() == getColor()) {
-                    Position from = new Position(row, col);
-                    List<Position> legalMoves = piece.getLegalMoves(board);
-                    
-                    for (Position to : legalMoves) {
-                        // Ellenőrizzük, hogy a lépés után nem maradunk-e sakkban
-                        if (isLegalMove(game, from, to)) {
-                            moves.add(new Move(from, to));
-                        }
-                    }
-                }
-            }
-        }
-        
-        // 2. Drop lépések (kézben lévő bábuk visszahelyezése)
-        List<Piece> hand = (getColor() == Piece.Color.BLACK) 
-            ? game.getBlackHand() 
-            : game.getWhiteHand();
-        
-        // Csak egyszer vizsgáljuk meg minden bábu típust (nem ismétlődve)
-        java.util.Set<String> processedTypes = new java.util.HashSet<>();
-        
-        for (Piece piece : hand) {
-            String pieceType = piece.getClass().getSimpleName();
-            
-            // Ha már feldolgoztuk ezt a típust, ugorjuk át
-            if (processedTypes.contains(pieceType)) {
-                continue;
-            }
-            processedTypes.add(pieceType);
-            
-            for (int row = 0; row < 9; row++) {
-                for (int col = 0; col < 9; col++) {
-                    Position to = new Position(row, col);
-                    
-                    // Csak üres mezőkre próbálhatunk drop-olni
-                    if (board.getPieceAt(row, col) == null) {
-                        // Teszteljük, hogy a dropPiece elfogadná-e ezt a lépést
-                        // (ellenőrzi a pawn szabályokat, sakk helyzetet, stb.)
-                        if (isValidDrop(game, pieceType, to)) {
-                            moves.add(new Move(pieceType, to));
-                        }
-                    }
-                }
-            }
-        }
-        
-        return moves;
+    public void setLimits(SearchLimits limits) {
+        this.limits = limits;
     }
     
     /**
-     * Ellenőrzi, hogy egy drop lépés érvényes-e.
-     * @param game A játék
-     * @param pieceType A bábu típusa
-     * @param to Hová helyezünk
-     * @return true, ha a drop lépés szabályos
+     * @return A sakkóra, vagy null
      */
-    private boolean isValidDrop(ShogiGame game, String pieceType, Position to) {
-        // Szimulálunk egy drop-ot és ellenőrizzük, hogy sikeres-e
-        // Ezt nem tudjuk közvetlenül, ezért egyszerűsített ellenőrzés:
-        
-        Board board = game.getBoard();
-        
-        // Alapvető ellenőrzések (ezeket a dropPiece is csinálja):
-        // 1. Mező üres?
-        if (board.getPieceAt(to.getRow(), to.getCol()) != null) {
-            return false;
-        }
-        
-        // 2. Pawn speciális szabályok
-        if ("Pawn".equals(pieceType)) {
-            // Nem lehet olyan oszlopba, ahol már van saját gyalog
-            for (int r = 0; r < 9; r++) {
-                Piece p = board.getPieceAt(r, to.getCol());
-                if (p instanceof Pawn && 
-                    p.getColor() == getColor() && !p.isPromoted()) {
-                    return false;
-                }
-            }
-            
-            // Knight és Lance nem mehet olyan helyre, ahonnan nem tud lépni
-            // (Pawn esetén utolsó sor, Lance/Knight esetén speciális)
-            if (getColor() == Piece.Color.BLACK && to.getRow() == 0) {
-                return false; // BLACK pawn nem mehet a 0. sorba
-            }
-            if (getColor() == Piece.Color.WHITE && to.getRow() == 8) {
-                return false; // WHITE pawn nem mehet a 8. sorba
-            }
-        }
-        
-        // 3. Lance nem mehet olyan helyre, ahonnan nem tud lépni
-        if ("Lance".equals(pieceType)) {
-            if (getColor() == Piece.Color.BLACK && to.getRow() == 0) {
-                return false;
-            }
-            if (getColor() == Piece.Color.WHITE && to.getRow() == 8) {
-                return false;
-            }
-        }
-        
-        // 4. Knight nem mehet olyan helyre, ahonnan nem tud lépni
-        if ("Knight".equals(pieceType)) {
-            if (getColor() == Piece.Color.BLACK && to.getRow() <= 1) {
-                return false;
-            }
-            if (getColor() == Piece.Color.WHITE && to.getRow() >= 7) {
-                return false;
-            }
-        }
-        
-        // 5. KRITIKUS: Sakkban hagyás ellenőrzés
-        // Ha sakkban vagyunk, a drop NEM oldja meg a sakkot
-        // (csak király mozgás vagy blokkolás/leütés oldhatja meg)
-        if (game.isInCheck(getColor())) {
-            // Szimulálunk egy drop-ot
-            try {
-                // Ideiglenesen létrehozzuk a bábut
-                Piece tempPiece = createPieceByType(pieceType, getColor(), to);
-                board.setPieceAt(to.getRow(), to.getCol(), tempPiece);
-                
-                // Ellenőrizzük, hogy még mindig sakkban vagyunk-e
-                boolean stillInCheck = game.isInCheck(getColor());
-                
-                // Visszaállítjuk
-                board.setPieceAt(to.getRow(), to.getCol(), null);
-                
-                return !stillInCheck; // Csak akkor OK, ha már nincs sakkban
-            } catch (Exception e) {
-                return false;
-            }
-        }
-        
-        return true;
+    public GameClock getClock() {
+        return clock;
     }
     
     /**
-     * Létrehoz egy bábu példányt típus alapján.
-     * @param pieceType A bábu típusa
-     * @param color A bábu színe
-     * @param position A bábu pozíciója
-     * @return Az új bábu példány
+     * Sakkóra beállítása: ha van, lépésenként az óraállásból számolt puha és
+     * kemény időkorlát érvényes a rögzített korlátok helyett.
+     * @param clock A sakkóra (null = rögzített korlátok)
      */
-    private Piece createPieceByType(String pieceType, Piece.Color color, Position position) {
-        switch (pieceType) {
-            case "Pawn": return new Pawn(color, position);
-            case "Lance": return new Lance(color, position);
-            case "Knight": return new Knight(color, position);
-            case "SilverGeneral": return new SilverGeneral(color, position);
-            case "GoldGeneral": return new GoldGeneral(color, position);
-            case "Bishop": return new Bishop(color, position);
-            case "Rook": return new Rook(color, position);
-            case "King": return new King(color, position);
-            default: throw new IllegalArgumentException("Unknown piece type: " + pieceType);
-        }
+    public void setClock(GameClock clock) {
+        this.clock = clock;
     }
     
     /**
-     * Ellenőrzi, hogy egy lépés legális-e (nem hagy minket sakkban).
-     * @param game A játék
-     * @param from Honnan
-     * @param to Hová
-     * @return true, ha a lépés szabályos
+     * A folyamatban lévő keresés leállítása (bármely szálról). A keresés a
+     * legutóbb befejezett iteráció legjobb lépésével tér vissza.
      */
-    private boolean isLegalMove(ShogiGame game, Position from, Position to) {
-        Board board = game.getBoard();
-        
-        // Mentsük el az állapotot
-        Piece moving = board.getPieceAt(from.getRow(), from.getCol());
-        Piece target = board.getPieceAt(to.getRow(), to.getCol());
-        
-        // Ideiglenesen végrehajtjuk
-        board.setPieceAt(to.getRow(), to.getCol(), moving);
-        board.setPieceAt(from.getRow(), from.getCol(), null);
-        
-        // Ellenőrizzük a sakkot
-        boolean inCheck = game.isInCheck(getColor());
-        
-        // Visszaállítjuk
-        board.setPieceAt(from.getRow(), from.getCol(), moving);
-        board.setPieceAt(to.getRow(), to.getCol(), target);
-        
-        return !inCheck;
+    public void stop() {
+        search.stop();
     }
     
     /**
-     * Belső osztály a lépések tárolására.
+     * @return A kereső szálak száma
      */
-    private static class Move {
-        private Position from;
-        private Position to;
-        private String pieceType; // Drop esetén
-        private boolean isDrop;
-        
-        // Normál lépés
-        public Move(Position from, Position to) {
-            this.from = from;
-            this.to = to;
-            this.isDrop = false;
-        }
-        
-        // Drop lépés
-        public Move(String pieceType, Position to) {
-            this.pieceType = pieceType;
-            this.to = to;
-            this.isDrop = true;
-        }
-        
-        public Position getFrom() {
-            return from;
-        }
-        
-        public Position getTo() {
-            return to;
-        }
-        
-        public String getPieceType() {
-            return pieceType;
-        }
-        
-        public boolean isDropMove() {
-            return isDrop;
+    public int getThreads() {
+        return search.getThreads();
+    }
+    
+    /**
+     * Beállítja a kereső szálak számát (az eddigi transzpozíciós tábla elvész).
+     * @param threads Szálak száma (legalább 1, pl. Runtime.availableProcessors())
+     */
+    public void setThreads(int threads) {
+        if (threads == search.getThreads()) {
+            return;
+        }
+        SearchOptions options = search.getOptions();
+        search.shutdown();
+        Network network = search.getNetwork();
+        search = new ParallelSearch(threads);
+        search.setOptions(options);
+        search.setNetwork(network);
+    }
+    
+    /**
+     * @return A neurális értékelés hálózata, vagy null (klasszikus értékelés)
+     */
+    public Network getNetwork() {
+        return search.getNetwork();
+    }
+    
+    /**
+     * Neurális (NNUE) értékelés bekapcsolása.
+     * @param network A hálózat (pl. Network.load(Path.of("shogi.nnue"))), null = klasszikus értékelés
+     */
+    public void setNetwork(Network network) {
+        search.setNetwork(network);
+    }
+    
+    /**
+     * @return A kereső bekapcsolt szelektív technikái
+     */
+    public SearchOptions getOptions() {
+        return search.getOptions();
+    }
+    
+    /**
+     * Beállítja a kereső szelektív technikáit (pl. önjátékhoz, ahol az egyik
+     * fél egy technika nélkül játszik).
+     * @param options A bekapcsolt technikák (pl. SearchOptions.parse("-lmr"))
+     */
+    public void setOptions(SearchOptions options) {
+        search.setOptions(options);
+    }
+    
+    /**
+     * @return Az utolsó keresés eredménye, vagy null ha még nem keresett
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+    
+    /**
+     * Az AI megkeresi és végrehajtja a legjobb lépést.
+     * @param game A jelenlegi játékállás
+     * @return true, ha sikerült lépést választani és végrehajtani
+     */
+    public boolean makeMove(ShogiGame game) {
+        int move = chooseMove(game);
+        if (move == Move.NONE) {
+            return false; // Nincs legális lépés
         }
+        return game.playMove(move);
+    }
+    
+    /**
+     * Megkeresi a legjobb lépést (végrehajtás nélkül).
+     * @param game A jelenlegi játékállás
+     * @return A legjobb lépés ({@link Move} kódolás), vagy Move.NONE
+     */
+    public int chooseMove(ShogiGame game) {
+        return chooseMove(game.toBitboardPosition(), getMoveLimits(), new AtomicBoolean());
+    }
+    
+    /**
+     * A következő lépés keresési korlátai: sakkórával az óraállásból
+     * számolva, különben a rögzített korlátok. Az óra nem szálbiztos, ezért
+     * az óra szálán (a felület eseménykezelő szálán) hívandó.
+     * @return A lépés keresési korlátai
+     */
+    public SearchLimits getMoveLimits() {
+        return (clock != null) ? TimeManager.allocate(clock, getColor()) : limits;
+    }
+    
+    /**
+     * Megkeresi a legjobb lépést egy állás pillanatképében (végrehajtás
+     * nélkül). A játékhoz és az órához nem nyúl, így háttérszálról is
+     * hívható; a pillanatképet és a korlátokat a hívó szál készíti.
+     * @param position Az állás pillanatképe (a lépő fél az AI színére áll)
+     * @param moveLimits A keresés korlátai (lásd {@link #getMoveLimits()})
+     * @param stop Leállítási jelző: beállítva a keresés a lehető
+     *             leghamarabb véget ér (a keresés indulása előtt is)
+     * @return A legjobb lépés ({@link Move} kódolás), vagy Move.NONE
+     */
+    public int chooseMove(BitboardPosition position, SearchLimits moveLimits, AtomicBoolean stop) {
+        position.setSideToMove(BitboardPosition.colorIndex(getColor()));
+        lastResult = search.search(position, moveLimits, stop);
+        return lastResult.getBestMove();
     }
 }
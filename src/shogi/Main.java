@@ -4,7 +4,8 @@ import javax.swing.SwingUtilities;
 
 /**
  * Shogi játék fő belépési pontja.
- * Indítja a grafikus felületet Swing segítségével.
+ * Indítja a grafikus felületet Swing segítségével, vagy "usi"
+ * argumentummal a felület nélküli USI motort ({@link UsiEngine}).
  * 
  * @author Domokos Erik Zsolt
  */
@@ -14,9 +15,13 @@ public class Main {
      * Program belépési pontja.
      * Létrehozza a GUI-t az Event Dispatch Thread-en (EDT).
      * 
-     * @param args Parancssori argumentumok (nem használt)
+     * @param args Parancssori argumentumok ("usi": USI motor mód)
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("usi")) {
+            UsiEngine.main(args);
+            return;
+        }
         SwingUtilities.invokeLater(ShogiGUI::new);
     }
 }
@@ -0,0 +1,80 @@
+package shogi;
+
+import shogi.engine.Search;
+import shogi.engine.SearchLimits;
+import shogi.engine.SearchOptions;
+import shogi.engine.SearchResult;
+import shogi.engine.TranspositionTable;
+import shogi.model.*;
+import java.io.IOException;
+
+/**
+ * A szelektív keresési technikák hatásának mérése.
+ * Ugyanazt a rögzített mélységű keresést futtatja minden technikával,
+ * egyik nélkül sem, illetve egyenként egy-egy technikát kikapcsolva
+ * (mindig üres transzpozíciós táblával), és kiírja a csomópontszámot,
+ * az időt, a sebességet, az értéket és a választott lépést.
+ *
+ * Használat:
+ * <pre>
+ * java -cp "bin;lib/gson-2.10.1.jar" shogi.SearchBenchmark &lt;mélység&gt; [mentés.json]
+ * </pre>
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class SearchBenchmark {
+
+    /** A transzpozíciós tábla mérete a mérésekhez (MB) */
+    private static final int HASH_MB = 64;
+
+    /**
+     * Parancssori belépési pont.
+     *
+     * @param args mélység, és opcionálisan egy mentett játék fájlja
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: shogi.SearchBenchmark <depth> [save.json]");
+            System.exit(1);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        ShogiGame game;
+        if (args.length > 1) {
+            try {
+                game = SaveManager.load(args[1]);
+            } catch (IOException e) {
+                System.err.println("Cannot load " + args[1] + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        } else {
+            game = new ShogiGame();
+        }
+        BitboardPosition pos = game.toBitboardPosition();
+        TranspositionTable tt = new TranspositionTable(HASH_MB);
+        Search search = new Search(tt);
+
+        // Bemelegítés (JIT), hogy az első mérés ne legyen torzított
+        for (int i = 0; i < 3; i++) {
+            tt.clear();
+            search.search(pos, SearchLimits.depth(depth));
+        }
+
+        System.out.printf("%-40s %12s %10s %10s %7s  %s%n", "Options", "Nodes", "Time (ms)", "NPS", "Score", "Best");
+        run(search, tt, pos, depth, SearchOptions.all());
+        run(search, tt, pos, depth, SearchOptions.none());
+        for (SearchOptions.Feature feature : SearchOptions.Feature.values()) {
+            run(search, tt, pos, depth, SearchOptions.all().with(feature, false));
+        }
+    }
+
+    private static void run(Search search, TranspositionTable tt, BitboardPosition pos, int depth,
+                            SearchOptions options) {
+        tt.clear();
+        search.setOptions(options);
+        SearchResult result = search.search(pos, SearchLimits.depth(depth));
+        System.out.printf("%-40s %12d %10d %10d %7d  %s%n", options, result.getNodes(), result.getTimeMillis(),
+                result.getNodesPerSecond(), result.getScore(), Move.toString(result.getBestMove()));
+    }
+}
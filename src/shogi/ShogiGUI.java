@@ -1,5 +1,6 @@
 package shogi;
 
+import shogi.engine.SearchLimits;
 import shogi.model.*;
 import javax.swing.*;
 import java.awt.*;
@@ -7,6 +8,8 @@ import java.awt.event.*;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Shogi játék grafikus felülete Swing-gel.
@@ -15,10 +18,13 @@ import java.util.List;
  * - BoardPanel: 9×9-es játéktábla megjelenítése és kattintás kezelés
  * - HandPanel (×2): Leütött bábuk megjelenítése játékosonként
  * - Menu bar: Új játék, mentés, betöltés, kilépés
+ * - Óra sáv: a két játékos hátralévő ideje (GameClock), ha a játszmához
+ *   időbeosztást választottunk
  * 
  * Támogatott játékmódok:
- * - Játékos vs Játékos (helyi 2 játékos)
- * - Játékos vs AI (random, de legális lépéseket választ)
+ * - Játékos vs Játékos (helyi 2 játékos, alapból óra nélkül)
+ * - Játékos vs AI (az AI háttérszálon keres, az óra szerinti időkerettel,
+ *   óra nélkül rögzített lépésenkénti idővel)
  * 
  * @author Domokos Erik Zsolt
  */
@@ -33,6 +39,20 @@ public class ShogiGUI extends JFrame {
     /** Kéz panel szélessége pixelben */
     private static final int HAND_PANEL_WIDTH = 200;
     
+    /** Választható időbeosztások megnevezése */
+    private static final String[] TIME_CONTROL_NAMES = {
+        "Óra nélkül", "10 perc + 30 mp byoyomi", "3 perc + 10 mp byoyomi", "5 perc + 5 mp/lépés (Fischer)"
+    };
+    
+    /** Választható időbeosztások (null = óra nélkül) */
+    private static final TimeControl[] TIME_CONTROLS = {
+        null, TimeControl.byoyomi(10 * 60_000, 30_000), TimeControl.byoyomi(3 * 60_000, 10_000),
+        TimeControl.fischer(5 * 60_000, 5_000)
+    };
+    
+    /** Az óra kijelzés frissítési periódusa (ms) */
+    private static final int CLOCK_REFRESH_MILLIS = 200;
+    
     /** Aktuális cella méret (dinamikusan változik az ablak méretével) */
     private int currentCellSize = DEFAULT_CELL_SIZE;
     
@@ -76,7 +96,25 @@ public class ShogiGUI extends JFrame {
     private boolean selectingDropPiece;
     
     /** Drop módban kiválasztott bábu típusa */
-    private String dropPieceType;
+    private PieceType dropPieceType;
+    
+    /** A választott időbeosztás (null = óra nélkül) */
+    private transient TimeControl timeControl;
+    
+    /** Sakkóra (null, ha a játszma óra nélküli) */
+    private transient GameClock clock;
+    
+    /** Óraállás kijelző */
+    private JLabel clockLabel;
+    
+    /** Az óra kijelzést frissítő és a zászlóesést figyelő időzítő */
+    private Timer clockTimer;
+    
+    /** Az AI háttérben futó keresése (null, ha az AI nem gondolkodik) */
+    private transient SwingWorker<Integer, Void> aiWorker;
+    
+    /** Az AI keresésének leállítási jelzője (keresésenként új) */
+    private transient AtomicBoolean aiStop;
     
     /**
      * Játékmódok.
@@ -106,6 +144,7 @@ public class ShogiGUI extends JFrame {
         selectingDropPiece = false;
         
         setupGUI();
+        startClock();
         
         setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         addWindowListener(new WindowAdapter() {
@@ -145,15 +184,41 @@ public class ShogiGUI extends JFrame {
             gameMode = GameMode.PLAYER_VS_PLAYER;
             player1 = new Player("Fekete játékos", Piece.Color.BLACK);
             player2 = new Player("Fehér játékos", Piece.Color.WHITE);
+            selectTimeControl(0);
         } else if (choice == 1) {
             gameMode = GameMode.PLAYER_VS_AI;
             player1 = new Player("Te", Piece.Color.BLACK);
             player2 = new AIPlayer("AI", Piece.Color.WHITE);
+            selectTimeControl(1);
         } else {
             System.exit(0);
         }
     }
     
+    /**
+     * Időbeosztás választó dialógus (Mégse = az alapértelmezett marad).
+     * @param defaultIndex az alapértelmezett választás indexe a TIME_CONTROLS tömbben
+     */
+    private void selectTimeControl(int defaultIndex) {
+        Object choice = JOptionPane.showInputDialog(
+            null,
+            "Válassz időbeosztást:",
+            "Shogi - Új játék",
+            JOptionPane.QUESTION_MESSAGE,
+            null,
+            TIME_CONTROL_NAMES,
+            TIME_CONTROL_NAMES[defaultIndex]
+        );
+        
+        int index = defaultIndex;
+        for (int i = 0; i < TIME_CONTROL_NAMES.length; i++) {
+            if (TIME_CONTROL_NAMES[i].equals(choice)) {
+                index = i;
+            }
+        }
+        timeControl = TIME_CONTROLS[index];
+    }
+    
     /**
      * GUI elemek felépítése.
      */
@@ -182,6 +247,15 @@ public class ShogiGUI extends JFrame {
         blackScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         blackScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         add(blackScrollPane, BorderLayout.WEST);
+        
+        // Felső sáv: óra
+        clockLabel = new JLabel("", SwingConstants.CENTER);
+        clockLabel.setFont(new Font("Monospaced", Font.BOLD, 16));
+        clockLabel.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+        add(clockLabel, BorderLayout.NORTH);
+        
+        clockTimer = new Timer(CLOCK_REFRESH_MILLIS, e -> updateClock());
+        clockTimer.start();
     }
     
     /**
@@ -426,29 +500,24 @@ public class ShogiGUI extends JFrame {
                 return; // Nincs sakkban
             }
             
-            // Megkeressük a királyt
-            Board board = game.getBoard();
-            for (int row = 0; row < 9; row++) {
-                for (int col = 0; col < 9; col++) {
-                    Piece piece = board.getPieceAt(row, col);
-                    if (piece instanceof King && piece.getColor() == color) {
-                        // Piros vilógó keret
-                        int x = col * currentCellSize;
-                        int y = row * currentCellSize;
-                        
-                        g.setColor(new Color(255, 0, 0, 180));
-                        g.setStroke(new BasicStroke(5));
-                        g.drawRect(x + 2, y + 2, currentCellSize - 4, currentCellSize - 4);
-                        
-                        // Belső világosabb keret
-                        g.setColor(new Color(255, 100, 100, 100));
-                        g.setStroke(new BasicStroke(3));
-                        g.drawRect(x + 5, y + 5, currentCellSize - 10, currentCellSize - 10);
-                        
-                        return;
-                    }
-                }
+            // A király helye a tábla nyilvántartásából (nincs keresés)
+            Position kingPos = game.getBoard().getKingPosition(color);
+            if (kingPos == null) {
+                return;
             }
+            
+            // Piros vilógó keret
+            int x = kingPos.getCol() * currentCellSize;
+            int y = kingPos.getRow() * currentCellSize;
+            
+            g.setColor(new Color(255, 0, 0, 180));
+            g.setStroke(new BasicStroke(5));
+            g.drawRect(x + 2, y + 2, currentCellSize - 4, currentCellSize - 4);
+            
+            // Belső világosabb keret
+            g.setColor(new Color(255, 100, 100, 100));
+            g.setStroke(new BasicStroke(3));
+            g.drawRect(x + 5, y + 5, currentCellSize - 10, currentCellSize - 10);
         }
     }
     
@@ -542,6 +611,10 @@ public class ShogiGUI extends JFrame {
      * Táblára kattintás kezelése.
      */
     private void handleBoardClick(int x, int y) {
+        if (aiWorker != null) {
+            return; // Az AI gondolkodik
+        }
+        
         // Offsetet levonva számoljuk a pozíciót
         int adjustedX = x - boardOffsetX;
         int adjustedY = y - boardOffsetY;
@@ -587,6 +660,9 @@ public class ShogiGUI extends JFrame {
      * Kézre kattintás kezelése.
      */
     private void handleHandClick(Piece.Color color, int y) {
+        if (aiWorker != null) {
+            return; // Az AI gondolkodik
+        }
         if (game.getCurrentPlayer() != color) {
             return; // Nem a te köröd
         }
@@ -598,12 +674,12 @@ public class ShogiGUI extends JFrame {
         int index = (y - 30) / 50;
         if (index >= 0 && index < hand.size()) {
             Piece piece = hand.get(index);
-            dropPieceType = piece.getClass().getSimpleName();
+            dropPieceType = piece.getType();
             selectingDropPiece = true;
             selectedPosition = null;
             
             JOptionPane.showMessageDialog(this, 
-                "Kattints a táblára, ahová le szeretnéd helyezni: " + dropPieceType);
+                "Kattints a táblára, ahová le szeretnéd helyezni: " + piece.getClass().getSimpleName());
         }
     }
     
@@ -624,32 +700,15 @@ public class ShogiGUI extends JFrame {
             return;
         }
         
+        if (!onMoveMade()) {
+            return;
+        }
+        
         checkGameEnd();
         
         // AI lép, ha szükséges
         if (gameMode == GameMode.PLAYER_VS_AI && game.getCurrentPlayer() == Piece.Color.WHITE) {
-            Timer timer = new Timer(500, e -> {
-                AIPlayer ai = (AIPlayer) player2;
-                boolean aiSuccess = ai.makeMove(game);
-                
-                boardPanel.repaint();
-                blackHandPanel.repaint();
-                whiteHandPanel.repaint();
-                
-                if (!aiSuccess) {
-                    // AI nem tud lépni - játék vége
-                    JOptionPane.showMessageDialog(this, 
-                        "Fekete nyert! Az AI nem tud többé lépni.",
-                        "Játék vége",
-                        JOptionPane.INFORMATION_MESSAGE);
-                    newGame();
-                    return;
-                }
-                
-                checkGameEnd();
-            });
-            timer.setRepeats(false);
-            timer.start();
+            startAiMove();
         }
     }
     
@@ -672,25 +731,163 @@ public class ShogiGUI extends JFrame {
             return;
         }
         
+        if (!onMoveMade()) {
+            return;
+        }
+        
         checkGameEnd();
         
         // AI lép
         if (gameMode == GameMode.PLAYER_VS_AI && game.getCurrentPlayer() == Piece.Color.WHITE) {
-            Timer timer = new Timer(500, e -> {
-                AIPlayer ai = (AIPlayer) player2;
-                ai.makeMove(game);
-                
-                boardPanel.repaint();
-                blackHandPanel.repaint();
-                whiteHandPanel.repaint();
-                
-                checkGameEnd();
-            });
-            timer.setRepeats(false);
-            timer.start();
+            startAiMove();
         }
     }
     
+    /**
+     * Az AI lépésének indítása háttérszálon, hogy a keresés alatt a felület
+     * (és az óra kijelzés) ne fagyjon le. Az állás pillanatképe és a
+     * korlátok itt, az eseménykezelő szálon készülnek, a háttérszál a
+     * játékhoz és az órához nem nyúl; a lépés végrehajtása a befejezés
+     * után az eseménykezelő szálon történik.
+     */
+    private void startAiMove() {
+        AIPlayer ai = (AIPlayer) player2;
+        BitboardPosition position = game.toBitboardPosition();
+        SearchLimits limits = ai.getMoveLimits();
+        AtomicBoolean stop = new AtomicBoolean();
+        SwingWorker<Integer, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Integer doInBackground() {
+                return ai.chooseMove(position, limits, stop);
+            }
+            
+            @Override
+            protected void done() {
+                if (aiWorker != this) {
+                    return; // Időközben új játék indult
+                }
+                aiWorker = null;
+                aiStop = null;
+                int move;
+                try {
+                    move = get();
+                } catch (Exception ex) {
+                    move = Move.NONE;
+                }
+                finishAiMove(move);
+            }
+        };
+        aiWorker = worker;
+        aiStop = stop;
+        worker.execute();
+    }
+    
+    /**
+     * Az AI által választott lépés végrehajtása (eseménykezelő szálon).
+     */
+    private void finishAiMove(int move) {
+        boolean aiSuccess = move != Move.NONE && game.playMove(move);
+        
+        boardPanel.repaint();
+        blackHandPanel.repaint();
+        whiteHandPanel.repaint();
+        
+        if (!aiSuccess) {
+            // AI nem tud lépni - játék vége
+            stopClock();
+            JOptionPane.showMessageDialog(this, 
+                "Fekete nyert! Az AI nem tud többé lépni.",
+                "Játék vége",
+                JOptionPane.INFORMATION_MESSAGE);
+            newGame();
+            return;
+        }
+        
+        if (!onMoveMade()) {
+            return;
+        }
+        checkGameEnd();
+    }
+    
+    // ===================================================================
+    //                              ÓRA
+    // ===================================================================
+    
+    /**
+     * Az óra újraindítása új vagy betöltött játszmához (a választott
+     * időbeosztással; óra nélkül az óra sáv rejtve marad).
+     */
+    private void startClock() {
+        clock = (timeControl != null) ? new GameClock(timeControl) : null;
+        if (clock != null) {
+            clock.start(game.getCurrentPlayer());
+        }
+        if (player2 instanceof AIPlayer) {
+            ((AIPlayer) player2).setClock(clock);
+        }
+        clockLabel.setVisible(clock != null);
+        updateClock();
+    }
+    
+    /**
+     * Az óra megállítása a játszma végén (óra nélkül nincs teendő).
+     */
+    private void stopClock() {
+        if (clock != null) {
+            clock.stop();
+        }
+    }
+    
+    /**
+     * Megtett lépés után az óra átváltása.
+     * @return true, ha a lépő fél időben lépett (különben a játszmának vége)
+     */
+    private boolean onMoveMade() {
+        if (clock == null) {
+            return true;
+        }
+        Piece.Color mover = clock.getRunning();
+        if (mover == null || clock.switchSide()) {
+            updateClock();
+            return true;
+        }
+        clock.stop();
+        announceTimeout(mover);
+        return false;
+    }
+    
+    /**
+     * Óra kijelzés frissítése és zászlóesés figyelése.
+     */
+    private void updateClock() {
+        if (clock == null) {
+            return;
+        }
+        Piece.Color running = clock.getRunning();
+        clockLabel.setText(String.format("%s ☗ Fekete  %s     %s ☖ Fehér  %s",
+            running == Piece.Color.BLACK ? "▶" : " ", clock.format(Piece.Color.BLACK),
+            running == Piece.Color.WHITE ? "▶" : " ", clock.format(Piece.Color.WHITE)));
+        
+        if (running != null && clock.hasFlagged(running)) {
+            clock.stop();
+            cancelAiMove();
+            announceTimeout(running);
+        }
+    }
+    
+    /**
+     * Időtúllépés miatti vereség kihirdetése.
+     */
+    private void announceTimeout(Piece.Color loser) {
+        String loserName = (loser == Piece.Color.BLACK) ? "Fekete" : "Fehér";
+        String winnerName = (loser == Piece.Color.BLACK) ? "Fehér" : "Fekete";
+        JOptionPane.showMessageDialog(this, 
+            winnerName + " nyert! " + loserName + " túllépte a gondolkodási időt.",
+            "Játék vége",
+            JOptionPane.INFORMATION_MESSAGE);
+        newGame();
+    }
+    
     /**
      * Játék végének ellenőrzése.
      */
@@ -698,6 +895,7 @@ public class ShogiGUI extends JFrame {
         // 1. Impasse (入玉) ellenőrzés
         ShogiGame.ImpasseResult impasse = game.checkImpasse();
         if (impasse.isImpasse) {
+            stopClock();
             String message;
             if (impasse.winner == null) {
                 message = String.format(
@@ -727,17 +925,43 @@ public class ShogiGUI extends JFrame {
         
         // 2. Ellenőrizzük, hogy valamelyik király ki lett-e ütve / sakkmatt
         if (game.isGameOver(Piece.Color.BLACK)) {
+            stopClock();
             JOptionPane.showMessageDialog(this, 
                 "Fehér nyert! A fekete király ki lett ütve vagy sakkmattban van.",
                 "Játék vége",
                 JOptionPane.INFORMATION_MESSAGE);
             newGame();
         } else if (game.isGameOver(Piece.Color.WHITE)) {
+            stopClock();
             JOptionPane.showMessageDialog(this, 
                 "Fekete nyert! A fehér király ki lett ütve vagy sakkmattban van.",
                 "Játék vége",
                 JOptionPane.INFORMATION_MESSAGE);
             newGame();
+        } else {
+            // 3. Ismétlés (千日手 - Sennichite)
+            ShogiGame.SennichiteResult sennichite = game.checkSennichite();
+            if (!sennichite.isSennichite) {
+                return;
+            }
+            stopClock();
+            String message;
+            if (sennichite.winner == null) {
+                message = "Döntetlen! (千日手 - Sennichite)\n\n" +
+                    "Ugyanaz az állás negyedszer ismétlődött.";
+            } else {
+                String winnerName = (sennichite.winner == Piece.Color.BLACK) ? "Fekete" : "Fehér";
+                String loserName = (sennichite.winner == Piece.Color.BLACK) ? "Fehér" : "Fekete";
+                message = String.format(
+                    "%s nyert! (千日手 - örökös sakk)\n\n" +
+                    "Ugyanaz az állás negyedszer ismétlődött,\n" +
+                    "és %s végig sakkot adott - ez tilos.",
+                    winnerName, loserName
+                );
+            }
+            JOptionPane.showMessageDialog(this, message, "Játék vége - Sennichite",
+                JOptionPane.INFORMATION_MESSAGE);
+            newGame();
         }
     }
     
@@ -751,10 +975,12 @@ public class ShogiGUI extends JFrame {
             JOptionPane.YES_NO_OPTION);
         
         if (choice == JOptionPane.YES_OPTION) {
+            cancelAiMove();
             selectGameMode();
             game = new ShogiGame();
             selectedPosition = null;
             selectingDropPiece = false;
+            startClock();
             
             boardPanel.repaint();
             blackHandPanel.repaint();
@@ -762,6 +988,28 @@ public class ShogiGUI extends JFrame {
         }
     }
     
+    /**
+     * A folyamatban lévő AI keresés leállítása és eredményének eldobása.
+     * Megvárja a háttérszál végét, hogy egy újonnan indított keresés ne
+     * fusson a régivel egy időben ugyanazon a keresőn.
+     */
+    private void cancelAiMove() {
+        if (aiWorker == null) {
+            return;
+        }
+        SwingWorker<Integer, Void> worker = aiWorker;
+        aiWorker = null;
+        aiStop.set(true);
+        aiStop = null;
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Az eredmény úgyis eldobandó
+        }
+    }
+    
     /**
      * Játék mentése.
      */
@@ -794,9 +1042,12 @@ public class ShogiGUI extends JFrame {
         int result = fileChooser.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
             try {
-                game = SaveManager.load(fileChooser.getSelectedFile().getAbsolutePath());
+                ShogiGame loaded = SaveManager.load(fileChooser.getSelectedFile().getAbsolutePath());
+                cancelAiMove();
+                game = loaded;
                 selectedPosition = null;
                 selectingDropPiece = false;
+                startClock();
                 
                 boardPanel.repaint();
                 blackHandPanel.repaint();
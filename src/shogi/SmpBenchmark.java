@@ -0,0 +1,89 @@
+package shogi;
+
+import shogi.engine.ParallelSearch;
+import shogi.engine.SearchLimits;
+import shogi.engine.SearchResult;
+import shogi.engine.TranspositionTable;
+import shogi.model.*;
+import java.io.IOException;
+
+/**
+ * A többszálú (Lazy SMP) keresés skálázódásának mérése.
+ * Ugyanazt a rögzített mélységű keresést futtatja 1, 2, 4, ... szállal
+ * (mindig üres transzpozíciós táblával), és kiírja a mélység eléréséig
+ * eltelt időt, a sebességet és a gyorsulást az egyszálú futáshoz képest.
+ *
+ * Használat:
+ * <pre>
+ * java -cp "bin;lib/gson-2.10.1.jar" shogi.SmpBenchmark &lt;mélység&gt; [max szál] [mentés.json]
+ * </pre>
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class SmpBenchmark {
+
+    /** A transzpozíciós tábla mérete a mérésekhez (MB) */
+    private static final int HASH_MB = 256;
+
+    /**
+     * Parancssori belépési pont.
+     *
+     * @param args mélység, legnagyobb szálszám (alapértelmezés: a magok
+     *             száma), és opcionálisan egy mentett játék fájlja
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: shogi.SmpBenchmark <depth> [maxThreads] [save.json]");
+            System.exit(1);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        ShogiGame game;
+        if (args.length > 2) {
+            try {
+                game = SaveManager.load(args[2]);
+            } catch (IOException e) {
+                System.err.println("Cannot load " + args[2] + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        } else {
+            game = new ShogiGame();
+        }
+        BitboardPosition pos = game.toBitboardPosition();
+        TranspositionTable tt = new TranspositionTable(HASH_MB);
+
+        // Bemelegítés (JIT), hogy az egyszálú alapidő ne legyen torzított
+        ParallelSearch warmup = new ParallelSearch(1, tt);
+        warmup.search(pos, SearchLimits.depth(depth));
+        warmup.shutdown();
+
+        System.out.printf("%7s %10s %14s %12s %8s  %s%n", "Threads", "Time (ms)", "Nodes", "NPS", "Speedup", "Best");
+        long baseMillis = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            tt.clear();
+            ParallelSearch search = new ParallelSearch(threads, tt);
+            SearchResult result = search.search(pos, SearchLimits.depth(depth));
+            search.shutdown();
+
+            long millis = Math.max(1, result.getTimeMillis());
+            if (threads == 1) {
+                baseMillis = millis;
+            }
+            System.out.printf("%7d %10d %14d %12d %8.2f  %s%n", threads, millis, result.getNodes(),
+                    result.getNodesPerSecond(), (double) baseMillis / millis, Move.toString(result.getBestMove()));
+        }
+    }
+
+    /**
+     * 1, 2, 4, ... és végül pontosan a legnagyobb szálszám.
+     */
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+}
@@ -0,0 +1,72 @@
+package shogi;
+
+import shogi.engine.MateResult;
+import shogi.engine.MateSolver;
+import shogi.model.*;
+import java.io.IOException;
+
+/**
+ * Tsume feladványok tömeges megoldása a df-pn mattkeresővel.
+ * Minden megadott mentett játékban a lépésen lévő fél a támadó;
+ * feladványonként kiírja az eredményt (mattsor / nincs matt /
+ * ismeretlen), a végén az összesítést. A megoldó (és a táblája)
+ * a feladványok között újrahasznosul.
+ *
+ * Használat:
+ * <pre>
+ * java -cp "bin;lib/gson-2.10.1.jar" shogi.TsumeBatch [-nodes N] [-ply N] feladvány1.json [feladvány2.json ...]
+ * </pre>
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class TsumeBatch {
+
+    /**
+     * Parancssori belépési pont.
+     *
+     * @param args opcionális korlátok, majd a mentett feladványok fájljai
+     */
+    public static void main(String[] args) {
+        MateSolver solver = new MateSolver();
+        int first = 0;
+        while (first + 1 < args.length && args[first].startsWith("-")) {
+            if (args[first].equals("-nodes")) {
+                solver.setMaxNodes(Long.parseLong(args[first + 1]));
+            } else if (args[first].equals("-ply")) {
+                solver.setMaxPly(Integer.parseInt(args[first + 1]));
+            } else {
+                break;
+            }
+            first += 2;
+        }
+        if (first >= args.length) {
+            System.err.println("Usage: shogi.TsumeBatch [-nodes N] [-ply N] problem.json...");
+            System.exit(1);
+        }
+
+        int[] counts = new int[MateResult.Status.values().length];
+        long nodes = 0;
+        long start = System.nanoTime();
+        for (int i = first; i < args.length; i++) {
+            ShogiGame game;
+            try {
+                game = SaveManager.load(args[i]);
+            } catch (IOException e) {
+                System.err.println("Cannot load " + args[i] + ": " + e.getMessage());
+                continue;
+            }
+            MateResult result = solver.solve(game);
+            counts[result.getStatus().ordinal()]++;
+            nodes += result.getNodes();
+            System.out.println(args[i] + ": " + result);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println();
+        for (MateResult.Status status : MateResult.Status.values()) {
+            System.out.printf("%-8s %d%n", status, counts[status.ordinal()]);
+        }
+        System.out.println("Nodes:   " + nodes);
+        System.out.println("Time:    " + millis + " ms");
+    }
+}
@@ -0,0 +1,529 @@
+package shogi;
+
+import shogi.engine.Network;
+import shogi.engine.ParallelSearch;
+import shogi.engine.Search;
+import shogi.engine.SearchLimits;
+import shogi.engine.SearchResult;
+import shogi.engine.TimeManager;
+import shogi.engine.TranspositionTable;
+import shogi.model.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Grafikus felület nélküli USI (Universal Shogi Interface) motor mód:
+ * a parancsok a standard bemenetről jönnek, a válaszok a standard
+ * kimenetre mennek, így a motor tetszőleges USI felület vagy versenyvezető
+ * mögött futtatható.
+ *
+ * Támogatott parancsok: usi, isready, setoption (USI_Hash, Threads,
+ * EvalFile), usinewgame, position (startpos / sfen, moves), go (btime,
+ * wtime, byoyomi, binc, winc, movetime, depth, infinite, ponder), stop,
+ * ponderhit, gameover, quit. A keresés külön szálon fut; iterációnként
+ * "info" sor megy ki mélységgel, értékkel, csomópontszámmal, nps-sel és
+ * fő változattal. A quit parancs a futó keresést leállítja; a bemenet
+ * vége (pl. parancsfájlból) viszont megvárja a véges keresést, így
+ * {@code echo "go depth 6" | ...} is kiírja a bestmove-ot.
+ *
+ * Az indulás gyors: a transzpozíciós tábla és a kereső szálak csak az
+ * első isready / go parancsnál jönnek létre, a Swing osztályok be sem
+ * töltődnek.
+ *
+ * Használat:
+ * <pre>
+ * java -cp "bin;lib/gson-2.10.1.jar" shogi.Main usi
+ * </pre>
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class UsiEngine {
+
+    /** A motor neve */
+    public static final String NAME = "NHF Shogi";
+
+    /** A motor szerzője */
+    public static final String AUTHOR = "Domokos Erik Zsolt";
+
+    /** Legnagyobb beállítható hash méret (MB) */
+    private static final int MAX_HASH_MB = 4096;
+
+    /** Legnagyobb beállítható szálszám */
+    private static final int MAX_THREADS = 256;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    /** Hash méret (MB) és szálszám a következő kereső létrehozásához */
+    private int hashMb = Search.DEFAULT_HASH_MB;
+    private int threads = 1;
+
+    /** Neurális értékelés (null = klasszikus) */
+    private Network network;
+
+    /** A kereső (lustán jön létre, lásd {@link #ensureSearch()}) */
+    private ParallelSearch search;
+
+    /** A transzpozíciós tábla */
+    private TranspositionTable tt;
+
+    /** Az aktuális állás ("position" parancs) */
+    private BitboardPosition position = Sfen.parse(Sfen.START);
+
+    /** A futó keresés szála (null, ha nincs) */
+    private Thread searchThread;
+
+    /** A futó keresés leállítási jelzője (go parancsonként új, a szál indulása előtt él) */
+    private AtomicBoolean stopToken;
+
+    /** Ponder módban fut a keresés: a bestmove csak ponderhit / stop után mehet ki */
+    private boolean pondering;
+
+    /** A bestmove csak stop / quit után mehet ki (go infinite / korlát nélkül) */
+    private boolean infinite;
+
+    /** A ponder keresés puha időkorlátja (ms), a ponderhit után ennyi ideig gondolkodik még */
+    private long ponderMillis;
+
+    /** A ponderhit utáni időzítő (null, ha nincs) */
+    private Thread ponderTimer;
+
+    /**
+     * @param in a parancsok forrása
+     * @param out a válaszok célja
+     */
+    public UsiEngine(InputStream in, PrintStream out) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+        this.out = out;
+    }
+
+    /**
+     * Belépési pont (a Main "usi" argumentuma is ide jut).
+     *
+     * @param args nem használt
+     */
+    public static void main(String[] args) {
+        try {
+            new UsiEngine(System.in, System.out).run();
+        } catch (IOException e) {
+            System.err.println("USI input error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A parancsfeldolgozó ciklus (a bemenet végéig vagy a quit parancsig).
+     *
+     * @throws IOException olvasási hiba
+     */
+    public void run() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!handle(line.trim())) {
+                break;
+            }
+        }
+        if (line == null && !waitsForStop()) {
+            waitSearch(); // a bemenet vége (pl. parancsfájl): a véges keresés még befejeződik
+        }
+        stopSearch();
+        if (search != null) {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Egy parancssor végrehajtása.
+     *
+     * @param line a parancs
+     * @return false, ha a motornak ki kell lépnie
+     */
+    boolean handle(String line) {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "usi":
+                send("id name " + NAME);
+                send("id author " + AUTHOR);
+                send("option name USI_Hash type spin default " + Search.DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name EvalFile type filename default <empty>");
+                send("usiok");
+                break;
+            case "isready":
+                ensureSearch();
+                send("readyok");
+                break;
+            case "setoption":
+                setOption(tokens);
+                break;
+            case "usinewgame":
+                stopSearch();
+                if (tt != null) {
+                    tt.clear();
+                }
+                break;
+            case "position":
+                stopSearch();
+                setPosition(tokens);
+                break;
+            case "go":
+                go(tokens);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "gameover":
+                stopSearch();
+                break;
+            case "quit":
+                return false;
+            default:
+                break; // Ismeretlen / üres parancs: az USI szerint figyelmen kívül hagyandó
+        }
+        return true;
+    }
+
+    // ===================================================================
+    //                          BEÁLLÍTÁSOK
+    // ===================================================================
+
+    /**
+     * "setoption name X value Y" (a név és az érték is tartalmazhat szóközt).
+     */
+    private void setOption(String[] tokens) {
+        StringBuilder name = new StringBuilder();
+        StringBuilder value = new StringBuilder();
+        StringBuilder target = null;
+        for (int i = 1; i < tokens.length; i++) {
+            if (tokens[i].equals("name")) {
+                target = name;
+            } else if (tokens[i].equals("value")) {
+                target = value;
+            } else if (target != null) {
+                if (target.length() > 0) {
+                    target.append(' ');
+                }
+                target.append(tokens[i]);
+            }
+        }
+
+        stopSearch();
+        try {
+            switch (name.toString()) {
+                case "USI_Hash":
+                case "Hash":
+                    hashMb = Math.max(1, Math.min(MAX_HASH_MB, Integer.parseInt(value.toString())));
+                    if (tt != null) {
+                        tt.resize(hashMb);
+                    }
+                    break;
+                case "Threads":
+                    threads = Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value.toString())));
+                    if (search != null && search.getThreads() != threads) {
+                        search.shutdown();
+                        search = null;
+                    }
+                    break;
+                case "EvalFile":
+                    String file = value.toString();
+                    network = file.isEmpty() || file.equals("<empty>") ? null : Network.load(Path.of(file));
+                    if (search != null) {
+                        search.setNetwork(network);
+                    }
+                    break;
+                default:
+                    send("info string unknown option " + name);
+                    break;
+            }
+        } catch (NumberFormatException | IOException e) {
+            send("info string invalid value for " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A kereső (és a tábla) létrehozása az aktuális beállításokkal, ha még nincs.
+     */
+    private void ensureSearch() {
+        if (tt == null) {
+            tt = new TranspositionTable(hashMb);
+        }
+        if (search == null) {
+            search = new ParallelSearch(threads, tt);
+            search.setNetwork(network);
+            search.setListener(this::sendInfo);
+        }
+    }
+
+    // ===================================================================
+    //                          ÁLLÁS
+    // ===================================================================
+
+    /**
+     * "position startpos|sfen ... [moves m1 m2 ...]"
+     */
+    private void setPosition(String[] tokens) {
+        int index = 1;
+        BitboardPosition pos;
+        try {
+            if (tokens.length > 1 && tokens[1].equals("startpos")) {
+                pos = Sfen.parse(Sfen.START);
+                index = 2;
+            } else if (tokens.length > 1 && tokens[1].equals("sfen")) {
+                StringBuilder sfen = new StringBuilder();
+                index = 2;
+                while (index < tokens.length && !tokens[index].equals("moves")) {
+                    sfen.append(tokens[index++]).append(' ');
+                }
+                pos = Sfen.parse(sfen.toString());
+            } else {
+                send("info string invalid position command");
+                return;
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            return;
+        }
+
+        if (index < tokens.length && tokens[index].equals("moves")) {
+            MoveGenerator generator = new MoveGenerator();
+            MoveList legal = new MoveList();
+            for (index++; index < tokens.length; index++) {
+                legal.clear();
+                generator.generateLegal(pos, legal);
+                int move = Move.parse(tokens[index], pos);
+                if (move == Move.NONE || !legal.contains(move)) {
+                    send("info string illegal move " + tokens[index]);
+                    break;
+                }
+                pos.doMove(move);
+            }
+        }
+        position = pos;
+    }
+
+    // ===================================================================
+    //                          KERESÉS
+    // ===================================================================
+
+    /**
+     * "go [ponder] [btime N] [wtime N] [byoyomi N] [binc N] [winc N]
+     * [movetime N] [depth N] [infinite]"
+     */
+    private void go(String[] tokens) {
+        stopSearch();
+        ensureSearch();
+
+        long[] time = new long[2];
+        long[] increment = new long[2];
+        long byoyomi = 0;
+        long moveTime = -1;
+        int depth = SearchLimits.MAX_DEPTH;
+        boolean infinite = false;
+        boolean ponder = false;
+        for (int i = 1; i < tokens.length; i++) {
+            String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+            try {
+                switch (tokens[i]) {
+                    case "ponder": ponder = true; break;
+                    case "infinite": infinite = true; break;
+                    case "btime": time[BitboardPosition.BLACK] = Long.parseLong(value); i++; break;
+                    case "wtime": time[BitboardPosition.WHITE] = Long.parseLong(value); i++; break;
+                    case "binc": increment[BitboardPosition.BLACK] = Long.parseLong(value); i++; break;
+                    case "winc": increment[BitboardPosition.WHITE] = Long.parseLong(value); i++; break;
+                    case "byoyomi": byoyomi = Long.parseLong(value); i++; break;
+                    case "movetime": moveTime = Long.parseLong(value); i++; break;
+                    case "depth": depth = Math.max(1, Integer.parseInt(value)); i++; break;
+                    default: break;
+                }
+            } catch (NumberFormatException e) {
+                send("info string invalid go parameter " + tokens[i] + " " + value);
+            }
+        }
+
+        int us = position.getSideToMove();
+        SearchLimits timed;
+        if (moveTime >= 0) {
+            long millis = Math.max(1, moveTime - TimeManager.MOVE_OVERHEAD);
+            timed = SearchLimits.time(millis, millis);
+        } else if (time[us] > 0 || byoyomi > 0 || increment[us] > 0) {
+            TimeControl control = TimeControl.of(time[us], byoyomi, increment[us]);
+            timed = TimeManager.allocate(control, time[us], time[us] + byoyomi);
+        } else {
+            timed = null;
+        }
+
+        SearchLimits limits;
+        if (infinite || ponder || timed == null) {
+            limits = SearchLimits.depth(depth);
+        } else {
+            limits = depth < SearchLimits.MAX_DEPTH
+                    ? SearchLimits.of(depth, timed.getTimeMillis())
+                    : timed;
+        }
+
+        synchronized (this) {
+            this.infinite = infinite || (timed == null && depth == SearchLimits.MAX_DEPTH);
+            pondering = ponder;
+            ponderMillis = timed != null ? timed.getSoftMillis() : -1;
+        }
+        BitboardPosition root = position.copy();
+        AtomicBoolean stop = new AtomicBoolean();
+        stopToken = stop;
+        searchThread = new Thread(() -> runSearch(root, limits, stop), "usi-search");
+        searchThread.setDaemon(true);
+        searchThread.start();
+    }
+
+    /**
+     * A keresés szála: keresés, ponder és infinite módban várakozás a
+     * ponderhit / stop / quit parancsra (akkor is, ha a keresés matt vagy a
+     * mélységkorlát miatt magától véget ért), majd a bestmove kiírása.
+     */
+    private void runSearch(BitboardPosition root, SearchLimits limits, AtomicBoolean stop) {
+        SearchResult result = search.search(root, limits, stop);
+        synchronized (this) {
+            while (pondering || infinite) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        int best = result.getBestMove();
+        if (best == Move.NONE) {
+            send("bestmove resign");
+            return;
+        }
+        int[] pv = result.getPv();
+        send("bestmove " + Move.toString(best) + (pv.length > 1 ? " ponder " + Move.toString(pv[1]) : ""));
+    }
+
+    /**
+     * Az ellenfél a várt lépést tette: a ponder keresés rendes keresésként
+     * folytatódik, és a beosztott idő után leáll.
+     */
+    private void ponderHit() {
+        long millis;
+        synchronized (this) {
+            if (!pondering) {
+                return;
+            }
+            pondering = false;
+            millis = ponderMillis;
+            notifyAll();
+        }
+        if (millis < 0) {
+            return; // időkorlát nélküli ponder: stop parancsig fut
+        }
+        AtomicBoolean stop = stopToken;
+        ponderTimer = new Thread(() -> {
+            try {
+                Thread.sleep(millis);
+                stop.set(true);
+            } catch (InterruptedException e) {
+                // A keresés közben véget ért
+            }
+        }, "usi-ponder-timer");
+        ponderTimer.setDaemon(true);
+        ponderTimer.start();
+    }
+
+    /**
+     * @return true, ha a futó keresés bestmove-ja stop parancsra vár
+     */
+    private synchronized boolean waitsForStop() {
+        return pondering || infinite;
+    }
+
+    /**
+     * A futó keresés megvárása leállítás nélkül.
+     */
+    private void waitSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A futó keresés leállítása és megvárása (a bestmove ilyenkor is kimegy).
+     */
+    private void stopSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        synchronized (this) {
+            pondering = false;
+            infinite = false;
+            notifyAll();
+        }
+        stopToken.set(true);
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+        stopToken = null;
+        if (ponderTimer != null) {
+            ponderTimer.interrupt();
+            ponderTimer = null;
+        }
+    }
+
+    // ===================================================================
+    //                          KIMENET
+    // ===================================================================
+
+    /**
+     * Iterációnkénti "info" sor.
+     */
+    private void sendInfo(SearchResult result) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("info depth ").append(result.getDepth());
+        int score = result.getScore();
+        if (Math.abs(score) >= Search.MATE_BOUND) {
+            int plies = Search.MATE - Math.abs(score);
+            sb.append(" score mate ").append(score > 0 ? plies : -plies);
+        } else {
+            sb.append(" score cp ").append(score);
+        }
+        sb.append(" nodes ").append(result.getNodes())
+          .append(" nps ").append(result.getNodesPerSecond())
+          .append(" time ").append(result.getTimeMillis());
+        if (tt != null) {
+            sb.append(" hashfull ").append(tt.hashfull());
+        }
+        int[] pv = result.getPv();
+        if (pv.length > 0) {
+            sb.append(" pv");
+            for (int move : pv) {
+                sb.append(' ').append(Move.toString(move));
+            }
+        }
+        send(sb.toString());
+    }
+
+    /**
+     * Egy sor kiírása (több szálról is hívható).
+     */
+    private synchronized void send(String line) {
+        out.println(line);
+        out.flush();
+    }
+}
@@ -0,0 +1,158 @@
+package shogi.engine;
+
+import shogi.model.Attacks;
+import shogi.model.Bitboard;
+import shogi.model.BitboardPosition;
+import shogi.model.PieceSquare;
+
+/**
+ * Statikus értékelés: anyag (tábla + kéz) és pozíciós (mezőtáblás) pontok
+ * ({@link PieceSquare}, az állásban növekményesen vezetve),
+ * valamint egyszerű királybiztonság (arany/ezüst a király mellett).
+ *
+ * Ha hálózat van beállítva ({@link #setNetwork}), helyette a {@link Nnue}
+ * értékel; ehhez a keresőnek minden lépést jeleznie kell ({@link #push},
+ * {@link #pushNull}, {@link #pop}) - hálózat nélkül ezek üres műveletek.
+ *
+ * Az érték centipawn jellegű egységben, a lépésen lévő fél szemszögéből
+ * (negamax konvenció) értendő. Egy példány belső munkaterületeket használ
+ * (nincs foglalás értékelésenként), ezért keresőszálanként egy kell.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class Evaluator {
+
+    /** Táblán lévő bábuk értéke típusindex szerint (BitboardPosition.PAWN..DRAGON) */
+    public static final int[] PIECE_VALUE = PieceSquare.PIECE_VALUE;
+
+    /** Kézben lévő bábuk értéke (kicsit több, mint a táblán: bárhová ledobható) */
+    public static final int[] HAND_VALUE = PieceSquare.HAND_VALUE;
+
+    /** Arany / ezüst a király szomszédságában */
+    private static final int KING_GUARD_BONUS = 15;
+
+    /** Munkaterület a király szomszédságához */
+    private final Bitboard guards = new Bitboard();
+
+    /** NNUE értékelő (null = klasszikus értékelés) */
+    private Nnue nnue;
+
+    /**
+     * @param color szín index
+     * @param kind típusindex
+     * @param sq mező index
+     * @return a bábu teljes értéke a mezőn (anyag + pozíció)
+     */
+    public static int pieceScore(int color, int kind, int sq) {
+        return PieceSquare.score(color, kind, sq);
+    }
+
+    // ===================================================================
+    //                          NNUE
+    // ===================================================================
+
+    /**
+     * Neurális értékelés be- vagy kikapcsolása (keresés közben nem hívható).
+     *
+     * @param network a hálózat (null = klasszikus értékelés)
+     */
+    public void setNetwork(Network network) {
+        nnue = network == null ? null : new Nnue(network, Search.MAX_PLY + 1);
+    }
+
+    /**
+     * @return a beállított hálózat, vagy null
+     */
+    public Network getNetwork() {
+        return nnue == null ? null : nnue.getNetwork();
+    }
+
+    /**
+     * Új gyökérállás a keresés elején.
+     *
+     * @param pos az állás
+     */
+    public void reset(BitboardPosition pos) {
+        if (nnue != null) {
+            nnue.reset(pos);
+        }
+    }
+
+    /**
+     * Lépés bejelentése a doMove előtt.
+     *
+     * @param pos az állás a lépés előtt
+     * @param move a lépés
+     */
+    public void push(BitboardPosition pos, int move) {
+        if (nnue != null) {
+            nnue.push(pos, move);
+        }
+    }
+
+    /**
+     * Nullalépés bejelentése.
+     */
+    public void pushNull() {
+        if (nnue != null) {
+            nnue.pushNull();
+        }
+    }
+
+    /**
+     * Visszalépés az undoMove után.
+     */
+    public void pop() {
+        if (nnue != null) {
+            nnue.pop();
+        }
+    }
+
+    // ===================================================================
+    //                          ÉRTÉKELÉS
+    // ===================================================================
+
+    /**
+     * Az állás értéke a lépésen lévő fél szemszögéből.
+     *
+     * Az anyag, a kéz és a mezőtáblás pontok az állásban növekményesen
+     * vezetett összegekből jönnek (lásd {@link BitboardPosition#getBoardScore}),
+     * csak a királybiztonságot kell levélenként számolni. Bekapcsolt
+     * assertionökkel (-ea) minden értékelés a teljes újraszámolással
+     * is ellenőrzi az összegeket.
+     *
+     * @param pos az állás
+     * @return pozitív, ha a lépésen lévő fél áll jobban
+     */
+    public int evaluate(BitboardPosition pos) {
+        if (nnue != null) {
+            // A hálózat kimenete nem tévedhet a mattértékek közé
+            return Math.max(-Search.MATE_BOUND + 1, Math.min(Search.MATE_BOUND - 1, nnue.evaluate(pos)));
+        }
+        assert pos.verifyScores(BitboardPosition.BLACK) && pos.verifyScores(BitboardPosition.WHITE)
+                : "Eltérő növekményes pontok";
+        int score = pos.getBoardScore(BitboardPosition.BLACK) + pos.getHandScore(BitboardPosition.BLACK)
+                + kingSafety(pos, BitboardPosition.BLACK)
+                - pos.getBoardScore(BitboardPosition.WHITE) - pos.getHandScore(BitboardPosition.WHITE)
+                - kingSafety(pos, BitboardPosition.WHITE);
+        return pos.getSideToMove() == BitboardPosition.BLACK ? score : -score;
+    }
+
+    /**
+     * Királybiztonság: arany/ezüst a király mellett.
+     */
+    private int kingSafety(BitboardPosition pos, int color) {
+        int score = 0;
+        int king = pos.kingSquare(color);
+        if (king >= 0) {
+            Attacks.stepAttacks(color, BitboardPosition.KING, king, guards).and(pos.pieces(color));
+            while (!guards.isEmpty()) {
+                int kind = pos.kindAt(guards.popLsb());
+                if (kind == BitboardPosition.GOLD || kind == BitboardPosition.SILVER) {
+                    score += KING_GUARD_BONUS;
+                }
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,111 @@
+package shogi.engine;
+
+import shogi.model.Move;
+
+/**
+ * A mattkereső eredménye: matt (a lépéssorral), nincs matt, vagy
+ * ismeretlen (a csomópont- vagy mélységkorlát elfogyott).
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class MateResult {
+
+    /**
+     * A megoldás állapota.
+     */
+    public enum Status {
+        /** A támadó folyamatos sakkokkal mattot ad */
+        MATE,
+        /** Bizonyítottan nincs matt (folyamatos sakkokkal) */
+        NO_MATE,
+        /** Nem dőlt el a korlátokon belül */
+        UNKNOWN
+    }
+
+    /** Állapot */
+    private final Status status;
+
+    /** A matt lépéssora (támadó, védő, ..., utolsó támadó lépés) */
+    private final int[] moves;
+
+    /** Vizsgált csomópontok száma */
+    private final long nodes;
+
+    /** Eltelt idő ezredmásodpercben */
+    private final long timeMillis;
+
+    /**
+     * @param status állapot
+     * @param moves a matt lépéssora (üres, ha nincs matt)
+     * @param nodes csomópontok
+     * @param timeMillis eltelt idő
+     */
+    public MateResult(Status status, int[] moves, long nodes, long timeMillis) {
+        this.status = status;
+        this.moves = moves.clone();
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    /**
+     * @return az állapot
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true, ha van matt
+     */
+    public boolean isMate() {
+        return status == Status.MATE;
+    }
+
+    /**
+     * @return a matt lépéssora ({@link Move} kódolás, másolat)
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * @return a matt hossza ply-ban (0, ha nincs matt)
+     */
+    public int getLength() {
+        return moves.length;
+    }
+
+    /**
+     * @return a csomópontok száma
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return az eltelt idő ezredmásodpercben
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        switch (status) {
+            case MATE:
+                sb.append("mate in ").append(moves.length).append(':');
+                for (int move : moves) {
+                    sb.append(' ').append(Move.toString(move));
+                }
+                break;
+            case NO_MATE:
+                sb.append("no mate");
+                break;
+            default:
+                sb.append("unknown");
+                break;
+        }
+        return sb.append(" (nodes=").append(nodes).append(" time=").append(timeMillis).append("ms)").toString();
+    }
+}
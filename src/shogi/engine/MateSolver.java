@@ -0,0 +1,474 @@
+package shogi.engine;
+
+import shogi.model.*;
+
+import java.util.Arrays;
+
+/**
+ * Tsume (mattfeladvány) megoldó mélységi bizonyítószám-kereséssel (df-pn).
+ *
+ * A lépésen lévő fél (támadó) csak sakkot adó lépéseket tehet, a védő
+ * minden legális lépést (kitérést). A csomópontok a lépő fél szemszögéből
+ * két számot kapnak: phi (mennyi levelet kell még bizonyítani, hogy a
+ * lépő fél nyer) és delta (hogy veszít). Egy csomópont phi értéke a
+ * gyerekek delta értékeinek minimuma, delta értéke a gyerekek phi
+ * értékeinek összege; a kereső mindig a legkisebb delta-jú gyereket
+ * bontja ki, küszöbökkel, amíg a csomópont értéke a küszöbön belül marad.
+ * Így a keresés a legígéretesebb ágra fókuszál, a részeredmények pedig
+ * a saját táblában ({@link MateTable}) maradnak meg.
+ *
+ * A tiszta df-pn a sok egyetlen kitérést hagyó sakk láncain (ahol a
+ * bizonyító szám végig 1) tetszőleges mélységbe merülhet, mielőtt egy
+ * rövid mattot megnézne. Ezért a mattsor hossza iteratívan mélyül
+ * (1, 3, 5, ... ply); a cáfolatok a horizontjukkal együtt tárolódnak
+ * (ennyi ply-on belül nincs matt), így a következő iteráció csak a
+ * rövidebb horizontú cáfolatokat bontja ki újra, a bizonyítások pedig
+ * mindig érvényesek maradnak.
+ *
+ * Szabályok:
+ * - ledobások, a gyalogledobásos matt tilalma és a többi ledobási szabály
+ *   a lépésgenerátorból jön,
+ * - ha a támadónak nincs sakkot adó lépése, nincs matt; ha a védőnek
+ *   nincs legális lépése, matt,
+ * - az ismétlődés (folyamatos sakkal) a támadó kudarca.
+ *
+ * A lépéssor kinyerésekor a támadó a legrövidebb, a védő a leghosszabb
+ * ismert mattot választja.
+ *
+ * A tábla a megoldások között megmarad, így sok feladat egymás után egy
+ * példánnyal futtatható. A phi / delta értékek a támadó színétől függnek
+ * (a támadó csak sakkot adhat, a védő bármit léphet), ezért a tábla
+ * kulcsa az állás kulcsa és a támadó színe együtt: ugyanaz az állás
+ * fekete és fehér támadóval külön bejegyzés.
+ * Nem szálbiztos: szálanként egy példány kell.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class MateSolver {
+
+    /** "Végtelen" bizonyító / cáfoló szám (összegzésnél telítődik) */
+    static final int INFINITE = 1 << 28;
+
+    /** A kereshető leghosszabb matt (ply) */
+    public static final int MAX_PLY = 255;
+
+    /** Alapértelmezett leghosszabb keresett matt (ply) */
+    public static final int DEFAULT_MAX_PLY = 63;
+
+    /** Alapértelmezett táblaméret (MB) */
+    public static final int DEFAULT_HASH_MB = 64;
+
+    /** Alapértelmezett csomópontkorlát feladatonként */
+    public static final long DEFAULT_MAX_NODES = 10_000_000;
+
+    /** Mélységtől független cáfolat horizontja (nincs sakkot adó lépés) */
+    private static final int HORIZON_ALL = 1 << 20;
+
+    /** Fehér támadónál a tábla kulcsához XOR-olt állandó */
+    private static final long WHITE_ATTACKER_SALT = 0x9E3779B97F4A7C15L;
+
+    /** Lépésgenerátor */
+    private final MoveGenerator generator = new MoveGenerator();
+
+    /** Saját hash tábla */
+    private final MateTable table;
+
+    /** Ply-onkénti lépések (a terminális állás és a gyerekek kezdőértékéhez +2) */
+    private final int[][] moves = new int[MAX_PLY + 2][MoveGenerator.MAX_MOVES];
+
+    /** Ply-onként a lépések utáni állások kulcsai */
+    private final long[][] childKeys = new long[MAX_PLY + 2][MoveGenerator.MAX_MOVES];
+
+    /** Az aktuális út állásainak kulcsai (ismétlődés felismeréséhez) */
+    private final long[] path = new long[MAX_PLY + 2];
+
+    /** A támadó színe */
+    private int attacker;
+
+    /** A tábla kulcsának módosítója az aktuális támadóhoz (0 vagy {@link #WHITE_ATTACKER_SALT}) */
+    private long keySalt;
+
+    /** Csomópontkorlát */
+    private long maxNodes = DEFAULT_MAX_NODES;
+
+    /** Leghosszabb keresett matt */
+    private int maxPly = DEFAULT_MAX_PLY;
+
+    /** Az aktuális iteráció mattsor-hossz korlátja */
+    private int limit;
+
+    /** Vizsgált csomópontok */
+    private long nodes;
+
+    /** Eddig a csomópontszámig folytatható a keresés */
+    private long nodeLimit;
+
+    /** A csomópontkorlát elfogyott */
+    private boolean aborted;
+
+    /**
+     * Megoldó alapértelmezett táblamérettel.
+     */
+    public MateSolver() {
+        this(DEFAULT_HASH_MB);
+    }
+
+    /**
+     * @param hashMegabytes a saját tábla mérete MB-ban
+     */
+    public MateSolver(int hashMegabytes) {
+        table = new MateTable(hashMegabytes);
+    }
+
+    /**
+     * @param maxNodes csomópontkorlát feladatonként (utána az eredmény UNKNOWN)
+     */
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = Math.max(1, maxNodes);
+    }
+
+    /**
+     * @param maxPly a leghosszabb keresett matt (1..MAX_PLY); ha ezen belül
+     *        nincs matt, az eredmény NO_MATE
+     */
+    public void setMaxPly(int maxPly) {
+        this.maxPly = Math.max(1, Math.min(maxPly, MAX_PLY));
+    }
+
+    /**
+     * A tábla törlése (a megoldások nem függnek tőle, csak a sebesség).
+     */
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * Matt keresése a játék aktuális állásában; a támadó a lépésen lévő fél.
+     *
+     * @param game a játék (nem módosul)
+     * @return az eredmény
+     */
+    public MateResult solve(ShogiGame game) {
+        return solve(game.toBitboardPosition());
+    }
+
+    /**
+     * Matt keresése; a támadó a lépésen lévő fél.
+     *
+     * @param position az állás (nem módosul, a keresés másolaton fut)
+     * @return az eredmény
+     */
+    public MateResult solve(BitboardPosition position) {
+        long start = System.nanoTime();
+        BitboardPosition pos = position.copy();
+        long key = pos.getKey();
+        attacker = pos.getSideToMove();
+        keySalt = attacker == BitboardPosition.WHITE ? WHITE_ATTACKER_SALT : 0;
+        nodes = 0;
+        nodeLimit = maxNodes;
+        aborted = false;
+
+        MateResult.Status status = MateResult.Status.UNKNOWN;
+        int[] line = new int[0];
+        limit = 1;
+        while (true) {
+            mid(pos, INFINITE, INFINITE, 0);
+            int index = table.find(key ^ keySalt);
+            if (index >= 0 && table.phi(index) == 0) {
+                // A lépéssorhoz újramegoldott ágak saját keretet kapnak
+                // (ugyanazzal a hosszkorláttal, amelyen a bizonyítás sikerült)
+                aborted = false;
+                nodeLimit = nodes + maxNodes;
+                int[] found = extractLine(pos);
+                if (found != null) {
+                    status = MateResult.Status.MATE;
+                    line = found;
+                }
+                break;
+            }
+            if (aborted || index < 0) {
+                break;
+            }
+            int horizon = table.depth(index); // a gyökér cáfolt: ennyin belül nincs matt
+            if (horizon >= maxPly || limit >= maxPly) {
+                status = MateResult.Status.NO_MATE;
+                break;
+            }
+            limit = Math.min(maxPly, Math.max(limit + 2, horizon + 1) | 1);
+        }
+        return new MateResult(status, line, nodes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // ===================================================================
+    //                              DF-PN
+    // ===================================================================
+
+    /**
+     * Egy csomópont kibontása, amíg phi &lt; thPhi és delta &lt; thDelta.
+     * Az eredmény a táblába kerül.
+     */
+    private void mid(BitboardPosition pos, int thPhi, int thDelta, int ply) {
+        long key = pos.getKey();
+        long startNodes = nodes++;
+        boolean defender = pos.getSideToMove() != attacker;
+        int count = generate(pos, ply);
+        if (count == 0) {
+            // A lépő fél veszít: a támadó nem tud sakkot adni, vagy a védő matt
+            table.store(key ^ keySalt, INFINITE, 0, defender ? 0 : HORIZON_ALL, 1);
+            return;
+        }
+        int[] list = moves[ply];
+        long[] keys = childKeys[ply];
+        for (int i = 0; i < count; i++) {
+            keys[i] = pos.keyAfter(list[i]);
+        }
+        path[ply] = key;
+        if (!defender && table.find(key ^ keySalt) < 0) {
+            initChildren(pos, count, ply);
+        }
+        int childHorizon = limit - ply - 1;
+
+        while (true) {
+            int phi = INFINITE;
+            long deltaSum = 0;
+            int best = -1;
+            int bestPhi = 0;
+            int secondDelta = INFINITE;
+            // A támadó szemszögéből: a nyerő gyerekek mattjának legjobb hossza,
+            // a vesztes gyerekek horizontjának legjobb értéke (a lépő fél választ)
+            int winDepth = defender ? 0 : INFINITE;
+            int failDepth = defender ? 0 : HORIZON_ALL;
+            for (int i = 0; i < count; i++) {
+                long childKey = keys[i];
+                int childPhi = 1;
+                int childDelta = 1;
+                int childDepth = 0;
+                if (onPath(childKey, ply)) {
+                    // Ismétlődés: a támadó kudarca, de csak ezen az úton - a
+                    // horizont ezért csak erre az iterációra szól
+                    childPhi = defender ? INFINITE : 0;
+                    childDelta = defender ? 0 : INFINITE;
+                    childDepth = Math.max(0, childHorizon);
+                } else {
+                    int index = table.find(childKey ^ keySalt);
+                    if (index >= 0) {
+                        childPhi = table.phi(index);
+                        childDelta = table.delta(index);
+                        childDepth = table.depth(index);
+                        // A rövidebb horizonttal cáfolt gyerek ebben az iterációban újra nyitott
+                        boolean failed = defender ? childDelta == 0 : childPhi == 0;
+                        if (failed && childDepth < childHorizon) {
+                            childPhi = 1;
+                            childDelta = 1;
+                        }
+                    }
+                    boolean won = defender ? childPhi == 0 : childDelta == 0;
+                    if (!won && childHorizon <= 0) {
+                        // Elérte a hosszkorlátot: ebben az iterációban kudarc
+                        childPhi = defender ? INFINITE : 0;
+                        childDelta = defender ? 0 : INFINITE;
+                        childDepth = 0;
+                    }
+                }
+                if (childDelta < phi) {
+                    secondDelta = phi;
+                    phi = childDelta;
+                    best = i;
+                    bestPhi = childPhi;
+                } else if (childDelta < secondDelta) {
+                    secondDelta = childDelta;
+                }
+                deltaSum += childPhi;
+                if (defender ? childPhi == 0 : childDelta == 0) {
+                    winDepth = defender ? Math.max(winDepth, childDepth + 1) : Math.min(winDepth, childDepth + 1);
+                } else if (defender ? childDelta == 0 : childPhi == 0) {
+                    failDepth = defender ? Math.max(failDepth, childDepth + 1) : Math.min(failDepth, childDepth + 1);
+                }
+            }
+            int delta = (int) Math.min(deltaSum, INFINITE);
+
+            if (nodes >= nodeLimit) {
+                aborted = true;
+            }
+            if (phi >= thPhi || delta >= thDelta || aborted) {
+                int depth = 0;
+                if (phi == 0) {
+                    depth = defender ? failDepth : winDepth;
+                } else if (delta == 0) {
+                    depth = defender ? winDepth : failDepth;
+                }
+                table.store(key ^ keySalt, phi, delta, Math.min(depth, HORIZON_ALL), nodes - startNodes);
+                return;
+            }
+
+            // A gyerek küszöbei: cáfolat a szülő delta küszöbéig, bizonyítás
+            // a második legjobb testvérig (1 + 1/4 szorzóval a kapkodás ellen)
+            int childThPhi = (int) Math.min((long) thDelta - delta + bestPhi, INFINITE);
+            int childThDelta = (int) Math.min(thPhi, secondDelta + (secondDelta >> 2) + 1L);
+            int move = list[best];
+            pos.doMove(move);
+            mid(pos, childThPhi, childThDelta, ply + 1);
+            pos.undoMove(move);
+        }
+    }
+
+    /**
+     * A támadó csomópont első kibontásakor a gyerekek kezdőértéke: a
+     * védő kitéréseinek száma (ennyi ágat kell cáfolni), kitérés nélkül
+     * pedig azonnali matt. Így a kevés kitérést hagyó sakkok kerülnek előre.
+     */
+    private void initChildren(BitboardPosition pos, int count, int ply) {
+        int[] list = moves[ply];
+        long[] keys = childKeys[ply];
+        int[] evasions = moves[ply + 1];
+        for (int i = 0; i < count; i++) {
+            if (table.find(keys[i] ^ keySalt) >= 0) {
+                continue;
+            }
+            pos.doMove(list[i]);
+            int replies = generator.generateLegal(pos, evasions);
+            pos.undoMove(list[i]);
+            nodes++;
+            if (replies == 0) {
+                table.store(keys[i] ^ keySalt, INFINITE, 0, 0, 1); // matt: a védő veszít
+                return;
+            }
+            table.store(keys[i] ^ keySalt, 1, replies, 0, 1);
+        }
+    }
+
+    /**
+     * A csomópont lépései: a támadónál a sakkot adók, a védőnél az összes legális.
+     *
+     * @return a lépések száma (moves[ply] tömbben)
+     */
+    private int generate(BitboardPosition pos, int ply) {
+        int[] list = moves[ply];
+        int count = generator.generateLegal(pos, list);
+        if (pos.getSideToMove() != attacker) {
+            return count;
+        }
+        int checks = 0;
+        for (int i = 0; i < count; i++) {
+            if (generator.givesCheck(pos, list[i])) {
+                list[checks++] = list[i];
+            }
+        }
+        return checks;
+    }
+
+    /**
+     * @return true, ha a kulcs már szerepel az aktuális úton (ismétlődés)
+     */
+    private boolean onPath(long key, int ply) {
+        for (int i = ply - 1; i >= 0; i -= 2) {
+            if (path[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ===================================================================
+    //                          LÉPÉSSOR
+    // ===================================================================
+
+    /**
+     * A bizonyított gyökérből a mattsor kinyerése: a támadó a legrövidebb,
+     * a védő a leghosszabb ismert mattot választja. A táblából közben
+     * kiszorult gyerekeket újra megoldja.
+     *
+     * @return a lépéssor, vagy null ha nem sikerült végigjárni
+     */
+    private int[] extractLine(BitboardPosition pos) {
+        int[] line = new int[MAX_PLY];
+        int length = 0;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            boolean defender = pos.getSideToMove() != attacker;
+            int count = generate(pos, ply);
+            if (count == 0) {
+                // A védő mattot kapott (a támadónál ide nem juthatunk bizonyított úton)
+                return defender ? Arrays.copyOf(line, length) : null;
+            }
+            path[ply] = pos.getKey();
+            int chosen = defender ? chooseDefence(pos, count, ply) : chooseAttack(pos, count, ply, false);
+            if (chosen == Move.NONE && !defender) {
+                chosen = chooseAttack(pos, count, ply, true);
+            }
+            if (chosen == Move.NONE) {
+                return null;
+            }
+            line[length++] = chosen;
+            pos.doMove(chosen);
+        }
+        return null;
+    }
+
+    /**
+     * A támadó lépése a mattsorban: a bizonyított gyerekek közül a
+     * legrövidebb matt.
+     *
+     * @param resolve a táblából kiszorult gyerekek újramegoldása (csak ha
+     *        a táblában nem maradt bizonyított gyerek)
+     * @return a lépés, vagy Move.NONE
+     */
+    private int chooseAttack(BitboardPosition pos, int count, int ply, boolean resolve) {
+        int[] list = moves[ply];
+        int chosen = Move.NONE;
+        int chosenLength = INFINITE;
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            long childKey = pos.keyAfter(move);
+            if (onPath(childKey, ply)) {
+                continue;
+            }
+            int index = table.find(childKey ^ keySalt);
+            if (index < 0 && resolve) {
+                pos.doMove(move);
+                mid(pos, INFINITE, INFINITE, ply + 1);
+                pos.undoMove(move);
+                index = table.find(childKey ^ keySalt);
+            }
+            if (index >= 0 && table.delta(index) == 0 && table.depth(index) < chosenLength) {
+                chosen = move;
+                chosenLength = table.depth(index);
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * A védő lépése a mattsorban: minden kitérésnek bizonyítottnak kell
+     * lennie (a kiszorult vagy nem eldöntött ágak újramegoldásával); a
+     * leghosszabb matt.
+     *
+     * @return a lépés, vagy Move.NONE ha a védőnek mégis van menekülése
+     */
+    private int chooseDefence(BitboardPosition pos, int count, int ply) {
+        int[] list = moves[ply];
+        int chosen = Move.NONE;
+        int chosenLength = -1;
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            long childKey = pos.keyAfter(move);
+            if (onPath(childKey, ply)) {
+                return Move.NONE; // ismétléssel menekül
+            }
+            int index = table.find(childKey ^ keySalt);
+            if (index < 0 || table.phi(index) != 0) {
+                pos.doMove(move);
+                mid(pos, INFINITE, INFINITE, ply + 1);
+                pos.undoMove(move);
+                index = table.find(childKey ^ keySalt);
+                if (index < 0 || table.phi(index) != 0) {
+                    return Move.NONE;
+                }
+            }
+            if (table.depth(index) > chosenLength) {
+                chosen = move;
+                chosenLength = table.depth(index);
+            }
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,119 @@
+package shogi.engine;
+
+import java.util.Arrays;
+
+/**
+ * A mattkereső (df-pn) saját hash táblája: állásonként a bizonyító és
+ * cáfoló szám (a lépésen lévő fél szemszögéből), egy mélység adat és a
+ * bejegyzés mögötti munka (csomópontszám). A mélység adat bizonyított
+ * mattnál a matt hossza, cáfolt állásnál a cáfolat horizontja (ennyi
+ * ply-on belül biztosan nincs matt).
+ *
+ * Kétutas vödrök: azonos kulcs felülíródik, különben az üres vagy a
+ * kevesebb munkát őrző bejegyzés cserélődik - a sokáig számolt
+ * részfák eredménye marad meg. Egyszálú használatra (a kereső saját
+ * példánya), ezért egyszerű párhuzamos tömbök, zár nélkül.
+ *
+ * @author Domokos Erik Zsolt
+ */
+final class MateTable {
+
+    /** Egy bejegyzés mérete bájtban (kulcs, phi, delta, hossz, munka) */
+    private static final int ENTRY_BYTES = 24;
+
+    /** Kulcsok */
+    private long[] keys;
+
+    /** Bizonyító szám a lépő fél szemszögéből (0 = a lépő fél nyer) */
+    private int[] phis;
+
+    /** Cáfoló szám a lépő fél szemszögéből (0 = a lépő fél veszít) */
+    private int[] deltas;
+
+    /** Matt hossza, illetve cáfolat horizontja ply-ban */
+    private int[] depths;
+
+    /** A bejegyzés mögötti munka (0 = üres bejegyzés) */
+    private int[] works;
+
+    /** Index maszk (vödrök száma - 1) */
+    private int mask;
+
+    /**
+     * @param megabytes a tábla mérete MB-ban (legalább 1)
+     */
+    MateTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        int entries = (int) Math.min(Long.highestOneBit(bytes / ENTRY_BYTES), 1 << 28);
+        keys = new long[entries];
+        phis = new int[entries];
+        deltas = new int[entries];
+        depths = new int[entries];
+        works = new int[entries];
+        mask = entries / 2 - 1;
+    }
+
+    /**
+     * A teljes tartalom törlése.
+     */
+    void clear() {
+        Arrays.fill(works, 0);
+    }
+
+    /**
+     * @param key állás kulcs
+     * @return a bejegyzés indexe, vagy -1 ha nincs a táblában
+     */
+    int find(long key) {
+        int i = ((int) (key ^ (key >>> 32)) & mask) << 1;
+        if (works[i] != 0 && keys[i] == key) {
+            return i;
+        }
+        if (works[i + 1] != 0 && keys[i + 1] == key) {
+            return i + 1;
+        }
+        return -1;
+    }
+
+    int phi(int index) {
+        return phis[index];
+    }
+
+    int delta(int index) {
+        return deltas[index];
+    }
+
+    int depth(int index) {
+        return depths[index];
+    }
+
+    /**
+     * Bejegyzés tárolása.
+     *
+     * @param key állás kulcs
+     * @param phi bizonyító szám
+     * @param delta cáfoló szám
+     * @param depth matt hossza / cáfolat horizontja (csak eldöntött állásnál értelmes)
+     * @param work az eredmény mögötti csomópontok száma
+     */
+    void store(long key, int phi, int delta, int depth, long work) {
+        int i = ((int) (key ^ (key >>> 32)) & mask) << 1;
+        int slot;
+        if (works[i] != 0 && keys[i] == key) {
+            slot = i;
+        } else if (works[i + 1] != 0 && keys[i + 1] == key) {
+            slot = i + 1;
+        } else if (works[i] == 0) {
+            slot = i;
+        } else if (works[i + 1] == 0) {
+            slot = i + 1;
+        } else {
+            slot = works[i] <= works[i + 1] ? i : i + 1;
+        }
+        keys[slot] = key;
+        phis[slot] = phi;
+        deltas[slot] = delta;
+        depths[slot] = depth;
+        works[slot] = (int) Math.max(1, Math.min(work, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,162 @@
+package shogi.engine;
+
+import shogi.model.Bitboard;
+import shogi.model.BitboardPosition;
+import shogi.model.Move;
+
+import java.util.Arrays;
+
+/**
+ * A csendes lépések rendezéséhez gyűjtött statisztikák:
+ * - killer lépések: ply-onként az utolsó két béta vágást okozó csendes lépés,
+ * - ellenlépések (counter-move): az ellenfél előző lépésére (bábu, célmező)
+ *   legutóbb vágást adó válasz,
+ * - "pillangó" history: színenként [honnan][hová] pontszám; ledobásnál a
+ *   "honnan" a ledobott típus (81 + típus). Vágásnál a lépés jutalmat, az
+ *   előtte hiába kipróbált csendes lépések büntetést kapnak.
+ *
+ * Keresőszálanként egy példány (nem szálbiztos).
+ *
+ * @author Domokos Erik Zsolt
+ */
+final class MoveHistory {
+
+    /** A history pontszámok abszolút korlátja */
+    static final int MAX_HISTORY = 16384;
+
+    /** Egy frissítés legnagyobb jutalma */
+    private static final int MAX_BONUS = 1200;
+
+    /** A "honnan" indexek száma: 81 mező + 7 ledobható típus */
+    private static final int FROM_INDEXES = Bitboard.SQUARES + BitboardPosition.HAND_KINDS;
+
+    /** History: [szín][honnan * 81 + hová] */
+    private final int[][] butterfly = new int[2][FROM_INDEXES * Bitboard.SQUARES];
+
+    /** Ellenlépések: [szín][az előző lépés bábuja * 81 + célmezője] */
+    private final int[][] counterMoves = new int[2][BitboardPosition.KIND_COUNT * Bitboard.SQUARES];
+
+    /** Killer lépések: [ply][0..1] */
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+
+    /**
+     * Új keresés: a killerek törlődnek, a history felére csökken
+     * (a korábbi keresés tapasztalata még hasznos, de ne uralkodjon).
+     */
+    void newSearch() {
+        for (int[] pair : killers) {
+            pair[0] = Move.NONE;
+            pair[1] = Move.NONE;
+        }
+        for (int[] table : butterfly) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Minden statisztika törlése (új játszma).
+     */
+    void clear() {
+        for (int[] table : butterfly) {
+            Arrays.fill(table, 0);
+        }
+        for (int[] table : counterMoves) {
+            Arrays.fill(table, 0);
+        }
+        for (int[] pair : killers) {
+            Arrays.fill(pair, Move.NONE);
+        }
+    }
+
+    /**
+     * @return true, ha a lépés csendes (nem ütés és nem promóció)
+     */
+    static boolean isQuiet(int move) {
+        return !Move.isCapture(move) && !Move.isPromotion(move);
+    }
+
+    // ===================================================================
+    //                              LEKÉRDEZÉS
+    // ===================================================================
+
+    /**
+     * @param color a lépő szín
+     * @param move a lépés
+     * @return a lépés history pontszáma
+     */
+    int score(int color, int move) {
+        return butterfly[color][index(move)];
+    }
+
+    /**
+     * @param ply a csomópont távolsága a gyökértől
+     * @param slot 0 vagy 1
+     * @return a killer lépés (Move.NONE, ha nincs)
+     */
+    int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    /**
+     * @param color a lépő szín
+     * @param previous az ellenfél előző lépése
+     * @return a hozzá tartozó ellenlépés (Move.NONE, ha nincs)
+     */
+    int counterMove(int color, int previous) {
+        return previous == Move.NONE ? Move.NONE : counterMoves[color][counterIndex(previous)];
+    }
+
+    // ===================================================================
+    //                              FRISSÍTÉS
+    // ===================================================================
+
+    /**
+     * Béta vágás egy csendes lépéssel: killer, ellenlépés és history frissítése.
+     *
+     * @param color a lépő szín
+     * @param move a vágást okozó lépés
+     * @param previous az ellenfél előző lépése (Move.NONE, ha nincs)
+     * @param ply a csomópont távolsága a gyökértől
+     * @param depth a hátralévő mélység
+     * @param tried a vágás előtt hiába kipróbált csendes lépések
+     * @param triedCount a tried tömbből használt elemek száma
+     */
+    void onCutoff(int color, int move, int previous, int ply, int depth, int[] tried, int triedCount) {
+        int[] pair = killers[ply];
+        if (pair[0] != move) {
+            pair[1] = pair[0];
+            pair[0] = move;
+        }
+        if (previous != Move.NONE) {
+            counterMoves[color][counterIndex(previous)] = move;
+        }
+
+        int bonus = Math.min(depth * depth * 16, MAX_BONUS);
+        int[] table = butterfly[color];
+        add(table, index(move), bonus);
+        for (int i = 0; i < triedCount; i++) {
+            add(table, index(tried[i]), -bonus);
+        }
+    }
+
+    /**
+     * Telítődő frissítés: a pontszám a ±MAX_HISTORY tartományban marad,
+     * és a nagy értékek lassabban nőnek tovább.
+     */
+    private static void add(int[] table, int i, int bonus) {
+        table[i] += bonus - table[i] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    private static int index(int move) {
+        int from = Move.isDrop(move) ? Bitboard.SQUARES + Move.pieceKind(move) : Move.from(move);
+        return from * Bitboard.SQUARES + Move.to(move);
+    }
+
+    private static int counterIndex(int previous) {
+        int kind = Move.isPromotion(previous)
+                ? Move.pieceKind(previous) | BitboardPosition.PROMOTED : Move.pieceKind(previous);
+        return kind * Bitboard.SQUARES + Move.to(previous);
+    }
+}
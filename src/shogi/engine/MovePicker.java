@@ -0,0 +1,294 @@
+package shogi.engine;
+
+import shogi.model.BitboardPosition;
+import shogi.model.Move;
+import shogi.model.MoveGenerator;
+import shogi.model.MoveList;
+
+/**
+ * Lépcsőzetes (lusta) lépésválasztó a fő kereséshez.
+ *
+ * A lépéseket szakaszonként adja, és egy szakasz lépéseit csak akkor
+ * generálja, ha az előzőek nem okoztak vágást:
+ * 1. hash lépés (a tábla legjobb lépése, generálás nélkül ellenőrizve),
+ * 2. jó ütések és promóciók MVV-LVA sorrendben (a SEE szerint vesztes
+ *    ütések félretéve),
+ * 3. két killer lépés, majd az ellenlépés (szintén generálás nélkül),
+ * 4. csendes lépések és ledobások history szerint,
+ * 5. a félretett vesztes ütések.
+ * Sakkban egyetlen kitérés-szakasz van (ütések elöl, utána history szerint).
+ *
+ * Egy példány egy csomóponthoz tartozik (a kereső ply-onként egyet tart).
+ *
+ * @author Domokos Erik Zsolt
+ */
+final class MovePicker {
+
+    private static final int STAGE_HASH = 0;
+    private static final int STAGE_CAPTURES_INIT = 1;
+    private static final int STAGE_GOOD_CAPTURES = 2;
+    private static final int STAGE_KILLER_1 = 3;
+    private static final int STAGE_KILLER_2 = 4;
+    private static final int STAGE_COUNTER = 5;
+    private static final int STAGE_QUIETS_INIT = 6;
+    private static final int STAGE_QUIETS = 7;
+    private static final int STAGE_BAD_CAPTURES = 8;
+    private static final int STAGE_EVASIONS_INIT = 9;
+    private static final int STAGE_EVASIONS = 10;
+    private static final int STAGE_DONE = 11;
+
+    /** Kitérésnél az ütések ennyivel kerülnek a csendes lépések elé */
+    private static final int CAPTURE_BONUS = 1 << 20;
+
+    private final MoveGenerator generator;
+    private final See see;
+    private final MoveHistory history;
+
+    /** Az aktuális szakasz lépései és rendezési pontjai */
+    private final MoveList moves = new MoveList();
+    private final int[] scores = new int[MoveGenerator.MAX_MOVES];
+
+    /** Félretett (SEE szerint vesztes) ütések */
+    private final MoveList badCaptures = new MoveList();
+
+    private BitboardPosition pos;
+    private boolean inCheck;
+    private int stage;
+    private int index;
+    private int hashMove;
+    private int killer1;
+    private int killer2;
+    private int counterMove;
+
+    /**
+     * @param generator a kereső lépésgenerátora
+     * @param see a kereső cserekiértékelője
+     * @param history a kereső rendezési statisztikái
+     */
+    MovePicker(MoveGenerator generator, See see, MoveHistory history) {
+        this.generator = generator;
+        this.see = see;
+        this.history = history;
+    }
+
+    /**
+     * Felkészítés egy új csomópontra.
+     *
+     * @param pos az állás (a választás alatt a hívó lépései után mindig visszaáll)
+     * @param hashMove a transzpozíciós tábla lépése (Move.NONE, ha nincs)
+     * @param ply a csomópont távolsága a gyökértől
+     * @param previous az ellenfél előző lépése (Move.NONE, ha nincs)
+     * @param inCheck a lépésen lévő fél sakkban áll-e
+     */
+    void init(BitboardPosition pos, int hashMove, int ply, int previous, boolean inCheck) {
+        this.pos = pos;
+        this.hashMove = hashMove;
+        this.stage = STAGE_HASH;
+        if (inCheck) {
+            killer1 = Move.NONE;
+            killer2 = Move.NONE;
+            counterMove = Move.NONE;
+        } else {
+            killer1 = history.killer(ply, 0);
+            killer2 = history.killer(ply, 1);
+            counterMove = history.counterMove(pos.getSideToMove(), previous);
+        }
+        this.inCheck = inCheck;
+    }
+
+    /**
+     * @return a következő lépés, vagy Move.NONE ha nincs több
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case STAGE_HASH:
+                    stage = inCheck ? STAGE_EVASIONS_INIT : STAGE_CAPTURES_INIT;
+                    if (hashMove != Move.NONE && generator.isLegal(pos, hashMove)) {
+                        return hashMove;
+                    }
+                    hashMove = Move.NONE;
+                    break;
+
+                case STAGE_CAPTURES_INIT:
+                    moves.clear();
+                    badCaptures.clear();
+                    generator.generateCaptures(pos, moves);
+                    scoreCaptures(moves, scores);
+                    index = 0;
+                    stage = STAGE_GOOD_CAPTURES;
+                    break;
+
+                case STAGE_GOOD_CAPTURES:
+                    while (index < moves.size()) {
+                        int move = pickNext(moves, scores, index++);
+                        if (move == hashMove) {
+                            continue;
+                        }
+                        if (see.evaluate(pos, move) < 0) {
+                            badCaptures.add(move);
+                            continue;
+                        }
+                        return move;
+                    }
+                    stage = STAGE_KILLER_1;
+                    break;
+
+                case STAGE_KILLER_1:
+                    stage = STAGE_KILLER_2;
+                    if (isUsable(killer1)) {
+                        return killer1;
+                    }
+                    break;
+
+                case STAGE_KILLER_2:
+                    stage = STAGE_COUNTER;
+                    if (killer2 != killer1 && isUsable(killer2)) {
+                        return killer2;
+                    }
+                    break;
+
+                case STAGE_COUNTER:
+                    stage = STAGE_QUIETS_INIT;
+                    if (counterMove != killer1 && counterMove != killer2 && isUsable(counterMove)) {
+                        return counterMove;
+                    }
+                    break;
+
+                case STAGE_QUIETS_INIT:
+                    moves.clear();
+                    generator.generateQuiets(pos, moves);
+                    int us = pos.getSideToMove();
+                    for (int i = 0; i < moves.size(); i++) {
+                        scores[i] = history.score(us, moves.get(i));
+                    }
+                    sortDescending(moves, scores);
+                    index = 0;
+                    stage = STAGE_QUIETS;
+                    break;
+
+                case STAGE_QUIETS:
+                    while (index < moves.size()) {
+                        int move = moves.get(index++);
+                        if (move != hashMove && move != killer1 && move != killer2 && move != counterMove) {
+                            return move;
+                        }
+                    }
+                    index = 0;
+                    stage = STAGE_BAD_CAPTURES;
+                    break;
+
+                case STAGE_BAD_CAPTURES:
+                    if (index < badCaptures.size()) {
+                        return badCaptures.get(index++);
+                    }
+                    stage = STAGE_DONE;
+                    break;
+
+                case STAGE_EVASIONS_INIT:
+                    moves.clear();
+                    generator.generateLegal(pos, moves);
+                    int side = pos.getSideToMove();
+                    for (int i = 0; i < moves.size(); i++) {
+                        int move = moves.get(i);
+                        scores[i] = MoveHistory.isQuiet(move)
+                                ? history.score(side, move) : CAPTURE_BONUS + mvvLva(move);
+                    }
+                    index = 0;
+                    stage = STAGE_EVASIONS;
+                    break;
+
+                case STAGE_EVASIONS:
+                    while (index < moves.size()) {
+                        int move = pickNext(moves, scores, index++);
+                        if (move != hashMove) {
+                            return move;
+                        }
+                    }
+                    stage = STAGE_DONE;
+                    break;
+
+                default:
+                    return Move.NONE;
+            }
+        }
+    }
+
+    /**
+     * Killer / ellenlépés: csendes, nem a hash lépés, és legális ebben az állásban.
+     */
+    private boolean isUsable(int move) {
+        return move != Move.NONE && move != hashMove && MoveHistory.isQuiet(move) && generator.isLegal(pos, move);
+    }
+
+    // ===================================================================
+    //                          RENDEZÉSI SEGÉDEK
+    // ===================================================================
+
+    /**
+     * MVV-LVA: a legértékesebb áldozat, azon belül a legkisebb értékű
+     * támadó előre (a promóció nyeresége az áldozathoz adódik).
+     *
+     * @param move ütés vagy promóció
+     * @return a rendezési pont
+     */
+    static int mvvLva(int move) {
+        int victim = Move.isCapture(move) ? See.exchangeValue(Move.capturedKind(move)) : 0;
+        return victim + See.promotionGain(move) - Evaluator.PIECE_VALUE[Move.pieceKind(move)] / 16;
+    }
+
+    /**
+     * Taktikus lépések pontozása MVV-LVA szerint; a csendes (pl. sakkadó)
+     * lépések a lista végére kerülnek.
+     *
+     * @param moves a lépések
+     * @param scores kimenet: pont lépésenként
+     */
+    static void scoreCaptures(MoveList moves, int[] scores) {
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            scores[i] = MoveHistory.isQuiet(move) ? -CAPTURE_BONUS : mvvLva(move);
+        }
+    }
+
+    /**
+     * Beszúrásos rendezés csökkenő pont szerint (a csendes lépésekhez,
+     * ahol a lista hosszú, és sok lépést végig is kell nézni).
+     */
+    private static void sortDescending(MoveList moves, int[] scores) {
+        for (int i = 1; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves.set(j + 1, moves.get(j));
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves.set(j + 1, move);
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Kiválasztó rendezés lépésenként: a legjobb hátralévő lépés az i. helyre
+     * kerül (vágásnál a lista többi részét nem kell rendezni).
+     *
+     * @return az i. helyre került lépés
+     */
+    static int pickNext(MoveList moves, int[] scores, int i) {
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        if (best != i) {
+            moves.swap(i, best);
+            int tmp = scores[i];
+            scores[i] = scores[best];
+            scores[best] = tmp;
+        }
+        return moves.get(i);
+    }
+}
@@ -0,0 +1,322 @@
+package shogi.engine;
+
+import shogi.model.Bitboard;
+import shogi.model.BitboardPosition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * NNUE (efficiently updatable neural network) súlyai HalfKP jellegű
+ * bemenettel: a saját király mezője × (bábu szín, típus, mező), valamint
+ * a kézben lévő bábuk (szín, típus, hányadik darab).
+ *
+ * Rétegek:
+ * - jellemző-transzformátor: FEATURES → L1, int16 súlyok és eltolás,
+ *   nézőpontonként egy akkumulátor (lásd {@link Nnue}),
+ * - rejtett réteg: a két akkumulátor [0, 127]-re vágva (a lépő fél
+ *   nézőpontja elöl) → L2, int8 súlyok, int32 eltolás,
+ * - kimenet: [0, 127]-re vágott L2 → 1, int8 súlyok, int32 eltolás.
+ *
+ * Fájlformátum (little endian): "SHOGINNU", verzió, bábu jellemzők
+ * száma, L1, L2, majd a súlyok a fenti sorrendben. A fájl memóriába
+ * képezve (mmap) olvasódik, a tömbökbe egyetlen tömeges másolással -
+ * így a forró ciklusok egyszerű tömbciklusok, amelyeket a JIT SIMD
+ * utasításokra fordít.
+ *
+ * A példány betöltés után nem változik, így a keresőszálak közösen
+ * használhatják.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class Network {
+
+    /** Fájl azonosító */
+    private static final byte[] MAGIC = "SHOGINNU".getBytes(StandardCharsets.US_ASCII);
+
+    /** Fájlformátum verzió */
+    private static final int VERSION = 1;
+
+    /** A fejléc mérete bájtban (azonosító + 4 int) */
+    private static final int HEADER_BYTES = 8 + 4 * 4;
+
+    /** Kézben tartható darabok legnagyobb száma típusonként (PAWN..ROOK) */
+    private static final int[] HAND_MAX = {18, 4, 4, 4, 4, 2, 2};
+
+    /** Kézi jellemzők eltolása típusonként egy színen belül */
+    private static final int[] HAND_OFFSET = new int[BitboardPosition.HAND_KINDS];
+
+    /** Kézi jellemzők száma színenként */
+    private static final int HAND_FEATURES;
+
+    /** Táblai jellemző típusindexe (a király és a nem használt 12-es index: -1) */
+    private static final int[] BOARD_KIND = new int[BitboardPosition.KIND_COUNT];
+
+    /** Táblai bábutípusok száma (király nélkül) */
+    private static final int BOARD_KINDS;
+
+    static {
+        int offset = 0;
+        for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+            HAND_OFFSET[kind] = offset;
+            offset += HAND_MAX[kind];
+        }
+        HAND_FEATURES = offset;
+
+        int index = 0;
+        for (int kind = 0; kind < BitboardPosition.KIND_COUNT; kind++) {
+            boolean used = kind != BitboardPosition.KING && kind != (BitboardPosition.GOLD | BitboardPosition.PROMOTED);
+            BOARD_KIND[kind] = used ? index++ : -1;
+        }
+        BOARD_KINDS = index;
+    }
+
+    /** Bábu jellemzők száma egy királymezőre (tábla + kéz, mindkét szín) */
+    public static final int PIECE_FEATURES = 2 * BOARD_KINDS * Bitboard.SQUARES + 2 * HAND_FEATURES;
+
+    /** Az összes bemeneti jellemző száma */
+    public static final int FEATURES = Bitboard.SQUARES * PIECE_FEATURES;
+
+    /** A vágott aktiváció felső határa */
+    static final int ACTIVATION_MAX = 127;
+
+    /** A rejtett réteg összegének skálázása (jobbra tolás) */
+    static final int HIDDEN_SHIFT = 6;
+
+    /** A kimenet osztója (centipawn egységre) */
+    static final int OUTPUT_DIVISOR = 16;
+
+    /** Az első réteg mérete (nézőpontonként) */
+    private final int l1;
+
+    /** A rejtett réteg mérete */
+    private final int l2;
+
+    /** Jellemző-transzformátor eltolás [L1] */
+    final short[] featureBias;
+
+    /** Jellemző-transzformátor súlyok [jellemző * L1 + i] */
+    final short[] featureWeights;
+
+    /** Rejtett réteg eltolás [L2] */
+    final int[] hiddenBias;
+
+    /** Rejtett réteg súlyok [j * 2 * L1 + i] (a fájlban int8) */
+    final byte[] hiddenWeights;
+
+    /** A rejtett réteg súlyai int-re szélesítve: az int szorzat-összeg ciklust a JIT vektorizálja */
+    final int[] hiddenWeightsWide;
+
+    /** Kimenet eltolás */
+    final int outputBias;
+
+    /** Kimenet súlyok [L2] */
+    final byte[] outputWeights;
+
+    Network(int l1, int l2, short[] featureBias, short[] featureWeights,
+            int[] hiddenBias, byte[] hiddenWeights, int outputBias, byte[] outputWeights) {
+        this.l1 = l1;
+        this.l2 = l2;
+        this.featureBias = featureBias;
+        this.featureWeights = featureWeights;
+        this.hiddenBias = hiddenBias;
+        this.hiddenWeights = hiddenWeights;
+        this.hiddenWeightsWide = new int[hiddenWeights.length];
+        for (int i = 0; i < hiddenWeights.length; i++) {
+            hiddenWeightsWide[i] = hiddenWeights[i];
+        }
+        this.outputBias = outputBias;
+        this.outputWeights = outputWeights;
+    }
+
+    // ===================================================================
+    //                          JELLEMZŐK
+    // ===================================================================
+
+    /**
+     * Egy táblán lévő bábu jellemzője egy nézőpontból. A fehér nézőpont
+     * a táblát elforgatja és a színeket felcseréli, így mindkét akkumulátor
+     * "saját szemszögből" lát.
+     *
+     * @param perspective nézőpont (szín index)
+     * @param king a nézőpont királyának mezője (-1 = nincs király, a 0. mező számít)
+     * @param color a bábu színe
+     * @param kind a bábu típusindexe (nem király)
+     * @param sq a bábu mezője
+     * @return jellemző index
+     */
+    static int boardFeature(int perspective, int king, int color, int kind, int sq) {
+        int relative = color == perspective ? 0 : 1;
+        return orient(perspective, king) * PIECE_FEATURES
+                + (relative * BOARD_KINDS + BOARD_KIND[kind]) * Bitboard.SQUARES + orient(perspective, sq);
+    }
+
+    /**
+     * Egy kézben lévő bábu jellemzője (a kéz index-edik darabja).
+     *
+     * @param perspective nézőpont
+     * @param king a nézőpont királyának mezője
+     * @param color a kéz színe
+     * @param kind kézben tartható típusindex
+     * @param index a darab sorszáma (0 = első)
+     * @return jellemző index
+     */
+    static int handFeature(int perspective, int king, int color, int kind, int index) {
+        int relative = color == perspective ? 0 : 1;
+        return orient(perspective, king) * PIECE_FEATURES
+                + 2 * BOARD_KINDS * Bitboard.SQUARES + relative * HAND_FEATURES + HAND_OFFSET[kind] + index;
+    }
+
+    /**
+     * @param kind típusindex
+     * @return true, ha a bábu bemeneti jellemző (a király nem az)
+     */
+    static boolean isFeature(int kind) {
+        return BOARD_KIND[kind] >= 0;
+    }
+
+    /**
+     * Mező a nézőpont szemszögéből (fehérnél 180 fokkal elforgatva).
+     */
+    private static int orient(int perspective, int sq) {
+        if (sq < 0) {
+            return 0;
+        }
+        return perspective == BitboardPosition.BLACK ? sq : Bitboard.SQUARES - 1 - sq;
+    }
+
+    /**
+     * @return az első réteg mérete (nézőpontonként)
+     */
+    public int getL1() {
+        return l1;
+    }
+
+    /**
+     * @return a rejtett réteg mérete
+     */
+    public int getL2() {
+        return l2;
+    }
+
+    // ===================================================================
+    //                          FÁJL
+    // ===================================================================
+
+    /**
+     * Súlyfájl betöltése memóriába képezéssel.
+     *
+     * @param path a súlyfájl
+     * @return a hálózat
+     * @throws IOException olvasási hiba vagy hibás/nem illeszkedő fájl
+     */
+    public static Network load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Not an NNUE file: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || buffer.getInt() != VERSION) {
+                throw new IOException("Not an NNUE file or unsupported version: " + path);
+            }
+            if (buffer.getInt() != PIECE_FEATURES) {
+                throw new IOException("Feature set mismatch: " + path);
+            }
+            int l1 = buffer.getInt();
+            int l2 = buffer.getInt();
+            if (l1 <= 0 || l2 <= 0 || l1 > 4096 || l2 > 4096
+                    || size != HEADER_BYTES + expectedBodyBytes(l1, l2)) {
+                throw new IOException("Corrupt NNUE file (size or layer sizes): " + path);
+            }
+
+            short[] featureBias = new short[l1];
+            short[] featureWeights = new short[FEATURES * l1];
+            buffer.asShortBuffer().get(featureBias);
+            buffer.position(buffer.position() + 2 * l1);
+            buffer.asShortBuffer().get(featureWeights);
+            buffer.position(buffer.position() + 2 * featureWeights.length);
+
+            int[] hiddenBias = new int[l2];
+            buffer.asIntBuffer().get(hiddenBias);
+            buffer.position(buffer.position() + 4 * l2);
+            byte[] hiddenWeights = new byte[l2 * 2 * l1];
+            buffer.get(hiddenWeights);
+            int outputBias = buffer.getInt();
+            byte[] outputWeights = new byte[l2];
+            buffer.get(outputWeights);
+            return new Network(l1, l2, featureBias, featureWeights, hiddenBias, hiddenWeights,
+                    outputBias, outputWeights);
+        }
+    }
+
+    /**
+     * A hálózat mentése (pl. tanító programból átvett súlyokhoz).
+     *
+     * @param path a célfájl (felülíródik)
+     * @throws IOException írási hiba
+     */
+    public void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_BYTES + expectedBodyBytes(l1, l2)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(PIECE_FEATURES).putInt(l1).putInt(l2);
+        buffer.asShortBuffer().put(featureBias);
+        buffer.position(buffer.position() + 2 * l1);
+        buffer.asShortBuffer().put(featureWeights);
+        buffer.position(buffer.position() + 2 * featureWeights.length);
+        buffer.asIntBuffer().put(hiddenBias);
+        buffer.position(buffer.position() + 4 * l2);
+        buffer.put(hiddenWeights).putInt(outputBias).put(outputWeights);
+        Files.write(path, buffer.array());
+    }
+
+    /**
+     * @return a fejléc utáni rész mérete bájtban
+     */
+    private static long expectedBodyBytes(int l1, int l2) {
+        return 2L * l1 + 2L * FEATURES * l1 + 4L * l2 + (long) l2 * 2 * l1 + 4 + l2;
+    }
+
+    /**
+     * Véletlen súlyú hálózat (tesztekhez és a fájlformátum kipróbálásához).
+     *
+     * @param seed véletlen mag
+     * @param l1 első réteg mérete
+     * @param l2 rejtett réteg mérete
+     * @return a hálózat
+     */
+    static Network random(long seed, int l1, int l2) {
+        Random random = new Random(seed);
+        short[] featureBias = new short[l1];
+        short[] featureWeights = new short[FEATURES * l1];
+        for (int i = 0; i < l1; i++) {
+            featureBias[i] = (short) (random.nextInt(64));
+        }
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) (random.nextInt(33) - 16);
+        }
+        int[] hiddenBias = new int[l2];
+        byte[] hiddenWeights = new byte[l2 * 2 * l1];
+        for (int j = 0; j < l2; j++) {
+            hiddenBias[j] = random.nextInt(1024);
+        }
+        random.nextBytes(hiddenWeights);
+        byte[] outputWeights = new byte[l2];
+        random.nextBytes(outputWeights);
+        return new Network(l1, l2, featureBias, featureWeights, hiddenBias, hiddenWeights,
+                random.nextInt(256) - 128, outputWeights);
+    }
+}
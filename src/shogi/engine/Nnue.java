@@ -0,0 +1,310 @@
+package shogi.engine;
+
+import shogi.model.Bitboard;
+import shogi.model.BitboardPosition;
+import shogi.model.Move;
+
+import java.util.Arrays;
+
+/**
+ * NNUE értékelés egy keresőszálhoz: ply-onkénti int16 akkumulátor verem
+ * nézőpontonként, növekményes frissítéssel.
+ *
+ * A kereső minden lépés előtt {@link #push}-sal jelzi a lépést: ez csak
+ * feljegyzi a változó jellemzőket (legfeljebb 3 ki, 3 be: a lépő bábu,
+ * az ütött bábu és a kézbe kerülő darab). Az akkumulátor lustán, az első
+ * értékeléskor számolódik az utolsó kiszámolt szintről előre - a vágott
+ * (soha nem értékelt) csomópontok így semmibe sem kerülnek. Ha a nézőpont
+ * királya lépett, annak a nézőpontnak a jellemzői mind változnak: ott
+ * teljes újraszámolás jön az aktuális állásból.
+ *
+ * Bekapcsolt assertionökkel (-ea) minden értékelés a teljes
+ * újraszámolással is ellenőrzi az akkumulátort.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class Nnue {
+
+    /** Lépésenként legfeljebb ennyi jellemző tűnik el, illetve jelenik meg */
+    private static final int MAX_DIRTY = 3;
+
+    /** Kézi jellemző jelölő bit a változás kódjában */
+    private static final int HAND_FLAG = 1 << 16;
+
+    /** A hálózat (közös, csak olvasott) */
+    private final Network network;
+
+    /** Az első réteg mérete */
+    private final int l1;
+
+    /** Akkumulátorok: [szint][nézőpont][L1] */
+    private final short[][][] accumulators;
+
+    /** Kiszámolt-e az akkumulátor: [szint][nézőpont] */
+    private final boolean[][] computed;
+
+    /** A szinthez vezető lépésben a nézőpont királya lépett: [szint][nézőpont] */
+    private final boolean[][] kingMoved;
+
+    /** Eltűnő jellemzők (kódolva, lásd {@link #boardChange}) szintenként */
+    private final int[][] removed;
+    private final int[] removedCount;
+
+    /** Megjelenő jellemzők szintenként */
+    private final int[][] added;
+    private final int[] addedCount;
+
+    /** Az aktuális szint */
+    private int top;
+
+    /** Munkaterület: a két vágott akkumulátor egymás után */
+    private final int[] input;
+
+    /** Munkaterület: a rejtett réteg kimenete */
+    private final int[] hidden;
+
+    /** Munkaterület az ellenőrző újraszámoláshoz */
+    private final short[] verify;
+
+    /**
+     * @param network a hálózat
+     * @param maxDepth a verem mélysége (a keresés legnagyobb ply-ja + 1)
+     */
+    public Nnue(Network network, int maxDepth) {
+        this.network = network;
+        this.l1 = network.getL1();
+        this.accumulators = new short[maxDepth + 1][2][l1];
+        this.computed = new boolean[maxDepth + 1][2];
+        this.kingMoved = new boolean[maxDepth + 1][2];
+        this.removed = new int[maxDepth + 1][MAX_DIRTY];
+        this.removedCount = new int[maxDepth + 1];
+        this.added = new int[maxDepth + 1][MAX_DIRTY];
+        this.addedCount = new int[maxDepth + 1];
+        this.input = new int[2 * l1];
+        this.hidden = new int[network.getL2()];
+        this.verify = new short[l1];
+    }
+
+    /**
+     * @return a hálózat
+     */
+    public Network getNetwork() {
+        return network;
+    }
+
+    // ===================================================================
+    //                          VEREM
+    // ===================================================================
+
+    /**
+     * Új gyökérállás: a verem kiürül, és mindkét akkumulátor teljesen
+     * újraszámolódik.
+     *
+     * @param pos az állás
+     */
+    public void reset(BitboardPosition pos) {
+        top = 0;
+        for (int perspective = 0; perspective < 2; perspective++) {
+            refresh(pos, perspective, accumulators[0][perspective]);
+            computed[0][perspective] = true;
+        }
+    }
+
+    /**
+     * Lépés bejelentése a {@link BitboardPosition#doMove(int)} előtt.
+     *
+     * @param pos az állás a lépés előtt
+     * @param move a lépés
+     */
+    public void push(BitboardPosition pos, int move) {
+        int level = ++top;
+        computed[level][0] = computed[level][1] = false;
+        kingMoved[level][0] = kingMoved[level][1] = false;
+        removedCount[level] = 0;
+        addedCount[level] = 0;
+
+        int us = pos.getSideToMove();
+        int to = Move.to(move);
+        int kind = Move.pieceKind(move);
+        if (Move.isDrop(move)) {
+            removed[level][removedCount[level]++] = handChange(us, kind, pos.getHandCount(us, kind) - 1);
+            added[level][addedCount[level]++] = boardChange(us, kind, to);
+            return;
+        }
+        if (kind == BitboardPosition.KING) {
+            kingMoved[level][us] = true;
+        } else {
+            removed[level][removedCount[level]++] = boardChange(us, kind, Move.from(move));
+            added[level][addedCount[level]++] = boardChange(us,
+                    Move.isPromotion(move) ? kind | BitboardPosition.PROMOTED : kind, to);
+        }
+        if (Move.isCapture(move)) {
+            int captured = Move.capturedKind(move);
+            int base = captured & ~BitboardPosition.PROMOTED;
+            removed[level][removedCount[level]++] = boardChange(BitboardPosition.opponent(us), captured, to);
+            added[level][addedCount[level]++] = handChange(us, base, pos.getHandCount(us, base));
+        }
+    }
+
+    /**
+     * Nullalépés bejelentése (csak a lépő fél változik, a jellemzők nem).
+     */
+    public void pushNull() {
+        int level = ++top;
+        computed[level][0] = computed[level][1] = false;
+        kingMoved[level][0] = kingMoved[level][1] = false;
+        removedCount[level] = 0;
+        addedCount[level] = 0;
+    }
+
+    /**
+     * Visszalépés a {@link BitboardPosition#undoMove(int)} után.
+     */
+    public void pop() {
+        top--;
+    }
+
+    private static int boardChange(int color, int kind, int sq) {
+        return (color << 15) | (kind << 8) | sq;
+    }
+
+    private static int handChange(int color, int kind, int index) {
+        return HAND_FLAG | (color << 15) | (kind << 8) | index;
+    }
+
+    /**
+     * Egy feljegyzett változás jellemző indexe egy nézőpontból.
+     */
+    private static int feature(int perspective, int king, int change) {
+        int color = (change >> 15) & 1;
+        int kind = (change >> 8) & 15;
+        int low = change & 0xFF;
+        return (change & HAND_FLAG) != 0
+                ? Network.handFeature(perspective, king, color, kind, low)
+                : Network.boardFeature(perspective, king, color, kind, low);
+    }
+
+    // ===================================================================
+    //                          AKKUMULÁTOR
+    // ===================================================================
+
+    /**
+     * Az aktuális szint akkumulátorának előállítása egy nézőpontból: az
+     * utolsó kiszámolt szinttől a feljegyzett változásokkal, vagy
+     * királylépés után teljes újraszámolással.
+     */
+    private void update(BitboardPosition pos, int perspective) {
+        if (computed[top][perspective]) {
+            return;
+        }
+        int from = top;
+        while (!computed[from][perspective]) {
+            if (kingMoved[from][perspective]) {
+                refresh(pos, perspective, accumulators[top][perspective]);
+                computed[top][perspective] = true;
+                return;
+            }
+            from--;
+        }
+        int king = pos.kingSquare(perspective);
+        short[] weights = network.featureWeights;
+        for (int level = from + 1; level <= top; level++) {
+            short[] acc = accumulators[level][perspective];
+            System.arraycopy(accumulators[level - 1][perspective], 0, acc, 0, l1);
+            for (int i = 0; i < addedCount[level]; i++) {
+                int offset = feature(perspective, king, added[level][i]) * l1;
+                for (int j = 0; j < l1; j++) {
+                    acc[j] += weights[offset + j];
+                }
+            }
+            for (int i = 0; i < removedCount[level]; i++) {
+                int offset = feature(perspective, king, removed[level][i]) * l1;
+                for (int j = 0; j < l1; j++) {
+                    acc[j] -= weights[offset + j];
+                }
+            }
+            computed[level][perspective] = true;
+        }
+    }
+
+    /**
+     * Teljes újraszámolás: eltolás + az összes aktív jellemző súlya.
+     */
+    private void refresh(BitboardPosition pos, int perspective, short[] acc) {
+        System.arraycopy(network.featureBias, 0, acc, 0, l1);
+        short[] weights = network.featureWeights;
+        int king = pos.kingSquare(perspective);
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int code = pos.pieceAt(sq);
+            if (code == 0 || !Network.isFeature(BitboardPosition.codeKind(code))) {
+                continue;
+            }
+            int offset = Network.boardFeature(perspective, king, BitboardPosition.codeColor(code),
+                    BitboardPosition.codeKind(code), sq) * l1;
+            for (int j = 0; j < l1; j++) {
+                acc[j] += weights[offset + j];
+            }
+        }
+        for (int color = 0; color < 2; color++) {
+            for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+                int count = pos.getHandCount(color, kind);
+                for (int index = 0; index < count; index++) {
+                    int offset = Network.handFeature(perspective, king, color, kind, index) * l1;
+                    for (int j = 0; j < l1; j++) {
+                        acc[j] += weights[offset + j];
+                    }
+                }
+            }
+        }
+    }
+
+    // ===================================================================
+    //                          ÉRTÉKELÉS
+    // ===================================================================
+
+    /**
+     * Az aktuális szint állásának értéke a lépésen lévő fél szemszögéből.
+     *
+     * @param pos az állás (a bejelentett lépések után)
+     * @return a hálózat kimenete centipawn jellegű egységben
+     */
+    public int evaluate(BitboardPosition pos) {
+        update(pos, BitboardPosition.BLACK);
+        update(pos, BitboardPosition.WHITE);
+        assert verify(pos, BitboardPosition.BLACK) && verify(pos, BitboardPosition.WHITE)
+                : "Eltérő NNUE akkumulátor";
+
+        int us = pos.getSideToMove();
+        short[] own = accumulators[top][us];
+        short[] other = accumulators[top][BitboardPosition.opponent(us)];
+        for (int i = 0; i < l1; i++) {
+            input[i] = Math.min(Math.max(own[i], 0), Network.ACTIVATION_MAX);
+            input[l1 + i] = Math.min(Math.max(other[i], 0), Network.ACTIVATION_MAX);
+        }
+
+        int[] weights = network.hiddenWeightsWide;
+        int width = 2 * l1;
+        for (int j = 0; j < hidden.length; j++) {
+            int offset = j * width;
+            int sum = network.hiddenBias[j];
+            for (int i = 0; i < width; i++) {
+                sum += weights[offset + i] * input[i];
+            }
+            hidden[j] = Math.min(Math.max(sum >> Network.HIDDEN_SHIFT, 0), Network.ACTIVATION_MAX);
+        }
+
+        int output = network.outputBias;
+        for (int j = 0; j < hidden.length; j++) {
+            output += network.outputWeights[j] * hidden[j];
+        }
+        return output / Network.OUTPUT_DIVISOR;
+    }
+
+    /**
+     * @return true, ha az aktuális akkumulátor egyezik a teljes újraszámolással
+     */
+    private boolean verify(BitboardPosition pos, int perspective) {
+        refresh(pos, perspective, verify);
+        return Arrays.equals(verify, accumulators[top][perspective]);
+    }
+}
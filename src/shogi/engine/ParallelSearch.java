@@ -0,0 +1,233 @@
+package shogi.engine;
+
+import shogi.model.BitboardPosition;
+import shogi.model.Move;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Többszálú keresés (Lazy SMP).
+ *
+ * Minden szál ugyanazt az iteratív mélyítést futtatja a saját
+ * {@link Search} példányával, a {@link TranspositionTable} viszont közös:
+ * a szálak egymás eredményeit a táblán keresztül használják fel. A
+ * páratlan sorszámú segédszálak egy ply-jal mélyebbről indulnak, így a
+ * szálak nem ugyanazt a fát járják be egyszerre.
+ *
+ * A fő szál a hívó szálon fut; amikor végzett (mélység, idő vagy matt),
+ * leállítja a segédszálakat. Az eredmény a legmélyebb befejezett
+ * iteráció (egyenlőségnél a fő száé), a csomópontszám az összes szálé.
+ *
+ * Egy példány egyszerre egy keresést futtat; a segédszálak démon szálak
+ * egy újrahasznált készletben.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class ParallelSearch {
+
+    /** A kereső szálak (0 = fő szál) */
+    private final Search[] searchers;
+
+    /** Közös transzpozíciós tábla */
+    private final TranspositionTable tt;
+
+    /** Segédszálak készlete (null, ha egy szálon fut) */
+    private final ExecutorService helpers;
+
+    /** Segédszálak futásai */
+    private final Future<?>[] futures;
+
+    /** Szálankénti eredmények (0 = fő szál) */
+    private final SearchResult[] results;
+
+    /**
+     * @param threads szálak száma (legalább 1)
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(Search.DEFAULT_HASH_MB));
+    }
+
+    /**
+     * @param threads szálak száma (legalább 1)
+     * @param tt a közös transzpozíciós tábla
+     */
+    public ParallelSearch(int threads, TranspositionTable tt) {
+        int count = Math.max(1, threads);
+        this.tt = tt;
+        this.searchers = new Search[count];
+        for (int i = 0; i < count; i++) {
+            searchers[i] = new Search(tt);
+        }
+        this.futures = new Future<?>[count];
+        this.results = new SearchResult[count];
+        this.helpers = count > 1 ? Executors.newFixedThreadPool(count - 1, r -> {
+            Thread thread = new Thread(r, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * A legjobb lépés keresése az összes szállal.
+     *
+     * @param position az állás (nem módosul)
+     * @param limits mélység és/vagy időkorlát
+     * @return a legjobb lépés, a szálak összesített csomópontszámával
+     */
+    public SearchResult search(BitboardPosition position, SearchLimits limits) {
+        return search(position, limits, new AtomicBoolean());
+    }
+
+    /**
+     * A legjobb lépés keresése az összes szállal, a hívó leállítási
+     * jelzőjével: a jelző már az indítás előtt beállítható, a keresés nem
+     * törli, a végén (a segédszálak leállításához) beállítja.
+     *
+     * @param position az állás (nem módosul)
+     * @param limits mélység és/vagy időkorlát
+     * @param stop leállítási jelző (keresésenként új)
+     * @return a legjobb lépés, a szálak összesített csomópontszámával
+     */
+    public SearchResult search(BitboardPosition position, SearchLimits limits, AtomicBoolean stop) {
+        long start = System.nanoTime();
+        tt.newSearch();
+        for (int i = 0; i < searchers.length; i++) {
+            searchers[i].prepare(i & 1, stop);
+            results[i] = null;
+        }
+        for (int i = 1; i < searchers.length; i++) {
+            int index = i;
+            futures[i] = helpers.submit(() -> {
+                results[index] = searchers[index].runSearch(position, limits);
+            });
+        }
+
+        SearchResult main = searchers[0].runSearch(position, limits);
+        results[0] = main;
+        stop.set(true);
+        for (int i = 1; i < searchers.length; i++) {
+            awaitHelper(i);
+        }
+
+        SearchResult best = main;
+        long nodes = 0;
+        for (SearchResult result : results) {
+            if (result == null) {
+                continue;
+            }
+            nodes += result.getNodes();
+            if (result.getDepth() > best.getDepth() && result.getBestMove() != Move.NONE) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.getBestMove(), best.getScore(), best.getDepth(), nodes,
+                (System.nanoTime() - start) / 1_000_000, best.getPv());
+    }
+
+    /**
+     * Megvárja egy segédszál végét (a leállítási kérés már elment).
+     */
+    private void awaitHelper(int index) {
+        try {
+            futures[index].get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Helper search failed", e.getCause());
+        }
+    }
+
+    /**
+     * A futó keresés leállítása (bármely szálról hívható).
+     */
+    public void stop() {
+        for (Search searcher : searchers) {
+            searcher.stop();
+        }
+    }
+
+    /**
+     * A szelektív technikák beállítása minden szálon (keresés közben nem hívható).
+     *
+     * @param options a bekapcsolt technikák
+     */
+    public void setOptions(SearchOptions options) {
+        for (Search searcher : searchers) {
+            searcher.setOptions(options);
+        }
+    }
+
+    /**
+     * @return a bekapcsolt technikák
+     */
+    public SearchOptions getOptions() {
+        return searchers[0].getOptions();
+    }
+
+    /**
+     * Iterációnkénti értesítés beállítása (keresés közben nem hívható). A
+     * fő szál iterációiról szól, a csomópontszám az összes szálé.
+     *
+     * @param listener az értesítendő (null = nincs)
+     */
+    public void setListener(SearchListener listener) {
+        if (listener == null) {
+            searchers[0].setListener(null);
+            return;
+        }
+        searchers[0].setListener(result -> {
+            long nodes = 0;
+            for (Search searcher : searchers) {
+                nodes += searcher.getNodes();
+            }
+            listener.onIteration(new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(),
+                    nodes, result.getTimeMillis(), result.getPv()));
+        });
+    }
+
+    /**
+     * Neurális értékelés beállítása minden szálon (keresés közben nem
+     * hívható). A súlyok közösek, az akkumulátorok szálanként külön vannak.
+     *
+     * @param network a hálózat (null = klasszikus értékelés)
+     */
+    public void setNetwork(Network network) {
+        for (Search searcher : searchers) {
+            searcher.setNetwork(network);
+        }
+    }
+
+    /**
+     * @return a beállított hálózat, vagy null
+     */
+    public Network getNetwork() {
+        return searchers[0].getNetwork();
+    }
+
+    /**
+     * @return a szálak száma
+     */
+    public int getThreads() {
+        return searchers.length;
+    }
+
+    /**
+     * @return a közös transzpozíciós tábla
+     */
+    public TranspositionTable getTranspositionTable() {
+        return tt;
+    }
+
+    /**
+     * A segédszálak leállítása (a példány utána nem használható).
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,782 @@
+package shogi.engine;
+
+import shogi.model.BitboardPosition;
+import shogi.model.Hand;
+import shogi.model.Move;
+import shogi.model.MoveGenerator;
+import shogi.model.MoveList;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Negamax alfa-béta keresés iteratív mélyítéssel.
+ *
+ * A keresés a {@link BitboardPosition} másolatán fut helyben
+ * (doMove / undoMove), a lépéslisták ply-onként előre le vannak
+ * foglalva, így a forró útvonalon nincs objektum foglalás.
+ *
+ * A lépéseket a {@link MovePicker} lépcsőzetesen adja (hash lépés, jó
+ * ütések, killerek, ellenlépés, csendes lépések history szerint, vesztes
+ * ütések); a csendes lépéssel elért béta vágás a {@link MoveHistory}
+ * statisztikáit frissíti.
+ *
+ * A mélység végén nyugalmi keresés (quiescence) fut: ütések, promóciók
+ * és (az első nyugalmi szinten) sakkot adó lépések, helyben maradási
+ * (stand-pat) vágással, delta vágással és a vesztes ütések SEE szerinti
+ * elhagyásával. Így a levelek nem egy ütésváltás közepén értékelődnek
+ * - sógiban ez különösen fontos, mert a leütött bábu ledobásként visszatér.
+ *
+ * Szelektív technikák (mind kapcsolható, lásd {@link SearchOptions}):
+ * nullalépéses vágás (a kényszerlépésre hajlamos, üres kezű végjátékban
+ * ellenőrző kereséssel), késői lépések mélységcsökkentése (LMR) principal
+ * variation kereséssel, futility vágás és razoring a levelek közelében,
+ * valamint aspirációs ablak a gyökérben.
+ *
+ * Egy példány nem szálbiztos; szálanként külön példány kell. A
+ * {@link TranspositionTable} viszont megosztható a példányok között.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class Search {
+
+    /** Matt érték (a gyökértől mért ply-jal csökkentve) */
+    public static final int MATE = 30000;
+
+    /** Az ablak határa (minden értéknél nagyobb) */
+    public static final int INFINITE = 32000;
+
+    /** Ennél nagyobb abszolút értékű eredmény matt */
+    public static final int MATE_BOUND = MATE - 1000;
+
+    /** Maximális keresési mélység ply-ban */
+    public static final int MAX_PLY = 128;
+
+    /** Ennyi csomópontonként nézzük meg az órát (2 hatvány - 1) */
+    private static final int TIME_CHECK_MASK = 1023;
+
+    /** Alapértelmezett transzpozíciós tábla méret (MB) */
+    public static final int DEFAULT_HASH_MB = 16;
+
+    /** Delta vágás biztonsági ráhagyása (pozíciós nyereség felső becslése) */
+    private static final int DELTA_MARGIN = 200;
+
+    /** Ennyi nyugalmi szinten vizsgáljuk a csendes, sakkot adó lépéseket is */
+    private static final int QUIESCENCE_CHECK_PLIES = 1;
+
+    /** Ennyi hiába kipróbált csendes lépés kap history büntetést */
+    private static final int MAX_TRIED_QUIETS = 64;
+
+    /** Futility ráhagyás mélységenként (a statikus érték ennyivel javulhat) */
+    private static final int FUTILITY_MARGIN = 150;
+
+    /** Futility vágás legnagyobb hátralévő mélysége */
+    private static final int FUTILITY_DEPTH = 3;
+
+    /** Razoring ráhagyások hátralévő mélység szerint (1..2) */
+    private static final int[] RAZOR_MARGIN = {0, 300, 500};
+
+    /** Nullalépés legkisebb hátralévő mélysége */
+    private static final int NULL_MOVE_DEPTH = 3;
+
+    /** Ennyi vagy kevesebb bábu (király nélkül) és üres kéz: kényszerlépés-veszélyes végjáték */
+    private static final int ZUGZWANG_PIECES = 4;
+
+    /** Az LMR csak ennyi hátralévő mélységtől és ennyiedik lépéstől kezdve */
+    private static final int LMR_DEPTH = 3;
+    private static final int LMR_MOVE = 4;
+
+    /** Az aspirációs ablak kezdeti fél szélessége és legkisebb mélysége */
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int ASPIRATION_DEPTH = 4;
+
+    /** LMR csökkentés: [mélység][lépés sorszáma] */
+    private static final int[][] REDUCTION = new int[64][64];
+
+    static {
+        for (int depth = 1; depth < 64; depth++) {
+            for (int move = 1; move < 64; move++) {
+                REDUCTION[depth][move] = (int) (0.75 + Math.log(depth) * Math.log(move) / 2.25);
+            }
+        }
+    }
+
+    private final MoveGenerator generator = new MoveGenerator();
+    private final Evaluator evaluator = new Evaluator();
+    private final See see = new See();
+    private final MoveHistory history = new MoveHistory();
+
+    /** Transzpozíciós tábla (megosztható) */
+    private final TranspositionTable tt;
+
+    /** Ply-onkénti lépéslisták */
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+
+    /** Ply-onkénti rendezési pontok (a lépéslistákkal párhuzamosan) */
+    private final int[][] moveScores = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+
+    /** Ply-onkénti lépésválasztók */
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+
+    /** Az egyes ply-okon éppen vizsgált lépés (az ellenlépés táblához) */
+    private final int[] currentMove = new int[MAX_PLY + 1];
+
+    /** Ply-onként a vágás előtt kipróbált csendes lépések */
+    private final int[][] triedQuiets = new int[MAX_PLY + 1][MAX_TRIED_QUIETS];
+
+    /** Munkaterületek a fő változat kiolvasásához */
+    private final MoveList pvMoves = new MoveList();
+    private final int[] pvLine = new int[MAX_PLY];
+
+    /** Iterációnkénti értesítés (null = nincs) */
+    private SearchListener listener;
+
+    /** Vizsgált csomópontok */
+    private long nodes;
+
+    /** Időkorlát (System.nanoTime szerint), ha van */
+    private long deadline;
+
+    /** Puha időkorlát: ezután nem indul új iteráció (System.nanoTime szerint) */
+    private long softDeadline;
+
+    /** Van-e időkorlát */
+    private boolean timeLimited;
+
+    /** A keresés megszakadt (a félbehagyott iteráció eredménye eldobandó) */
+    private boolean aborted;
+
+    /** Külső leállítási kérés (másik szálról), keresésenként külön jelző */
+    private volatile AtomicBoolean stopRequested = new AtomicBoolean();
+
+    /** Az iteráció kezdő mélységének eltolása (Lazy SMP segédszálaknál) */
+    private int depthOffset;
+
+    /** A gyökér legjobb lépése az aktuális iterációban */
+    private int rootBestMove;
+
+    /** A bekapcsolt technikák (a forró útvonalon mezőkből olvasva) */
+    private SearchOptions options = SearchOptions.all();
+    private boolean useNullMove;
+    private boolean useLmr;
+    private boolean useFutility;
+    private boolean useRazoring;
+    private boolean useAspiration;
+
+    /**
+     * Új kereső saját, alapértelmezett méretű transzpozíciós táblával.
+     */
+    public Search() {
+        this(new TranspositionTable(DEFAULT_HASH_MB));
+    }
+
+    /**
+     * Új kereső megadott (akár más keresőkkel közös) transzpozíciós táblával.
+     *
+     * @param tt a transzpozíciós tábla
+     */
+    public Search(TranspositionTable tt) {
+        this.tt = tt;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+            pickers[i] = new MovePicker(generator, see, history);
+        }
+        applyOptions(SearchOptions.all());
+    }
+
+    /**
+     * A szelektív technikák beállítása (keresés közben nem hívható).
+     *
+     * @param options a bekapcsolt technikák
+     */
+    public void setOptions(SearchOptions options) {
+        applyOptions(options);
+    }
+
+    private void applyOptions(SearchOptions options) {
+        this.options = options;
+        useNullMove = options.isEnabled(SearchOptions.Feature.NULL_MOVE);
+        useLmr = options.isEnabled(SearchOptions.Feature.LMR);
+        useFutility = options.isEnabled(SearchOptions.Feature.FUTILITY);
+        useRazoring = options.isEnabled(SearchOptions.Feature.RAZORING);
+        useAspiration = options.isEnabled(SearchOptions.Feature.ASPIRATION);
+    }
+
+    /**
+     * @return a bekapcsolt technikák
+     */
+    public SearchOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Iterációnkénti értesítés beállítása (keresés közben nem hívható).
+     *
+     * @param listener az értesítendő (null = nincs)
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Neurális értékelés beállítása (keresés közben nem hívható).
+     *
+     * @param network a hálózat (null = klasszikus értékelés)
+     */
+    public void setNetwork(Network network) {
+        evaluator.setNetwork(network);
+    }
+
+    /**
+     * @return a beállított hálózat, vagy null
+     */
+    public Network getNetwork() {
+        return evaluator.getNetwork();
+    }
+
+    // ===================================================================
+    //                          ITERATÍV MÉLYÍTÉS
+    // ===================================================================
+
+    /**
+     * A legjobb lépés keresése.
+     *
+     * @param position az állás (nem módosul, a keresés másolaton fut)
+     * @param limits mélység és/vagy időkorlát
+     * @return a legjobb lépés és statisztikák
+     */
+    public SearchResult search(BitboardPosition position, SearchLimits limits) {
+        return search(position, limits, new AtomicBoolean());
+    }
+
+    /**
+     * A legjobb lépés keresése a hívó leállítási jelzőjével. A jelző már a
+     * keresés indítása előtt beállítható (így egy korai leállítási kérés
+     * sem vész el), a keresés nem törli.
+     *
+     * @param position az állás (nem módosul, a keresés másolaton fut)
+     * @param limits mélység és/vagy időkorlát
+     * @param stop leállítási jelző (true = a keresés a lehető leghamarabb véget ér)
+     * @return a legjobb lépés és statisztikák
+     */
+    public SearchResult search(BitboardPosition position, SearchLimits limits, AtomicBoolean stop) {
+        stopRequested = stop;
+        tt.newSearch();
+        return runSearch(position, limits);
+    }
+
+    /**
+     * A keresés törzse a tábla generációjának léptetése nélkül
+     * (párhuzamos keresésnél a koordinátor lépteti egyszer).
+     */
+    SearchResult runSearch(BitboardPosition position, SearchLimits limits) {
+        long start = System.nanoTime();
+        BitboardPosition pos = position.copy();
+        evaluator.reset(pos);
+        nodes = 0;
+        aborted = false;
+        rootBestMove = Move.NONE;
+        history.newSearch();
+        timeLimited = limits.hasTimeLimit();
+        deadline = start + limits.getTimeMillis() * 1_000_000L;
+        softDeadline = start + limits.getSoftMillis() * 1_000_000L;
+
+        MoveList root = moveLists[0];
+        root.clear();
+        generator.generateLegal(pos, root);
+        if (root.isEmpty()) {
+            return new SearchResult(Move.NONE, -MATE, 0, 0, elapsedMillis(start));
+        }
+
+        int bestMove = root.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1 + depthOffset; depth <= limits.getDepth(); depth++) {
+            int score = aspirationSearch(pos, root, depth, bestScore);
+            if (aborted) {
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (listener != null) {
+                listener.onIteration(new SearchResult(bestMove, bestScore, depth, nodes, elapsedMillis(start),
+                        extractPv(pos, bestMove, depth)));
+            }
+            if (Math.abs(score) >= MATE_BOUND) {
+                break; // matt: mélyebb keresés nem változtat
+            }
+            if (timeLimited && System.nanoTime() >= softDeadline) {
+                break; // a következő iteráció úgysem fejeződne be időben
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, elapsedMillis(start),
+                extractPv(pos, bestMove, completedDepth));
+    }
+
+    /**
+     * A fő változat kiolvasása a transzpozíciós táblából: a legjobb
+     * lépéstől a táblában tárolt (és legálisnak bizonyuló) lépéseken át,
+     * legfeljebb a keresés mélységéig (így ismétlődő ciklus sem végtelen).
+     *
+     * @param pos a gyökérállás (a végén változatlan)
+     * @param first a legjobb lépés
+     * @param maxLength legfeljebb ennyi lépés (legalább 1)
+     * @return a fő változat
+     */
+    private int[] extractPv(BitboardPosition pos, int first, int maxLength) {
+        int limit = Math.min(Math.max(1, maxLength), pvLine.length);
+        int length = 0;
+        int move = first;
+        while (move != Move.NONE && length < limit) {
+            pvLine[length++] = move;
+            pos.doMove(move);
+            move = Move.NONE;
+            int hashMove = TranspositionTable.moveOf(tt.probe(pos.getKey()));
+            if (hashMove != Move.NONE) {
+                pvMoves.clear();
+                generator.generateLegal(pos, pvMoves);
+                for (int i = 0; i < pvMoves.size(); i++) {
+                    if (Move.sameMove(pvMoves.get(i), hashMove)) {
+                        move = pvMoves.get(i);
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            pos.undoMove(pvLine[i]);
+        }
+        return Arrays.copyOf(pvLine, length);
+    }
+
+    /**
+     * Gyökérkeresés aspirációs ablakkal: az előző iteráció értéke körüli
+     * szűk ablak; kilógásnál az ablak az adott irányban kétszeresére nő.
+     */
+    private int aspirationSearch(BitboardPosition pos, MoveList root, int depth, int previous) {
+        if (!useAspiration || depth < ASPIRATION_DEPTH || Math.abs(previous) >= MATE_BOUND) {
+            return searchRoot(pos, root, depth, -INFINITE, INFINITE);
+        }
+        int delta = ASPIRATION_WINDOW;
+        int alpha = Math.max(previous - delta, -INFINITE);
+        int beta = Math.min(previous + delta, INFINITE);
+        while (true) {
+            int score = searchRoot(pos, root, depth, alpha, beta);
+            if (aborted) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(score - delta, -INFINITE);
+            } else if (score >= beta) {
+                beta = Math.min(score + delta, INFINITE);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     * Gyökérkeresés: az előző iteráció legjobb lépése kerül előre, az első
+     * lépés teljes ablakkal, a többi nulla ablakkal (PVS) indul.
+     */
+    private int searchRoot(BitboardPosition pos, MoveList root, int depth, int alpha, int beta) {
+        for (int i = 0; i < root.size(); i++) {
+            if (root.get(i) == rootBestMove) {
+                for (int j = i; j > 0; j--) {
+                    root.swap(j, j - 1);
+                }
+                break;
+            }
+        }
+
+        int best = Move.NONE;
+        int bestScore = -INFINITE;
+        for (int i = 0; i < root.size(); i++) {
+            int move = root.get(i);
+            currentMove[0] = move;
+            evaluator.push(pos, move);
+            pos.doMove(move);
+            int score;
+            if (i == 0) {
+                score = -negamax(pos, depth - 1, -beta, -alpha, 1, true);
+            } else {
+                score = -negamax(pos, depth - 1, -alpha - 1, -alpha, 1, true);
+                if (score > alpha && score < beta) {
+                    score = -negamax(pos, depth - 1, -beta, -alpha, 1, true);
+                }
+            }
+            pos.undoMove(move);
+            evaluator.pop();
+            if (aborted) {
+                break;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    best = move;
+                    if (score >= beta) {
+                        break; // aspirációs ablak felett: újrakeresés tágabb ablakkal
+                    }
+                }
+            }
+        }
+        if (best != Move.NONE) {
+            rootBestMove = best;
+        }
+        return bestScore;
+    }
+
+    // ===================================================================
+    //                          ALFA-BÉTA
+    // ===================================================================
+
+    /**
+     * Negamax alfa-béta (fail-soft) transzpozíciós táblával, nulla ablakos
+     * (PVS) újrakereséssel és a bekapcsolt szelektív technikákkal.
+     *
+     * @param allowNull nullalépés engedélyezett (nem közvetlenül nullalépés
+     *                  vagy ellenőrző keresés után)
+     * @return az állás értéke a lépésen lévő fél szemszögéből
+     */
+    private int negamax(BitboardPosition pos, int depth, int alpha, int beta, int ply, boolean allowNull) {
+        if ((++nodes & TIME_CHECK_MASK) == 0) {
+            checkTime();
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (depth <= 0) {
+            return quiesce(pos, alpha, beta, ply, 0);
+        }
+        if (ply >= MAX_PLY) {
+            return evaluator.evaluate(pos);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long key = pos.getKey();
+        int hashMove = Move.NONE;
+        long entry = tt.probe(key);
+        if (entry != 0) {
+            hashMove = TranspositionTable.moveOf(entry);
+            if (TranspositionTable.depthOf(entry) >= depth) {
+                int score = TranspositionTable.fromStored(TranspositionTable.scoreOf(entry), ply);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int us = pos.getSideToMove();
+        boolean inCheck = pos.isInCheck(us);
+        int staticEval = inCheck ? -INFINITE : evaluator.evaluate(pos);
+
+        if (!pvNode && !inCheck && Math.abs(beta) < MATE_BOUND) {
+            // Razoring: a statikus érték messze alfa alatt - elég a nyugalmi keresés
+            if (useRazoring && depth < RAZOR_MARGIN.length && staticEval + RAZOR_MARGIN[depth] <= alpha) {
+                int score = quiesce(pos, alpha, alpha + 1, ply, 0);
+                if (score <= alpha) {
+                    return score;
+                }
+            }
+            // Fordított futility: a statikus érték a ráhagyással is béta felett
+            if (useFutility && depth <= FUTILITY_DEPTH && staticEval - FUTILITY_MARGIN * depth >= beta) {
+                return staticEval;
+            }
+            // Nullalépés: ha passzolva is béta felett maradunk, a csomópont elvágható
+            if (useNullMove && allowNull && depth >= NULL_MOVE_DEPTH && staticEval >= beta) {
+                int score = nullMoveSearch(pos, depth, beta, ply);
+                if (score >= beta) {
+                    return score;
+                }
+            }
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.init(pos, hashMove, ply, currentMove[ply - 1], inCheck);
+        int[] tried = triedQuiets[ply];
+        int triedCount = 0;
+        int moveCount = 0;
+        boolean futile = useFutility && !pvNode && !inCheck && depth <= FUTILITY_DEPTH
+                && staticEval + FUTILITY_MARGIN * depth <= alpha;
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITE;
+        int bestMove = Move.NONE;
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            moveCount++;
+            boolean quiet = MoveHistory.isQuiet(move);
+            if (futile && quiet && moveCount > 1 && !generator.givesCheck(pos, move)) {
+                continue; // futility: a csendes lépés a ráhagyással sem éri el alfát
+            }
+
+            currentMove[ply] = move;
+            evaluator.push(pos, move);
+            pos.doMove(move);
+            int score;
+            if (moveCount == 1) {
+                score = -negamax(pos, depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                int reduction = 0;
+                if (useLmr && quiet && !inCheck && depth >= LMR_DEPTH && moveCount >= LMR_MOVE
+                        && !pos.isInCheck(pos.getSideToMove())) {
+                    reduction = REDUCTION[Math.min(depth, 63)][Math.min(moveCount, 63)];
+                    if (pvNode) {
+                        reduction--;
+                    }
+                    reduction = Math.max(0, Math.min(reduction, depth - 2));
+                }
+                score = -negamax(pos, depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(pos, depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(pos, depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            pos.undoMove(move);
+            evaluator.pop();
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        if (quiet) {
+                            history.onCutoff(us, move, currentMove[ply - 1], ply, depth, tried, triedCount);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (quiet && triedCount < MAX_TRIED_QUIETS) {
+                tried[triedCount++] = move;
+            }
+        }
+        if (moveCount == 0) {
+            return -MATE + ply; // nincs legális lépés: vesztes (matt)
+        }
+        if (bestMove == Move.NONE) {
+            return alpha; // minden lépés futility miatt kimaradt
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                : TranspositionTable.BOUND_UPPER;
+        tt.store(key, bestMove, TranspositionTable.toStored(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Nullalépéses keresés: a lépésen lévő fél "passzol", és csökkentett
+     * mélységű nulla ablakos kereséssel nézzük, béta felett marad-e.
+     * Üres kézzel és kevés bábuval (kényszerlépésre hajlamos végjáték)
+     * a vágást egy nullalépés nélküli ellenőrző keresés is meg kell erősítse.
+     *
+     * @return béta feletti érték, ha a csomópont elvágható
+     */
+    private int nullMoveSearch(BitboardPosition pos, int depth, int beta, int ply) {
+        int us = pos.getSideToMove();
+        int reduction = 2 + depth / 6;
+        currentMove[ply] = Move.NONE;
+        evaluator.pushNull();
+        pos.setSideToMove(BitboardPosition.opponent(us));
+        int score = -negamax(pos, depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+        pos.setSideToMove(us);
+        evaluator.pop();
+        if (aborted || score < beta) {
+            return score;
+        }
+        if (score >= MATE_BOUND) {
+            score = beta; // passzolással talált matt nem megbízható
+        }
+
+        boolean zugzwangProne = Hand.isEmpty(pos.getHand(us))
+                && pos.pieces(us).count() - 1 <= ZUGZWANG_PIECES;
+        if (zugzwangProne) {
+            int verified = negamax(pos, depth - reduction, beta - 1, beta, ply, false);
+            if (verified < beta) {
+                return verified;
+            }
+        }
+        return score;
+    }
+
+    // ===================================================================
+    //                          NYUGALMI KERESÉS
+    // ===================================================================
+
+    /**
+     * Nyugalmi keresés: csak taktikus lépések, amíg az állás el nem csendesedik.
+     * Sakkban minden kitérés vizsgálandó (ott nincs stand-pat).
+     *
+     * @param qply a nyugalmi keresésben megtett ply-ok száma
+     * @return az állás értéke a lépésen lévő fél szemszögéből
+     */
+    private int quiesce(BitboardPosition pos, int alpha, int beta, int ply, int qply) {
+        if ((++nodes & TIME_CHECK_MASK) == 0) {
+            checkTime();
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluator.evaluate(pos);
+        }
+
+        // A nyugalmi eredmények 0 mélységgel kerülnek a táblába
+        long key = pos.getKey();
+        long entry = tt.probe(key);
+        if (entry != 0) {
+            int score = TranspositionTable.fromStored(TranspositionTable.scoreOf(entry), ply);
+            int bound = TranspositionTable.boundOf(entry);
+            if (bound == TranspositionTable.BOUND_EXACT
+                    || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                    || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        boolean inCheck = pos.isInCheck(pos.getSideToMove());
+        int standPat = -INFINITE;
+        int bestScore = -INFINITE;
+        if (!inCheck) {
+            standPat = evaluator.evaluate(pos);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+            bestScore = standPat;
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        if (inCheck) {
+            generator.generateLegal(pos, moves);
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+        } else if (qply < QUIESCENCE_CHECK_PLIES) {
+            generator.generateLegal(pos, moves);
+            keepTacticalAndChecks(pos, moves);
+        } else {
+            generator.generateCaptures(pos, moves);
+        }
+        int[] scores = moveScores[ply];
+        MovePicker.scoreCaptures(moves, scores);
+
+        int originalAlpha = alpha;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = MovePicker.pickNext(moves, scores, i);
+            if (!inCheck) {
+                if (Move.isCapture(move) || Move.isPromotion(move)) {
+                    int gain = (Move.isCapture(move) ? See.exchangeValue(Move.capturedKind(move)) : 0)
+                            + See.promotionGain(move);
+                    if (standPat + gain + DELTA_MARGIN <= alpha) {
+                        continue; // delta vágás: még a teljes nyereség sem éri el alfát
+                    }
+                }
+                if (see.evaluate(pos, move) < 0) {
+                    continue; // vesztes csere
+                }
+            }
+            evaluator.push(pos, move);
+            pos.doMove(move);
+            int score = -quiesce(pos, -beta, -alpha, ply + 1, qply + 1);
+            pos.undoMove(move);
+            evaluator.pop();
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                : TranspositionTable.BOUND_UPPER;
+        tt.store(key, bestMove, TranspositionTable.toStored(bestScore, ply), 0, bound);
+        return bestScore;
+    }
+
+    /**
+     * A legális lépések közül csak az ütések, promóciók és sakkadó lépések maradnak.
+     */
+    private void keepTacticalAndChecks(BitboardPosition pos, MoveList moves) {
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.isCapture(move) || Move.isPromotion(move) || generator.givesCheck(pos, move)) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    // ===================================================================
+    //                          IDŐ / STATISZTIKA
+    // ===================================================================
+
+    private void checkTime() {
+        if (stopRequested.get() || (timeLimited && System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+    }
+
+    /**
+     * A futó keresés leállítása (bármely szálról hívható). A keresés a
+     * legutóbb befejezett iteráció eredményével tér vissza.
+     */
+    public void stop() {
+        stopRequested.set(true);
+    }
+
+    /**
+     * Felkészítés egy párhuzamos keresésre, mielőtt a szál elindul.
+     *
+     * @param offset a kezdő mélység eltolása
+     * @param stop a szálak közös leállítási jelzője (nem törlődik)
+     */
+    void prepare(int offset, AtomicBoolean stop) {
+        stopRequested = stop;
+        depthOffset = offset;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * @return a használt transzpozíciós tábla
+     */
+    public TranspositionTable getTranspositionTable() {
+        return tt;
+    }
+
+    /**
+     * @return az utolsó keresés csomópontjainak száma
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
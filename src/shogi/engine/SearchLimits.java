@@ -0,0 +1,102 @@
+package shogi.engine;
+
+/**
+ * Keresési korlátok: maximális mélység és/vagy időkeret.
+ * Ha mindkettő meg van adva, az előbb elért korlát állítja meg a keresést.
+ *
+ * Az időkeret kétszintű: a puha korlát után már nem indul új iteráció
+ * (a befejezett iteráció eredménye a válasz), a kemény korlát a futó
+ * iterációt is megszakítja. Egyszerű időkeretnél a kettő egyenlő.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class SearchLimits {
+
+    /** Mélység korlát nélkül (az iteráció felső határa) */
+    public static final int MAX_DEPTH = 64;
+
+    /** Maximális mélység (1..MAX_DEPTH) */
+    private final int depth;
+
+    /** Kemény időkeret ezredmásodpercben (0 = nincs időkorlát) */
+    private final long timeMillis;
+
+    /** Puha időkeret ezredmásodpercben (legfeljebb a kemény) */
+    private final long softMillis;
+
+    private SearchLimits(int depth, long softMillis, long timeMillis) {
+        this.depth = Math.max(1, Math.min(depth, MAX_DEPTH));
+        this.timeMillis = Math.max(0, timeMillis);
+        this.softMillis = Math.max(0, Math.min(softMillis, this.timeMillis));
+    }
+
+    /**
+     * @param depth keresési mélység
+     * @return csak mélységgel korlátozott keresés
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    /**
+     * @param millis időkeret ezredmásodpercben
+     * @return csak idővel korlátozott keresés
+     */
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(MAX_DEPTH, millis, millis);
+    }
+
+    /**
+     * @param depth keresési mélység
+     * @param millis időkeret ezredmásodpercben
+     * @return mélységgel és idővel is korlátozott keresés
+     */
+    public static SearchLimits of(int depth, long millis) {
+        return new SearchLimits(depth, millis, millis);
+    }
+
+    /**
+     * @param softMillis puha korlát: ezután nem indul új iteráció
+     * @param hardMillis kemény korlát: a keresés ennél tovább nem fut
+     * @return idővel korlátozott keresés puha és kemény határral
+     */
+    public static SearchLimits time(long softMillis, long hardMillis) {
+        return new SearchLimits(MAX_DEPTH, softMillis, hardMillis);
+    }
+
+    /**
+     * @return maximális mélység
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return kemény időkeret ezredmásodpercben (0 = nincs)
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * @return puha időkeret ezredmásodpercben (0 = nincs)
+     */
+    public long getSoftMillis() {
+        return softMillis;
+    }
+
+    /**
+     * @return true, ha van időkorlát
+     */
+    public boolean hasTimeLimit() {
+        return timeMillis > 0;
+    }
+
+    @Override
+    public String toString() {
+        if (!hasTimeLimit()) {
+            return "depth=" + depth;
+        }
+        return "depth=" + depth + (softMillis < timeMillis ? ", soft=" + softMillis + "ms" : "") + ", time=" + timeMillis + "ms";
+    }
+}
@@ -0,0 +1,21 @@
+package shogi.engine;
+
+/**
+ * Értesítés a keresés haladásáról (pl. USI "info" sorokhoz).
+ *
+ * A kereső szálán hívódik, ezért a megvalósítás legyen rövid, és ne
+ * hívja vissza a keresőt.
+ *
+ * @author Domokos Erik Zsolt
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    /**
+     * Egy iteráció befejeződött.
+     *
+     * @param result az iteráció eredménye (mélység, érték, csomópontok,
+     *               eltelt idő és fő változat)
+     */
+    void onIteration(SearchResult result);
+}
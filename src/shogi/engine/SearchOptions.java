@@ -0,0 +1,142 @@
+package shogi.engine;
+
+import java.util.EnumSet;
+import java.util.Locale;
+
+/**
+ * A kereső szelektív technikáinak ki-/bekapcsolása (alapértelmezés: mind
+ * bekapcsolva). Egy-egy technika kikapcsolásával külön mérhető a hatása
+ * az erőre és a sebességre (csomópont/másodperc).
+ *
+ * Szöveges megadás (pl. parancssorból): "all", "none", vagy vesszővel
+ * elválasztott lista, ahol a "-" előtag kikapcsol, a "+" (vagy semmi)
+ * bekapcsol, az "all" kiindulásból: pl. "-lmr,-null".
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class SearchOptions {
+
+    /**
+     * Kapcsolható technikák.
+     */
+    public enum Feature {
+        /** Nullalépéses vágás (ellenőrzéssel a kényszerlépéses végjátékokban) */
+        NULL_MOVE("null"),
+        /** Késői lépések mélységcsökkentése (LMR) */
+        LMR("lmr"),
+        /** Futility vágás (a hátralévő mélységhez képest reménytelen lépések) */
+        FUTILITY("futility"),
+        /** Razoring: sekély, reménytelen csomópontok nyugalmi keresése */
+        RAZORING("razor"),
+        /** Aspirációs ablak a gyökérben */
+        ASPIRATION("aspiration");
+
+        /** Rövid név a szöveges megadáshoz */
+        private final String key;
+
+        Feature(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return a rövid név
+         */
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /** Bekapcsolt technikák */
+    private final EnumSet<Feature> enabled;
+
+    private SearchOptions(EnumSet<Feature> enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return minden technika bekapcsolva (alapértelmezés)
+     */
+    public static SearchOptions all() {
+        return new SearchOptions(EnumSet.allOf(Feature.class));
+    }
+
+    /**
+     * @return minden technika kikapcsolva (tiszta alfa-béta + nyugalmi keresés)
+     */
+    public static SearchOptions none() {
+        return new SearchOptions(EnumSet.noneOf(Feature.class));
+    }
+
+    /**
+     * Szöveges megadás feldolgozása.
+     *
+     * @param spec pl. "all", "none", "-lmr,-null", "none,+null"
+     * @return a beállítások
+     * @throws IllegalArgumentException ismeretlen név esetén
+     */
+    public static SearchOptions parse(String spec) {
+        SearchOptions options = all();
+        for (String token : spec.toLowerCase(Locale.ROOT).split(",")) {
+            String name = token.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.equals("all")) {
+                options = all();
+            } else if (name.equals("none")) {
+                options = none();
+            } else {
+                boolean on = !name.startsWith("-");
+                if (name.startsWith("-") || name.startsWith("+")) {
+                    name = name.substring(1);
+                }
+                options = options.with(feature(name), on);
+            }
+        }
+        return options;
+    }
+
+    private static Feature feature(String key) {
+        for (Feature feature : Feature.values()) {
+            if (feature.key.equals(key)) {
+                return feature;
+            }
+        }
+        throw new IllegalArgumentException("Unknown search feature: " + key);
+    }
+
+    /**
+     * @param feature a technika
+     * @param on bekapcsolva legyen-e
+     * @return új beállítás a módosítással (az eredeti változatlan)
+     */
+    public SearchOptions with(Feature feature, boolean on) {
+        EnumSet<Feature> copy = EnumSet.copyOf(enabled);
+        if (on) {
+            copy.add(feature);
+        } else {
+            copy.remove(feature);
+        }
+        return new SearchOptions(copy);
+    }
+
+    /**
+     * @param feature a technika
+     * @return true, ha be van kapcsolva
+     */
+    public boolean isEnabled(Feature feature) {
+        return enabled.contains(feature);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Feature feature : Feature.values()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(isEnabled(feature) ? '+' : '-').append(feature.key);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package shogi.engine;
+
+import shogi.model.Move;
+
+/**
+ * Egy keresés eredménye: a legjobb lépés, értéke és statisztikák.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class SearchResult {
+
+    /** A legjobb lépés ({@link Move} kódolás), vagy Move.NONE ha nincs legális lépés */
+    private final int bestMove;
+
+    /** A lépés értéke a lépő fél szemszögéből */
+    private final int score;
+
+    /** Az utolsó befejezett iteráció mélysége */
+    private final int depth;
+
+    /** Vizsgált csomópontok száma */
+    private final long nodes;
+
+    /** Eltelt idő ezredmásodpercben */
+    private final long timeMillis;
+
+    /** Fő változat (a legjobb lépéssel kezdve; lehet üres) */
+    private final int[] pv;
+
+    /**
+     * @param bestMove legjobb lépés
+     * @param score érték
+     * @param depth befejezett mélység
+     * @param nodes csomópontok
+     * @param timeMillis eltelt idő
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis) {
+        this(bestMove, score, depth, nodes, timeMillis, new int[0]);
+    }
+
+    /**
+     * @param bestMove legjobb lépés
+     * @param score érték
+     * @param depth befejezett mélység
+     * @param nodes csomópontok
+     * @param timeMillis eltelt idő
+     * @param pv fő változat
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis, int[] pv) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.pv = pv.clone();
+    }
+
+    /**
+     * @return a legjobb lépés, vagy Move.NONE
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return az érték (matt esetén ±(Search.MATE - ply))
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return a befejezett mélység
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return a csomópontok száma
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return az eltelt idő ezredmásodpercben
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * @return a fő változat ({@link Move} kódolás, másolat; lehet üres)
+     */
+    public int[] getPv() {
+        return pv.clone();
+    }
+
+    /**
+     * @return csomópont / másodperc
+     */
+    public long getNodesPerSecond() {
+        return timeMillis > 0 ? nodes * 1000 / timeMillis : nodes;
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(bestMove) + " score=" + score + " depth=" + depth
+                + " nodes=" + nodes + " time=" + timeMillis + "ms";
+    }
+}
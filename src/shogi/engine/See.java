@@ -0,0 +1,139 @@
+package shogi.engine;
+
+import shogi.model.Bitboard;
+import shogi.model.BitboardPosition;
+import shogi.model.Move;
+
+/**
+ * Statikus cserekiértékelés (SEE - Static Exchange Evaluation).
+ *
+ * Egy lépés célmezején lejátssza a teljes ütésváltást úgy, hogy mindkét
+ * fél mindig a legkisebb értékű támadójával üt vissza (a csúszó bábuk a
+ * leütött bábuk mögül "előlépnek"), és minimax szerint megállhat, ha a
+ * folytatás neki rossz. Sógiban a leütött bábu a kézbe kerül, ezért egy
+ * ütés értéke a tábláról eltűnő bábu és a kézbe kerülő bábu értékének
+ * összege (lásd {@link #exchangeValue}).
+ *
+ * Egy példány munkaterületeket használ, keresőszálanként egy kell.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class See {
+
+    /** A király csereértéke: leütni nem lehet, így a csere végét jelenti */
+    private static final int KING_VALUE = 20000;
+
+    /** Csereérték típusindex szerint (tábla + kéz) */
+    private static final int[] EXCHANGE_VALUE = new int[BitboardPosition.KIND_COUNT];
+
+    static {
+        for (int kind = 0; kind < BitboardPosition.KIND_COUNT; kind++) {
+            int base = kind & ~BitboardPosition.PROMOTED;
+            EXCHANGE_VALUE[kind] = base < BitboardPosition.HAND_KINDS
+                    ? Evaluator.PIECE_VALUE[kind] + Evaluator.HAND_VALUE[base] : 0;
+        }
+        EXCHANGE_VALUE[BitboardPosition.KING] = KING_VALUE;
+    }
+
+    /** Nyereség a csere mélysége szerint (legfeljebb 38 bábu + a lépő) */
+    private final int[] gain = new int[48];
+
+    /** A csere közbeni foglaltság */
+    private final Bitboard occupancy = new Bitboard();
+
+    /** A célmező támadói */
+    private final Bitboard attackers = new Bitboard();
+
+    /**
+     * Egy bábu leütésének értéke: a tábláról eltűnik, és alapformában
+     * az ellenfél kezébe kerül.
+     *
+     * @param kind a leütött bábu típusindexe
+     * @return az anyagi különbség változása
+     */
+    public static int exchangeValue(int kind) {
+        return EXCHANGE_VALUE[kind];
+    }
+
+    /**
+     * A promóció anyagi nyeresége.
+     *
+     * @param move a lépés
+     * @return a promótált és az alap bábu értékének különbsége (0, ha nem promóció)
+     */
+    public static int promotionGain(int move) {
+        if (!Move.isPromotion(move)) {
+            return 0;
+        }
+        int kind = Move.pieceKind(move);
+        return Evaluator.PIECE_VALUE[kind | BitboardPosition.PROMOTED] - Evaluator.PIECE_VALUE[kind];
+    }
+
+    /**
+     * A lépés cseréjének anyagi mérlege a lépő fél szemszögéből.
+     *
+     * @param pos az állás a lépés előtt (nem módosul)
+     * @param move a vizsgált lépés
+     * @return a várható anyagi nyereség (negatív, ha a lépés anyagot veszít)
+     */
+    public int evaluate(BitboardPosition pos, int move) {
+        int to = Move.to(move);
+        int us = pos.getSideToMove();
+        occupancy.copyFrom(pos.occupied());
+
+        int onSquare; // a célmezőn álló (következőként leüthető) bábu
+        if (Move.isDrop(move)) {
+            gain[0] = 0;
+            onSquare = Move.pieceKind(move);
+        } else {
+            occupancy.clear(Move.from(move));
+            gain[0] = (Move.isCapture(move) ? EXCHANGE_VALUE[Move.capturedKind(move)] : 0) + promotionGain(move);
+            onSquare = Move.isPromotion(move) ? Move.pieceKind(move) | BitboardPosition.PROMOTED : Move.pieceKind(move);
+        }
+        occupancy.set(to);
+
+        int side = BitboardPosition.opponent(us);
+        int d = 0;
+        while (true) {
+            pos.attackers(to, side, occupancy, attackers).and(occupancy);
+            attackers.clear(to);
+            int from = leastValuable(pos, attackers);
+            if (from < 0) {
+                break;
+            }
+            d++;
+            gain[d] = EXCHANGE_VALUE[onSquare] - gain[d - 1];
+            if (onSquare == BitboardPosition.KING) {
+                break; // a királyt nem lehet leütni: az előző ütés illegális volt
+            }
+            if (Math.max(-gain[d - 1], gain[d]) < 0) {
+                break; // egyik folytatás sem javít: a csere eredménye már eldőlt
+            }
+            onSquare = pos.kindAt(from);
+            occupancy.clear(from);
+            side = BitboardPosition.opponent(side);
+        }
+        for (; d > 0; d--) {
+            gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+        }
+        return gain[0];
+    }
+
+    /**
+     * @return a legkisebb értékű támadó mezője, vagy -1 ha nincs
+     *         (a candidates halmaz kiürül)
+     */
+    private static int leastValuable(BitboardPosition pos, Bitboard candidates) {
+        int best = -1;
+        int bestValue = Integer.MAX_VALUE;
+        while (!candidates.isEmpty()) {
+            int sq = candidates.popLsb();
+            int value = EXCHANGE_VALUE[pos.kindAt(sq)];
+            if (value < bestValue) {
+                best = sq;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,72 @@
+package shogi.engine;
+
+import shogi.model.GameClock;
+import shogi.model.Piece;
+import shogi.model.TimeControl;
+
+/**
+ * Gondolkodási idő beosztása lépésenként az óraállás alapján.
+ *
+ * Puha korlát: a hátralévő alapidő egy tört része (feltételezve, hogy még
+ * MOVES_TO_GO lépés van hátra) plusz a növekmény nagy része; byoyomiban
+ * a lépésre járó teljes byoyomi. Kemény korlát: a puha többszöröse, de
+ * soha nem több, mint amennyi a lépésre az órán ténylegesen maradt,
+ * a MOVE_OVERHEAD biztonsági tartalékkal (lépés-végrehajtás, felület,
+ * ütemezési késés terhelés alatt).
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class TimeManager {
+
+    /** Feltételezett hátralévő lépésszám az alapidőből */
+    public static final int MOVES_TO_GO = 30;
+
+    /** Biztonsági tartalék lépésenként (ms) */
+    public static final long MOVE_OVERHEAD = 50;
+
+    /** A kemény korlát legfeljebb a puha ennyiszerese */
+    private static final int HARD_FACTOR = 4;
+
+    /** Minimális gondolkodási idő (ms), ha az órán alig maradt idő */
+    private static final long MIN_MILLIS = 10;
+
+    private TimeManager() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Időbeosztás az óra alapján a lépésen lévő félnek (az órája járhat is).
+     *
+     * @param clock a sakkóra
+     * @param color a lépő fél
+     * @return puha és kemény időkorlát
+     */
+    public static SearchLimits allocate(GameClock clock, Piece.Color color) {
+        return allocate(clock.getTimeControl(), clock.getRemainingMillis(color), clock.getMoveTimeLeftMillis(color));
+    }
+
+    /**
+     * Időbeosztás.
+     *
+     * @param control az időbeosztás szabálya
+     * @param remainingMillis hátralévő alapidő
+     * @param moveLeftMillis a lépésre felhasználható teljes idő (alapidő + byoyomi maradéka)
+     * @return puha és kemény időkorlát
+     */
+    public static SearchLimits allocate(TimeControl control, long remainingMillis, long moveLeftMillis) {
+        long available = Math.max(MIN_MILLIS, moveLeftMillis - MOVE_OVERHEAD);
+
+        long soft;
+        if (remainingMillis > 0) {
+            soft = remainingMillis / MOVES_TO_GO + control.getIncrementMillis() * 3 / 4;
+            // Byoyomival az alapidő vége felé sem érdemes a byoyomi felénél kevesebbet gondolkodni
+            soft = Math.max(soft, control.getByoyomiMillis() / 2);
+        } else {
+            soft = available; // byoyomi: a lépés ideje elveszne, ha nem használjuk
+        }
+        soft = Math.max(MIN_MILLIS, soft);
+
+        long hard = Math.min(available, soft * HARD_FACTOR);
+        return SearchLimits.time(Math.min(soft, hard), hard);
+    }
+}
@@ -0,0 +1,288 @@
+package shogi.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zár nélküli, szálak között megosztható transzpozíciós tábla.
+ *
+ * Bejegyzésenként két long: {@code [kulcs ^ adat, adat]}. Olvasáskor
+ * a két szót külön olvassuk és {@code (szó0 ^ szó1) == kulcs} feltétellel
+ * ellenőrizzük, így egy másik szál által félig felülírt bejegyzés
+ * (szakadt írás) egyszerűen nem talál - nincs szükség zárra.
+ *
+ * Az adat szó bitkiosztása:
+ * - 0-23.  bit: legjobb lépés (Move kódolás)
+ * - 24-39. bit: érték (16 bites előjeles)
+ * - 40-47. bit: mélység
+ * - 48-49. bit: korlát típusa (EXACT / LOWER / UPPER)
+ * - 50-57. bit: generáció (keresésenként nő, a régi bejegyzések cserélhetők)
+ *
+ * A méret MB-ban adható meg, a bejegyzések száma 2 hatványra kerekítve.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class TranspositionTable {
+
+    /** Pontos érték */
+    public static final int BOUND_EXACT = 1;
+
+    /** Alsó korlát (béta vágás) */
+    public static final int BOUND_LOWER = 2;
+
+    /** Felső korlát (egyik lépés sem érte el alfát) */
+    public static final int BOUND_UPPER = 3;
+
+    /** Egy bejegyzés mérete bájtban */
+    private static final int ENTRY_BYTES = 16;
+
+    private static final long MOVE_MASK = (1L << 24) - 1;
+    private static final int SCORE_SHIFT = 24;
+    private static final int DEPTH_SHIFT = 40;
+    private static final int BOUND_SHIFT = 48;
+    private static final int GENERATION_SHIFT = 50;
+
+    /** A bejegyzések (2 long / bejegyzés) */
+    private long[] table;
+
+    /** Index maszk (bejegyzések száma - 1) */
+    private long mask;
+
+    /** Aktuális generáció (8 bit) */
+    private volatile int generation;
+
+    /** Lekérdezések száma */
+    private final LongAdder probes = new LongAdder();
+
+    /** Találatok száma */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * @param megabytes a tábla mérete MB-ban (legalább 1)
+     */
+    public TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    /**
+     * Átméretezés (a tartalom elvész). Keresés közben nem hívható.
+     *
+     * @param megabytes az új méret MB-ban
+     */
+    public void resize(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long entries = Long.highestOneBit(bytes / ENTRY_BYTES);
+        entries = Math.min(entries, 1L << 29); // long[] index korlát
+        table = new long[(int) (entries * 2)];
+        mask = entries - 1;
+        generation = 0;
+        resetStatistics();
+    }
+
+    /**
+     * A teljes tábla törlése (új játszma).
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+        resetStatistics();
+    }
+
+    /**
+     * Új keresés kezdete: a korábbi bejegyzések "öregebbek" lesznek,
+     * így mélységtől függetlenül felülírhatók.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    // ===================================================================
+    //                          OLVASÁS / ÍRÁS
+    // ===================================================================
+
+    /**
+     * Bejegyzés keresése.
+     *
+     * @param key az állás Zobrist kulcsa
+     * @return a csomagolt adat szó, vagy 0 ha nincs (érvényes) bejegyzés
+     */
+    public long probe(long key) {
+        int index = (int) (key & mask) << 1;
+        long data = table[index + 1];
+        long check = table[index];
+        probes.increment();
+        if (data != 0 && (check ^ data) == key) {
+            hits.increment();
+            return data;
+        }
+        return 0;
+    }
+
+    /**
+     * Bejegyzés írása mélység szerinti cserével: sekélyebb eredmény nem ír
+     * felül mélyebbet, ha az ugyanarról az állásról szól, vagy a mostani
+     * keresésből származik (így a nyugalmi keresés 0 mélységű bejegyzései
+     * nem szorítják ki a hasznosabb eredményeket). Régebbi keresés más
+     * állásra vonatkozó bejegyzése mindig cserélhető. Lépés nélküli
+     * eredmény a régi lépést megtartja.
+     *
+     * @param key az állás Zobrist kulcsa
+     * @param move legjobb lépés (Move.NONE, ha nincs)
+     * @param score érték (a csomóponthoz viszonyítva, lásd {@link #toStored})
+     * @param depth mélység
+     * @param bound korlát típusa
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) (key & mask) << 1;
+        long oldData = table[index + 1];
+        boolean sameKey = (table[index] ^ oldData) == key;
+        if (oldData != 0 && depth < depthOf(oldData) && (sameKey || generationOf(oldData) == generation)) {
+            return; // mélyebb, friss bejegyzést nem írunk felül sekélyebbel
+        }
+        if (sameKey && oldData != 0) {
+            if (move == 0) {
+                move = moveOf(oldData);
+            }
+        }
+        long data = (move & MOVE_MASK)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+    // ===================================================================
+    //                      ADAT SZÓ DEKÓDOLÁS
+    // ===================================================================
+
+    /**
+     * @param data csomagolt adat
+     * @return a legjobb lépés
+     */
+    public static int moveOf(long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    /**
+     * @param data csomagolt adat
+     * @return az érték (tárolt alakban)
+     */
+    public static int scoreOf(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    /**
+     * @param data csomagolt adat
+     * @return a mélység
+     */
+    public static int depthOf(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /**
+     * @param data csomagolt adat
+     * @return a korlát típusa
+     */
+    public static int boundOf(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int generationOf(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+
+    /**
+     * Mattérték átalakítása tároláshoz: a gyökértől mért távolság helyett
+     * a csomóponttól mért távolság (így más úton elérve is helyes).
+     *
+     * @param score érték a gyökértől mérve
+     * @param ply a csomópont távolsága a gyökértől
+     * @return a tárolandó érték
+     */
+    public static int toStored(int score, int ply) {
+        if (score >= Search.MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -Search.MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * A {@link #toStored} fordítottja.
+     *
+     * @param score tárolt érték
+     * @param ply a csomópont távolsága a gyökértől
+     * @return érték a gyökértől mérve
+     */
+    public static int fromStored(int score, int ply) {
+        if (score >= Search.MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -Search.MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    // ===================================================================
+    //                          STATISZTIKA
+    // ===================================================================
+
+    /**
+     * @return a bejegyzések száma
+     */
+    public long capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return lekérdezések száma a legutóbbi nullázás óta
+     */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /**
+     * @return találatok száma a legutóbbi nullázás óta
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return találati arány (0.0 - 1.0)
+     */
+    public double getHitRate() {
+        long p = probes.sum();
+        return p == 0 ? 0.0 : (double) hits.sum() / p;
+    }
+
+    /**
+     * Telítettség becslése az első 1000 bejegyzés alapján (USI "hashfull").
+     *
+     * @return az aktuális generációval foglalt bejegyzések ezreléke
+     */
+    public int hashfull() {
+        int sample = (int) Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[(i << 1) + 1];
+            if (data != 0 && generationOf(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    /**
+     * Statisztikák nullázása.
+     */
+    public void resetStatistics() {
+        probes.reset();
+        hits.reset();
+    }
+}
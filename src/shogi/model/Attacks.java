@@ -0,0 +1,394 @@
+package shogi.model;
+
+/**
+ * Bábuk támadott mezőinek kiszámítása előre kiszámolt táblázatokból.
+ * A támadott mezők halmaza független attól, hogy saját vagy ellenséges
+ * bábu áll-e rajtuk (a szűrést a hívó végzi).
+ *
+ * Táblázatok:
+ * - Lépő bábuk (gyalog, lovag, ezüst, arany, király): [szín][típus][mező].
+ * - Csúszó bábuk: vonalanként (sor, oszlop, két átló) PEXT-stílusú index.
+ *   A vonal belső mezőinek foglaltságát {@link Long#compress(long, long)}
+ *   tömöríti egy kis indexszé, ami közvetlenül a támadáshalmazra mutat.
+ *   A bástya így két, a futó szintén két táblázatolvasás, ciklus nélkül.
+ *
+ * Az irányok a fekete (BLACK) játékos szemszögéből vannak megadva,
+ * fehérre a sor irány előjele megfordul.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class Attacks {
+
+    /** Arany tábornok mozgása (promótált kis bábuk is így mozognak) */
+    private static final int[][] GOLD_STEPS = {
+            {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, 0}
+    };
+
+    /** Király mozgása (8 irány) */
+    private static final int[][] KING_STEPS = {
+            {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}
+    };
+
+    /** Egy lépéses mozgások típusonként (csak a nem csúszó típusokhoz) */
+    private static final int[][][] STEPS = new int[BitboardPosition.KIND_COUNT][][];
+
+    static {
+        STEPS[BitboardPosition.PAWN] = new int[][] {{-1, 0}};
+        STEPS[BitboardPosition.KNIGHT] = new int[][] {{-2, -1}, {-2, 1}};
+        STEPS[BitboardPosition.SILVER] = new int[][] {{-1, -1}, {-1, 0}, {-1, 1}, {1, -1}, {1, 1}};
+        STEPS[BitboardPosition.GOLD] = GOLD_STEPS;
+        STEPS[BitboardPosition.KING] = KING_STEPS;
+        STEPS[BitboardPosition.PRO_PAWN] = GOLD_STEPS;
+        STEPS[BitboardPosition.PRO_LANCE] = GOLD_STEPS;
+        STEPS[BitboardPosition.PRO_KNIGHT] = GOLD_STEPS;
+        STEPS[BitboardPosition.PRO_SILVER] = GOLD_STEPS;
+    }
+
+    // ===================================================================
+    //                      LÉPŐ BÁBUK TÁBLÁZATAI
+    // ===================================================================
+
+    /** Lépő támadások alsó fele: [szín][típus][mező] */
+    private static final long[][][] STEP_LO = new long[2][BitboardPosition.KIND_COUNT][Bitboard.SQUARES];
+
+    /** Lépő támadások felső fele: [szín][típus][mező] */
+    private static final long[][][] STEP_HI = new long[2][BitboardPosition.KIND_COUNT][Bitboard.SQUARES];
+
+    // ===================================================================
+    //                     CSÚSZÓ BÁBUK TÁBLÁZATAI
+    // ===================================================================
+
+    /** Vonal: sor (vízszintes) */
+    private static final int RANK = 0;
+    /** Vonal: oszlop (függőleges) */
+    private static final int FILE = 1;
+    /** Vonal: főátló (bal-fent → jobb-lent) */
+    private static final int DIAG = 2;
+    /** Vonal: mellékátló (jobb-fent → bal-lent) */
+    private static final int ANTI = 3;
+
+    /** Vonalak két iránya: [vonal][irány] = {dr, dc} */
+    private static final int[][][] LINE_DIRS = {
+            {{0, -1}, {0, 1}},
+            {{-1, 0}, {1, 0}},
+            {{-1, -1}, {1, 1}},
+            {{-1, 1}, {1, -1}}
+    };
+
+    /** A vonal releváns (belső) mezői, alsó fele: [vonal][mező] */
+    private static final long[][] MASK_LO = new long[4][Bitboard.SQUARES];
+
+    /** A vonal releváns (belső) mezői, felső fele: [vonal][mező] */
+    private static final long[][] MASK_HI = new long[4][Bitboard.SQUARES];
+
+    /** MASK_LO bitjeinek száma (a felső rész ennyivel tolódik az indexben) */
+    private static final int[][] MASK_LO_BITS = new int[4][Bitboard.SQUARES];
+
+    /** A mező táblázatrészének kezdete a közös tömbben: [vonal][mező] */
+    private static final int[][] OFFSET = new int[4][Bitboard.SQUARES];
+
+    /** Vonal támadások alsó fele (összefűzött táblázat) */
+    private static final long[] LINE_LO;
+
+    /** Vonal támadások felső fele (összefűzött táblázat) */
+    private static final long[] LINE_HI;
+
+    /** Két mező közötti mezők (kizárólagosan), alsó fele: [a * 81 + b] */
+    private static final long[] BETWEEN_LO = new long[Bitboard.SQUARES * Bitboard.SQUARES];
+    private static final long[] BETWEEN_HI = new long[Bitboard.SQUARES * Bitboard.SQUARES];
+
+    /** A két mezőn átmenő teljes vonal (ha egy vonalban vannak), alsó fele: [a * 81 + b] */
+    private static final long[] LINE_THROUGH_LO = new long[Bitboard.SQUARES * Bitboard.SQUARES];
+    private static final long[] LINE_THROUGH_HI = new long[Bitboard.SQUARES * Bitboard.SQUARES];
+
+    /** Lándzsa előre-sugár maszk: [szín][mező] (alsó / felső fél) */
+    private static final long[][] FORWARD_LO = new long[2][Bitboard.SQUARES];
+    private static final long[][] FORWARD_HI = new long[2][Bitboard.SQUARES];
+
+    static {
+        Bitboard tmp = new Bitboard();
+
+        // Lépő bábuk
+        for (int color = 0; color < 2; color++) {
+            int sign = (color == BitboardPosition.BLACK) ? 1 : -1;
+            for (int kind = 0; kind < BitboardPosition.KIND_COUNT; kind++) {
+                if (STEPS[kind] == null) {
+                    continue;
+                }
+                for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                    tmp.clearAll();
+                    for (int[] d : STEPS[kind]) {
+                        int r = Bitboard.row(sq) + d[0] * sign;
+                        int c = Bitboard.col(sq) + d[1];
+                        if (isInside(r, c)) {
+                            tmp.set(Bitboard.square(r, c));
+                        }
+                    }
+                    STEP_LO[color][kind][sq] = tmp.getLo();
+                    STEP_HI[color][kind][sq] = tmp.getHi();
+                }
+            }
+        }
+
+        // Vonal maszkok és táblázatméret
+        int size = 0;
+        for (int line = 0; line < 4; line++) {
+            for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                tmp.clearAll();
+                for (int[] d : LINE_DIRS[line]) {
+                    int r = Bitboard.row(sq) + d[0];
+                    int c = Bitboard.col(sq) + d[1];
+                    // Csak a belső mezők számítanak: a szélső mező mindig támadott
+                    while (isInside(r + d[0], c + d[1])) {
+                        tmp.set(Bitboard.square(r, c));
+                        r += d[0];
+                        c += d[1];
+                    }
+                }
+                MASK_LO[line][sq] = tmp.getLo();
+                MASK_HI[line][sq] = tmp.getHi();
+                MASK_LO_BITS[line][sq] = Long.bitCount(tmp.getLo());
+                OFFSET[line][sq] = size;
+                size += 1 << tmp.count();
+            }
+        }
+
+        // Vonal támadások minden foglaltsági mintára
+        LINE_LO = new long[size];
+        LINE_HI = new long[size];
+        int[] maskSquares = new int[8];
+        Bitboard occ = new Bitboard();
+        for (int line = 0; line < 4; line++) {
+            for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                tmp.set(MASK_LO[line][sq], MASK_HI[line][sq]);
+                int n = 0;
+                while (!tmp.isEmpty()) {
+                    maskSquares[n++] = tmp.popLsb(); // növekvő sorrend = compress sorrend
+                }
+                for (int index = 0; index < (1 << n); index++) {
+                    occ.clearAll();
+                    for (int j = 0; j < n; j++) {
+                        if ((index & (1 << j)) != 0) {
+                            occ.set(maskSquares[j]);
+                        }
+                    }
+                    slide(sq, LINE_DIRS[line], occ, tmp);
+                    LINE_LO[OFFSET[line][sq] + index] = tmp.getLo();
+                    LINE_HI[OFFSET[line][sq] + index] = tmp.getHi();
+                }
+            }
+        }
+
+        // Lándzsa: az oszlop támadás előre eső része
+        for (int color = 0; color < 2; color++) {
+            int dr = (color == BitboardPosition.BLACK) ? -1 : 1;
+            for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                tmp.clearAll();
+                for (int r = Bitboard.row(sq) + dr; r >= 0 && r < 9; r += dr) {
+                    tmp.set(Bitboard.square(r, Bitboard.col(sq)));
+                }
+                FORWARD_LO[color][sq] = tmp.getLo();
+                FORWARD_HI[color][sq] = tmp.getHi();
+            }
+        }
+
+        // Köztes mezők és teljes vonalak (kötések / sakk blokkolás)
+        Bitboard line = new Bitboard();
+        for (int a = 0; a < Bitboard.SQUARES; a++) {
+            for (int[] d : KING_STEPS) {
+                line.clearAll();
+                for (int sign = -1; sign <= 1; sign += 2) {
+                    int r = Bitboard.row(a);
+                    int c = Bitboard.col(a);
+                    while (isInside(r, c)) {
+                        line.set(Bitboard.square(r, c));
+                        r += d[0] * sign;
+                        c += d[1] * sign;
+                    }
+                }
+                tmp.clearAll();
+                int r = Bitboard.row(a) + d[0];
+                int c = Bitboard.col(a) + d[1];
+                while (isInside(r, c)) {
+                    int b = Bitboard.square(r, c);
+                    BETWEEN_LO[a * Bitboard.SQUARES + b] = tmp.getLo();
+                    BETWEEN_HI[a * Bitboard.SQUARES + b] = tmp.getHi();
+                    LINE_THROUGH_LO[a * Bitboard.SQUARES + b] = line.getLo();
+                    LINE_THROUGH_HI[a * Bitboard.SQUARES + b] = line.getHi();
+                    tmp.set(b);
+                    r += d[0];
+                    c += d[1];
+                }
+            }
+        }
+    }
+
+    // Privát konstruktor - csak statikus metódusok
+    private Attacks() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    private static boolean isInside(int row, int col) {
+        return row >= 0 && row < 9 && col >= 0 && col < 9;
+    }
+
+    /**
+     * Csúszó támadás lassú kiszámítása (csak a táblázatok feltöltéséhez).
+     */
+    private static void slide(int sq, int[][] dirs, Bitboard occupied, Bitboard out) {
+        out.clearAll();
+        for (int[] d : dirs) {
+            int r = Bitboard.row(sq) + d[0];
+            int c = Bitboard.col(sq) + d[1];
+            while (isInside(r, c)) {
+                int target = Bitboard.square(r, c);
+                out.set(target);
+                if (occupied.get(target)) {
+                    break;
+                }
+                r += d[0];
+                c += d[1];
+            }
+        }
+    }
+
+    /**
+     * PEXT-stílusú táblázatindex egy vonalhoz.
+     */
+    private static int lineIndex(int line, int sq, Bitboard occupied) {
+        return OFFSET[line][sq]
+                + (int) (Long.compress(occupied.getLo(), MASK_LO[line][sq])
+                | (Long.compress(occupied.getHi(), MASK_HI[line][sq]) << MASK_LO_BITS[line][sq]));
+    }
+
+    // ===================================================================
+    //                        PUBLIKUS LEKÉRDEZÉSEK
+    // ===================================================================
+
+    /**
+     * Lépő bábu támadásai (gyalog, lovag, ezüst, arany-szerűek, király).
+     *
+     * @param color a bábu színe
+     * @param kind lépő típusindex
+     * @param sq a bábu mezője
+     * @param out ide kerül az eredmény
+     * @return az out paraméter
+     */
+    public static Bitboard stepAttacks(int color, int kind, int sq, Bitboard out) {
+        return out.set(STEP_LO[color][kind][sq], STEP_HI[color][kind][sq]);
+    }
+
+    /**
+     * Bástya támadásai (sor + oszlop, két táblázatolvasás).
+     *
+     * @param sq a bábu mezője
+     * @param occupied foglalt mezők
+     * @param out ide kerül az eredmény
+     * @return az out paraméter
+     */
+    public static Bitboard rookAttacks(int sq, Bitboard occupied, Bitboard out) {
+        int rank = lineIndex(RANK, sq, occupied);
+        int file = lineIndex(FILE, sq, occupied);
+        return out.set(LINE_LO[rank] | LINE_LO[file], LINE_HI[rank] | LINE_HI[file]);
+    }
+
+    /**
+     * Futó támadásai (két átló, két táblázatolvasás).
+     *
+     * @param sq a bábu mezője
+     * @param occupied foglalt mezők
+     * @param out ide kerül az eredmény
+     * @return az out paraméter
+     */
+    public static Bitboard bishopAttacks(int sq, Bitboard occupied, Bitboard out) {
+        int diag = lineIndex(DIAG, sq, occupied);
+        int anti = lineIndex(ANTI, sq, occupied);
+        return out.set(LINE_LO[diag] | LINE_LO[anti], LINE_HI[diag] | LINE_HI[anti]);
+    }
+
+    /**
+     * Lándzsa támadásai (oszlop táblázat, előre maszkolva).
+     *
+     * @param color a bábu színe
+     * @param sq a bábu mezője
+     * @param occupied foglalt mezők
+     * @param out ide kerül az eredmény
+     * @return az out paraméter
+     */
+    public static Bitboard lanceAttacks(int color, int sq, Bitboard occupied, Bitboard out) {
+        int file = lineIndex(FILE, sq, occupied);
+        return out.set(LINE_LO[file] & FORWARD_LO[color][sq], LINE_HI[file] & FORWARD_HI[color][sq]);
+    }
+
+    /**
+     * A két mező közötti mezők (a végpontok nélkül).
+     * Ha nincsenek egy vonalban (sor, oszlop, átló), üres halmaz.
+     *
+     * @param a egyik mező
+     * @param b másik mező
+     * @param out ide kerül az eredmény
+     * @return az out paraméter
+     */
+    public static Bitboard between(int a, int b, Bitboard out) {
+        int i = a * Bitboard.SQUARES + b;
+        return out.set(BETWEEN_LO[i], BETWEEN_HI[i]);
+    }
+
+    /**
+     * A két mezőn átmenő teljes vonal (táblaszéltől táblaszélig).
+     * Ha nincsenek egy vonalban, üres halmaz.
+     *
+     * @param a egyik mező
+     * @param b másik mező
+     * @param out ide kerül az eredmény
+     * @return az out paraméter
+     */
+    public static Bitboard lineThrough(int a, int b, Bitboard out) {
+        int i = a * Bitboard.SQUARES + b;
+        return out.set(LINE_THROUGH_LO[i], LINE_THROUGH_HI[i]);
+    }
+
+    /**
+     * @param a egyik mező
+     * @param b másik mező
+     * @param c harmadik mező
+     * @return true, ha c rajta van az a-b vonalon
+     */
+    public static boolean aligned(int a, int b, int c) {
+        int i = a * Bitboard.SQUARES + b;
+        return c < Bitboard.LO_BITS
+                ? (LINE_THROUGH_LO[i] & (1L << c)) != 0
+                : (LINE_THROUGH_HI[i] & (1L << (c - Bitboard.LO_BITS))) != 0;
+    }
+
+    /**
+     * Kiszámolja egy bábu által támadott mezőket.
+     *
+     * @param color a bábu színe (BitboardPosition.BLACK / WHITE)
+     * @param kind a bábu típusindexe (promóciót is tartalmazza)
+     * @param sq a bábu mezője
+     * @param occupied a foglalt mezők halmaza (a csúszó bábuk ezeknél megállnak)
+     * @param out ide kerül az eredmény (felülíródik)
+     * @return az out paraméter
+     */
+    public static Bitboard attacks(int color, int kind, int sq, Bitboard occupied, Bitboard out) {
+        switch (kind) {
+            case BitboardPosition.LANCE:
+                return lanceAttacks(color, sq, occupied, out);
+            case BitboardPosition.BISHOP:
+                return bishopAttacks(sq, occupied, out);
+            case BitboardPosition.ROOK:
+                return rookAttacks(sq, occupied, out);
+            case BitboardPosition.HORSE:
+                bishopAttacks(sq, occupied, out);
+                return out.set(out.getLo() | STEP_LO[color][BitboardPosition.KING][sq],
+                        out.getHi() | STEP_HI[color][BitboardPosition.KING][sq]);
+            case BitboardPosition.DRAGON:
+                rookAttacks(sq, occupied, out);
+                return out.set(out.getLo() | STEP_LO[color][BitboardPosition.KING][sq],
+                        out.getHi() | STEP_HI[color][BitboardPosition.KING][sq]);
+            default:
+                return stepAttacks(color, kind, sq, out);
+        }
+    }
+}
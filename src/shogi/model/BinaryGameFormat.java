@@ -0,0 +1,316 @@
+package shogi.model;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Tömör bináris mentési formátum: állás és játszmajegyzés néhány tucat
+ * bájton, a {@link SaveManager} a {@value #EXTENSION} kiterjesztésű
+ * fájloknál használja.
+ *
+ * Felépítés (1. verzió, többbájtos számok big-endian):
+ * <pre>
+ * 4 bájt   "SHGB" azonosító
+ * 1 bájt   verzió
+ * 1 bájt   jelzők: 0. bit = a kiinduló állásban fehér lép
+ * varint   a kiinduló állás lépésszáma
+ * 11 bájt  foglaltsági térkép (81 bit, mezőindex szerint, bájtonként a 0. bittől)
+ * n bájt   a foglalt mezők bábui mezőindex szerint: (szín &lt;&lt; 4) | típusindex
+ * 2×3 bájt kezek színenként, típusonként 5, 3, 3, 3, 3, 2, 2 biten (P, L, N, S, G, B, R)
+ * varint   lépések száma
+ * 2 bájt   lépésenként: célmező (7 bit) | kiindulási mező vagy ledobott
+ *          típus (7 bit) &lt;&lt; 7 | promóció &lt;&lt; 14 | ledobás &lt;&lt; 15
+ * 4 bájt   CRC32 az előző bájtokra
+ * </pre>
+ *
+ * A kezdőállás lépések nélkül 69 bájt. Betöltéskor a bábuk egyenesen a
+ * bitboard állásba, a lépések (a lépő és leütött bábu típusát az állásból
+ * kiegészítve), legalitás ellenőrzés után a játékba kerülnek - köztes
+ * objektumok nélkül; a visszajátszás az ismétlésfigyelés történetét is
+ * felépíti.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class BinaryGameFormat {
+
+    /** A bináris mentések kiterjesztése */
+    public static final String EXTENSION = ".shgb";
+
+    /** Formátum verzió */
+    public static final int VERSION = 1;
+
+    /** Azonosító bájtok */
+    private static final byte[] MAGIC = {'S', 'H', 'G', 'B'};
+
+    /** A kezek típusonkénti bitszélessége (a {@link Hand#MAX_COUNT} értékekhez) */
+    private static final int[] HAND_BITS = {5, 3, 3, 3, 3, 2, 2};
+
+    /** Foglaltsági térkép mérete (bájt) */
+    private static final int OCCUPANCY_BYTES = (Bitboard.SQUARES + 7) / 8;
+
+    /** Legrövidebb érvényes fájl: fejléc, térkép, kezek, lépésszám, CRC */
+    private static final int MIN_LENGTH = MAGIC.length + 2 + 1 + OCCUPANCY_BYTES + 6 + 1 + 4;
+
+    private BinaryGameFormat() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * @param path fájlútvonal
+     * @return true, ha a kiterjesztés alapján bináris mentés
+     */
+    public static boolean isBinaryPath(String path) {
+        return path.regionMatches(true, path.length() - EXTENSION.length(), EXTENSION, 0, EXTENSION.length());
+    }
+
+    // ===================================================================
+    //                          KÓDOLÁS
+    // ===================================================================
+
+    /**
+     * A játék (kiinduló állás és jegyzés) bináris alakja.
+     *
+     * @param game a játék
+     * @return a kódolt bájtok
+     */
+    public static byte[] encode(ShogiGame game) {
+        BitboardPosition start = game.getRecordStart();
+        int[] moves = game.getRecordMoves();
+
+        int pieces = start.occupied().count();
+        byte[] out = new byte[MIN_LENGTH + 4 + pieces + 5 + 2 * moves.length];
+        int n = 0;
+        for (byte b : MAGIC) {
+            out[n++] = b;
+        }
+        out[n++] = VERSION;
+        out[n++] = (byte) (start.getSideToMove() == BitboardPosition.WHITE ? 1 : 0);
+        n = writeVarint(out, n, game.getRecordStartNumber());
+
+        int occupancy = n;
+        n += OCCUPANCY_BYTES;
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int code = start.pieceAt(sq);
+            if (code != 0) {
+                out[occupancy + (sq >> 3)] |= (byte) (1 << (sq & 7));
+                out[n++] = (byte) ((BitboardPosition.codeColor(code) << 4) | BitboardPosition.codeKind(code));
+            }
+        }
+
+        for (int color = 0; color < 2; color++) {
+            int packed = 0;
+            int shift = 0;
+            for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+                packed |= start.getHandCount(color, kind) << shift;
+                shift += HAND_BITS[kind];
+            }
+            out[n++] = (byte) (packed >>> 16);
+            out[n++] = (byte) (packed >>> 8);
+            out[n++] = (byte) packed;
+        }
+
+        n = writeVarint(out, n, moves.length);
+        for (int move : moves) {
+            int origin = Move.isDrop(move) ? Move.pieceKind(move) : Move.from(move);
+            int packed = Move.to(move) | (origin << 7)
+                    | (Move.isPromotion(move) ? 1 << 14 : 0)
+                    | (Move.isDrop(move) ? 1 << 15 : 0);
+            out[n++] = (byte) (packed >>> 8);
+            out[n++] = (byte) packed;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(out, 0, n);
+        n = writeInt(out, n, (int) crc.getValue());
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int writeVarint(byte[] out, int n, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[n++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[n++] = (byte) value;
+        return n;
+    }
+
+    private static int writeInt(byte[] out, int n, int value) {
+        out[n++] = (byte) (value >>> 24);
+        out[n++] = (byte) (value >>> 16);
+        out[n++] = (byte) (value >>> 8);
+        out[n++] = (byte) value;
+        return n;
+    }
+
+    // ===================================================================
+    //                          DEKÓDOLÁS
+    // ===================================================================
+
+    /**
+     * Játék visszaállítása bináris alakból.
+     *
+     * @param data a kódolt bájtok
+     * @return a játék a jegyzés lépéseinek visszajátszása után
+     * @throws IOException ha az adat hibás (azonosító, verzió, ellenőrzőösszeg,
+     *                     szerkezet vagy szabálytalan lépés)
+     */
+    public static ShogiGame decode(byte[] data) throws IOException {
+        if (data.length < MIN_LENGTH) {
+            throw new IOException("Invalid binary save: too short");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                throw new IOException("Invalid binary save: bad magic");
+            }
+        }
+        int end = data.length - 4;
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, end);
+        if ((int) crc.getValue() != readInt(data, end)) {
+            throw new IOException("Invalid binary save: checksum mismatch");
+        }
+        if (data[MAGIC.length] != VERSION) {
+            throw new IOException("Unsupported binary save version: " + data[MAGIC.length]);
+        }
+
+        Reader in = new Reader(data, MAGIC.length + 1, end);
+        boolean whiteToMove = (in.next() & 1) != 0;
+        int startNumber = in.varint();
+
+        BitboardPosition pos = new BitboardPosition();
+        int occupancy = in.skip(OCCUPANCY_BYTES);
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            if ((data[occupancy + (sq >> 3)] & (1 << (sq & 7))) == 0) {
+                continue;
+            }
+            int piece = in.next();
+            int kind = piece & 15;
+            if (kind >= BitboardPosition.KIND_COUNT || (piece >> 4) > 1
+                    || (kind > BitboardPosition.KING && !BitboardPosition.isPromotable(kind & 7))) {
+                throw new IOException("Invalid binary save: bad piece on square " + sq);
+            }
+            pos.putPiece(sq, piece >> 4, kind);
+        }
+
+        for (int color = 0; color < 2; color++) {
+            int packed = (in.next() << 16) | (in.next() << 8) | in.next();
+            for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+                int count = packed & ((1 << HAND_BITS[kind]) - 1);
+                if (count > Hand.MAX_COUNT[kind]) {
+                    throw new IOException("Invalid binary save: bad hand count");
+                }
+                pos.setHandCount(color, kind, count);
+                packed >>>= HAND_BITS[kind];
+            }
+        }
+        pos.setSideToMove(whiteToMove ? BitboardPosition.WHITE : BitboardPosition.BLACK);
+
+        ShogiGame game = new ShogiGame(pos);
+        game.setMoveNumber(startNumber);
+
+        MoveGenerator generator = new MoveGenerator();
+        int count = in.varint();
+        for (int i = 0; i < count; i++) {
+            int packed = (in.next() << 8) | in.next();
+            int move = decodeMove(pos, packed);
+            if (move == Move.NONE || !generator.isLegal(pos, move)) {
+                throw new IOException("Invalid binary save: bad move " + (i + 1));
+            }
+            pos.doMove(move);
+            game.replayMove(move);
+        }
+        if (!in.atEnd()) {
+            throw new IOException("Invalid binary save: trailing data");
+        }
+        return game;
+    }
+
+    /**
+     * Tömörített lépés kiegészítése az állásból (lépő és leütött bábu).
+     *
+     * @return a teljes kódolású lépés, vagy {@link Move#NONE}, ha az állásban nem értelmes
+     */
+    private static int decodeMove(BitboardPosition pos, int packed) {
+        int to = packed & 0x7F;
+        int origin = (packed >>> 7) & 0x7F;
+        int us = pos.getSideToMove();
+        if (to >= Bitboard.SQUARES) {
+            return Move.NONE;
+        }
+        if ((packed & (1 << 15)) != 0) {
+            if (origin >= BitboardPosition.HAND_KINDS || pos.getHandCount(us, origin) == 0
+                    || pos.pieceAt(to) != 0 || (packed & (1 << 14)) != 0) {
+                return Move.NONE;
+            }
+            return Move.drop(origin, to);
+        }
+        if (origin >= Bitboard.SQUARES) {
+            return Move.NONE;
+        }
+        int code = pos.pieceAt(origin);
+        int target = pos.pieceAt(to);
+        boolean promote = (packed & (1 << 14)) != 0;
+        if (code == 0 || BitboardPosition.codeColor(code) != us
+                || (promote && !BitboardPosition.isPromotable(BitboardPosition.codeKind(code)))
+                || (target != 0 && (BitboardPosition.codeColor(target) == us
+                        || BitboardPosition.codeKind(target) == BitboardPosition.KING))) {
+            return Move.NONE;
+        }
+        return Move.normal(origin, to, BitboardPosition.codeKind(code),
+                target == 0 ? -1 : BitboardPosition.codeKind(target), promote);
+    }
+
+    private static int readInt(byte[] data, int n) {
+        return ((data[n] & 0xFF) << 24) | ((data[n + 1] & 0xFF) << 16)
+                | ((data[n + 2] & 0xFF) << 8) | (data[n + 3] & 0xFF);
+    }
+
+    /**
+     * Határellenőrzött olvasó a hasznos adatra (a CRC előtti részre).
+     */
+    private static final class Reader {
+        private final byte[] data;
+        private final int end;
+        private int pos;
+
+        Reader(byte[] data, int pos, int end) {
+            this.data = data;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        int next() throws IOException {
+            if (pos >= end) {
+                throw new IOException("Invalid binary save: truncated");
+            }
+            return data[pos++] & 0xFF;
+        }
+
+        /** @return a kihagyott rész kezdete */
+        int skip(int bytes) throws IOException {
+            if (pos + bytes > end) {
+                throw new IOException("Invalid binary save: truncated");
+            }
+            int start = pos;
+            pos += bytes;
+            return start;
+        }
+
+        int varint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = next();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Invalid binary save: bad varint");
+        }
+
+        boolean atEnd() {
+            return pos == end;
+        }
+    }
+}
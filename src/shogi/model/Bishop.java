@@ -1,6 +1,5 @@
 package shogi.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,80 +30,27 @@ public class Bishop extends Piece {
      */
     @Override
     public List<Position> getLegalMoves(Board board) {
-        if (!promoted) {
-            return getNormalBishopMoves(board);
-        } else {
-            return getPromotedBishopMoves(board);
-        }
+        // Promótált: futó + király egyenes lépései (HORSE típusindex)
+        return getTableMoves(board, BitboardPosition.kindOf(this));
     }
     
     /**
      * Normál futó mozgás: átlós vonalban akadályig (4 átló).
+     * A két átló táblázata alapján.
      * 
      * @param board a játéktábla
      * @return a lehetséges célpozíciók listája
      */
     public List<Position> getNormalBishopMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        if (position == null) {
-            return moves;
-        }
-
-        int[][] dirs = {
-            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-        };
-
-        for (int[] d : dirs) {
-            int r = position.getRow() + d[0];
-            int c = position.getCol() + d[1];
-
-            while (board.isInside(r, c)) {
-                Piece p = board.getPieceAt(r, c);
-
-                if (p == null) {
-                    moves.add(new Position(r, c));
-                } else {
-                    if (p.getColor() != color) {
-                        moves.add(new Position(r, c));
-                    }
-                    break;
-                }
-
-                r += d[0];
-                c += d[1];
-            }
-        }
-
-        return moves;
+        return getTableMoves(board, BitboardPosition.BISHOP);
     }
 
-    
-    private List<Position> getPromotedBishopMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        // 1) normál bishop mozgás
-        moves.addAll(getNormalBishopMoves(board));
-
-        // 2) királyi mozgások (8 irány 1 lépés)
-        int[][] kingDirs = {
-                {-1,-1}, {-1,0}, {-1,1},
-                { 0,-1},         { 0,1},
-                { 1,-1}, { 1,0}, { 1,1}
-        };
-
-        for (int[] d : kingDirs) {
-            int nr = position.getRow() + d[0];
-            int nc = position.getCol() + d[1];
-            if (board.isInside(nr, nc)) {
-                Piece p = board.getPieceAt(nr, nc);
-                if (p == null || p.getColor() != color) {
-                    moves.add(new Position(nr, nc));
-                }
-            }
-        }
-
-        return moves;
+    /**
+     * @return PieceType.BISHOP
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.BISHOP;
     }
 
     /**
@@ -0,0 +1,309 @@
+package shogi.model;
+
+/**
+ * 81 bites mezőhalmaz (bitboard) a 9×9-es táblához.
+ * A mezőindex: sq = sor * 9 + oszlop (0-80).
+ * Az alsó long (lo) a 0-62. mezőket (0-6. sor), a felső long (hi)
+ * a 63-80. mezőket (7-8. sor) tárolja.
+ *
+ * Szándékosan módosítható (mutable) osztály: a forró útvonalak
+ * előre lefoglalt példányokat használnak újra, így nincs szemétgyűjtés.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class Bitboard {
+
+    /** Mezők száma a táblán */
+    public static final int SQUARES = 81;
+
+    /** Az alsó long által tárolt mezők száma */
+    public static final int LO_BITS = 63;
+
+    /** A felső long érvényes bitjei (18 mező) */
+    public static final long HI_MASK = (1L << (SQUARES - LO_BITS)) - 1;
+
+    /** Az alsó long érvényes bitjei (63 mező) */
+    public static final long LO_MASK = (1L << LO_BITS) - 1;
+
+    /** 0-62. mezők */
+    private long lo;
+
+    /** 63-80. mezők */
+    private long hi;
+
+    /**
+     * Üres bitboard létrehozása.
+     */
+    public Bitboard() {
+    }
+
+    /**
+     * Bitboard létrehozása nyers értékekből.
+     *
+     * @param lo alsó 63 mező
+     * @param hi felső 18 mező
+     */
+    public Bitboard(long lo, long hi) {
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    // ===================================================================
+    //                        MEZŐ INDEXELÉS
+    // ===================================================================
+
+    /**
+     * @param row sor index (0-8)
+     * @param col oszlop index (0-8)
+     * @return a mező indexe (0-80)
+     */
+    public static int square(int row, int col) {
+        return row * 9 + col;
+    }
+
+    /**
+     * @param sq mező index
+     * @return a mező sora
+     */
+    public static int row(int sq) {
+        return sq / 9;
+    }
+
+    /**
+     * @param sq mező index
+     * @return a mező oszlopa
+     */
+    public static int col(int sq) {
+        return sq % 9;
+    }
+
+    // ===================================================================
+    //                        ALAPMŰVELETEK
+    // ===================================================================
+
+    /**
+     * @return alsó long (0-62. mezők)
+     */
+    public long getLo() {
+        return lo;
+    }
+
+    /**
+     * @return felső long (63-80. mezők)
+     */
+    public long getHi() {
+        return hi;
+    }
+
+    /**
+     * Nyers érték beállítása.
+     *
+     * @param lo alsó 63 mező
+     * @param hi felső 18 mező
+     * @return ez a bitboard (láncoláshoz)
+     */
+    public Bitboard set(long lo, long hi) {
+        this.lo = lo;
+        this.hi = hi;
+        return this;
+    }
+
+    /**
+     * Másik bitboard tartalmának átmásolása.
+     *
+     * @param other forrás
+     * @return ez a bitboard
+     */
+    public Bitboard copyFrom(Bitboard other) {
+        this.lo = other.lo;
+        this.hi = other.hi;
+        return this;
+    }
+
+    /**
+     * @return új, független másolat
+     */
+    public Bitboard copy() {
+        return new Bitboard(lo, hi);
+    }
+
+    /**
+     * Összes mező törlése.
+     */
+    public void clearAll() {
+        lo = 0;
+        hi = 0;
+    }
+
+    /**
+     * @param sq mező index
+     * @return true, ha a mező benne van a halmazban
+     */
+    public boolean get(int sq) {
+        return sq < LO_BITS
+                ? (lo & (1L << sq)) != 0
+                : (hi & (1L << (sq - LO_BITS))) != 0;
+    }
+
+    /**
+     * Mező hozzáadása.
+     *
+     * @param sq mező index
+     */
+    public void set(int sq) {
+        if (sq < LO_BITS) {
+            lo |= 1L << sq;
+        } else {
+            hi |= 1L << (sq - LO_BITS);
+        }
+    }
+
+    /**
+     * Mező eltávolítása.
+     *
+     * @param sq mező index
+     */
+    public void clear(int sq) {
+        if (sq < LO_BITS) {
+            lo &= ~(1L << sq);
+        } else {
+            hi &= ~(1L << (sq - LO_BITS));
+        }
+    }
+
+    /**
+     * Metszet képzése (this = this ∩ other).
+     *
+     * @param other másik halmaz
+     * @return ez a bitboard
+     */
+    public Bitboard and(Bitboard other) {
+        lo &= other.lo;
+        hi &= other.hi;
+        return this;
+    }
+
+    /**
+     * Unió képzése (this = this ∪ other).
+     *
+     * @param other másik halmaz
+     * @return ez a bitboard
+     */
+    public Bitboard or(Bitboard other) {
+        lo |= other.lo;
+        hi |= other.hi;
+        return this;
+    }
+
+    /**
+     * Különbség képzése (this = this \ other).
+     *
+     * @param other kivonandó halmaz
+     * @return ez a bitboard
+     */
+    public Bitboard andNot(Bitboard other) {
+        lo &= ~other.lo;
+        hi &= ~other.hi;
+        return this;
+    }
+
+    /**
+     * Komplementer képzése a táblán belül (this = tábla \ this).
+     *
+     * @return ez a bitboard
+     */
+    public Bitboard complement() {
+        lo = ~lo & LO_MASK;
+        hi = ~hi & HI_MASK;
+        return this;
+    }
+
+    /**
+     * @param other másik halmaz
+     * @return true, ha a két halmaznak van közös mezője
+     */
+    public boolean intersects(Bitboard other) {
+        return (lo & other.lo) != 0 || (hi & other.hi) != 0;
+    }
+
+    /**
+     * @return true, ha a halmaz üres
+     */
+    public boolean isEmpty() {
+        return (lo | hi) == 0;
+    }
+
+    /**
+     * @return a halmaz elemszáma
+     */
+    public int count() {
+        return Long.bitCount(lo) + Long.bitCount(hi);
+    }
+
+    /**
+     * @return a legkisebb indexű mező, vagy -1 ha üres
+     */
+    public int lsb() {
+        if (lo != 0) {
+            return Long.numberOfTrailingZeros(lo);
+        }
+        if (hi != 0) {
+            return LO_BITS + Long.numberOfTrailingZeros(hi);
+        }
+        return -1;
+    }
+
+    /**
+     * Kiveszi és visszaadja a legkisebb indexű mezőt.
+     * Iterációhoz: {@code while (!bb.isEmpty()) { int sq = bb.popLsb(); ... }}
+     *
+     * @return a kivett mező indexe, vagy -1 ha üres
+     */
+    public int popLsb() {
+        if (lo != 0) {
+            int sq = Long.numberOfTrailingZeros(lo);
+            lo &= lo - 1;
+            return sq;
+        }
+        if (hi != 0) {
+            int sq = LO_BITS + Long.numberOfTrailingZeros(hi);
+            hi &= hi - 1;
+            return sq;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Bitboard)) {
+            return false;
+        }
+        Bitboard bb = (Bitboard) o;
+        return lo == bb.lo && hi == bb.hi;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(lo) * 31 + Long.hashCode(hi);
+    }
+
+    /**
+     * Szöveges reprezentáció 9×9-es rácsként ('1' = foglalt, '.' = üres).
+     *
+     * @return a tábla rajza
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(SQUARES + 9);
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                sb.append(get(square(row, col)) ? '1' : '.');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,673 @@
+package shogi.model;
+
+/**
+ * Bitboard alapú állás-reprezentáció a {@link Board} mellé.
+ *
+ * Objektumok helyett számokkal dolgozik:
+ * - mezőnként egy bájt bábukód (0 = üres),
+ * - színenként és típusonként egy-egy 81 bites {@link Bitboard},
+ * - kezenként típusonkénti darabszám.
+ *
+ * Egy Board-ból (és a kezekből) felépíthető, és vissza is alakítható,
+ * így a lépésgenerálás és a támadásvizsgálat bitműveletekkel végezhető.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class BitboardPosition {
+
+    // ===================================================================
+    //                          KONSTANSOK
+    // ===================================================================
+
+    /** Fekete szín indexe (Piece.Color.BLACK.ordinal()) */
+    public static final int BLACK = 0;
+
+    /** Fehér szín indexe (Piece.Color.WHITE.ordinal()) */
+    public static final int WHITE = 1;
+
+    /** Gyalog típusindex (= PieceType.PAWN.ordinal()) */
+    public static final int PAWN = 0;
+    /** Lándzsa típusindex */
+    public static final int LANCE = 1;
+    /** Lovag típusindex */
+    public static final int KNIGHT = 2;
+    /** Ezüst típusindex */
+    public static final int SILVER = 3;
+    /** Arany típusindex */
+    public static final int GOLD = 4;
+    /** Futó típusindex */
+    public static final int BISHOP = 5;
+    /** Bástya típusindex */
+    public static final int ROOK = 6;
+    /** Király típusindex */
+    public static final int KING = 7;
+
+    /** Promóciós bit: promótált típus = alaptípus | PROMOTED */
+    public static final int PROMOTED = 8;
+
+    /** Promótált gyalog (Tokin) */
+    public static final int PRO_PAWN = PAWN | PROMOTED;
+    /** Promótált lándzsa */
+    public static final int PRO_LANCE = LANCE | PROMOTED;
+    /** Promótált lovag */
+    public static final int PRO_KNIGHT = KNIGHT | PROMOTED;
+    /** Promótált ezüst */
+    public static final int PRO_SILVER = SILVER | PROMOTED;
+    /** Promótált futó (Dragon Horse / 竜馬) */
+    public static final int HORSE = BISHOP | PROMOTED;
+    /** Promótált bástya (Dragon King / 竜王) */
+    public static final int DRAGON = ROOK | PROMOTED;
+
+    /** Típusindexek száma (a 12-es index nincs használva) */
+    public static final int KIND_COUNT = 15;
+
+    /** Kézben tartható típusok száma (Gyalog..Bástya) */
+    public static final int HAND_KINDS = 7;
+
+    // ===================================================================
+    //                            ÁLLAPOT
+    // ===================================================================
+
+    /** Mezőnkénti bábukód (0 = üres), lásd {@link #pieceCode(int, int)} */
+    private final byte[] squares = new byte[Bitboard.SQUARES];
+
+    /** Színenkénti foglaltság */
+    private final Bitboard[] byColor = {new Bitboard(), new Bitboard()};
+
+    /** Típusonkénti foglaltság (mindkét szín együtt) */
+    private final Bitboard[] byKind = new Bitboard[KIND_COUNT];
+
+    /** Összes foglalt mező */
+    private final Bitboard occupied = new Bitboard();
+
+    /** Kezek színenként, csomagolt típusonkénti számlálókkal (lásd {@link Hand}) */
+    private final int[] hands = new int[2];
+
+    /** A királyok mezője színenként (-1, ha nincs a táblán) */
+    private final int[] kingSquare = {-1, -1};
+
+    /** Lépésen lévő fél */
+    private int sideToMove = BLACK;
+
+    /** Zobrist kulcs XOR része (tábla, lépő fél), minden módosítással frissül */
+    private long boardKey;
+
+    /** Zobrist kulcs összeadásos része (kezek) */
+    private long handKey;
+
+    /** Táblán lévő bábuk anyag + mezőtáblás pontja színenként (lásd {@link PieceSquare}) */
+    private final int[] boardScore = new int[2];
+
+    /** Kézben lévő bábuk értéke színenként */
+    private final int[] handScore = new int[2];
+
+    /** Munkaterület a támadásszámításhoz (nem szálbiztos) */
+    private final Bitboard scratch = new Bitboard();
+
+    /** Munkaterület az isAttacked() eredményéhez */
+    private final Bitboard attackersScratch = new Bitboard();
+
+    /**
+     * Üres állás létrehozása (üres tábla, üres kezek, fekete lép).
+     */
+    public BitboardPosition() {
+        for (int k = 0; k < KIND_COUNT; k++) {
+            byKind[k] = new Bitboard();
+        }
+    }
+
+    // ===================================================================
+    //                       KÓDOLÁS / SEGÉDEK
+    // ===================================================================
+
+    /**
+     * @param color szín index
+     * @param kind típusindex
+     * @return a mezőn tárolt bábukód (mindig &gt; 0)
+     */
+    public static int pieceCode(int color, int kind) {
+        return (color << 4) | (kind + 1);
+    }
+
+    /**
+     * @param code bábukód (nem 0)
+     * @return a kód típusindexe
+     */
+    public static int codeKind(int code) {
+        return (code & 15) - 1;
+    }
+
+    /**
+     * @param code bábukód (nem 0)
+     * @return a kód színe
+     */
+    public static int codeColor(int code) {
+        return code >> 4;
+    }
+
+    /**
+     * @param color szín index
+     * @return az ellenfél színindexe
+     */
+    public static int opponent(int color) {
+        return color ^ 1;
+    }
+
+    /**
+     * @param kind típusindex
+     * @return true, ha a típus (még) promótálható
+     */
+    public static boolean isPromotable(int kind) {
+        return kind < KING && kind != GOLD;
+    }
+
+    /**
+     * @param color szín enum
+     * @return szín index
+     */
+    public static int colorIndex(Piece.Color color) {
+        return color.ordinal();
+    }
+
+    /**
+     * @param color szín index
+     * @return szín enum
+     */
+    public static Piece.Color colorOf(int color) {
+        return color == BLACK ? Piece.Color.BLACK : Piece.Color.WHITE;
+    }
+
+    /**
+     * Egy bábu objektum típusindexe (a promóciót is figyelembe véve).
+     *
+     * @param piece a bábu
+     * @return típusindex
+     */
+    public static int kindOf(Piece piece) {
+        PieceType type = piece.getType();
+        int kind = type.ordinal();
+        return (piece.isPromoted() && type.isPromotable()) ? (kind | PROMOTED) : kind;
+    }
+
+    // ===================================================================
+    //                     ÁTALAKÍTÁS Board <-> bitboard
+    // ===================================================================
+
+    /**
+     * Állás felépítése egy táblából (kezek nélkül).
+     *
+     * @param board a forrás tábla
+     * @param sideToMove a lépésen lévő fél
+     * @return az új bitboard állás
+     */
+    public static BitboardPosition fromBoard(Board board, Piece.Color sideToMove) {
+        BitboardPosition pos = new BitboardPosition();
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                Piece p = board.getPieceAt(row, col);
+                if (p != null) {
+                    pos.putPiece(Bitboard.square(row, col), colorIndex(p.getColor()), kindOf(p));
+                }
+            }
+        }
+        pos.setSideToMove(colorIndex(sideToMove));
+        return pos;
+    }
+
+    /**
+     * Visszaalakítás objektum alapú táblává (új Piece példányokkal).
+     *
+     * @return az új tábla
+     */
+    public Board toBoard() {
+        Board board = new Board();
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int code = squares[sq];
+            if (code == 0) {
+                continue;
+            }
+            int kind = codeKind(code);
+            int row = Bitboard.row(sq);
+            int col = Bitboard.col(sq);
+            Piece piece = PieceType.of(kind & ~PROMOTED)
+                    .createPiece(colorOf(codeColor(code)), new Position(row, col));
+            if ((kind & PROMOTED) != 0) {
+                piece.promote();
+            }
+            board.setPieceAt(row, col, piece);
+        }
+        return board;
+    }
+
+    /**
+     * @return független, teljes másolat
+     */
+    public BitboardPosition copy() {
+        BitboardPosition pos = new BitboardPosition();
+        System.arraycopy(squares, 0, pos.squares, 0, squares.length);
+        for (int c = 0; c < 2; c++) {
+            pos.byColor[c].copyFrom(byColor[c]);
+            pos.hands[c] = hands[c];
+            pos.kingSquare[c] = kingSquare[c];
+            pos.boardScore[c] = boardScore[c];
+            pos.handScore[c] = handScore[c];
+        }
+        for (int k = 0; k < KIND_COUNT; k++) {
+            pos.byKind[k].copyFrom(byKind[k]);
+        }
+        pos.occupied.copyFrom(occupied);
+        pos.sideToMove = sideToMove;
+        pos.boardKey = boardKey;
+        pos.handKey = handKey;
+        return pos;
+    }
+
+    // ===================================================================
+    //                         TÁBLA MŰVELETEK
+    // ===================================================================
+
+    /**
+     * Bábu elhelyezése egy üres mezőre.
+     *
+     * @param sq mező index
+     * @param color szín index
+     * @param kind típusindex
+     */
+    public void putPiece(int sq, int color, int kind) {
+        squares[sq] = (byte) pieceCode(color, kind);
+        byColor[color].set(sq);
+        byKind[kind].set(sq);
+        occupied.set(sq);
+        boardKey ^= Zobrist.piece(color, kind, sq);
+        boardScore[color] += PieceSquare.score(color, kind, sq);
+        if (kind == KING) {
+            kingSquare[color] = sq;
+        }
+    }
+
+    /**
+     * Bábu levétele egy mezőről.
+     *
+     * @param sq mező index
+     * @return a levett bábu kódja (0, ha üres volt)
+     */
+    public int removePiece(int sq) {
+        int code = squares[sq];
+        if (code == 0) {
+            return 0;
+        }
+        int color = codeColor(code);
+        int kind = codeKind(code);
+        squares[sq] = 0;
+        byColor[color].clear(sq);
+        byKind[kind].clear(sq);
+        occupied.clear(sq);
+        boardKey ^= Zobrist.piece(color, kind, sq);
+        boardScore[color] -= PieceSquare.score(color, kind, sq);
+        if (kind == KING && kingSquare[color] == sq) {
+            kingSquare[color] = -1;
+        }
+        return code;
+    }
+
+    /**
+     * @param sq mező index
+     * @return a mezőn lévő bábu kódja (0 = üres)
+     */
+    public int pieceAt(int sq) {
+        return squares[sq];
+    }
+
+    /**
+     * @param sq mező index
+     * @return a mezőn lévő bábu típusindexe, vagy -1 ha üres
+     */
+    public int kindAt(int sq) {
+        int code = squares[sq];
+        return code == 0 ? -1 : codeKind(code);
+    }
+
+    /**
+     * @return a foglalt mezők halmaza (csak olvasásra!)
+     */
+    public Bitboard occupied() {
+        return occupied;
+    }
+
+    /**
+     * @param color szín index
+     * @return az adott szín bábuinak mezői (csak olvasásra!)
+     */
+    public Bitboard pieces(int color) {
+        return byColor[color];
+    }
+
+    /**
+     * @param kind típusindex
+     * @return az adott típusú bábuk mezői mindkét színre (csak olvasásra!)
+     */
+    public Bitboard piecesOfKind(int kind) {
+        return byKind[kind];
+    }
+
+    /**
+     * Egy szín adott típusú bábuinak mezői.
+     *
+     * @param color szín index
+     * @param kind típusindex
+     * @param out ide kerül az eredmény
+     * @return az out paraméter
+     */
+    public Bitboard pieces(int color, int kind, Bitboard out) {
+        return out.copyFrom(byKind[kind]).and(byColor[color]);
+    }
+
+    /**
+     * @param color szín index
+     * @return a király mezője, vagy -1 ha nincs a táblán
+     */
+    public int kingSquare(int color) {
+        return kingSquare[color];
+    }
+
+    // ===================================================================
+    //                          LÉPÉS / VISSZAVONÁS
+    // ===================================================================
+
+    /**
+     * Végrehajt egy {@link Move} kódolású lépést (legalitás ellenőrzés nélkül).
+     * A leütött bábu alapformában a lépő fél kezébe kerül.
+     *
+     * @param move a kódolt lépés
+     */
+    public void doMove(int move) {
+        int us = sideToMove;
+        int to = Move.to(move);
+        int kind = Move.pieceKind(move);
+        if (Move.isDrop(move)) {
+            removeFromHand(us, kind);
+            putPiece(to, us, kind);
+        } else {
+            removePiece(Move.from(move));
+            if (Move.isCapture(move)) {
+                removePiece(to);
+                addToHand(us, Move.capturedKind(move) & ~PROMOTED);
+            }
+            putPiece(to, us, Move.isPromotion(move) ? kind | PROMOTED : kind);
+        }
+        setSideToMove(opponent(us));
+    }
+
+    /**
+     * Visszavonja a {@link #doMove(int)} lépést. Külön verem nem kell:
+     * a lépés kódja minden visszaállításhoz szükséges adatot tartalmaz.
+     *
+     * @param move az utoljára megtett lépés
+     */
+    public void undoMove(int move) {
+        int us = opponent(sideToMove);
+        setSideToMove(us);
+        int to = Move.to(move);
+        int kind = Move.pieceKind(move);
+        removePiece(to);
+        if (Move.isDrop(move)) {
+            addToHand(us, kind);
+        } else {
+            if (Move.isCapture(move)) {
+                int captured = Move.capturedKind(move);
+                removeFromHand(us, captured & ~PROMOTED);
+                putPiece(to, opponent(us), captured);
+            }
+            putPiece(Move.from(move), us, kind);
+        }
+    }
+
+    // ===================================================================
+    //                              KEZEK
+    // ===================================================================
+
+    /**
+     * @param color szín index
+     * @param kind kézben tartható típusindex (PAWN..ROOK)
+     * @return a kézben lévő darabszám
+     */
+    public int getHandCount(int color, int kind) {
+        return Hand.count(hands[color], kind);
+    }
+
+    /**
+     * @param color szín index
+     * @param kind kézben tartható típusindex (PAWN..ROOK)
+     * @param count az új darabszám
+     */
+    public void setHandCount(int color, int kind, int count) {
+        int diff = count - Hand.count(hands[color], kind);
+        handKey += diff * Zobrist.hand(color, kind);
+        handScore[color] += diff * PieceSquare.HAND_VALUE[kind];
+        hands[color] = Hand.set(hands[color], kind, count);
+    }
+
+    private void addToHand(int color, int kind) {
+        hands[color] = Hand.add(hands[color], kind);
+        handKey += Zobrist.hand(color, kind);
+        handScore[color] += PieceSquare.HAND_VALUE[kind];
+    }
+
+    private void removeFromHand(int color, int kind) {
+        hands[color] = Hand.remove(hands[color], kind);
+        handKey -= Zobrist.hand(color, kind);
+        handScore[color] -= PieceSquare.HAND_VALUE[kind];
+    }
+
+    /**
+     * @param color szín index
+     * @return a kéz csomagolt alakja (lásd {@link Hand})
+     */
+    public int getHand(int color) {
+        return hands[color];
+    }
+
+    /**
+     * A teljes kéz beállítása csomagolt alakból.
+     *
+     * @param color szín index
+     * @param hand a kéz csomagolt alakja
+     */
+    public void setHand(int color, int hand) {
+        for (int kind = 0; kind < HAND_KINDS; kind++) {
+            setHandCount(color, kind, Hand.count(hand, kind));
+        }
+    }
+
+    // ===================================================================
+    //                       ANYAG / MEZŐTÁBLA PONTOK
+    // ===================================================================
+
+    /**
+     * A táblán lévő bábuk anyag + mezőtáblás pontja. Minden bábu
+     * lerakás/levétel frissíti, így lekérdezése konstans idejű.
+     *
+     * @param color szín index
+     * @return a szín bábuinak összpontja ({@link PieceSquare#score})
+     */
+    public int getBoardScore(int color) {
+        return boardScore[color];
+    }
+
+    /**
+     * @param color szín index
+     * @return a szín kezében lévő bábuk összértéke ({@link PieceSquare#HAND_VALUE})
+     */
+    public int getHandScore(int color) {
+        return handScore[color];
+    }
+
+    /**
+     * A pontok újraszámolása a táblából és a kezekből (ellenőrzéshez).
+     *
+     * @param color szín index
+     * @return true, ha a növekményesen vezetett pontok egyeznek a teljes újraszámolással
+     */
+    public boolean verifyScores(int color) {
+        int board = 0;
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int code = squares[sq];
+            if (code != 0 && codeColor(code) == color) {
+                board += PieceSquare.score(color, codeKind(code), sq);
+            }
+        }
+        int hand = 0;
+        for (int kind = 0; kind < HAND_KINDS; kind++) {
+            hand += Hand.count(hands[color], kind) * PieceSquare.HAND_VALUE[kind];
+        }
+        return board == boardScore[color] && hand == handScore[color];
+    }
+
+    // ===================================================================
+    //                          LÉPÉSEN LÉVŐ FÉL
+    // ===================================================================
+
+    /**
+     * @return a lépésen lévő fél színindexe
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * @param color a lépésen lévő fél színindexe
+     */
+    public void setSideToMove(int color) {
+        if (color != sideToMove) {
+            boardKey ^= Zobrist.SIDE;
+        }
+        this.sideToMove = color;
+    }
+
+    /**
+     * @return az állás Zobrist kulcsa (tábla, kezek, lépő fél)
+     */
+    public long getKey() {
+        return boardKey + handKey;
+    }
+
+    /**
+     * A lépés utáni állás kulcsa a lépés megtétele nélkül (pl. a gyerek
+     * csomópontok tábla-lekérdezéséhez).
+     *
+     * @param move a (legális) lépés
+     * @return a kulcs, amelyet {@link #doMove(int)} után {@link #getKey()} adna
+     */
+    public long keyAfter(int move) {
+        int us = sideToMove;
+        int to = Move.to(move);
+        int kind = Move.pieceKind(move);
+        long board = boardKey ^ Zobrist.SIDE;
+        long hand = handKey;
+        if (Move.isDrop(move)) {
+            hand -= Zobrist.hand(us, kind);
+            board ^= Zobrist.piece(us, kind, to);
+        } else {
+            board ^= Zobrist.piece(us, kind, Move.from(move));
+            if (Move.isCapture(move)) {
+                int captured = Move.capturedKind(move);
+                board ^= Zobrist.piece(opponent(us), captured, to);
+                hand += Zobrist.hand(us, captured & ~PROMOTED);
+            }
+            board ^= Zobrist.piece(us, Move.isPromotion(move) ? kind | PROMOTED : kind, to);
+        }
+        return board + hand;
+    }
+
+    // ===================================================================
+    //                          TÁMADÁSOK
+    // ===================================================================
+
+    /**
+     * Összegyűjti egy mezőt támadó bábukat (fordított keresés).
+     * A megfordított támadási minta elve: X típusú bábu pontosan akkor
+     * támadja sq-t, ha sq-ról az ellenkező színű X támadná X mezőjét.
+     * Az azonos mintájú típusok (pl. arany és a promótált kis bábuk)
+     * egyetlen táblázatolvasással vizsgálhatók.
+     *
+     * @param sq a vizsgált mező
+     * @param attacker a támadó szín
+     * @param out ide kerül a támadók halmaza
+     * @return az out paraméter
+     */
+    public Bitboard attackers(int sq, int attacker, Bitboard out) {
+        return attackers(sq, attacker, occupied, out);
+    }
+
+    /**
+     * Mint {@link #attackers(int, int, Bitboard)}, de megadott foglaltsággal.
+     * Királylépésnél a királyt kivéve a foglaltságból a csúszó bábuk
+     * "átlátnak" a király eredeti mezején.
+     *
+     * @param sq a vizsgált mező
+     * @param attacker a támadó szín
+     * @param occupancy a csúszó bábukat megállító mezők
+     * @param out ide kerül a támadók halmaza
+     * @return az out paraméter
+     */
+    public Bitboard attackers(int sq, int attacker, Bitboard occupancy, Bitboard out) {
+        int defender = opponent(attacker);
+        Bitboard bb = scratch;
+        long lo = 0;
+        long hi = 0;
+
+        Attacks.stepAttacks(defender, PAWN, sq, bb);
+        lo |= bb.getLo() & byKind[PAWN].getLo();
+        hi |= bb.getHi() & byKind[PAWN].getHi();
+
+        Attacks.stepAttacks(defender, KNIGHT, sq, bb);
+        lo |= bb.getLo() & byKind[KNIGHT].getLo();
+        hi |= bb.getHi() & byKind[KNIGHT].getHi();
+
+        Attacks.stepAttacks(defender, SILVER, sq, bb);
+        lo |= bb.getLo() & byKind[SILVER].getLo();
+        hi |= bb.getHi() & byKind[SILVER].getHi();
+
+        Attacks.stepAttacks(defender, GOLD, sq, bb);
+        lo |= bb.getLo() & (byKind[GOLD].getLo() | byKind[PRO_PAWN].getLo() | byKind[PRO_LANCE].getLo()
+                | byKind[PRO_KNIGHT].getLo() | byKind[PRO_SILVER].getLo());
+        hi |= bb.getHi() & (byKind[GOLD].getHi() | byKind[PRO_PAWN].getHi() | byKind[PRO_LANCE].getHi()
+                | byKind[PRO_KNIGHT].getHi() | byKind[PRO_SILVER].getHi());
+
+        Attacks.stepAttacks(defender, KING, sq, bb);
+        lo |= bb.getLo() & (byKind[KING].getLo() | byKind[HORSE].getLo() | byKind[DRAGON].getLo());
+        hi |= bb.getHi() & (byKind[KING].getHi() | byKind[HORSE].getHi() | byKind[DRAGON].getHi());
+
+        Attacks.lanceAttacks(defender, sq, occupancy, bb);
+        lo |= bb.getLo() & byKind[LANCE].getLo();
+        hi |= bb.getHi() & byKind[LANCE].getHi();
+
+        Attacks.rookAttacks(sq, occupancy, bb);
+        lo |= bb.getLo() & (byKind[ROOK].getLo() | byKind[DRAGON].getLo());
+        hi |= bb.getHi() & (byKind[ROOK].getHi() | byKind[DRAGON].getHi());
+
+        Attacks.bishopAttacks(sq, occupancy, bb);
+        lo |= bb.getLo() & (byKind[BISHOP].getLo() | byKind[HORSE].getLo());
+        hi |= bb.getHi() & (byKind[BISHOP].getHi() | byKind[HORSE].getHi());
+
+        return out.set(lo & byColor[attacker].getLo(), hi & byColor[attacker].getHi());
+    }
+
+    /**
+     * @param sq a vizsgált mező
+     * @param attacker a támadó szín
+     * @return true, ha az adott szín támadja a mezőt
+     */
+    public boolean isAttacked(int sq, int attacker) {
+        return !attackers(sq, attacker, attackersScratch).isEmpty();
+    }
+
+    /**
+     * @param color a vizsgált király színe
+     * @return true, ha a király sakkban van (király nélkül false)
+     */
+    public boolean isInCheck(int color) {
+        int king = kingSquare[color];
+        return king >= 0 && isAttacked(king, opponent(color));
+    }
+}
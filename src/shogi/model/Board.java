@@ -11,6 +11,18 @@ public class Board {
     /** A tábla rácsszerkezete - 9×9-es mátrix */
     private Piece[][] grid = new Piece[9][9];
 
+    /** Foglalt mezők színenként (a rácsszerkezettel együtt frissül) */
+    private final Bitboard[] occupancy = {new Bitboard(), new Bitboard()};
+
+    /** Összes foglalt mező */
+    private final Bitboard occupied = new Bitboard();
+
+    /** Királyok mezője színenként (-1, ha nincs a táblán) */
+    private final int[] kingSquare = {-1, -1};
+
+    /** A táblán lévő bábuk Zobrist kulcsa (XOR), minden módosítással frissül */
+    private long hashKey;
+
     /**
      * Ellenőrzi, hogy egy koordináta a táblán belül van-e.
      * 
@@ -78,9 +90,17 @@ public class Board {
      * @param piece az elhelyezendő bábu (null esetén törli a mezőt)
      */
     public void setPieceAt(int row, int col, Piece piece) {
+        clearSquare(row, col);
         grid[row][col] = piece;
 
         if (piece != null) {
+            int sq = Bitboard.square(row, col);
+            occupancy[piece.getColor().ordinal()].set(sq);
+            occupied.set(sq);
+            if (piece instanceof King) {
+                kingSquare[piece.getColor().ordinal()] = sq;
+            }
+            hashKey ^= Zobrist.piece(piece, sq);
             piece.setPosition(new Position(row, col));
             piece.updateForwardDirection();
         }
@@ -107,8 +127,105 @@ public class Board {
         setPieceAt(to.getRow(), to.getCol(), movingPiece);
         
         // Forrás mező ürítése
-        grid[from.getRow()][from.getCol()] = null;
+        clearSquare(from.getRow(), from.getCol());
         
         return capturedPiece;
     }
+
+    /**
+     * Promótálja a mezőn álló bábut (a Zobrist kulcs követi).
+     * 
+     * @param row sor index
+     * @param col oszlop index
+     */
+    public void promotePiece(int row, int col) {
+        setPromoted(row, col, true);
+    }
+
+    /**
+     * Visszaveszi a mezőn álló bábu promócióját (a Zobrist kulcs követi).
+     * 
+     * @param row sor index
+     * @param col oszlop index
+     */
+    public void unpromotePiece(int row, int col) {
+        setPromoted(row, col, false);
+    }
+
+    private void setPromoted(int row, int col, boolean promoted) {
+        Piece piece = grid[row][col];
+        int sq = Bitboard.square(row, col);
+        hashKey ^= Zobrist.piece(piece, sq);
+        if (promoted) {
+            piece.promote();
+        } else {
+            piece.unpromote();
+        }
+        hashKey ^= Zobrist.piece(piece, sq);
+    }
+
+    /**
+     * Kiüríti a mezőt és a foglaltsági bitboardokat.
+     */
+    private void clearSquare(int row, int col) {
+        Piece old = grid[row][col];
+        if (old != null) {
+            int sq = Bitboard.square(row, col);
+            occupancy[old.getColor().ordinal()].clear(sq);
+            occupied.clear(sq);
+            hashKey ^= Zobrist.piece(old, sq);
+            // Ideiglenes áthelyezésnél a király már máshol lehet nyilvántartva
+            if (old instanceof King && kingSquare[old.getColor().ordinal()] == sq) {
+                kingSquare[old.getColor().ordinal()] = -1;
+            }
+            grid[row][col] = null;
+        }
+    }
+
+    /**
+     * A király mezőjének lekérése (keresés nélkül, a nyilvántartásból).
+     * 
+     * @param color a király színe
+     * @return a király mezőindexe (sor * 9 + oszlop), vagy -1 ha nincs a táblán
+     */
+    public int getKingSquare(Piece.Color color) {
+        return kingSquare[color.ordinal()];
+    }
+
+    /**
+     * A király pozíciójának lekérése.
+     * 
+     * @param color a király színe
+     * @return a király pozíciója, vagy null ha nincs a táblán
+     */
+    public Position getKingPosition(Piece.Color color) {
+        int sq = kingSquare[color.ordinal()];
+        return sq < 0 ? null : new Position(Bitboard.row(sq), Bitboard.col(sq));
+    }
+
+    /**
+     * @return az összes foglalt mező (csak olvasásra!)
+     */
+    public Bitboard getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * @param color a vizsgált szín
+     * @return az adott színű bábuk mezői (csak olvasásra!)
+     */
+    public Bitboard getPieces(Piece.Color color) {
+        return occupancy[color.ordinal()];
+    }
+
+    /**
+     * A táblán lévő bábuk Zobrist kulcsa (kezek és lépő fél nélkül).
+     * A bábuk promócióját a {@link #promotePiece} / {@link #unpromotePiece}
+     * metódusokkal kell módosítani, különben a kulcs elavul.
+     * 
+     * @return a tábla kulcsa
+     */
+    public long getHashKey() {
+        return hashKey;
+    }
 }
@@ -0,0 +1,200 @@
+package shogi.model;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Sakkóra: a két játékos hátralévő ideje egy {@link TimeControl} szerint.
+ *
+ * Egyszerre legfeljebb egy fél órája jár. Lépésnél ({@link #stop()} /
+ * {@link #switchSide()}) az eltelt idő előbb az alapidőből fogy; ha az
+ * elfogyott, a maradék a lépés byoyomi idejéből. Aki a byoyomit is
+ * túllépi, annak "leesik a zászlója". Sikeres lépés után jár a növekmény.
+ *
+ * Az idő a monoton System.nanoTime szerint mérődik (tesztben cserélhető).
+ * Nem szálbiztos: a felület eseménykezelő szálán használandó.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class GameClock {
+
+    /** Az időbeosztás */
+    private final TimeControl control;
+
+    /** Időforrás nanoszekundumban */
+    private final LongSupplier nanoTime;
+
+    /** Hátralévő alapidő színenként (ms) */
+    private final long[] remaining = new long[2];
+
+    /** Leesett zászló színenként */
+    private final boolean[] flagged = new boolean[2];
+
+    /** Az éppen járó óra színe (null = áll) */
+    private Piece.Color running;
+
+    /** A járó óra indításának ideje (ns) */
+    private long startNanos;
+
+    /**
+     * @param control az időbeosztás
+     */
+    public GameClock(TimeControl control) {
+        this(control, System::nanoTime);
+    }
+
+    /**
+     * @param control az időbeosztás
+     * @param nanoTime időforrás (teszthez)
+     */
+    GameClock(TimeControl control, LongSupplier nanoTime) {
+        this.control = control;
+        this.nanoTime = nanoTime;
+        reset();
+    }
+
+    /**
+     * Mindkét óra vissza a kezdeti alapidőre (új játszma).
+     */
+    public void reset() {
+        remaining[0] = control.getMainMillis();
+        remaining[1] = control.getMainMillis();
+        flagged[0] = false;
+        flagged[1] = false;
+        running = null;
+    }
+
+    // ===================================================================
+    //                          ÓRA KEZELÉS
+    // ===================================================================
+
+    /**
+     * Elindítja az adott fél óráját (a másik fél órája nem járhat).
+     *
+     * @param color a lépésen lévő fél
+     */
+    public void start(Piece.Color color) {
+        if (running != null) {
+            throw new IllegalStateException("Clock already running for " + running);
+        }
+        running = color;
+        startNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Megállítja a járó órát, és elszámolja a lépésre fordított időt.
+     *
+     * @return true, ha a lépés időben megtörtént (nem esett le a zászló)
+     */
+    public boolean stop() {
+        if (running == null) {
+            return true;
+        }
+        int side = running.ordinal();
+        long elapsed = (nanoTime.getAsLong() - startNanos) / 1_000_000;
+        running = null;
+
+        if (elapsed <= remaining[side]) {
+            remaining[side] -= elapsed;
+        } else {
+            long overrun = elapsed - remaining[side];
+            remaining[side] = 0;
+            if (overrun > control.getByoyomiMillis()) {
+                flagged[side] = true;
+                return false;
+            }
+        }
+        remaining[side] += control.getIncrementMillis();
+        return true;
+    }
+
+    /**
+     * Lépés után az óra átváltása a másik félre.
+     *
+     * @return true, ha a lépő fél időben lépett
+     */
+    public boolean switchSide() {
+        Piece.Color mover = running;
+        boolean inTime = stop();
+        if (mover != null) {
+            start(mover == Piece.Color.BLACK ? Piece.Color.WHITE : Piece.Color.BLACK);
+        }
+        return inTime;
+    }
+
+    // ===================================================================
+    //                          LEKÉRDEZÉS
+    // ===================================================================
+
+    /**
+     * @param color a játékos
+     * @return a hátralévő alapidő ms-ban (a járó órán az eltelt idővel csökkentve)
+     */
+    public long getRemainingMillis(Piece.Color color) {
+        long left = remaining[color.ordinal()];
+        if (running == color) {
+            left -= (nanoTime.getAsLong() - startNanos) / 1_000_000;
+        }
+        return Math.max(0, left);
+    }
+
+    /**
+     * @param color a játékos
+     * @return az aktuális (vagy következő) lépésre még felhasználható idő
+     *         ms-ban: a maradék alapidő és a byoyomi együtt
+     */
+    public long getMoveTimeLeftMillis(Piece.Color color) {
+        long left = remaining[color.ordinal()] + control.getByoyomiMillis();
+        if (running == color) {
+            left -= (nanoTime.getAsLong() - startNanos) / 1_000_000;
+        }
+        return Math.max(0, left);
+    }
+
+    /**
+     * @param color a játékos
+     * @return true, ha az alapidő elfogyott (lépésenként csak a byoyomi jár)
+     */
+    public boolean isInByoyomi(Piece.Color color) {
+        return control.getByoyomiMillis() > 0 && getRemainingMillis(color) == 0;
+    }
+
+    /**
+     * @param color a játékos
+     * @return true, ha a játékos túllépte az idejét (a járó órán is)
+     */
+    public boolean hasFlagged(Piece.Color color) {
+        if (flagged[color.ordinal()]) {
+            return true;
+        }
+        long elapsed = (nanoTime.getAsLong() - startNanos) / 1_000_000;
+        return running == color && elapsed > remaining[color.ordinal()] + control.getByoyomiMillis();
+    }
+
+    /**
+     * @return az éppen járó óra színe, vagy null
+     */
+    public Piece.Color getRunning() {
+        return running;
+    }
+
+    /**
+     * @return az időbeosztás
+     */
+    public TimeControl getTimeControl() {
+        return control;
+    }
+
+    /**
+     * Óraállás m:ss formában (byoyomiban a lépésre maradt idővel).
+     *
+     * @param color a játékos
+     * @return a kijelzendő szöveg
+     */
+    public String format(Piece.Color color) {
+        boolean byoyomi = isInByoyomi(color);
+        long millis = byoyomi ? getMoveTimeLeftMillis(color) : getRemainingMillis(color);
+        long seconds = (millis + 999) / 1000;
+        String text = String.format("%d:%02d", seconds / 60, seconds % 60);
+        return byoyomi ? "秒読み " + text : text;
+    }
+}
@@ -1,6 +1,5 @@
 package shogi.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,29 +30,15 @@ public class GoldGeneral extends Piece {
      */
     @Override
     public List<Position> getLegalMoves(Board board) {
+        return getTableMoves(board, BitboardPosition.GOLD);
+    }
 
-        List<Position> moves = new ArrayList<>();
-        int direction = (color == Color.BLACK ? -1 : 1);
-
-        // ARANY TÁBORNOK mozgási mintázata (6 irány)
-        int[][] dirs = {
-                {direction, 0},       // előre
-                {0, -1}, {0, 1},      // bal/jobb
-                {-direction, 0},      // hátra
-                {direction, -1}, {direction, 1}   // átlós előre
-        };
-
-        for (int[] dir : dirs) {
-            int nr = position.getRow() + dir[0];
-            int nc = position.getCol() + dir[1];
-            if (board.isInside(nr, nc)) {
-                Piece targetPiece = board.getPieceAt(nr, nc);
-                if (targetPiece == null || targetPiece.getColor() != color)
-                    moves.add(new Position(nr, nc));
-            }
-        }
-
-        return moves;
+    /**
+     * @return PieceType.GOLD
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.GOLD;
     }
 
     /**
@@ -0,0 +1,104 @@
+package shogi.model;
+
+/**
+ * Kézben lévő bábuk egyetlen int-be csomagolva (típusonkénti számlálók).
+ *
+ * Bitkiosztás (típus: bitek, maximum):
+ * - Gyalog:  0-4.   bit (18)
+ * - Lándzsa: 5-7.   bit (4)
+ * - Lovag:   8-10.  bit (4)
+ * - Ezüst:   11-13. bit (4)
+ * - Arany:   14-16. bit (4)
+ * - Futó:    17-18. bit (2)
+ * - Bástya:  19-20. bit (2)
+ *
+ * Minden művelet O(1), az érték másolható, összehasonlítható és
+ * hash-elhető, nincs objektum foglalás. A típusindex a
+ * {@link PieceType} sorszáma (PAWN..ROOK).
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class Hand {
+
+    /** Üres kéz */
+    public static final int EMPTY = 0;
+
+    /** Típusonkénti bit eltolás */
+    private static final int[] SHIFT = {0, 5, 8, 11, 14, 17, 19};
+
+    /** Típusonkénti maszk (eltolás előtt) */
+    private static final int[] MASK = {0x1F, 0x7, 0x7, 0x7, 0x7, 0x3, 0x3};
+
+    /** Típusonkénti maximális darabszám (a játékban lévő összes ilyen bábu) */
+    public static final int[] MAX_COUNT = {18, 4, 4, 4, 4, 2, 2};
+
+    private Hand() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * @param hand a csomagolt kéz
+     * @param kind kézben tartható típusindex (PAWN..ROOK)
+     * @return az adott típusú darabszám
+     */
+    public static int count(int hand, int kind) {
+        return (hand >>> SHIFT[kind]) & MASK[kind];
+    }
+
+    /**
+     * @param hand a csomagolt kéz
+     * @param kind kézben tartható típusindex
+     * @param count az új darabszám (0..MAX_COUNT)
+     * @return az új csomagolt kéz
+     */
+    public static int set(int hand, int kind, int count) {
+        return (hand & ~(MASK[kind] << SHIFT[kind])) | (count << SHIFT[kind]);
+    }
+
+    /**
+     * @param hand a csomagolt kéz
+     * @param kind kézbe kerülő típusindex
+     * @return az új csomagolt kéz egy darabbal több bábuval
+     */
+    public static int add(int hand, int kind) {
+        return hand + (1 << SHIFT[kind]);
+    }
+
+    /**
+     * @param hand a csomagolt kéz (a típusból legalább egy darab van)
+     * @param kind kézből kivett típusindex
+     * @return az új csomagolt kéz egy darabbal kevesebb bábuval
+     */
+    public static int remove(int hand, int kind) {
+        return hand - (1 << SHIFT[kind]);
+    }
+
+    /**
+     * @param hand a csomagolt kéz
+     * @param kind típusindex
+     * @return true, ha van legalább egy ilyen bábu
+     */
+    public static boolean has(int hand, int kind) {
+        return count(hand, kind) != 0;
+    }
+
+    /**
+     * @param hand a csomagolt kéz
+     * @return true, ha a kéz üres
+     */
+    public static boolean isEmpty(int hand) {
+        return hand == EMPTY;
+    }
+
+    /**
+     * @param hand a csomagolt kéz
+     * @return a kézben lévő bábuk száma összesen
+     */
+    public static int total(int hand) {
+        int total = 0;
+        for (int kind = 0; kind < SHIFT.length; kind++) {
+            total += count(hand, kind);
+        }
+        return total;
+    }
+}
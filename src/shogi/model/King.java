@@ -1,6 +1,5 @@
 package shogi.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,28 +30,15 @@ public class King extends Piece {
      */
     @Override
     public List<Position> getLegalMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        // 8 irány: fel-le, bal-jobb, és az átlók
-        int[][] dirs = {
-                {-1, -1}, {-1, 0}, {-1, 1},
-                {0, -1},          {0, 1},
-                {1, -1},  {1, 0},  {1, 1}
-        };
-
-        for (int[] d : dirs) {
-            int nr = position.getRow() + d[0];
-            int nc = position.getCol() + d[1];
+        return getTableMoves(board, BitboardPosition.KING);
+    }
 
-            if (board.isInside(nr, nc)) {
-                Piece targetPiece = board.getPieceAt(nr, nc);
-                // Léphet üres mezőre vagy ellenséges bábura
-                if (targetPiece == null || targetPiece.getColor() != this.color) {
-                    moves.add(new Position(nr, nc));
-                }
-            }
-        }
-        return moves;
+    /**
+     * @return PieceType.KING
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.KING;
     }
 
     /**
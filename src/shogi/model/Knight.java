@@ -1,6 +1,5 @@
 package shogi.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,65 +30,16 @@ public class Knight extends Piece {
      */
     @Override
     public List<Position> getLegalMoves(Board board) {
-        if (!promoted) {
-            return getNormalKnightMoves(board);
-        } else {
-            return getPromotedKnightMoves(board);
-        }
+        // Promótált állapotban Arany tábornok mintázat (PRO_* típusindex)
+        return getTableMoves(board, BitboardPosition.kindOf(this));
     }
 
     /**
-     * Normál lovag mozgás: 2 előre, 1 oldalra (L alak, csak előre).
-     * 
-     * @param board a játéktábla
-     * @return a lehetséges célpozíciók listája
+     * @return PieceType.KNIGHT
      */
-    private List<Position> getNormalKnightMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        int dir = (color == Color.BLACK ? -2 : 2);
-        int row = position.getRow() + dir;
-
-        int col1 = position.getCol() - 1;
-        int col2 = position.getCol() + 1;
-
-        if (board.isInside(row, col1)) {
-            Piece p = board.getPieceAt(row, col1);
-            if (p == null || p.getColor() != color)
-                moves.add(new Position(row, col1));
-        }
-
-        if (board.isInside(row, col2)) {
-            Piece p = board.getPieceAt(row, col2);
-            if (p == null || p.getColor() != color)
-                moves.add(new Position(row, col2));
-        }
-
-        return moves;
-    }
-
-    private List<Position> getPromotedKnightMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-        int direction = (color == Color.BLACK ? -1 : 1);
-
-        int[][] dirs = {
-                {direction, 0},
-                {0, -1}, {0, 1},
-                {-direction, 0},
-                {direction, -1}, {direction, 1}
-        };
-
-        for (int[] d : dirs) {
-            int nr = position.getRow() + d[0];
-            int nc = position.getCol() + d[1];
-            if (board.isInside(nr, nc)) {
-                Piece p = board.getPieceAt(nr, nc);
-                if (p == null || p.getColor() != color) {
-                    moves.add(new Position(nr, nc));
-                }
-            }
-        }
-        return moves;
+    @Override
+    public PieceType getType() {
+        return PieceType.KNIGHT;
     }
 
     /**
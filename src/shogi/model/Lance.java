@@ -1,6 +1,5 @@
 package shogi.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,66 +30,27 @@ public class Lance extends Piece {
      */
     @Override
     public List<Position> getLegalMoves(Board board) {
-        if (!promoted) {
-            return getNormalLanceMoves(board);
-        } else {
-            return getPromotedLanceMoves(board);
-        }
+        // Promótált állapotban Arany tábornok mintázat (PRO_LANCE típusindex)
+        return getTableMoves(board, BitboardPosition.kindOf(this));
     }
-    
+
     /**
      * Normál lándzsa mozgás: egyenesen előre akadályig.
+     * Oszlop táblázat alapján, előre maszkolva.
      * 
      * @param board a játéktábla
      * @return a lehetséges célpozíciók listája
      */
     public List<Position> getNormalLanceMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        int dir = (color == Color.BLACK ? -1 : 1);
-
-        int nr = position.getRow() + dir;
-        int nc = position.getCol();
-
-        while (board.isInside(nr, nc)) {
-            Piece p = board.getPieceAt(nr, nc);
-
-            if (p == null) {
-                moves.add(new Position(nr, nc));
-            } else {
-                if (p.getColor() != this.color)
-                    moves.add(new Position(nr, nc));
-                break;
-            }
-
-            nr += dir;
-        }
-
-        return moves;
+        return getTableMoves(board, BitboardPosition.LANCE);
     }
-    
-    private List<Position> getPromotedLanceMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-        int direction = (color == Color.BLACK ? -1 : 1);
 
-        int[][] dirs = {
-                {direction, 0},
-                {0, -1}, {0, 1},
-                {-direction, 0},
-                {direction, -1}, {direction, 1}
-        };
-
-        for (int[] d : dirs) {
-            int nr = position.getRow() + d[0];
-            int nc = position.getCol() + d[1];
-            if (board.isInside(nr, nc)) {
-                Piece p = board.getPieceAt(nr, nc);
-                if (p == null || p.getColor() != color) {
-                    moves.add(new Position(nr, nc));
-                }
-            }
-        }
-        return moves;
+    /**
+     * @return PieceType.LANCE
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.LANCE;
     }
 
     /**
@@ -0,0 +1,243 @@
+package shogi.model;
+
+/**
+ * Lépés kódolása egyetlen int-be (objektum foglalás nélkül).
+ *
+ * Bitkiosztás:
+ * - 0-6.   bit: célmező (0-80)
+ * - 7-13.  bit: kiindulási mező (ledobásnál 0)
+ * - 14.    bit: promóció
+ * - 15.    bit: ledobás
+ * - 16-19. bit: a lépő (ledobott) bábu típusindexe (BitboardPosition.PAWN..DRAGON)
+ * - 20-23. bit: a leütött bábu típusindexe + 1 (0 = nincs ütés)
+ *
+ * A 0 érték a {@link #NONE} "nincs lépés" jelölés (a 0 → 0 lépés nem létezik).
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class Move {
+
+    /** Nincs lépés */
+    public static final int NONE = 0;
+
+    /** Célmező maszk */
+    private static final int SQUARE_MASK = 0x7F;
+
+    /** Kiindulási mező eltolás */
+    private static final int FROM_SHIFT = 7;
+
+    /** Promóció jelző */
+    public static final int PROMOTE_FLAG = 1 << 14;
+
+    /** Ledobás jelző */
+    public static final int DROP_FLAG = 1 << 15;
+
+    /** Lépő bábu típus eltolás */
+    private static final int PIECE_SHIFT = 16;
+
+    /** Leütött bábu típus eltolás */
+    private static final int CAPTURE_SHIFT = 20;
+
+    /** Típus maszk (4 bit) */
+    private static final int KIND_MASK = 0xF;
+
+    /** A mezőket és a promóciót azonosító bitek (lépések összevetéséhez) */
+    private static final int KEY_MASK = (1 << PIECE_SHIFT) - 1;
+
+    private Move() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // ===================================================================
+    //                          LÉTREHOZÁS
+    // ===================================================================
+
+    /**
+     * Táblán belüli lépés kódolása.
+     *
+     * @param from kiindulási mező
+     * @param to célmező
+     * @param piece a lépő bábu típusindexe
+     * @param captured a leütött bábu típusindexe, vagy -1 ha nincs ütés
+     * @param promote promóció
+     * @return a kódolt lépés
+     */
+    public static int normal(int from, int to, int piece, int captured, boolean promote) {
+        return to
+                | (from << FROM_SHIFT)
+                | (promote ? PROMOTE_FLAG : 0)
+                | (piece << PIECE_SHIFT)
+                | ((captured + 1) << CAPTURE_SHIFT);
+    }
+
+    /**
+     * Ledobás kódolása.
+     *
+     * @param kind a ledobott bábu típusindexe (PAWN..ROOK)
+     * @param to célmező
+     * @return a kódolt ledobás
+     */
+    public static int drop(int kind, int to) {
+        return to | DROP_FLAG | (kind << PIECE_SHIFT);
+    }
+
+    // ===================================================================
+    //                          LEKÉRDEZÉS
+    // ===================================================================
+
+    /**
+     * @param move kódolt lépés
+     * @return célmező
+     */
+    public static int to(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @param move kódolt lépés (nem ledobás)
+     * @return kiindulási mező
+     */
+    public static int from(int move) {
+        return (move >>> FROM_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @param move kódolt lépés
+     * @return true, ha a lépés promócióval jár
+     */
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTE_FLAG) != 0;
+    }
+
+    /**
+     * @param move kódolt lépés
+     * @return true, ha ledobás
+     */
+    public static boolean isDrop(int move) {
+        return (move & DROP_FLAG) != 0;
+    }
+
+    /**
+     * @param move kódolt lépés
+     * @return a lépő (ledobásnál a ledobott) bábu típusindexe
+     */
+    public static int pieceKind(int move) {
+        return (move >>> PIECE_SHIFT) & KIND_MASK;
+    }
+
+    /**
+     * @param move kódolt lépés
+     * @return true, ha a lépés ütés
+     */
+    public static boolean isCapture(int move) {
+        return (move >>> CAPTURE_SHIFT) != 0;
+    }
+
+    /**
+     * @param move kódolt lépés
+     * @return a leütött bábu típusindexe, vagy -1 ha nincs ütés
+     */
+    public static int capturedKind(int move) {
+        return ((move >>> CAPTURE_SHIFT) & KIND_MASK) - 1;
+    }
+
+    /**
+     * Két lépés ugyanaz-e mezők, ledobott típus és promóció szerint
+     * (a kiegészítő információtól, pl. a leütött bábutól függetlenül).
+     *
+     * @param a egyik lépés
+     * @param b másik lépés
+     * @return true, ha ugyanazt a lépést írják le
+     */
+    public static boolean sameMove(int a, int b) {
+        if ((a & KEY_MASK) != (b & KEY_MASK)) {
+            return false;
+        }
+        return !isDrop(a) || pieceKind(a) == pieceKind(b);
+    }
+
+    // ===================================================================
+    //                          USI JELÖLÉS
+    // ===================================================================
+
+    /**
+     * A lépés USI jelölése, pl. "7g7f", "2b8h+", "P*5e" (oszlop 9-1
+     * balról jobbra, sor a-i felülről lefelé).
+     *
+     * @param move kódolt lépés
+     * @return a lépés szöveges alakja ("none", ha {@link #NONE})
+     */
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "none";
+        }
+        StringBuilder sb = new StringBuilder(6);
+        if (isDrop(move)) {
+            sb.append("PLNSGBR".charAt(pieceKind(move))).append('*');
+        } else {
+            appendSquare(sb, from(move));
+        }
+        appendSquare(sb, to(move));
+        if (isPromotion(move)) {
+            sb.append('+');
+        }
+        return sb.toString();
+    }
+
+    private static void appendSquare(StringBuilder sb, int sq) {
+        sb.append((char) ('9' - Bitboard.col(sq))).append((char) ('a' + Bitboard.row(sq)));
+    }
+
+    /**
+     * USI jelölésű lépés kódolása egy állásban: a lépő és a leütött bábu
+     * típusa az állásból jön, így az eredmény megegyezik a
+     * {@link MoveGenerator} által generált kóddal. Legalitást nem
+     * ellenőriz (azt a generált lépések közötti kereséssel kell).
+     *
+     * @param usi a lépés, pl. "7g7f", "2b8h+", "P*5e"
+     * @param pos az állás a lépés előtt
+     * @return a kódolt lépés, vagy {@link #NONE}, ha a szöveg hibás, vagy a
+     *         kiindulási mezőn nincs a lépő fél bábuja
+     */
+    public static int parse(CharSequence usi, BitboardPosition pos) {
+        int length = usi.length();
+        if (length == 4 && usi.charAt(1) == '*') {
+            int kind = "PLNSGBR".indexOf(usi.charAt(0));
+            int to = parseSquare(usi, 2);
+            if (kind < 0 || to < 0 || pos.pieceAt(to) != 0) {
+                return NONE;
+            }
+            return drop(kind, to);
+        }
+        if (length != 4 && (length != 5 || usi.charAt(4) != '+')) {
+            return NONE;
+        }
+        int from = parseSquare(usi, 0);
+        int to = parseSquare(usi, 2);
+        if (from < 0 || to < 0 || from == to) {
+            return NONE;
+        }
+        int code = pos.pieceAt(from);
+        if (code == 0 || BitboardPosition.codeColor(code) != pos.getSideToMove()) {
+            return NONE;
+        }
+        int target = pos.pieceAt(to);
+        if (target != 0 && BitboardPosition.codeColor(target) == pos.getSideToMove()) {
+            return NONE;
+        }
+        return normal(from, to, BitboardPosition.codeKind(code),
+                target == 0 ? -1 : BitboardPosition.codeKind(target), length == 5);
+    }
+
+    /**
+     * @return a mező indexe, vagy -1, ha hibás
+     */
+    private static int parseSquare(CharSequence usi, int index) {
+        int col = '9' - usi.charAt(index);
+        int row = usi.charAt(index + 1) - 'a';
+        if (col < 0 || col > 8 || row < 0 || row > 8) {
+            return -1;
+        }
+        return Bitboard.square(row, col);
+    }
+}
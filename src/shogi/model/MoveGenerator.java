@@ -0,0 +1,586 @@
+package shogi.model;
+
+/**
+ * Legális lépésgenerátor {@link BitboardPosition} álláshoz.
+ *
+ * Állásonként egyszer kiszámolja a sakkot adó bábukat és a kötött
+ * (a királyhoz szegezett) saját bábukat, így csak legális lépéseket
+ * állít elő - nincs szükség lépés megtétele / sakk vizsgálat / visszavonás
+ * körre jelöltenként:
+ * - kettős sakkban csak királylépés,
+ * - egyszeres sakkban királylépés, a sakkot adó leütése, illetve
+ *   közbeállítás (lépéssel vagy ledobással) a király és egy csúszó
+ *   bábu közé,
+ * - kötött bábu csak a kötés vonalán mozoghat,
+ * - a király nem léphet támadott mezőre (a csúszó bábuk a király
+ *   eredeti mezején átlátnak),
+ * - ledobásnál: nifu, utolsó sor(ok), gyalogledobásos matt tilalma.
+ *
+ * A lépcsőzetes lépésrendezéshez a lépések két részben is generálhatók:
+ * taktikus lépések (ütések és promóciók) és csendes lépések (a többi,
+ * ledobásokkal együtt); a két rész együtt pontosan a legális lépések
+ * halmaza. Egy máshonnan származó lépés (hash / killer lépés) a teljes
+ * generálás nélkül ellenőrizhető ({@link #isLegal}), és megvizsgálható,
+ * hogy egy lépés sakkot ad-e ({@link #givesCheck}).
+ *
+ * A lépések {@link Move} kódolással kerülnek a hívó által adott
+ * {@link MoveList}-be (vagy int tömbbe).
+ * Az osztály nem szálbiztos (belső munkaterületeket használ újra),
+ * szálanként / keresésenként egy példány kell.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class MoveGenerator {
+
+    /** Legális lépések felső korlátja egy állásban (ismert maximum: 593) */
+    public static final int MAX_MOVES = 600;
+
+    // ===================================================================
+    //                        SOR / OSZLOP MASZKOK
+    // ===================================================================
+
+    /** Üres halmaz (csak olvasásra) */
+    private static final Bitboard EMPTY = new Bitboard();
+
+    /** Utolsó sor színenként (gyalog, lándzsa nem kerülhet ide nem promótálva) */
+    private static final Bitboard[] LAST_RANK = {new Bitboard(), new Bitboard()};
+
+    /** Utolsó két sor színenként (lovag) */
+    private static final Bitboard[] LAST_TWO_RANKS = {new Bitboard(), new Bitboard()};
+
+    /** Promóciós zóna színenként (az ellenfél 3 sora) */
+    private static final Bitboard[] ZONE = {new Bitboard(), new Bitboard()};
+
+    /** Oszlopok maszkjai */
+    private static final Bitboard[] FILE = new Bitboard[9];
+
+    static {
+        for (int col = 0; col < 9; col++) {
+            FILE[col] = new Bitboard();
+        }
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int row = Bitboard.row(sq);
+            FILE[Bitboard.col(sq)].set(sq);
+            if (row == 0) {
+                LAST_RANK[BitboardPosition.BLACK].set(sq);
+            }
+            if (row == 8) {
+                LAST_RANK[BitboardPosition.WHITE].set(sq);
+            }
+            if (row <= 1) {
+                LAST_TWO_RANKS[BitboardPosition.BLACK].set(sq);
+            }
+            if (row >= 7) {
+                LAST_TWO_RANKS[BitboardPosition.WHITE].set(sq);
+            }
+            if (row <= 2) {
+                ZONE[BitboardPosition.BLACK].set(sq);
+            }
+            if (row >= 6) {
+                ZONE[BitboardPosition.WHITE].set(sq);
+            }
+        }
+    }
+
+    // ===================================================================
+    //                        MUNKATERÜLETEK
+    // ===================================================================
+
+    /** Sakkot adó bábuk */
+    private final Bitboard checkers = new Bitboard();
+
+    /** Saját kötött bábuk */
+    private final Bitboard pinned = new Bitboard();
+
+    /** Engedélyezett célmezők a nem királylépésekhez */
+    private final Bitboard targets = new Bitboard();
+
+    /** Engedélyezett célmezők a ledobásokhoz */
+    private final Bitboard dropTargets = new Bitboard();
+
+    private final Bitboard pieces = new Bitboard();
+    private final Bitboard attacks = new Bitboard();
+    private final Bitboard line = new Bitboard();
+    private final Bitboard kingOccupancy = new Bitboard();
+    private final Bitboard attackers = new Bitboard();
+    private final Bitboard dropSquares = new Bitboard();
+    private final Bitboard evasions = new Bitboard();
+    private final Bitboard theirPinned = new Bitboard();
+    private final Bitboard snipers = new Bitboard();
+    private final Bitboard blockers = new Bitboard();
+    private final Bitboard kingTargets = new Bitboard();
+    private final Bitboard checkOccupancy = new Bitboard();
+
+    // ===================================================================
+    //                          GENERÁLÁS
+    // ===================================================================
+
+    /**
+     * Az összes legális lépés a lépésen lévő fél számára, a lista végére fűzve.
+     *
+     * @param pos az állás (a generálás végére változatlan)
+     * @param list kimeneti lista
+     */
+    public void generateLegal(BitboardPosition pos, MoveList list) {
+        list.setSize(generateLegal(pos, list.array(), list.size()));
+    }
+
+    /**
+     * Az összes legális lépés a lépésen lévő fél számára.
+     *
+     * @param pos az állás (a generálás végére változatlan)
+     * @param moves kimeneti tömb (legalább MAX_MOVES hosszú)
+     * @return a generált lépések száma
+     */
+    public int generateLegal(BitboardPosition pos, int[] moves) {
+        return generateLegal(pos, moves, 0);
+    }
+
+    /**
+     * Az összes legális lépés a lépésen lévő fél számára, a tömb
+     * megadott indexétől kezdve.
+     *
+     * @param pos az állás (a generálás végére változatlan)
+     * @param moves kimeneti tömb
+     * @param start az első szabad index
+     * @return az utolsó generált lépés utáni index
+     */
+    public int generateLegal(BitboardPosition pos, int[] moves, int start) {
+        int us = pos.getSideToMove();
+        int them = BitboardPosition.opponent(us);
+        int king = pos.kingSquare(us);
+        int count = start;
+
+        if (king >= 0) {
+            pos.attackers(king, them, checkers);
+            computePinned(pos, us, king, pinned);
+            kingTargets.copyFrom(pos.pieces(us)).complement();
+            count = generateKingMoves(pos, us, king, kingTargets, moves, count);
+        } else {
+            checkers.clearAll();
+            pinned.clearAll();
+        }
+
+        int checkerCount = checkers.count();
+        if (checkerCount >= 2) {
+            return count; // kettős sakk: csak a király léphet
+        }
+
+        if (checkerCount == 1) {
+            // Sakk: leütés vagy közbeállítás (szomszédos / lovag sakknál üres)
+            int checker = checkers.lsb();
+            Attacks.between(king, checker, dropTargets);
+            targets.copyFrom(dropTargets);
+            targets.set(checker);
+        } else {
+            targets.copyFrom(pos.pieces(us)).complement();
+            dropTargets.copyFrom(pos.occupied()).complement();
+        }
+
+        count = generatePieceMoves(pos, us, king, moves, count);
+        count = generateDrops(pos, us, moves, count);
+        return count;
+    }
+
+    /**
+     * Taktikus lépések (ütések és promóciók) a lista végére fűzve, a
+     * nyugalmi keresés számára. Sakkban az összes legális lépés (kitérés)
+     * kerül a listába, hiszen ott nincs "nyugodt" alternatíva.
+     *
+     * Ütésnél a promóciós és a sima változat is, üres mezőre csak a
+     * promóciós lépés; ledobás nincs a listában.
+     *
+     * @param pos az állás (a generálás végére változatlan)
+     * @param list kimeneti lista
+     */
+    public void generateCaptures(BitboardPosition pos, MoveList list) {
+        int us = pos.getSideToMove();
+        int them = BitboardPosition.opponent(us);
+        int king = pos.kingSquare(us);
+        if (king >= 0 && pos.isInCheck(us)) {
+            generateLegal(pos, list);
+            return;
+        }
+
+        int[] moves = list.array();
+        int count = list.size();
+        if (king >= 0) {
+            computePinned(pos, us, king, pinned);
+            count = generateKingMoves(pos, us, king, pos.pieces(them), moves, count);
+        } else {
+            pinned.clearAll();
+        }
+        targets.copyFrom(pos.pieces(them));
+        count = generatePieceMoves(pos, us, king, moves, count);
+        count = generateQuietPromotions(pos, us, king, moves, count);
+        list.setSize(count);
+    }
+
+    /**
+     * Csendes lépések (nem ütés, nem promóció, illetve ledobás) a lista
+     * végére fűzve - a {@link #generateCaptures} kiegészítése. Sakkban
+     * üres (ott a generateCaptures minden kitérést visszaad).
+     *
+     * @param pos az állás (a generálás végére változatlan)
+     * @param list kimeneti lista
+     */
+    public void generateQuiets(BitboardPosition pos, MoveList list) {
+        int us = pos.getSideToMove();
+        int king = pos.kingSquare(us);
+        if (king >= 0 && pos.isInCheck(us)) {
+            return;
+        }
+
+        int[] moves = list.array();
+        int count = list.size();
+        targets.copyFrom(pos.occupied()).complement();
+        if (king >= 0) {
+            computePinned(pos, us, king, pinned);
+            count = generateKingMoves(pos, us, king, targets, moves, count);
+        } else {
+            pinned.clearAll();
+        }
+
+        pieces.copyFrom(pos.pieces(us));
+        if (king >= 0) {
+            pieces.clear(king);
+        }
+        while (!pieces.isEmpty()) {
+            int from = pieces.popLsb();
+            int kind = pos.kindAt(from);
+            Attacks.attacks(us, kind, from, pos.occupied(), attacks).and(targets);
+            if (king >= 0 && pinned.get(from)) {
+                attacks.and(Attacks.lineThrough(king, from, line));
+            }
+            while (!attacks.isEmpty()) {
+                int to = attacks.popLsb();
+                if (!mustPromote(kind, us, to)) {
+                    moves[count++] = Move.normal(from, to, kind, -1, false);
+                }
+            }
+        }
+
+        dropTargets.copyFrom(targets);
+        count = generateDrops(pos, us, moves, count);
+        list.setSize(count);
+    }
+
+    /**
+     * Legális-e egy máshonnan (transzpozíciós tábla, killer tábla)
+     * származó lépés ebben az állásban. A kódolt adatok (bábu, leütött
+     * bábu) egyezését is ellenőrzi, így egy hibás vagy más álláshoz
+     * tartozó kód sem okoz gondot.
+     *
+     * @param pos az állás (a vizsgálat végére változatlan)
+     * @param move a vizsgált lépés
+     * @return true, ha a lépés legális
+     */
+    public boolean isLegal(BitboardPosition pos, int move) {
+        int us = pos.getSideToMove();
+        int to = Move.to(move);
+        int kind = Move.pieceKind(move);
+        if (move == Move.NONE || to >= Bitboard.SQUARES) {
+            return false;
+        }
+
+        if (Move.isDrop(move)) {
+            if (kind >= BitboardPosition.HAND_KINDS || !Hand.has(pos.getHand(us), kind) || pos.pieceAt(to) != 0) {
+                return false;
+            }
+            if (kind == BitboardPosition.KNIGHT ? LAST_TWO_RANKS[us].get(to)
+                    : (kind == BitboardPosition.PAWN || kind == BitboardPosition.LANCE) && LAST_RANK[us].get(to)) {
+                return false;
+            }
+            if (kind == BitboardPosition.PAWN
+                    && (pos.pieces(us, BitboardPosition.PAWN, line).intersects(FILE[Bitboard.col(to)])
+                        || isPawnDropMate(pos, us, to))) {
+                return false;
+            }
+        } else {
+            int from = Move.from(move);
+            if (from >= Bitboard.SQUARES || pos.pieceAt(from) != BitboardPosition.pieceCode(us, kind)) {
+                return false;
+            }
+            int expected = Move.isCapture(move)
+                    ? BitboardPosition.pieceCode(BitboardPosition.opponent(us), Move.capturedKind(move)) : 0;
+            if (pos.pieceAt(to) != expected || !Attacks.attacks(us, kind, from, pos.occupied(), attacks).get(to)) {
+                return false;
+            }
+            if (Move.isPromotion(move)
+                    ? !BitboardPosition.isPromotable(kind) || !(ZONE[us].get(from) || ZONE[us].get(to))
+                    : mustPromote(kind, us, to)) {
+                return false;
+            }
+        }
+
+        // A saját király nem maradhat / kerülhet sakkba
+        pos.doMove(move);
+        boolean legal = !pos.isInCheck(us);
+        pos.undoMove(move);
+        return legal;
+    }
+
+    /**
+     * Sakkot ad-e a (legális) lépés: közvetlenül a lépő bábu, vagy
+     * felfedve egy mögötte álló csúszó bábu.
+     *
+     * @param pos az állás a lépés előtt
+     * @param move a vizsgált lépés
+     * @return true, ha a lépés után az ellenfél királya támadva van
+     */
+    public boolean givesCheck(BitboardPosition pos, int move) {
+        int us = pos.getSideToMove();
+        int theirKing = pos.kingSquare(BitboardPosition.opponent(us));
+        if (theirKing < 0) {
+            return false;
+        }
+        int to = Move.to(move);
+        int kind = Move.isPromotion(move) ? Move.pieceKind(move) | BitboardPosition.PROMOTED : Move.pieceKind(move);
+        checkOccupancy.copyFrom(pos.occupied());
+        checkOccupancy.set(to);
+        if (Move.isDrop(move)) {
+            return Attacks.attacks(us, kind, to, checkOccupancy, attacks).get(theirKing);
+        }
+
+        int from = Move.from(move);
+        checkOccupancy.clear(from);
+        if (Attacks.attacks(us, kind, to, checkOccupancy, attacks).get(theirKing)) {
+            return true;
+        }
+        // Felfedett sakk: a lépés előtt az ellenfél nem állt sakkban,
+        // így az új foglaltsággal talált támadó csak felfedett lehet
+        pos.attackers(theirKing, us, checkOccupancy, attackers).clear(from);
+        return !attackers.isEmpty();
+    }
+
+    /**
+     * Királylépések a megadott célmezőkre: nem léphet támadott mezőre.
+     */
+    private int generateKingMoves(BitboardPosition pos, int us, int king, Bitboard mask, int[] moves, int count) {
+        int them = BitboardPosition.opponent(us);
+        Attacks.stepAttacks(us, BitboardPosition.KING, king, attacks).and(mask);
+        kingOccupancy.copyFrom(pos.occupied());
+        kingOccupancy.clear(king);
+
+        while (!attacks.isEmpty()) {
+            int to = attacks.popLsb();
+            if (pos.attackers(to, them, kingOccupancy, attackers).isEmpty()) {
+                moves[count++] = Move.normal(king, to, BitboardPosition.KING, pos.kindAt(to), false);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Nem királylépések a targets halmazra, a kötéseket figyelembe véve.
+     */
+    private int generatePieceMoves(BitboardPosition pos, int us, int king, int[] moves, int count) {
+        pieces.copyFrom(pos.pieces(us));
+        if (king >= 0) {
+            pieces.clear(king);
+        }
+
+        while (!pieces.isEmpty()) {
+            int from = pieces.popLsb();
+            int kind = pos.kindAt(from);
+            Attacks.attacks(us, kind, from, pos.occupied(), attacks).and(targets);
+            if (king >= 0 && pinned.get(from)) {
+                attacks.and(Attacks.lineThrough(king, from, line));
+            }
+            while (!attacks.isEmpty()) {
+                int to = attacks.popLsb();
+                count = addMove(kind, us, from, to, pos.kindAt(to), moves, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Promóciós lépések üres mezőre (a nyugalmi keresés taktikus lépései).
+     */
+    private int generateQuietPromotions(BitboardPosition pos, int us, int king, int[] moves, int count) {
+        pieces.copyFrom(pos.pieces(us));
+        if (king >= 0) {
+            pieces.clear(king);
+        }
+
+        while (!pieces.isEmpty()) {
+            int from = pieces.popLsb();
+            int kind = pos.kindAt(from);
+            if (!BitboardPosition.isPromotable(kind)) {
+                continue;
+            }
+            Attacks.attacks(us, kind, from, pos.occupied(), attacks).andNot(pos.occupied());
+            if (!ZONE[us].get(from)) {
+                attacks.and(ZONE[us]);
+            }
+            if (king >= 0 && pinned.get(from)) {
+                attacks.and(Attacks.lineThrough(king, from, line));
+            }
+            while (!attacks.isEmpty()) {
+                moves[count++] = Move.normal(from, attacks.popLsb(), kind, -1, true);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Lépés hozzáadása promóciós változatokkal.
+     * Ha a promóció választható, előbb a promóciós, utána a sima változat
+     * kerül a listába; kötelező promóciónál csak a promóciós.
+     */
+    private static int addMove(int kind, int us, int from, int to, int captured, int[] moves, int count) {
+        if (BitboardPosition.isPromotable(kind) && (ZONE[us].get(from) || ZONE[us].get(to))) {
+            moves[count++] = Move.normal(from, to, kind, captured, true);
+            if (!mustPromote(kind, us, to)) {
+                moves[count++] = Move.normal(from, to, kind, captured, false);
+            }
+        } else {
+            moves[count++] = Move.normal(from, to, kind, captured, false);
+        }
+        return count;
+    }
+
+    /**
+     * @return true, ha a bábu promóció nélkül nem tudna többé lépni
+     */
+    private static boolean mustPromote(int kind, int us, int to) {
+        if (kind == BitboardPosition.PAWN || kind == BitboardPosition.LANCE) {
+            return LAST_RANK[us].get(to);
+        }
+        if (kind == BitboardPosition.KNIGHT) {
+            return LAST_TWO_RANKS[us].get(to);
+        }
+        return false;
+    }
+
+    /**
+     * Ledobások a dropTargets halmazra.
+     */
+    private int generateDrops(BitboardPosition pos, int us, int[] moves, int count) {
+        int hand = pos.getHand(us);
+        if (Hand.isEmpty(hand) || dropTargets.isEmpty()) {
+            return count;
+        }
+        for (int kind = BitboardPosition.PAWN; kind < BitboardPosition.HAND_KINDS; kind++) {
+            if (!Hand.has(hand, kind)) {
+                continue;
+            }
+            dropSquares.copyFrom(dropTargets);
+            if (kind == BitboardPosition.PAWN) {
+                dropSquares.andNot(LAST_RANK[us]);
+                // Nifu: oszlop, ahol már van saját (nem promótált) gyalog
+                pos.pieces(us, BitboardPosition.PAWN, line);
+                while (!line.isEmpty()) {
+                    dropSquares.andNot(FILE[Bitboard.col(line.popLsb())]);
+                }
+            } else if (kind == BitboardPosition.LANCE) {
+                dropSquares.andNot(LAST_RANK[us]);
+            } else if (kind == BitboardPosition.KNIGHT) {
+                dropSquares.andNot(LAST_TWO_RANKS[us]);
+            }
+
+            while (!dropSquares.isEmpty()) {
+                int to = dropSquares.popLsb();
+                if (kind == BitboardPosition.PAWN && isPawnDropMate(pos, us, to)) {
+                    continue;
+                }
+                moves[count++] = Move.drop(kind, to);
+            }
+        }
+        return count;
+    }
+
+    // ===================================================================
+    //                      KÖTÉSEK / GYALOGLEDOBÁSOS MATT
+    // ===================================================================
+
+    /**
+     * Kiszámolja a király felé kötött saját bábukat.
+     * Kötött: a király és egy ellenséges csúszó bábu között egyetlen
+     * bábu áll, és az a miénk.
+     */
+    private void computePinned(BitboardPosition pos, int us, int king, Bitboard out) {
+        int them = BitboardPosition.opponent(us);
+        long lo = 0;
+        long hi = 0;
+
+        Attacks.rookAttacks(king, EMPTY, line);
+        lo |= line.getLo() & (pos.piecesOfKind(BitboardPosition.ROOK).getLo()
+                | pos.piecesOfKind(BitboardPosition.DRAGON).getLo());
+        hi |= line.getHi() & (pos.piecesOfKind(BitboardPosition.ROOK).getHi()
+                | pos.piecesOfKind(BitboardPosition.DRAGON).getHi());
+
+        Attacks.bishopAttacks(king, EMPTY, line);
+        lo |= line.getLo() & (pos.piecesOfKind(BitboardPosition.BISHOP).getLo()
+                | pos.piecesOfKind(BitboardPosition.HORSE).getLo());
+        hi |= line.getHi() & (pos.piecesOfKind(BitboardPosition.BISHOP).getHi()
+                | pos.piecesOfKind(BitboardPosition.HORSE).getHi());
+
+        // Az ellenfél lándzsája onnan támad, ahová a mi lándzsánk a királytól "látna"
+        Attacks.lanceAttacks(us, king, EMPTY, line);
+        lo |= line.getLo() & pos.piecesOfKind(BitboardPosition.LANCE).getLo();
+        hi |= line.getHi() & pos.piecesOfKind(BitboardPosition.LANCE).getHi();
+
+        snipers.set(lo, hi).and(pos.pieces(them));
+        out.clearAll();
+        while (!snipers.isEmpty()) {
+            Attacks.between(king, snipers.popLsb(), blockers).and(pos.occupied());
+            if (blockers.count() == 1 && blockers.intersects(pos.pieces(us))) {
+                out.or(blockers);
+            }
+        }
+    }
+
+    /**
+     * Gyalogledobásos matt (打ち歩詰め) vizsgálata: a király elé dobott
+     * gyalog nem adhat mattot.
+     *
+     * @return true, ha a ledobás mattot adna (tehát tilos)
+     */
+    private boolean isPawnDropMate(BitboardPosition pos, int us, int to) {
+        int them = BitboardPosition.opponent(us);
+        int theirKing = pos.kingSquare(them);
+        int front = (us == BitboardPosition.BLACK) ? to - 9 : to + 9;
+        if (theirKing < 0 || front != theirKing) {
+            return false; // nem ad sakkot
+        }
+
+        pos.putPiece(to, us, BitboardPosition.PAWN);
+        boolean mate = !hasEvasion(pos, them, theirKing, to);
+        pos.removePiece(to);
+        return mate;
+    }
+
+    /**
+     * Van-e kitérés egy (szomszédos, tehát nem blokkolható) gyalogsakkból.
+     */
+    private boolean hasEvasion(BitboardPosition pos, int them, int king, int pawnSq) {
+        int us = BitboardPosition.opponent(them);
+
+        // 1) Király elmenekül, vagy leüti a nem védett gyalogot
+        Attacks.stepAttacks(them, BitboardPosition.KING, king, evasions).andNot(pos.pieces(them));
+        kingOccupancy.copyFrom(pos.occupied());
+        kingOccupancy.clear(king);
+        while (!evasions.isEmpty()) {
+            if (pos.attackers(evasions.popLsb(), us, kingOccupancy, attackers).isEmpty()) {
+                return true;
+            }
+        }
+
+        // 2) Más bábu leüti a gyalogot (ha nem kötött, vagy a kötés vonalán marad)
+        pos.attackers(pawnSq, them, evasions);
+        evasions.clear(king);
+        if (evasions.isEmpty()) {
+            return false;
+        }
+        computePinned(pos, them, king, theirPinned);
+        while (!evasions.isEmpty()) {
+            int capturer = evasions.popLsb();
+            if (!theirPinned.get(capturer) || Attacks.aligned(king, capturer, pawnSq)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,135 @@
+package shogi.model;
+
+/**
+ * Újrahasználható lépéslista: előre lefoglalt int tömb + méret.
+ * Keresésnél ply-onként egy példány, így a generálás nem foglal memóriát.
+ * A lépések {@link Move} kódolásúak.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class MoveList {
+
+    /** A lépések tárolója */
+    private final int[] moves;
+
+    /** Érvényes lépések száma */
+    private int size;
+
+    /**
+     * Lista egy állás összes legális lépéséhez elegendő kapacitással.
+     */
+    public MoveList() {
+        this(MoveGenerator.MAX_MOVES);
+    }
+
+    /**
+     * @param capacity a lista kapacitása
+     */
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Lista ürítése (a tároló megmarad).
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param move hozzáadandó lépés
+     */
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * @param index index (0..size-1)
+     * @return a lépés
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * @param index index (0..size-1)
+     * @param move az új lépés
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Két elem cseréje (rendezéshez).
+     *
+     * @param i egyik index
+     * @param j másik index
+     */
+    public void swap(int i, int j) {
+        int tmp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = tmp;
+    }
+
+    /**
+     * A lista rövidítése (szűrés után az első {@code size} elem marad).
+     *
+     * @param size az új méret (legfeljebb a jelenlegi)
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return a lépések száma
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true, ha nincs lépés
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param move keresett lépés (lásd {@link Move#sameMove})
+     * @return true, ha a lista tartalmazza
+     */
+    public boolean contains(int move) {
+        return indexOf(move) >= 0;
+    }
+
+    /**
+     * @param move keresett lépés (lásd {@link Move#sameMove})
+     * @return az első egyező lépés indexe, vagy -1
+     */
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.sameMove(moves[i], move)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A belső tároló (generátoroknak, közvetlen íráshoz).
+     *
+     * @return a tároló tömb
+     */
+    int[] array() {
+        return moves;
+    }
+
+    /**
+     * Méret beállítása közvetlen írás után.
+     *
+     * @param size az új méret
+     */
+    void setSize(int size) {
+        this.size = size;
+    }
+}
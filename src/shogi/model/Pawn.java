@@ -1,6 +1,5 @@
 package shogi.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,61 +30,16 @@ public class Pawn extends Piece {
      */
     @Override
     public List<Position> getLegalMoves(Board board) {
-        return promoted ? getPromotedMoves(board) : getNormalMoves(board);
+        // Promótált állapotban Arany tábornok mintázat (PRO_* típusindex)
+        return getTableMoves(board, BitboardPosition.kindOf(this));
     }
 
     /**
-     * Normál gyalog mozgás: 1 előre. Shogiban a gyalog frontálisan üt,
-     * tehát az előtte lévő ellenfél bábu is üthető.
-     *
-     * @param board a játéktábla
-     * @return a lehetséges célpozíciók listája
+     * @return PieceType.PAWN
      */
-    private List<Position> getNormalMoves(Board board) {
-
-        List<Position> moves = new ArrayList<>();
-        int d = (color == Color.BLACK ? -1 : 1);
-
-        int nr = position.getRow() + d;
-        int nc = position.getCol();
-
-        if (board.isInside(nr, nc)) {
-            Piece p = board.getPieceAt(nr, nc);
-            // Gyalog 1-et lép előre: üres mezőre léphet, vagy
-            // az előtte lévő ellenfél bábut ütheti.
-            if (p == null || p.getColor() != this.color) {
-                moves.add(new Position(nr, nc));
-            }
-        }
-
-        return moves;
-    }
-
-    // PROMOTED PAWN = GOLD GENERAL
-    private List<Position> getPromotedMoves(Board board) {
-
-        List<Position> moves = new ArrayList<>();
-        int d = (color == Color.BLACK ? -1 : 1);
-
-        int[][] dirs = {
-                {d, 0},       // előre
-                {0, -1}, {0, 1}, // bal/jobb
-                {-d, 0},      // hátra
-                {d, -1}, {d, 1}   // átlós előre
-        };
-
-        for (int[] dir : dirs) {
-            int nr = position.getRow() + dir[0];
-            int nc = position.getCol() + dir[1];
-
-            if (!board.isInside(nr, nc)) continue;
-
-            Piece p = board.getPieceAt(nr, nc);
-            if (p == null || p.getColor() != this.color)
-                moves.add(new Position(nr, nc));
-        }
-
-        return moves;
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
     }
 
     /**
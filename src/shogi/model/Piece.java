@@ -1,5 +1,6 @@
 package shogi.model;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -97,13 +98,44 @@ public abstract class Piece {
      */
     public abstract List<Position> getLegalMoves(Board board);
 
+    /**
+     * Célmezők előállítása az előre kiszámolt támadási táblázatokból.
+     * A saját bábukkal foglalt mezők kiszűrésre kerülnek.
+     *
+     * @param board a játéktábla (foglaltsági bitboardjai)
+     * @param kind a mozgásminta típusindexe (lásd {@link BitboardPosition})
+     * @return a lehetséges célpozíciók listája
+     */
+    protected List<Position> getTableMoves(Board board, int kind) {
+        if (position == null) {
+            return new ArrayList<>(0);
+        }
+        int sq = Bitboard.square(position.getRow(), position.getCol());
+        Bitboard targets = Attacks.attacks(color.ordinal(), kind, sq, board.getOccupied(), new Bitboard())
+                .andNot(board.getPieces(color));
+
+        List<Position> moves = new ArrayList<>(targets.count());
+        while (!targets.isEmpty()) {
+            int target = targets.popLsb();
+            moves.add(new Position(Bitboard.row(target), Bitboard.col(target)));
+        }
+        return moves;
+    }
+
     /**
      * A bábu karakteres/kanji szimbóluma megjelenítéshez.
      * 
      * @return a bábu szimbóluma stringként
      */
     public abstract String getSymbol();
-    
+
+    /**
+     * A bábu típusa (promóciótól függetlenül).
+     *
+     * @return a bábu alaptípusa
+     */
+    public abstract PieceType getType();
+
     /**
      * Frissíti a bábu előrelépési irányát a színe alapján.
      * BLACK → -1 (felfelé, csökkenő sor index)
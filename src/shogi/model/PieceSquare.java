@@ -0,0 +1,74 @@
+package shogi.model;
+
+/**
+ * Anyag- és mezőtáblás (piece-square) pontok az értékeléshez.
+ *
+ * A {@link Zobrist} kulcsokhoz hasonlóan a {@link BitboardPosition}
+ * minden bábu lerakásnál / levételnél és kéz változásnál frissíti a
+ * színenkénti összegeket, így az értékelésnek nem kell a táblát és a
+ * kezeket levélenként újra bejárnia - ugyanaz a számolás, mint a
+ * {@code calculateImpassePoints} darabszámlálása, csak különbségekkel.
+ *
+ * Az értékek centipawn jellegű egységben, a bábu színének szemszögéből.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class PieceSquare {
+
+    /** Táblán lévő bábuk értéke típusindex szerint (BitboardPosition.PAWN..DRAGON) */
+    public static final int[] PIECE_VALUE = {
+        90, 315, 405, 495, 540, 855, 990, 0,   // P L N S G B R K
+        540, 540, 540, 540, 0, 945, 1395        // +P +L +N +S - +B +R
+    };
+
+    /** Kézben lévő bábuk értéke (kicsit több, mint a táblán: bárhová ledobható) */
+    public static final int[] HAND_VALUE = {100, 350, 450, 550, 600, 950, 1100};
+
+    /** Anyag + mezőtáblás pont: [(szín * KIND_COUNT + típus) * 81 + mező] */
+    private static final int[] SCORE = new int[2 * BitboardPosition.KIND_COUNT * Bitboard.SQUARES];
+
+    static {
+        for (int color = 0; color < 2; color++) {
+            for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                int row = Bitboard.row(sq);
+                // 0 = saját alapsor, 8 = az ellenfél alapsora
+                int advance = color == BitboardPosition.BLACK ? 8 - row : row;
+                int centre = 4 - Math.abs(Bitboard.col(sq) - 4);
+                int[] pst = new int[BitboardPosition.KIND_COUNT];
+
+                pst[BitboardPosition.PAWN] = 3 * advance;
+                pst[BitboardPosition.LANCE] = advance <= 1 ? 5 : 0;
+                pst[BitboardPosition.KNIGHT] = advance >= 2 && advance <= 5 ? 10 : 0;
+                pst[BitboardPosition.SILVER] = (advance >= 1 && advance <= 4 ? 10 : 0) + 2 * centre;
+                pst[BitboardPosition.GOLD] = (advance <= 2 ? 10 : 0) + 2 * centre;
+                pst[BitboardPosition.KING] = -15 * advance - 3 * centre;
+                for (int kind : new int[] {
+                        BitboardPosition.PRO_PAWN, BitboardPosition.PRO_LANCE,
+                        BitboardPosition.PRO_KNIGHT, BitboardPosition.PRO_SILVER}) {
+                    pst[kind] = 3 * advance + 2 * centre;
+                }
+                pst[BitboardPosition.HORSE] = 3 * centre;
+                pst[BitboardPosition.DRAGON] = 2 * centre;
+
+                for (int kind = 0; kind < BitboardPosition.KIND_COUNT; kind++) {
+                    SCORE[(color * BitboardPosition.KIND_COUNT + kind) * Bitboard.SQUARES + sq] =
+                            PIECE_VALUE[kind] + pst[kind];
+                }
+            }
+        }
+    }
+
+    private PieceSquare() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * @param color szín index
+     * @param kind típusindex (promócióval együtt)
+     * @param sq mező index
+     * @return a bábu teljes értéke a mezőn (anyag + pozíció)
+     */
+    public static int score(int color, int kind, int sq) {
+        return SCORE[(color * BitboardPosition.KIND_COUNT + kind) * Bitboard.SQUARES + sq];
+    }
+}
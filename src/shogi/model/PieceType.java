@@ -0,0 +1,67 @@
+package shogi.model;
+
+/**
+ * Bábutípusok felsorolása (promóció nélküli alapformák).
+ * A sorrend egyben a bitboard reprezentáció típusindexe is
+ * (lásd {@link BitboardPosition}), ezért nem szabad átrendezni.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public enum PieceType {
+    /** Gyalog (歩兵) */
+    PAWN,
+    /** Lándzsa (香車) */
+    LANCE,
+    /** Lovag (桂馬) */
+    KNIGHT,
+    /** Ezüst tábornok (銀将) */
+    SILVER,
+    /** Arany tábornok (金将) */
+    GOLD,
+    /** Futó (角行) */
+    BISHOP,
+    /** Bástya (飛車) */
+    ROOK,
+    /** Király (玉将) */
+    KING;
+
+    /** Gyorsítótárazott values() tömb (a values() minden hívásnál másol) */
+    private static final PieceType[] VALUES = values();
+
+    /**
+     * Típus lekérése index alapján.
+     *
+     * @param index a típus sorszáma (0-7)
+     * @return a megfelelő bábutípus
+     */
+    public static PieceType of(int index) {
+        return VALUES[index];
+    }
+
+    /**
+     * @return true, ha a típus promótálható (Arany és Király nem)
+     */
+    public boolean isPromotable() {
+        return this != GOLD && this != KING;
+    }
+
+    /**
+     * Létrehoz egy ilyen típusú bábut.
+     *
+     * @param color a bábu színe
+     * @param position a bábu pozíciója (null, ha kézben van)
+     * @return az új bábu példány
+     */
+    public Piece createPiece(Piece.Color color, Position position) {
+        return switch (this) {
+            case PAWN -> new Pawn(color, position);
+            case LANCE -> new Lance(color, position);
+            case KNIGHT -> new Knight(color, position);
+            case SILVER -> new SilverGeneral(color, position);
+            case GOLD -> new GoldGeneral(color, position);
+            case BISHOP -> new Bishop(color, position);
+            case ROOK -> new Rook(color, position);
+            case KING -> new King(color, position);
+        };
+    }
+}
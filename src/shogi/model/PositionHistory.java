@@ -0,0 +1,153 @@
+package shogi.model;
+
+/**
+ * A játszma állásainak története ismétlésfigyeléshez (千日手, sennichite).
+ *
+ * Gyűrűpuffer 64 bites Zobrist kulcsokkal: a hozzáfűzés O(1), foglalás
+ * nélkül. Állásonként azt is tároljuk, hogy a lépő fél sakkban van-e
+ * (az örökös sakk szabályhoz), és hány lépés telt el az utolsó ütés vagy
+ * ledobás óta - a visszafelé keresés csak eddig megy. Ütés vagy ledobás
+ * után a táblán lévő bábuk száma és a kezek megváltoznak; egy korábbi
+ * állás csak kölcsönös ütések és visszadobások sorozatával állhatna
+ * elő újra, ezt (a gyakorlatban is szokásos módon) nem keressük.
+ * Azonos lépő fél állásai csak minden második ply-on lehetnek, így a
+ * keresés kettesével lép.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public class PositionHistory {
+
+    /** A puffer mérete (2 hatvány); ennél régebbi állások kiesnek */
+    public static final int CAPACITY = 1024;
+
+    /** Ennyiedik előfordulás a sennichite */
+    public static final int REPETITIONS = 4;
+
+    /** Index maszk */
+    private static final int MASK = CAPACITY - 1;
+
+    /** Állás kulcsok */
+    private final long[] keys = new long[CAPACITY];
+
+    /** A lépő fél sakkban van-e az állásban */
+    private final boolean[] checks = new boolean[CAPACITY];
+
+    /** Az utolsó ütés / ledobás óta eltelt ply (0 = ütés / ledobás után) */
+    private final int[] sinceIrreversible = new int[CAPACITY];
+
+    /** Az eddig rögzített állások száma */
+    private int count;
+
+    /**
+     * A történet újrakezdése egy kiinduló állással.
+     *
+     * @param key az állás kulcsa
+     * @param inCheck a lépő fél sakkban van-e
+     */
+    public void reset(long key, boolean inCheck) {
+        count = 0;
+        push(key, inCheck, true);
+    }
+
+    /**
+     * Egy lépés utáni állás hozzáfűzése.
+     *
+     * @param key az új állás kulcsa
+     * @param inCheck az új állásban lépő fél sakkban van-e (a lépés sakkot adott)
+     * @param irreversible a lépés ütés vagy ledobás volt
+     */
+    public void push(long key, boolean inCheck, boolean irreversible) {
+        int index = count & MASK;
+        keys[index] = key;
+        checks[index] = inCheck;
+        sinceIrreversible[index] = irreversible || count == 0 ? 0 : sinceIrreversible[(count - 1) & MASK] + 1;
+        count++;
+    }
+
+    /**
+     * Az utolsó állás eltávolítása (lépés visszavonásakor).
+     */
+    public void pop() {
+        if (count > 0) {
+            count--;
+        }
+    }
+
+    /**
+     * @return true, ha még nincs rögzített állás
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return az utolsó állás kulcsa (üres történetnél 0)
+     */
+    public long lastKey() {
+        return count == 0 ? 0 : keys[(count - 1) & MASK];
+    }
+
+    /**
+     * @return a visszafelé vizsgálható állások száma (az utolsó ütés /
+     *         ledobás óta, a puffer méretén belül)
+     */
+    private int window() {
+        if (count == 0) {
+            return 0;
+        }
+        return Math.min(sinceIrreversible[(count - 1) & MASK], Math.min(count - 1, CAPACITY - 1));
+    }
+
+    /**
+     * @return az utolsó állás előfordulásainak száma (önmagát is beleértve)
+     */
+    public int repetitions() {
+        if (count == 0) {
+            return 0;
+        }
+        int window = window();
+        long key = lastKey();
+        int occurrences = 1;
+        for (int back = 4; back <= window; back += 2) {
+            if (keys[(count - 1 - back) & MASK] == key) {
+                occurrences++;
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Sennichite: az utolsó állás negyedszer fordul elő.
+     *
+     * @return hány ply-jal korábban volt az első előfordulás, vagy -1,
+     *         ha nincs négyszeres ismétlés
+     */
+    public int cycleLength() {
+        int window = window();
+        long key = lastKey();
+        int occurrences = 1;
+        for (int back = 4; back <= window; back += 2) {
+            if (keys[(count - 1 - back) & MASK] == key && ++occurrences == REPETITIONS) {
+                return back;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Örökös sakk vizsgálat az ismétlődő szakaszon.
+     *
+     * @param plies a szakasz hossza ({@link #cycleLength()})
+     * @param lastMover true: az utolsó lépést tevő fél, false: a másik fél
+     *                  lépéseit vizsgáljuk
+     * @return true, ha az adott fél a szakasz minden lépésével sakkot adott
+     */
+    public boolean isContinuousCheck(int plies, boolean lastMover) {
+        for (int back = lastMover ? 0 : 1; back < plies; back += 2) {
+            if (!checks[(count - 1 - back) & MASK]) {
+                return false;
+            }
+        }
+        return plies > 0;
+    }
+}
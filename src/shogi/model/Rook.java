@@ -1,6 +1,5 @@
 package shogi.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,78 +30,27 @@ public class Rook extends Piece {
      */
     @Override
     public List<Position> getLegalMoves(Board board) {
-        if (!promoted) {
-            return getNormalRookMoves(board);
-        } else {
-            return getPromotedRookMoves(board);
-        }
+        // Promótált: bástya + király átlós lépései (DRAGON típusindex)
+        return getTableMoves(board, BitboardPosition.kindOf(this));
     }
     
     /**
      * Normál bástya mozgás: egyenes vonalban akadályig (4 irány).
+     * Sor és oszlop táblázat alapján (két táblázatolvasás).
      * 
      * @param board a játéktábla
      * @return a lehetséges célpozíciók listája
      */
     public List<Position> getNormalRookMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        int[][] dirs = {
-                {-1, 0}, // fel
-                {1, 0},  // le
-                {0, -1}, // bal
-                {0, 1}   // jobb
-        };
-
-        for (int[] d : dirs) {
-            int nr = position.getRow();
-            int nc = position.getCol();
-
-            while (true) {
-                nr += d[0];
-                nc += d[1];
-
-                if (!board.isInside(nr, nc))
-                    break;
-
-                Piece p = board.getPieceAt(nr, nc);
-
-                if (p == null) {
-                    moves.add(new Position(nr, nc));
-                } else {
-                    if (p.getColor() != this.color)
-                        moves.add(new Position(nr, nc)); // üthet
-                    break; // akadály
-                }
-            }
-        }
-        return moves;
+        return getTableMoves(board, BitboardPosition.ROOK);
     }
-    
-    private List<Position> getPromotedRookMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        // 1) normál rook moves
-        moves.addAll(getNormalRookMoves(board));
-
-        // 2) királyi mozgás 4 átlós irányba (csak 4 irány!)
-        int[][] diag = {
-                {-1,-1}, {-1,1},
-                { 1,-1}, { 1,1}
-        };
 
-        for (int[] d : diag) {
-            int nr = position.getRow() + d[0];
-            int nc = position.getCol() + d[1];
-
-            if (board.isInside(nr, nc)) {
-                Piece p = board.getPieceAt(nr, nc);
-                if (p == null || p.getColor() != color)
-                    moves.add(new Position(nr, nc));
-            }
-        }
-
-        return moves;
+    /**
+     * @return PieceType.ROOK
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.ROOK;
     }
 
     /**
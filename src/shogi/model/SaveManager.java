@@ -1,171 +1,340 @@
 package shogi.model;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Játékállás mentése és betöltése JSON formátumban.
- * Gson könyvtárat használ a szerializációhoz/deszerializációhoz.
- * 
+ * A Gson stream API-ját (JsonWriter / JsonReader) használja pufferelt
+ * fájlkezeléssel: a mentés egyenesen az állásból íródik, a betöltés
+ * egyenesen a bitboard állásba olvas, köztes objektumfa nélkül.
+ * A {@value BinaryGameFormat#EXTENSION} kiterjesztésű fájlok a tömör
+ * bináris formátumot ({@link BinaryGameFormat}) használják.
+ *
+ * JSON séma (a mezők sorrendje tetszőleges, az ismeretlen mezők kimaradnak):
+ * <pre>
+ * {
+ *   "currentPlayer": "BLACK" | "WHITE",
+ *   "moveNumber": 1,                      (elhagyható)
+ *   "pieces": [ bábu, ... ],              (csak a foglalt mezők)
+ *   "board": [[bábu | null, ...], ...],   (régi mentések: teljes 9×9 mátrix)
+ *   "blackHand": [ bábu, ... ],
+ *   "whiteHand": [ bábu, ... ]
+ * }
+ * bábu: {"type": "Pawn", "color": "BLACK", "row": 6, "col": 0, "promoted": false}
+ * </pre>
+ * A típusnevek a bábuosztályok nevei (King, Rook, Bishop, GoldGeneral,
+ * SilverGeneral, Knight, Lance, Pawn); kézben lévő bábunál a sor és
+ * oszlop -1. Az új mentések a ritka "pieces" listát írják, a régi "board"
+ * mátrixos fájlok továbbra is betölthetők.
+ *
  * Használat:
- * - SaveManager.save(game, "mentes.json") - játék mentése
+ * - SaveManager.save(game, "mentes.json") - játék mentése (tagolt)
+ * - SaveManager.save(game, "mentes.json", true) - tömör mentés (automatikus mentés, tömeges export)
  * - ShogiGame game = SaveManager.load("mentes.json") - játék betöltése
- * 
+ * - SaveManager.save(game, "mentes.shgb") - bináris mentés (állás + lépések)
+ *
  * @author Domokos Erik Zsolt
  */
 public class SaveManager {
-    
-    private static final Gson gson = new GsonBuilder()
-            .setPrettyPrinting()
-            .create();
-    
+
+    /** Bábutípus nevek típusindex szerint (a régi mentésekkel egyezően az osztálynevek) */
+    private static final String[] TYPE_NAMES = {
+        "Pawn", "Lance", "Knight", "SilverGeneral", "GoldGeneral", "Bishop", "Rook", "King"
+    };
+
+    /** Színnevek színindex szerint */
+    private static final String[] COLOR_NAMES = {Piece.Color.BLACK.name(), Piece.Color.WHITE.name()};
+
+    /** Tagolt kimenet behúzása */
+    private static final String INDENT = "  ";
+
     // Privát konstruktor - csak statikus metódusok
     private SaveManager() {
         throw new UnsupportedOperationException("Utility class");
     }
-    
+
+    // ===================================================================
+    //                          MENTÉS
+    // ===================================================================
+
     /**
-     * Játékállás mentése fájlba.
-     * 
+     * Játékállás mentése fájlba (tagolt JSON, vagy bináris a kiterjesztés szerint).
+     *
      * @param game A mentendő játék
      * @param filePath A mentési fájl útvonala
      * @throws IOException Ha a fájlírás sikertelen
      */
     public static void save(ShogiGame game, String filePath) throws IOException {
-        GameState state = convertToGameState(game);
-        
-        try (Writer writer = new FileWriter(filePath)) {
-            gson.toJson(state, writer);
+        save(game, filePath, false);
+    }
+
+    /**
+     * Játékállás mentése fájlba.
+     *
+     * @param game A mentendő játék
+     * @param filePath A mentési fájl útvonala
+     * @param compact true: tömör (tagolás nélküli) JSON
+     * @throws IOException Ha a fájlírás sikertelen
+     */
+    public static void save(ShogiGame game, String filePath, boolean compact) throws IOException {
+        if (BinaryGameFormat.isBinaryPath(filePath)) {
+            Files.write(Path.of(filePath), BinaryGameFormat.encode(game));
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(Path.of(filePath), StandardCharsets.UTF_8)) {
+            write(game, writer, compact);
         }
     }
-    
+
     /**
-     * Játékállás betöltése fájlból.
-     * 
+     * Játékállás kiírása JSON-ként egy adatfolyamba (a folyamot nem zárja le).
+     *
+     * @param game A mentendő játék
+     * @param out A cél (érdemes pufferelt)
+     * @param compact true: tömör (tagolás nélküli) JSON
+     * @throws IOException Ha az írás sikertelen
+     */
+    public static void write(ShogiGame game, Writer out, boolean compact) throws IOException {
+        BitboardPosition pos = game.toBitboardPosition();
+        JsonWriter json = new JsonWriter(out);
+        if (!compact) {
+            json.setIndent(INDENT);
+        }
+
+        json.beginObject();
+        json.name("currentPlayer").value(game.getCurrentPlayer().name());
+        json.name("moveNumber").value(game.getMoveNumber());
+
+        json.name("pieces").beginArray();
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int code = pos.pieceAt(sq);
+            if (code != 0) {
+                int kind = BitboardPosition.codeKind(code);
+                writePiece(json, BitboardPosition.codeColor(code), kind & ~BitboardPosition.PROMOTED,
+                        Bitboard.row(sq), Bitboard.col(sq), (kind & BitboardPosition.PROMOTED) != 0);
+            }
+        }
+        json.endArray();
+
+        for (int color = 0; color < 2; color++) {
+            json.name(color == BitboardPosition.BLACK ? "blackHand" : "whiteHand").beginArray();
+            for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+                for (int i = pos.getHandCount(color, kind); i > 0; i--) {
+                    writePiece(json, color, kind, -1, -1, false);
+                }
+            }
+            json.endArray();
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    private static void writePiece(JsonWriter json, int color, int kind, int row, int col, boolean promoted)
+            throws IOException {
+        json.beginObject();
+        json.name("type").value(TYPE_NAMES[kind]);
+        json.name("color").value(COLOR_NAMES[color]);
+        json.name("row").value(row);
+        json.name("col").value(col);
+        json.name("promoted").value(promoted);
+        json.endObject();
+    }
+
+    // ===================================================================
+    //                          BETÖLTÉS
+    // ===================================================================
+
+    /**
+     * Játékállás betöltése fájlból (JSON, vagy bináris a kiterjesztés szerint).
+     *
      * @param filePath A betöltendő fájl útvonala
      * @return Betöltött játék objektum
-     * @throws IOException Ha a fájl olvasása sikertelen
+     * @throws IOException Ha a fájl olvasása sikertelen vagy a tartalma hibás
      */
     public static ShogiGame load(String filePath) throws IOException {
-        try (Reader reader = new FileReader(filePath)) {
-            GameState state = gson.fromJson(reader, GameState.class);
-            return convertFromGameState(state);
+        if (BinaryGameFormat.isBinaryPath(filePath)) {
+            return BinaryGameFormat.decode(Files.readAllBytes(Path.of(filePath)));
+        }
+        try (Reader reader = Files.newBufferedReader(Path.of(filePath), StandardCharsets.UTF_8)) {
+            return read(reader);
         }
     }
-    
+
     /**
-     * ShogiGame objektum átalakítása GameState-té (szerializálható formába).
+     * Játékállás beolvasása JSON adatfolyamból (a folyamot nem zárja le).
+     *
+     * @param in A forrás (érdemes pufferelt)
+     * @return Betöltött játék objektum
+     * @throws IOException Ha az olvasás sikertelen vagy a tartalma hibás
      */
-    private static GameState convertToGameState(ShogiGame game) {
-        GameState state = new GameState();
-        
-        // Jelenlegi játékos
-        state.currentPlayer = game.getCurrentPlayer().name();
-        
-        // Tábla állapota
-        state.board = new GameState.PieceData[9][9];
-        Board board = game.getBoard();
-        
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                Piece piece = board.getPieceAt(row, col);
-                if (piece != null) {
-                    state.board[row][col] = convertPieceToData(piece);
+    public static ShogiGame read(Reader in) throws IOException {
+        JsonReader json = new JsonReader(in);
+        json.setLenient(true); // mint a korábbi Gson.fromJson betöltés
+        BitboardPosition pos = new BitboardPosition();
+        PieceEntry entry = new PieceEntry();
+        Piece.Color currentPlayer = Piece.Color.BLACK;
+        int moveNumber = 1;
+
+        try {
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "currentPlayer" -> currentPlayer = Piece.Color.valueOf(json.nextString());
+                    case "moveNumber" -> moveNumber = json.nextInt();
+                    case "pieces" -> readPieces(json, pos, entry);
+                    case "board" -> readBoard(json, pos, entry);
+                    case "blackHand" -> readHand(json, pos, entry, BitboardPosition.BLACK);
+                    case "whiteHand" -> readHand(json, pos, entry, BitboardPosition.WHITE);
+                    default -> json.skipValue();
                 }
             }
+            json.endObject();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new IOException("Invalid save file: " + e.getMessage(), e);
         }
-        
-        // Kéz (fogott bábuk)
-        state.blackHand = new ArrayList<>();
-        for (Piece piece : game.getBlackHand()) {
-            state.blackHand.add(convertPieceToData(piece));
+
+        pos.setSideToMove(BitboardPosition.colorIndex(currentPlayer));
+        ShogiGame game = new ShogiGame(pos);
+        game.setMoveNumber(moveNumber);
+        return game;
+    }
+
+    /**
+     * Ritka tábla: a foglalt mezők listája, a mező a bábu sor / oszlop mezőjéből.
+     */
+    private static void readPieces(JsonReader json, BitboardPosition pos, PieceEntry entry) throws IOException {
+        if (skipNull(json)) {
+            return;
         }
-        
-        state.whiteHand = new ArrayList<>();
-        for (Piece piece : game.getWhiteHand()) {
-            state.whiteHand.add(convertPieceToData(piece));
+        json.beginArray();
+        while (json.hasNext()) {
+            readPiece(json, entry);
+            place(pos, entry, entry.row, entry.col);
         }
-        
-        return state;
+        json.endArray();
     }
-    
+
     /**
-     * GameState visszaalakítása ShogiGame objektummá.
+     * Régi teljes 9×9 mátrix (null = üres mező), a mező a mátrix indexéből.
      */
-    private static ShogiGame convertFromGameState(GameState state) {
-        ShogiGame game = new ShogiGame();
-        game.clearBoard(); // Üres táblával kezdünk
-        
-        // Jelenlegi játékos beállítása
-        game.setCurrentPlayer(Piece.Color.valueOf(state.currentPlayer));
-        
-        // Tábla feltöltése
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                GameState.PieceData data = state.board[row][col];
-                if (data != null) {
-                    Piece piece = convertDataToPiece(data);
-                    game.getBoard().setPieceAt(row, col, piece);
+    private static void readBoard(JsonReader json, BitboardPosition pos, PieceEntry entry) throws IOException {
+        if (skipNull(json)) {
+            return;
+        }
+        json.beginArray();
+        for (int row = 0; json.hasNext(); row++) {
+            if (skipNull(json)) {
+                continue;
+            }
+            json.beginArray();
+            for (int col = 0; json.hasNext(); col++) {
+                if (skipNull(json)) {
+                    continue;
                 }
+                readPiece(json, entry);
+                place(pos, entry, row, col);
             }
+            json.endArray();
         }
-        
-        // Kéz feltöltése
-        for (GameState.PieceData data : state.blackHand) {
-            game.addToHand(Piece.Color.BLACK, convertDataToPiece(data));
+        json.endArray();
+    }
+
+    private static void readHand(JsonReader json, BitboardPosition pos, PieceEntry entry, int color)
+            throws IOException {
+        if (skipNull(json)) {
+            return;
         }
-        
-        for (GameState.PieceData data : state.whiteHand) {
-            game.addToHand(Piece.Color.WHITE, convertDataToPiece(data));
+        json.beginArray();
+        while (json.hasNext()) {
+            readPiece(json, entry);
+            int kind = entry.kind;
+            if (kind == BitboardPosition.KING) {
+                throw new IOException("Invalid save file: king in hand");
+            }
+            int count = pos.getHandCount(color, kind) + 1;
+            if (count > Hand.MAX_COUNT[kind]) {
+                throw new IOException("Invalid save file: too many pieces in hand");
+            }
+            pos.setHandCount(color, kind, count);
         }
-        
-        return game;
+        json.endArray();
     }
-    
+
+    private static void place(BitboardPosition pos, PieceEntry entry, int row, int col) throws IOException {
+        if (row < 0 || row > 8 || col < 0 || col > 8) {
+            throw new IOException("Invalid save file: square out of board (" + row + ", " + col + ")");
+        }
+        int sq = Bitboard.square(row, col);
+        if (pos.pieceAt(sq) != 0) {
+            throw new IOException("Invalid save file: two pieces on square (" + row + ", " + col + ")");
+        }
+        int kind = entry.promoted && BitboardPosition.isPromotable(entry.kind)
+                ? entry.kind | BitboardPosition.PROMOTED
+                : entry.kind;
+        pos.putPiece(sq, entry.color, kind);
+    }
+
     /**
-     * Piece objektum átalakítása PieceData-vá.
+     * Egy bábu objektum beolvasása az újrahasznosított bejegyzésbe.
      */
-    private static GameState.PieceData convertPieceToData(Piece piece) {
-        String type = piece.getClass().getSimpleName();
-        String color = piece.getColor().name();
-        Position pos = piece.getPosition();
-        boolean promoted = piece.isPromoted();
-        
-        return new GameState.PieceData(
-            type, 
-            color, 
-            pos != null ? pos.getRow() : -1, 
-            pos != null ? pos.getCol() : -1, 
-            promoted
-        );
+    private static void readPiece(JsonReader json, PieceEntry entry) throws IOException {
+        entry.kind = -1;
+        entry.color = -1;
+        entry.row = -1;
+        entry.col = -1;
+        entry.promoted = false;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "type" -> entry.kind = typeIndex(json.nextString());
+                case "color" -> entry.color = BitboardPosition.colorIndex(Piece.Color.valueOf(json.nextString()));
+                case "row" -> entry.row = json.nextInt();
+                case "col" -> entry.col = json.nextInt();
+                case "promoted" -> entry.promoted = json.nextBoolean();
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        if (entry.kind < 0 || entry.color < 0) {
+            throw new IOException("Invalid save file: piece without type or color");
+        }
     }
-    
+
+    private static int typeIndex(String name) {
+        for (int kind = 0; kind < TYPE_NAMES.length; kind++) {
+            if (TYPE_NAMES[kind].equals(name)) {
+                return kind;
+            }
+        }
+        throw new IllegalArgumentException("Unknown piece type: " + name);
+    }
+
+    /**
+     * @return true, ha a következő érték null volt (és átléptük)
+     */
+    private static boolean skipNull(JsonReader json) throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return true;
+        }
+        return false;
+    }
+
     /**
-     * PieceData visszaalakítása Piece objektummá.
+     * Egy beolvasott bábu adatai (betöltésenként egy példány, újrahasznosítva).
      */
-    private static Piece convertDataToPiece(GameState.PieceData data) {
-        Piece.Color color = Piece.Color.valueOf(data.color);
-        Position pos = new Position(data.row, data.col);
-        
-        Piece piece = switch (data.type) {
-            case "King" -> new King(color, pos);
-            case "Rook" -> new Rook(color, pos);
-            case "Bishop" -> new Bishop(color, pos);
-            case "GoldGeneral" -> new GoldGeneral(color, pos);
-            case "SilverGeneral" -> new SilverGeneral(color, pos);
-            case "Knight" -> new Knight(color, pos);
-            case "Lance" -> new Lance(color, pos);
-            case "Pawn" -> new Pawn(color, pos);
-            default -> throw new IllegalArgumentException("Unknown piece type: " + data.type);
-        };
-        
-        if (data.promoted) {
-            piece.promote();
-        }
-        
-        return piece;
+    private static final class PieceEntry {
+        int kind;
+        int color;
+        int row;
+        int col;
+        boolean promoted;
     }
 }
@@ -0,0 +1,291 @@
+package shogi.model;
+
+/**
+ * SFEN (Shogi Forsyth-Edwards Notation) állásleírás beolvasása és kiírása.
+ *
+ * Formátum: "tábla lépő_fél kezek lépésszám", pl. a kezdőállás:
+ * {@value #START}
+ * - tábla: sorok "a"-tól (felül, fehér oldala) "i"-ig, "/" jellel
+ *   elválasztva; soronként az oszlopok 9-től 1-ig (balról jobbra), szám
+ *   = ennyi üres mező, nagybetű = fekete (sente), kisbetű = fehér,
+ *   "+" előtag = promótált bábu,
+ * - lépő fél: "b" (fekete) vagy "w" (fehér),
+ * - kezek: "-" vagy darabszám + betű párok (pl. "2P3pb"), kiíráskor
+ *   feketével kezdve, típusonként R, B, G, S, N, L, P sorrendben,
+ * - lépésszám: a soron következő lépés sorszáma (1-től), beolvasáskor
+ *   elhagyható.
+ *
+ * A feldolgozás karakterenként halad a szövegen (nincs split, regex vagy
+ * részszöveg), a kiírás egyetlen StringBuilderbe ír: egy állás egy
+ * foglalás az eredménynek, tömeges feldolgozásnál a
+ * {@link #parse(CharSequence, BitboardPosition)} és
+ * {@link #append(StringBuilder, BitboardPosition, int)} változat a hívó
+ * objektumait használja.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class Sfen {
+
+    /** A (szabványos) kezdőállás SFEN alakja */
+    public static final String START = "lnsgkgsnl/1r5b1/ppppppppp/9/9/9/PPPPPPPPP/1B5R1/LNSGKGSNL b - 1";
+
+    /** Bábubetűk típusindex szerint (PAWN..KING) */
+    private static final String LETTERS = "PLNSGBRK";
+
+    /** A kezek kiírási sorrendje (a szokásos érték szerinti csökkenő sorrend) */
+    private static final int[] HAND_ORDER = {
+        BitboardPosition.ROOK, BitboardPosition.BISHOP, BitboardPosition.GOLD, BitboardPosition.SILVER,
+        BitboardPosition.KNIGHT, BitboardPosition.LANCE, BitboardPosition.PAWN
+    };
+
+    private Sfen() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // ===================================================================
+    //                          BEOLVASÁS
+    // ===================================================================
+
+    /**
+     * SFEN szöveg beolvasása bitboard állássá.
+     *
+     * @param sfen az állás (a lépésszám elhagyható)
+     * @return az új állás
+     * @throws IllegalArgumentException hibás formátum esetén
+     */
+    public static BitboardPosition parse(String sfen) {
+        BitboardPosition pos = new BitboardPosition();
+        parse(sfen, pos);
+        return pos;
+    }
+
+    /**
+     * SFEN szöveg beolvasása egy üres állásba.
+     *
+     * @param sfen az állás (a lépésszám elhagyható)
+     * @param pos üres állás ({@code new BitboardPosition()}), ide kerül a tábla,
+     *            a kezek és a lépő fél
+     * @return a lépésszám (1, ha nincs megadva)
+     * @throws IllegalArgumentException hibás formátum esetén
+     */
+    public static int parse(CharSequence sfen, BitboardPosition pos) {
+        int length = sfen.length();
+        int i = skipSpaces(sfen, 0);
+        i = parseBoard(sfen, i, pos);
+
+        int next = skipSpaces(sfen, i);
+        if (next == i || next >= length) {
+            throw invalid("missing side to move", sfen);
+        }
+        char side = sfen.charAt(next++);
+        if (side == 'b') {
+            pos.setSideToMove(BitboardPosition.BLACK);
+        } else if (side == 'w') {
+            pos.setSideToMove(BitboardPosition.WHITE);
+        } else {
+            throw invalid("invalid side to move", sfen);
+        }
+
+        i = next;
+        next = skipSpaces(sfen, i);
+        if (next == i || next >= length) {
+            throw invalid("missing hands", sfen);
+        }
+        i = parseHands(sfen, next, pos);
+
+        next = skipSpaces(sfen, i);
+        if (next >= length) {
+            return 1;
+        }
+        if (next == i) {
+            throw invalid("invalid hands", sfen);
+        }
+        int moveNumber = 0;
+        for (i = next; i < length && sfen.charAt(i) != ' '; i++) {
+            char c = sfen.charAt(i);
+            if (c < '0' || c > '9' || moveNumber > 100_000_000) {
+                throw invalid("invalid move number", sfen);
+            }
+            moveNumber = moveNumber * 10 + (c - '0');
+        }
+        if (moveNumber < 1 || skipSpaces(sfen, i) < length) {
+            throw invalid("invalid move number", sfen);
+        }
+        return moveNumber;
+    }
+
+    private static int skipSpaces(CharSequence sfen, int i) {
+        while (i < sfen.length() && sfen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static IllegalArgumentException invalid(String reason, CharSequence sfen) {
+        return new IllegalArgumentException("Invalid SFEN (" + reason + "): " + sfen);
+    }
+
+    /**
+     * @return az első feldolgozatlan karakter indexe
+     */
+    private static int parseBoard(CharSequence sfen, int start, BitboardPosition pos) {
+        int row = 0;
+        int col = 0;
+        boolean promoted = false;
+        int i = start;
+        for (; i < sfen.length(); i++) {
+            char c = sfen.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c == '/') {
+                if (col != 9 || promoted) {
+                    throw invalid("rank " + (char) ('a' + row), sfen);
+                }
+                row++;
+                col = 0;
+            } else if (c >= '1' && c <= '9' && !promoted) {
+                col += c - '0';
+            } else if (c == '+' && !promoted) {
+                promoted = true;
+            } else {
+                int kind = LETTERS.indexOf(Character.toUpperCase(c));
+                if (kind < 0 || row > 8 || col > 8
+                        || (promoted && !BitboardPosition.isPromotable(kind))) {
+                    throw invalid("board", sfen);
+                }
+                int color = Character.isUpperCase(c) ? BitboardPosition.BLACK : BitboardPosition.WHITE;
+                pos.putPiece(Bitboard.square(row, col), color, promoted ? kind | BitboardPosition.PROMOTED : kind);
+                col++;
+                promoted = false;
+            }
+            if (col > 9) {
+                throw invalid("rank " + (char) ('a' + row), sfen);
+            }
+        }
+        if (row != 8 || col != 9 || promoted) {
+            throw invalid("board", sfen);
+        }
+        return i;
+    }
+
+    /**
+     * @return az első feldolgozatlan karakter indexe
+     */
+    private static int parseHands(CharSequence sfen, int start, BitboardPosition pos) {
+        if (sfen.charAt(start) == '-') {
+            return start + 1;
+        }
+        int count = 0;
+        int i = start;
+        for (; i < sfen.length(); i++) {
+            char c = sfen.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c >= '0' && c <= '9') {
+                if (count == 0 && c == '0') {
+                    throw invalid("zero or zero-padded hand count", sfen);
+                }
+                count = count * 10 + (c - '0');
+                if (count > Hand.MAX_COUNT[BitboardPosition.PAWN]) {
+                    throw invalid("too many pieces in hand", sfen);
+                }
+                continue;
+            }
+            int kind = LETTERS.indexOf(Character.toUpperCase(c));
+            if (kind < 0 || kind == BitboardPosition.KING) {
+                throw invalid("hand", sfen);
+            }
+            int color = Character.isUpperCase(c) ? BitboardPosition.BLACK : BitboardPosition.WHITE;
+            int total = pos.getHandCount(color, kind) + Math.max(1, count);
+            if (total > Hand.MAX_COUNT[kind]) {
+                throw invalid("too many pieces in hand", sfen);
+            }
+            pos.setHandCount(color, kind, total);
+            count = 0;
+        }
+        if (count != 0) {
+            throw invalid("hand", sfen);
+        }
+        return i;
+    }
+
+    // ===================================================================
+    //                          KIÍRÁS
+    // ===================================================================
+
+    /**
+     * Állás SFEN alakja.
+     *
+     * @param pos az állás
+     * @param moveNumber a soron következő lépés sorszáma (1-től)
+     * @return az SFEN szöveg
+     */
+    public static String toSfen(BitboardPosition pos, int moveNumber) {
+        StringBuilder sb = new StringBuilder(96);
+        append(sb, pos, moveNumber);
+        return sb.toString();
+    }
+
+    /**
+     * Állás SFEN alakjának hozzáfűzése (tömeges kiíráshoz újrahasznosítható
+     * StringBuilderrel).
+     *
+     * @param sb a cél
+     * @param pos az állás
+     * @param moveNumber a soron következő lépés sorszáma (1-től)
+     */
+    public static void append(StringBuilder sb, BitboardPosition pos, int moveNumber) {
+        for (int row = 0; row < 9; row++) {
+            if (row > 0) {
+                sb.append('/');
+            }
+            int empty = 0;
+            for (int col = 0; col < 9; col++) {
+                int code = pos.pieceAt(Bitboard.square(row, col));
+                if (code == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                appendPiece(sb, BitboardPosition.codeColor(code), BitboardPosition.codeKind(code));
+            }
+            if (empty > 0) {
+                sb.append((char) ('0' + empty));
+            }
+        }
+
+        sb.append(pos.getSideToMove() == BitboardPosition.BLACK ? " b " : " w ");
+
+        int start = sb.length();
+        for (int color = 0; color < 2; color++) {
+            for (int kind : HAND_ORDER) {
+                int count = pos.getHandCount(color, kind);
+                if (count == 0) {
+                    continue;
+                }
+                if (count > 1) {
+                    sb.append(count);
+                }
+                appendPiece(sb, color, kind);
+            }
+        }
+        if (sb.length() == start) {
+            sb.append('-');
+        }
+
+        sb.append(' ').append(moveNumber);
+    }
+
+    private static void appendPiece(StringBuilder sb, int color, int kind) {
+        if ((kind & BitboardPosition.PROMOTED) != 0) {
+            sb.append('+');
+        }
+        char letter = LETTERS.charAt(kind & ~BitboardPosition.PROMOTED);
+        sb.append(color == BitboardPosition.BLACK ? letter : Character.toLowerCase(letter));
+    }
+}
@@ -1,6 +1,7 @@
 package shogi.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -17,11 +18,47 @@ public class ShogiGame {
     /** Az aktuális játékos (BLACK vagy WHITE) */
     private Piece.Color currentPlayer;
     
-    /** Fekete játékos leütött bábui (kezében lévő bábuk) */
-    private List<Piece> blackHand = new ArrayList<>();
-    
-    /** Fehér játékos leütött bábui (kezében lévő bábuk) */
-    private List<Piece> whiteHand = new ArrayList<>();
+    /** A játékosok kezében lévő bábuk színenként, csomagolt számlálókkal (lásd {@link Hand}) */
+    private final int[] hands = new int[2];
+
+    /** A kezek Zobrist kulcsa (összeadásos, lásd {@link Zobrist}) */
+    private long handKey;
+
+    /** Legális lépésgenerátor (a lépések és ledobások ellenőrzéséhez) */
+    private final MoveGenerator generator = new MoveGenerator();
+
+    /** Munkaterület a generált lépéseknek */
+    private final MoveList moveList = new MoveList();
+
+    /** A visszavonási verem mérete (egymásba ágyazott doMove hívások) */
+    public static final int MAX_UNDO = 1024;
+
+    /** Megtett lépések (visszavonáshoz) */
+    private final int[] undoMoves = new int[MAX_UNDO];
+
+    /** Leütött bábu lépésenként (visszavonáskor változatlanul kerül vissza) */
+    private final Piece[] undoCaptured = new Piece[MAX_UNDO];
+
+    /** A verem mélysége */
+    private int undoCount;
+
+    /** Az állások története az ismétlés (sennichite) figyeléséhez */
+    private final PositionHistory history = new PositionHistory();
+
+    /** A soron következő lépés sorszáma (1-től, ply-onként nő; SFEN lépésszám) */
+    private int moveNumber = 1;
+
+    /** Játszmajegyzés: a kiinduló állás (null, amíg nem volt lépés) */
+    private BitboardPosition recordStart;
+
+    /** A kiinduló állás lépésszáma */
+    private int recordStartNumber = 1;
+
+    /** Játszmajegyzés: a kiinduló állás óta tett lépések {@link Move} kódolásban */
+    private int[] record = new int[64];
+
+    /** A jegyzés hossza */
+    private int recordLength;
 
     /**
      * Új játék létrehozása kezdési állással.
@@ -33,6 +70,57 @@ public class ShogiGame {
         setupInitialPosition();
     }
 
+    /**
+     * Játék létrehozása egy bitboard állásból (tábla, kezek, lépésen lévő fél).
+     *
+     * @param position a forrás állás
+     */
+    public ShogiGame(BitboardPosition position) {
+        board = position.toBoard();
+        currentPlayer = BitboardPosition.colorOf(position.getSideToMove());
+        for (int c = 0; c < 2; c++) {
+            hands[c] = position.getHand(c);
+            for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+                handKey += Zobrist.hand(c, kind) * position.getHandCount(c, kind);
+            }
+        }
+    }
+
+    /**
+     * Játék létrehozása SFEN állásleírásból (lásd {@link Sfen}).
+     *
+     * @param sfen az állás (tábla, lépő fél, kezek, elhagyható lépésszám)
+     * @return az új játék
+     * @throws IllegalArgumentException hibás formátum esetén
+     */
+    public static ShogiGame fromSfen(String sfen) {
+        BitboardPosition position = new BitboardPosition();
+        int number = Sfen.parse(sfen, position);
+        ShogiGame game = new ShogiGame(position);
+        game.moveNumber = number;
+        return game;
+    }
+
+    /**
+     * @return a jelenlegi állás SFEN alakja (tábla, lépő fél, kezek, lépésszám)
+     */
+    public String toSfen() {
+        return Sfen.toSfen(toBitboardPosition(), moveNumber);
+    }
+
+    /**
+     * Átalakítja a jelenlegi játékállást bitboard reprezentációvá.
+     * A visszaadott állás független másolat, a játékot nem módosítja.
+     *
+     * @return a tábla, a kezek és a lépésen lévő fél bitboard formában
+     */
+    public BitboardPosition toBitboardPosition() {
+        BitboardPosition position = BitboardPosition.fromBoard(board, currentPlayer);
+        position.setHand(BitboardPosition.BLACK, hands[BitboardPosition.BLACK]);
+        position.setHand(BitboardPosition.WHITE, hands[BitboardPosition.WHITE]);
+        return position;
+    }
+
     /**
      * @return a játéktábla
      */
@@ -48,17 +136,63 @@ public class ShogiGame {
     }
 
     /**
-     * @return fekete játékos kezében lévő bábuk másolata
+     * @return fekete játékos kezében lévő bábuk (új példányok, típus szerint rendezve)
      */
     public List<Piece> getBlackHand() {
-        return new ArrayList<>(blackHand);
+        return handPieces(Piece.Color.BLACK);
     }
 
     /**
-     * @return fehér játékos kezében lévő bábuk másolata
+     * @return fehér játékos kezében lévő bábuk (új példányok, típus szerint rendezve)
      */
     public List<Piece> getWhiteHand() {
-        return new ArrayList<>(whiteHand);
+        return handPieces(Piece.Color.WHITE);
+    }
+
+    /**
+     * @param color a játékos színe
+     * @return a kéz csomagolt alakja (lásd {@link Hand})
+     */
+    public int getHand(Piece.Color color) {
+        return hands[color.ordinal()];
+    }
+
+    /**
+     * @param color a játékos színe
+     * @param type a bábu típusa
+     * @return a kézben lévő darabszám
+     */
+    public int getHandCount(Piece.Color color, PieceType type) {
+        return Hand.count(hands[color.ordinal()], type.ordinal());
+    }
+
+    /**
+     * A kéz megjelenítéshez / mentéshez: a számlálókból épített bábulista.
+     */
+    private List<Piece> handPieces(Piece.Color color) {
+        List<Piece> pieces = new ArrayList<>();
+        int hand = hands[color.ordinal()];
+        for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+            for (int i = Hand.count(hand, kind); i > 0; i--) {
+                pieces.add(PieceType.of(kind).createPiece(color, null));
+            }
+        }
+        return pieces;
+    }
+
+    /**
+     * Az állás 64 bites Zobrist kulcsa: tábla (típus, promóció, szín),
+     * kezek és lépő fél. Lépésenként növekményesen frissül, és megegyezik
+     * a {@link #toBitboardPosition()} kulcsával.
+     *
+     * @return a kulcs
+     */
+    public long getHashKey() {
+        long key = board.getHashKey();
+        if (currentPlayer == Piece.Color.WHITE) {
+            key ^= Zobrist.SIDE;
+        }
+        return key + handKey;
     }
 
     /**
@@ -127,17 +261,11 @@ public class ShogiGame {
             return false;
         }
 
-        List<Position> moves = p.getLegalMoves(board);
-
-        if (!moves.contains(to)) {
+        // A generátor csak legális lépést ad (kötés, sakk elhárítás)
+        if (!isLegalMove(from, to)) {
             return false;
         }
 
-        // Ellenőrizzük, hogy a lépés után ne legyen sakkban a saját király
-        if (!wouldEscapeCheck(from, to, currentPlayer)) {
-            return false; // Ez a lépés sakkban hagyná a királyt
-        }
-
         Piece target = board.getPieceAt(to.getRow(), to.getCol());
         
         // KRITIKUS: Királyt nem lehet kiütni!
@@ -145,6 +273,11 @@ public class ShogiGame {
             return false; // Illegális lépés - király kiütése nem megengedett
         }
         
+        int kind = BitboardPosition.kindOf(p);
+        int captured = target != null ? BitboardPosition.kindOf(target) : -1;
+        boolean wasPromoted = p.isPromoted();
+
+        beginMove();
         if (target != null) {
             capturePiece(target, p.getColor());
         }
@@ -152,62 +285,318 @@ public class ShogiGame {
         board.movePiece(from, to);
         handlePromotion(p, from, to);
 
+        boolean promoted = !wasPromoted && board.getPieceAt(to.getRow(), to.getCol()).isPromoted();
         switchPlayer();
+        endMove(Move.normal(Bitboard.square(from.getRow(), from.getCol()),
+                Bitboard.square(to.getRow(), to.getCol()), kind, captured, promoted));
         return true;
     }
 
 
     // ===================================================================
-    //                           CAPTURE
+    //                       DO / UNDO MOVE
     // ===================================================================
-    private void capturePiece(Piece target, Piece.Color capturerColor) {
-        // 1) ELTÁVOLÍTJUK A TÁBLÁRÓL
-        int r = target.getPosition().getRow();
-        int c = target.getPosition().getCol();
-        board.setPieceAt(r, c, null);
 
-        // 2) PROMÓCIÓ TÖRLÉSE
-        target.unpromote();
+    /**
+     * Végrehajt egy {@link Move} kódolású lépést helyben, visszavonhatóan.
+     * A promóció pontosan a lépés jelzője szerint történik (nincs
+     * automatikus promóció), és nincs legalitás ellenőrzés: a lépésnek a
+     * {@link #generateLegalMoves(MoveList)} által adottnak kell lennie.
+     *
+     * @param move a kódolt lépés
+     * @throws IllegalStateException ha a visszavonási verem megtelt
+     */
+    public void doMove(int move) {
+        if (undoCount == MAX_UNDO) {
+            throw new IllegalStateException("Undo stack overflow");
+        }
+        beginMove();
+        undoCaptured[undoCount] = applyMove(move);
+        undoMoves[undoCount++] = move;
+        switchPlayer();
+        endMove(move);
+    }
 
-        // 3) SZÍNVÁLTÁS (kézbe kerül)
-        target.color = capturerColor;
-        target.updateForwardDirection();
+    /**
+     * Végrehajt egy {@link Move} kódolású lépést véglegesen (visszavonási
+     * verem nélkül), ha az legális. A promóció a lépés jelzője szerint
+     * történik, így a sima (nem promótáló) változat is választható.
+     * A lépés a mezők, a ledobott típus és a promóció alapján azonosított
+     * generált változatával hajtódik végre és kerül a jegyzésbe.
+     *
+     * @param move a kódolt lépés
+     * @return true, ha a lépés legális volt és megtörtént
+     */
+    public boolean playMove(int move) {
+        generateLegalMoves(currentPlayer);
+        int index = moveList.indexOf(move);
+        if (index < 0) {
+            return false;
+        }
+        replayMove(moveList.get(index)); // a generált kód: a bábu / ütés bitjei biztosan helyesek
+        return true;
+    }
 
-        // 4) POZÍCIÓ TÖRLÉSE (kézben nincs pozíció)
-        target.setPosition(null);
+    /**
+     * Végrehajt egy {@link Move} kódolású lépést véglegesen, legalitás
+     * ellenőrzés nélkül (betöltéshez: a jegyzés lépései már ellenőrzöttek).
+     *
+     * @param move a kódolt lépés (a lépő és leütött bábu típusával)
+     */
+    void replayMove(int move) {
+        beginMove();
+        applyMove(move);
+        switchPlayer();
+        endMove(move);
+    }
 
-        // 5) KÉZHEZ ADÁS
-        if (capturerColor == Piece.Color.BLACK) {
-            blackHand.add(target);
-        } else {
-            whiteHand.add(target);
+    /**
+     * A lépés táblára és kezekre gyakorolt hatása (játékosváltás nélkül).
+     *
+     * @return a leütött bábu, vagy null
+     */
+    private Piece applyMove(int move) {
+        int to = Move.to(move);
+        int toRow = Bitboard.row(to);
+        int toCol = Bitboard.col(to);
+
+        if (Move.isDrop(move)) {
+            PieceType type = PieceType.of(Move.pieceKind(move));
+            removeFromHand(currentPlayer, type);
+            board.setPieceAt(toRow, toCol, type.createPiece(currentPlayer, null));
+            return null;
+        }
+
+        int from = Move.from(move);
+        Piece target = board.getPieceAt(toRow, toCol);
+        if (target != null) {
+            capturePiece(target, currentPlayer);
         }
+        Piece moving = board.getPieceAt(Bitboard.row(from), Bitboard.col(from));
+        board.setPieceAt(toRow, toCol, moving);
+        board.setPieceAt(Bitboard.row(from), Bitboard.col(from), null);
+        if (Move.isPromotion(move)) {
+            board.promotePiece(toRow, toCol);
+        }
+        return target;
     }
 
+    /**
+     * Visszavonja az utolsó {@link #doMove(int)} lépést: visszaállítja a
+     * táblát, a leütött bábut (gazdájához, promóciós állapottal), a kezeket
+     * és a lépésen lévő felet.
+     *
+     * @throws IllegalStateException ha nincs visszavonható lépés
+     */
+    public void undoMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        history.pop();
+        if (recordLength > 0) {
+            recordLength--;
+        }
+        moveNumber--;
+        switchPlayer();
+        int move = undoMoves[--undoCount];
+        Piece captured = undoCaptured[undoCount];
+        undoCaptured[undoCount] = null;
+        int to = Move.to(move);
+        int toRow = Bitboard.row(to);
+        int toCol = Bitboard.col(to);
+
+        if (Move.isDrop(move)) {
+            board.setPieceAt(toRow, toCol, null);
+            addToHand(currentPlayer, PieceType.of(Move.pieceKind(move)));
+            return;
+        }
 
+        int from = Move.from(move);
+        if (Move.isPromotion(move)) {
+            board.unpromotePiece(toRow, toCol);
+        }
+        Piece moving = board.getPieceAt(toRow, toCol);
+        board.setPieceAt(Bitboard.row(from), Bitboard.col(from), moving);
+        board.setPieceAt(toRow, toCol, null);
+
+        if (captured != null) {
+            // A leütött bábu objektum változatlan (szín, promóció), csak a számláló csökken
+            removeFromHand(currentPlayer, captured.getType());
+            board.setPieceAt(toRow, toCol, captured);
+        }
+    }
+
+    /**
+     * @return a soron következő lépés sorszáma (1-től, ply-onként)
+     */
+    public int getMoveNumber() {
+        return moveNumber;
+    }
+
+    /**
+     * Lépésszám beállítása (betöltéshez).
+     *
+     * @param moveNumber a soron következő lépés sorszáma (legalább 1)
+     */
+    public void setMoveNumber(int moveNumber) {
+        this.moveNumber = Math.max(1, moveNumber);
+    }
 
     // ===================================================================
-    //                         DROP
+    //                     JÁTSZMAJEGYZÉS
     // ===================================================================
-    public boolean dropPiece(String pieceType, Position to) {
-        List<Piece> hand = (currentPlayer == Piece.Color.BLACK) ? blackHand : whiteHand;
 
-        Class<?> cls;
-        try {
-            cls = Class.forName("shogi.model." + pieceType);
-        } catch (Exception e) {
-            return false;
+    /**
+     * A jegyzés kiinduló állása: az utolsó lépésen kívüli változás
+     * (új játék, betöltés, szerkesztés) utáni állás. A jegyzés lépéseit
+     * ebből visszajátszva a jelenlegi állás áll elő.
+     *
+     * @return független másolat (lépés nélkül a jelenlegi állás)
+     */
+    public BitboardPosition getRecordStart() {
+        return hasCurrentRecord() ? recordStart.copy() : toBitboardPosition();
+    }
+
+    /**
+     * @return a kiinduló állás lépésszáma
+     */
+    public int getRecordStartNumber() {
+        return hasCurrentRecord() ? recordStartNumber : moveNumber;
+    }
+
+    /**
+     * @return a kiinduló állás óta tett lépések {@link Move} kódolásban (másolat)
+     */
+    public int[] getRecordMoves() {
+        return hasCurrentRecord() ? Arrays.copyOf(record, recordLength) : new int[0];
+    }
+
+    /**
+     * @return true, ha a jegyzés a jelenlegi állásra vezet (azóta nem
+     *         változott lépésen kívül az állás)
+     */
+    private boolean hasCurrentRecord() {
+        return recordStart != null && !history.isEmpty() && history.lastKey() == getHashKey();
+    }
+
+    /**
+     * @return a visszavonható lépések száma
+     */
+    public int getUndoDepth() {
+        return undoCount;
+    }
+
+    /**
+     * A lépésen lévő fél összes legális lépése.
+     *
+     * @param list kimeneti lista (a generálás előtt ürül)
+     */
+    public void generateLegalMoves(MoveList list) {
+        list.clear();
+        generator.generateLegal(toBitboardPosition(), list);
+    }
+
+
+    // ===================================================================
+    //                     ISMÉTLÉS (千日手 SENNICHITE)
+    // ===================================================================
+
+    /**
+     * Lépés előtt: ha a történet üres, vagy az állás azóta lépésen kívül
+     * változott (betöltés, felállítás, kézi szerkesztés), a történet és a
+     * játszmajegyzés az aktuális állással újraindul.
+     */
+    private void beginMove() {
+        long key = getHashKey();
+        if (history.isEmpty() || history.lastKey() != key) {
+            history.reset(key, isInCheck(currentPlayer));
+            recordStart = toBitboardPosition();
+            recordStartNumber = moveNumber;
+            recordLength = 0;
         }
+    }
 
-        Piece found = null;
-        for (Piece p : hand) {
-            if (cls.isInstance(p)) {
-                found = p;
-                break;
-            }
+    /**
+     * Lépés után: az új állás a történetbe, a lépés a jegyzésbe kerül.
+     *
+     * @param move a megtett lépés {@link Move} kódolásban
+     */
+    private void endMove(int move) {
+        moveNumber++;
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
         }
+        record[recordLength++] = move;
+        history.push(getHashKey(), isInCheck(currentPlayer), Move.isDrop(move) || Move.isCapture(move));
+    }
 
-        if (found == null) {
+    /**
+     * Ellenőrzi az ismétlést (千日手): ha ugyanaz az állás (tábla, kezek,
+     * lépő fél) negyedszer áll elő, a játszma döntetlen - kivéve, ha az
+     * egyik fél az ismétlődő szakasz minden lépésével sakkot adott
+     * (örökös sakk): ő veszít.
+     *
+     * @return SennichiteResult objektum az eredménnyel
+     */
+    public SennichiteResult checkSennichite() {
+        if (history.isEmpty() || history.lastKey() != getHashKey()) {
+            return new SennichiteResult(false, null, false);
+        }
+        int plies = history.cycleLength();
+        if (plies < 0) {
+            return new SennichiteResult(false, null, false);
+        }
+        // Az utolsó lépést a most lépésre váró játékos ellenfele tette
+        Piece.Color lastMover = currentPlayer == Piece.Color.BLACK ? Piece.Color.WHITE : Piece.Color.BLACK;
+        if (history.isContinuousCheck(plies, true)) {
+            return new SennichiteResult(true, currentPlayer, true);
+        }
+        if (history.isContinuousCheck(plies, false)) {
+            return new SennichiteResult(true, lastMover, true);
+        }
+        return new SennichiteResult(true, null, false);
+    }
+
+    /**
+     * @return az aktuális állás előfordulásainak száma az utolsó ütés /
+     *         ledobás óta (önmagát is beleértve)
+     */
+    public int getRepetitionCount() {
+        if (history.isEmpty() || history.lastKey() != getHashKey()) {
+            return 1;
+        }
+        return history.repetitions();
+    }
+
+    // ===================================================================
+    //                           CAPTURE
+    // ===================================================================
+    private void capturePiece(Piece target, Piece.Color capturerColor) {
+        // 1) ELTÁVOLÍTJUK A TÁBLÁRÓL
+        int r = target.getPosition().getRow();
+        int c = target.getPosition().getCol();
+        board.setPieceAt(r, c, null);
+
+        // 2) KÉZHEZ ADÁS: csak a típus számít (promóció és szín elvész),
+        //    a bábu objektum változatlan marad (visszavonáshoz)
+        addToHand(capturerColor, target.getType());
+    }
+
+
+
+    // ===================================================================
+    //                         DROP
+    // ===================================================================
+
+    /**
+     * Kézben lévő bábu ledobása a táblára.
+     *
+     * @param type a ledobott bábu típusa
+     * @param to célmező
+     * @return true, ha a ledobás szabályos volt és megtörtént
+     */
+    public boolean dropPiece(PieceType type, Position to) {
+        if (getHandCount(currentPlayer, type) == 0) {
             return false;
         }
 
@@ -215,64 +604,57 @@ public class ShogiGame {
             return false;
         }
 
-        if (!isDropAllowed(found, to)) {
+        // Nifu, utolsó sor, gyalogledobásos matt, sakk elhárítás
+        if (!isLegalDrop(type.ordinal(), to)) {
             return false;
         }
 
-        found.setPosition(to);
-        found.updateForwardDirection();
-        board.setPieceAt(to.getRow(), to.getCol(), found);
-        hand.remove(found);
-
-        // KRITIKUS: Pawn Drop Mate ellenőrzés
-        // Gyalog drop-pal NEM lehet mattot adni (Shogi szabály)
-        if (found instanceof Pawn && !found.isPromoted()) {
-            Piece.Color opponent = (currentPlayer == Piece.Color.BLACK) 
-                ? Piece.Color.WHITE : Piece.Color.BLACK;
-            
-            if (isInCheck(opponent) && isCheckmate(opponent)) {
-                // Ez Pawn Drop Mate lenne - ILLEGÁLIS!
-                // Visszavonjuk a drop-ot
-                board.setPieceAt(to.getRow(), to.getCol(), null);
-                found.setPosition(null);
-                hand.add(found);
-                return false;
-            }
-        }
+        beginMove();
+        removeFromHand(currentPlayer, type);
+        board.setPieceAt(to.getRow(), to.getCol(), type.createPiece(currentPlayer, to));
 
         switchPlayer();
+        endMove(Move.drop(type.ordinal(), Bitboard.square(to.getRow(), to.getCol())));
         return true;
     }
 
 
     // ===================================================================
-    //                     DROP RULES (NIFU)
+    //                     LEGALITY (MOVE GENERATOR)
     // ===================================================================
-    private boolean isDropAllowed(Piece p, Position to) {
-        if (p instanceof Pawn) {
-            if (isPawnInColumn(currentPlayer, to.getCol())) {
-                return false;
-            }
-
-            if (isAtLastRank(p, to)) {
-                return false;
-            }
-        }
 
-        return true;
+    /**
+     * Legális lépések generálása a jelenlegi állásban.
+     *
+     * @param color a lépő fél
+     * @return a moveList-be írt lépések száma
+     */
+    private int generateLegalMoves(Piece.Color color) {
+        BitboardPosition position = toBitboardPosition();
+        position.setSideToMove(BitboardPosition.colorIndex(color));
+        moveList.clear();
+        generator.generateLegal(position, moveList);
+        return moveList.size();
     }
 
-
-    private boolean isPawnInColumn(Piece.Color color, int col) {
-        for (int r = 0; r < 9; r++) {
-            Piece piece = board.getPieceAt(r, col);
-            if (piece instanceof Pawn && !piece.isPromoted() && piece.getColor() == color) {
+    private boolean isLegalMove(Position from, Position to) {
+        int fromSq = Bitboard.square(from.getRow(), from.getCol());
+        int toSq = Bitboard.square(to.getRow(), to.getCol());
+        int count = generateLegalMoves(currentPlayer);
+        for (int i = 0; i < count; i++) {
+            int move = moveList.get(i);
+            if (!Move.isDrop(move) && Move.from(move) == fromSq && Move.to(move) == toSq) {
                 return true;
             }
         }
         return false;
     }
 
+    private boolean isLegalDrop(int kind, Position to) {
+        generateLegalMoves(currentPlayer);
+        return moveList.contains(Move.drop(kind, Bitboard.square(to.getRow(), to.getCol())));
+    }
+
 
     // ===================================================================
     //                         PROMOTION
@@ -298,19 +680,19 @@ public class ShogiGame {
 
         if (p instanceof Pawn || p instanceof Lance) {
             if (isAtLastRank(p, to)) {
-                p.promote();
+                board.promotePiece(to.getRow(), to.getCol());
                 return;
             }
         }
 
         if (p instanceof Knight) {
             if (isAtCantMoveRank(p, to)) {
-                p.promote();
+                board.promotePiece(to.getRow(), to.getCol());
                 return;
             }
         }
 
-        p.promote();
+        board.promotePiece(to.getRow(), to.getCol());
     }
 
 
@@ -340,65 +722,118 @@ public class ShogiGame {
     //                         CHECK / CHECKMATE
     // ===================================================================
     
-    /**
-     * Megkeresi a megadott színű királyt a táblán.
-     * @param color Melyik király?
-     * @return A király pozíciója vagy null, ha nincs meg
-     */
-    private Position findKing(Piece.Color color) {
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                Piece p = board.getPieceAt(r, c);
-                if (p instanceof King && p.getColor() == color) {
-                    return new Position(r, c);
-                }
-            }
-        }
-        return null;
-    }
+    /** A 8 sugárirány (sor, oszlop) a vizsgált mezőtől kifelé */
+    private static final int[][] RAYS = {
+            {-1, -1}, {-1, 0}, {-1, 1},
+            {0, -1},           {0, 1},
+            {1, -1},  {1, 0},  {1, 1}
+    };
     
     /**
      * Ellenőrzi, hogy egy adott mezőt támad-e az ellenfél.
-     * @param pos Melyik mezőt vizsgáljuk?
+     * Fordított keresés: a mezőtől kifelé nézünk a 8 sugár mentén
+     * és a két lovag-ugrás irányából, és csak az első útba eső bábut
+     * vizsgáljuk. Nem generál lépéslistát és nem foglal memóriát.
+     * 
+     * @param row Melyik mezőt vizsgáljuk? (sor)
+     * @param col Melyik mezőt vizsgáljuk? (oszlop)
      * @param defender Kinek a mezőjét védjük? (az ellenfél fog támadni)
      * @return true, ha az ellenfél támadja ezt a mezőt
      */
-    private boolean isSquareUnderAttack(Position pos, Piece.Color defender) {
+    private boolean isSquareUnderAttack(int row, int col, Piece.Color defender) {
         Piece.Color attacker = (defender == Piece.Color.BLACK) ? Piece.Color.WHITE : Piece.Color.BLACK;
+        int forward = (attacker == Piece.Color.BLACK) ? -1 : 1; // támadó előre iránya
         
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
+        // 1) Sugarak: az első bábu számít (közelről lépő, távolról csúszó)
+        for (int[] ray : RAYS) {
+            int r = row + ray[0];
+            int c = col + ray[1];
+            int distance = 1;
+            while (board.isInside(r, c)) {
                 Piece p = board.getPieceAt(r, c);
-                if (p != null && p.getColor() == attacker) {
-                    // A bábu jelenlegi pozícióját be kell állítani
-                    Position originalPos = p.getPosition();
-                    p.setPosition(new Position(r, c));
-                    
-                    List<Position> moves = p.getLegalMoves(board);
-                    
-                    // Visszaállítjuk az eredeti pozíciót
-                    p.setPosition(originalPos);
-                    
-                    if (moves.contains(pos)) {
+                if (p != null) {
+                    // A támadó a (-ray) irányba lép a vizsgált mező felé
+                    if (p.getColor() == attacker
+                            && attacksAlong(p, -ray[0], -ray[1], distance, forward)) {
                         return true;
                     }
+                    break; // az első bábu mögé nem látunk
+                }
+                r += ray[0];
+                c += ray[1];
+                distance++;
+            }
+        }
+        
+        // 2) Lovag: a támadó (2 előre, 1 oldalra) ugrik, tehát onnan jöhet
+        int knightRow = row - 2 * forward;
+        for (int dc = -1; dc <= 1; dc += 2) {
+            int knightCol = col + dc;
+            if (board.isInside(knightRow, knightCol)) {
+                Piece p = board.getPieceAt(knightRow, knightCol);
+                if (p instanceof Knight && !p.isPromoted() && p.getColor() == attacker) {
+                    return true;
                 }
             }
         }
         return false;
     }
     
+    /**
+     * Eldönti, hogy egy bábu támadja-e a (dr, dc) irányban distance
+     * távolságra lévő mezőt (a köztes mezők üresek).
+     * 
+     * @param p a támadó bábu
+     * @param dr sor irány a támadótól a cél felé
+     * @param dc oszlop irány a támadótól a cél felé
+     * @param distance távolság mezőkben
+     * @param forward a támadó előre iránya (-1 / +1)
+     * @return true, ha a bábu eléri a mezőt
+     */
+    private boolean attacksAlong(Piece p, int dr, int dc, int distance, int forward) {
+        boolean diagonal = dr != 0 && dc != 0;
+        
+        if (p instanceof Rook) {
+            return !diagonal || (p.isPromoted() && distance == 1);
+        }
+        if (p instanceof Bishop) {
+            return diagonal || (p.isPromoted() && distance == 1);
+        }
+        if (p instanceof Lance && !p.isPromoted()) {
+            return dc == 0 && dr == forward;
+        }
+        if (distance > 1) {
+            return false; // a többi bábu csak szomszédos mezőt támad
+        }
+        if (p instanceof King) {
+            return true;
+        }
+        if (p instanceof Pawn && !p.isPromoted()) {
+            return dc == 0 && dr == forward;
+        }
+        if (p instanceof Knight && !p.isPromoted()) {
+            return false; // a lovag nem támad szomszédos mezőt
+        }
+        if (p instanceof SilverGeneral && !p.isPromoted()) {
+            return dr == forward || diagonal; // előre 3 irány + hátra átlósan
+        }
+        // Arany tábornok és minden promótált kis bábu: hátra átlósan nem
+        return dr != -forward || dc == 0;
+    }
+    
     /**
      * Ellenőrzi, hogy a megadott színű király sakkban van-e.
+     * A király helyét a Board nyilvántartja, a támadást fordított
+     * kereséssel vizsgáljuk.
      * @param color Melyik király?
      * @return true, ha sakkban van
      */
     public boolean isInCheck(Piece.Color color) {
-        Position kingPos = findKing(color);
-        if (kingPos == null) {
+        int kingSq = board.getKingSquare(color);
+        if (kingSq < 0) {
             return false; // Nincs király (nem kellene előfordulnia)
         }
-        return isSquareUnderAttack(kingPos, color);
+        return isSquareUnderAttack(Bitboard.row(kingSq), Bitboard.col(kingSq), color);
     }
     
     /**
@@ -412,8 +847,7 @@ public class ShogiGame {
      */
     public boolean isGameOver(Piece.Color color) {
         // Ellenőrizzük, hogy létezik-e még a király
-        Position kingPos = findKing(color);
-        if (kingPos == null) {
+        if (board.getKingSquare(color) < 0) {
             return true; // Király kiütve = játék vége
         }
         
@@ -429,8 +863,7 @@ public class ShogiGame {
      */
     public boolean isCheckmate(Piece.Color color) {
         // Ha nincs király, akkor nem sakkmatt, hanem vége a játéknak
-        Position kingPos = findKing(color);
-        if (kingPos == null) {
+        if (board.getKingSquare(color) < 0) {
             return false;
         }
         
@@ -438,60 +871,8 @@ public class ShogiGame {
             return false; // Nincs sakkban, akkor nem lehet matt sem
         }
         
-        // Végignézzük a játékos összes bábuját és minden lehetséges lépését
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                Piece p = board.getPieceAt(r, c);
-                if (p == null || p.getColor() != color) {
-                    continue;
-                }
-                
-                Position from = new Position(r, c);
-                // A bábu jelenlegi pozícióját be kell állítani
-                Position originalPos = p.getPosition();
-                p.setPosition(from);
-                
-                List<Position> moves = p.getLegalMoves(board);
-                
-                // Visszaállítjuk az eredeti pozíciót
-                p.setPosition(originalPos);
-                
-                for (Position to : moves) {
-                    // Szimulálunk egy lépést
-                    if (wouldEscapeCheck(from, to, color)) {
-                        return false; // Van legális lépés → nincs matt
-                    }
-                }
-            }
-        }
-        
-        return true; // Nincs megmenekülés → matt
-    }
-    
-    /**
-     * Szimulálja egy lépést, és ellenőrzi, hogy utána már nem lenne-e sakkban a király.
-     * @param from Honnan
-     * @param to Hová
-     * @param color Melyik játékos királya?
-     * @return true, ha a lépés után már nem vagyunk sakkban
-     */
-    private boolean wouldEscapeCheck(Position from, Position to, Piece.Color color) {
-        // Elmentsük az állapotot
-        Piece moving = board.getPieceAt(from.getRow(), from.getCol());
-        Piece target = board.getPieceAt(to.getRow(), to.getCol());
-        
-        // Végrehajtjuk ideiglenesen a lépést
-        board.setPieceAt(to.getRow(), to.getCol(), moving);
-        board.setPieceAt(from.getRow(), from.getCol(), null);
-        
-        // Ellenőrizzük a sakkot
-        boolean stillInCheck = isInCheck(color);
-        
-        // Visszaállítjuk az eredeti állapotot
-        board.setPieceAt(from.getRow(), from.getCol(), moving);
-        board.setPieceAt(to.getRow(), to.getCol(), target);
-        
-        return !stillInCheck;
+        // Matt, ha nincs egyetlen legális lépés (ledobás) sem
+        return generateLegalMoves(color) == 0;
     }
     
     // ===================================================================
@@ -499,12 +880,17 @@ public class ShogiGame {
     // ===================================================================
     
     /**
-     * Tábla ürítése (mentés/betöltéshez használt).
+     * Tábla ürítése (mentés/betöltéshez használt). A visszavonási verem is
+     * kiürül: a korábbi lépések az üres táblán már nem vonhatók vissza.
      */
     public void clearBoard() {
+        Arrays.fill(undoCaptured, 0, undoCount, null);
+        undoCount = 0;
         board = new Board();
-        blackHand.clear();
-        whiteHand.clear();
+        hands[BitboardPosition.BLACK] = Hand.EMPTY;
+        hands[BitboardPosition.WHITE] = Hand.EMPTY;
+        handKey = 0;
+        moveNumber = 1;
     }
     
     /**
@@ -518,11 +904,22 @@ public class ShogiGame {
      * Bábu hozzáadása egy játékos kezéhez.
      */
     public void addToHand(Piece.Color color, Piece piece) {
-        if (color == Piece.Color.BLACK) {
-            blackHand.add(piece);
-        } else {
-            whiteHand.add(piece);
-        }
+        addToHand(color, piece.getType());
+    }
+    
+    /**
+     * Egy adott típusú bábu hozzáadása egy játékos kezéhez.
+     */
+    public void addToHand(Piece.Color color, PieceType type) {
+        int c = color.ordinal();
+        hands[c] = Hand.add(hands[c], type.ordinal());
+        handKey += Zobrist.hand(c, type.ordinal());
+    }
+    
+    private void removeFromHand(Piece.Color color, PieceType type) {
+        int c = color.ordinal();
+        hands[c] = Hand.remove(hands[c], type.ordinal());
+        handKey -= Zobrist.hand(c, type.ordinal());
     }
     
     // ===================================================================
@@ -550,17 +947,17 @@ public class ShogiGame {
      * @return ImpasseResult objektum az eredménnyel
      */
     public ImpasseResult checkImpasse() {
-        // Mindkét király pozíciójának keresése
-        Position blackKingPos = findKing(Piece.Color.BLACK);
-        Position whiteKingPos = findKing(Piece.Color.WHITE);
+        // Mindkét király pozíciója (a Board nyilvántartásából)
+        int blackKingSq = board.getKingSquare(Piece.Color.BLACK);
+        int whiteKingSq = board.getKingSquare(Piece.Color.WHITE);
         
-        if (blackKingPos == null || whiteKingPos == null) {
+        if (blackKingSq < 0 || whiteKingSq < 0) {
             return new ImpasseResult(false, null, 0, 0);
         }
         
         // Ellenőrizzük, hogy mindkét király az ellenfél térfelén van-e
-        boolean blackKingInEnemyTerritory = blackKingPos.getRow() <= 2;
-        boolean whiteKingInEnemyTerritory = whiteKingPos.getRow() >= 6;
+        boolean blackKingInEnemyTerritory = Bitboard.row(blackKingSq) <= 2;
+        boolean whiteKingInEnemyTerritory = Bitboard.row(whiteKingSq) >= 6;
         
         if (!blackKingInEnemyTerritory && !whiteKingInEnemyTerritory) {
             return new ImpasseResult(false, null, 0, 0);
@@ -609,11 +1006,10 @@ public class ShogiGame {
             }
         }
         
-        // Kézben tartott bábuk
-        List<Piece> hand = (color == Piece.Color.BLACK) ? blackHand : whiteHand;
-        for (Piece piece : hand) {
-            points += getPieceValue(piece);
-        }
+        // Kézben tartott bábuk (bástya, futó 5 pont, a többi 1)
+        int hand = hands[color.ordinal()];
+        int major = Hand.count(hand, BitboardPosition.ROOK) + Hand.count(hand, BitboardPosition.BISHOP);
+        points += 5 * major + (Hand.total(hand) - major);
         
         return points;
     }
@@ -665,4 +1061,24 @@ public class ShogiGame {
         }
     }
 
+    /**
+     * Sennichite eredmény tároló osztály.
+     */
+    public static class SennichiteResult {
+        /** True ha az állás negyedszer ismétlődött */
+        public final boolean isSennichite;
+
+        /** Győztes szín (null ha döntetlen) */
+        public final Piece.Color winner;
+
+        /** True ha a vesztes örökös sakkot adott */
+        public final boolean perpetualCheck;
+
+        public SennichiteResult(boolean isSennichite, Piece.Color winner, boolean perpetualCheck) {
+            this.isSennichite = isSennichite;
+            this.winner = winner;
+            this.perpetualCheck = perpetualCheck;
+        }
+    }
+
 }
@@ -1,6 +1,5 @@
 package shogi.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,72 +30,16 @@ public class SilverGeneral extends Piece {
      */
     @Override
     public List<Position> getLegalMoves(Board board) {
-        if (!promoted) {
-            return getNormalSilverMoves(board);
-        } else {
-            return getPromotedSilverMoves(board);
-        }
+        // Promótált állapotban Arany tábornok mintázat (PRO_* típusindex)
+        return getTableMoves(board, BitboardPosition.kindOf(this));
     }
 
     /**
-     * Normál Ezüst mozgás: előre (1) + átlósan (4 irány).
-     * 
-     * @param board a játéktábla
-     * @return a lehetséges célpozíciók listája
+     * @return PieceType.SILVER
      */
-    private List<Position> getNormalSilverMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-        int direction = (color == Color.BLACK ? -1 : 1);
-
-        int[][] dirs = {
-                {direction, 0},
-                {direction, -1},
-                {direction, 1},
-                {-direction, -1},
-                {-direction, 1}
-        };
-
-        for (int[] d : dirs) {
-            int nr = position.getRow() + d[0];
-            int nc = position.getCol() + d[1];
-            if (board.isInside(nr, nc)) {
-                Piece p = board.getPieceAt(nr, nc);
-                if (p == null || p.getColor() != color) {
-                    moves.add(new Position(nr, nc));
-                }
-            }
-        }
-        return moves;
-    }
-
-    /**
-     * Promótált Ezüst mozgás: Arany tábornok mintázata (6 irány).
-     * 
-     * @param board a játéktábla
-     * @return a lehetséges célpozíciók listája
-     */
-    private List<Position> getPromotedSilverMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-        int direction = (color == Color.BLACK ? -1 : 1);
-
-        int[][] dirs = {
-                {direction, 0},
-                {0, -1}, {0, 1},
-                {-direction, 0},
-                {direction, -1}, {direction, 1}
-        };
-
-        for (int[] d : dirs) {
-            int nr = position.getRow() + d[0];
-            int nc = position.getCol() + d[1];
-            if (board.isInside(nr, nc)) {
-                Piece p = board.getPieceAt(nr, nc);
-                if (p == null || p.getColor() != color) {
-                    moves.add(new Position(nr, nc));
-                }
-            }
-        }
-        return moves;
+    @Override
+    public PieceType getType() {
+        return PieceType.SILVER;
     }
 
     /**
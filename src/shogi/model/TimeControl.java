@@ -0,0 +1,100 @@
+package shogi.model;
+
+/**
+ * Időbeosztás (gondolkodási idő szabálya) egy játszmára.
+ *
+ * Három összetevő, tetszőlegesen kombinálva:
+ * - alapidő: a teljes játszmára jutó idő,
+ * - byoyomi (秒読み): az alapidő elfogyása után lépésenként ennyi idő
+ *   jár; aki túllépi, veszít,
+ * - Fischer növekmény: minden megtett lépés után ennyi idő jóváírás.
+ *
+ * Megváltoztathatatlan érték-osztály.
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class TimeControl {
+
+    /** Alapidő ezredmásodpercben */
+    private final long mainMillis;
+
+    /** Byoyomi ezredmásodpercben (0 = nincs) */
+    private final long byoyomiMillis;
+
+    /** Lépésenkénti növekmény ezredmásodpercben (0 = nincs) */
+    private final long incrementMillis;
+
+    private TimeControl(long mainMillis, long byoyomiMillis, long incrementMillis) {
+        if (mainMillis < 0 || byoyomiMillis < 0 || incrementMillis < 0) {
+            throw new IllegalArgumentException("Negative time: " + mainMillis + "/" + byoyomiMillis + "/" + incrementMillis);
+        }
+        if (mainMillis == 0 && byoyomiMillis == 0 && incrementMillis == 0) {
+            throw new IllegalArgumentException("Time control without any time");
+        }
+        this.mainMillis = mainMillis;
+        this.byoyomiMillis = byoyomiMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    /**
+     * @param mainMillis alapidő
+     * @param byoyomiMillis lépésenkénti byoyomi az alapidő után
+     * @return alapidő + byoyomi időbeosztás
+     */
+    public static TimeControl byoyomi(long mainMillis, long byoyomiMillis) {
+        return new TimeControl(mainMillis, byoyomiMillis, 0);
+    }
+
+    /**
+     * @param mainMillis alapidő
+     * @param incrementMillis lépésenkénti jóváírás
+     * @return Fischer időbeosztás
+     */
+    public static TimeControl fischer(long mainMillis, long incrementMillis) {
+        return new TimeControl(mainMillis, 0, incrementMillis);
+    }
+
+    /**
+     * @param mainMillis alapidő
+     * @param byoyomiMillis byoyomi (0 = nincs)
+     * @param incrementMillis növekmény (0 = nincs)
+     * @return tetszőleges kombináció
+     */
+    public static TimeControl of(long mainMillis, long byoyomiMillis, long incrementMillis) {
+        return new TimeControl(mainMillis, byoyomiMillis, incrementMillis);
+    }
+
+    /**
+     * @return alapidő ezredmásodpercben
+     */
+    public long getMainMillis() {
+        return mainMillis;
+    }
+
+    /**
+     * @return byoyomi ezredmásodpercben (0 = nincs)
+     */
+    public long getByoyomiMillis() {
+        return byoyomiMillis;
+    }
+
+    /**
+     * @return növekmény ezredmásodpercben (0 = nincs)
+     */
+    public long getIncrementMillis() {
+        return incrementMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mainMillis / 1000).append('s');
+        if (byoyomiMillis > 0) {
+            sb.append(" + byoyomi ").append(byoyomiMillis / 1000).append('s');
+        }
+        if (incrementMillis > 0) {
+            sb.append(" + ").append(incrementMillis / 1000).append("s/move");
+        }
+        return sb.toString();
+    }
+}
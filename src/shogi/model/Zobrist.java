@@ -0,0 +1,86 @@
+package shogi.model;
+
+/**
+ * Zobrist kulcsok az állások 64 bites azonosításához.
+ *
+ * Az állás kulcsa két rész összege:
+ * - XOR a táblán lévő bábukra (szín, típus promócióval együtt, mező),
+ *   és {@link #SIDE}, ha fehér lép,
+ * - plusz a kézben lévő bábuk összege: színenként és típusonként
+ *   darabszám × kulcs, így egy darab be/ki csak egy összeadás/kivonás.
+ * A két részt külön kell vezetni (a XOR és az összeadás nem cserélhető
+ * fel), és csak a lekérdezéskor összeadni.
+ *
+ * A kulcsok rögzített magból készülnek, így futásonként azonosak
+ * (mentett/megosztott táblák is használhatók).
+ *
+ * @author Domokos Erik Zsolt
+ */
+public final class Zobrist {
+
+    /** Bábu kulcsok: [(szín * KIND_COUNT + típus) * 81 + mező] */
+    private static final long[] PIECE = new long[2 * BitboardPosition.KIND_COUNT * Bitboard.SQUARES];
+
+    /** Kézben lévő bábu kulcsok: [szín * HAND_KINDS + típus] */
+    private static final long[] HAND = new long[2 * BitboardPosition.HAND_KINDS];
+
+    /** Fehér lép */
+    public static final long SIDE;
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < PIECE.length; i++) {
+            seed = next(seed);
+            PIECE[i] = mix(seed);
+        }
+        for (int i = 0; i < HAND.length; i++) {
+            seed = next(seed);
+            HAND[i] = mix(seed);
+        }
+        SIDE = mix(next(seed));
+    }
+
+    private Zobrist() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /** SplitMix64 lépés */
+    private static long next(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    /** SplitMix64 keverés */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param color szín index
+     * @param kind típusindex (promócióval együtt)
+     * @param sq mező index
+     * @return a bábu kulcsa az adott mezőn (XOR-ral kezelendő)
+     */
+    public static long piece(int color, int kind, int sq) {
+        return PIECE[(color * BitboardPosition.KIND_COUNT + kind) * Bitboard.SQUARES + sq];
+    }
+
+    /**
+     * @param piece a bábu (szín, típus, promóció alapján)
+     * @param sq mező index
+     * @return a bábu kulcsa az adott mezőn
+     */
+    public static long piece(Piece piece, int sq) {
+        return piece(piece.getColor().ordinal(), BitboardPosition.kindOf(piece), sq);
+    }
+
+    /**
+     * @param color szín index
+     * @param kind kézben tartható típusindex (PAWN..ROOK)
+     * @return egy kézben lévő darab kulcsa (összeadással kezelendő)
+     */
+    public static long hand(int color, int kind) {
+        return HAND[color * BitboardPosition.HAND_KINDS + kind];
+    }
+}
@@ -0,0 +1,41 @@
+package shogi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import shogi.model.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+/**
+ * JUnit tesztek a Perft osztályhoz.
+ * Teszteli: a kezdőállás publikált perft értékei, divide összeg.
+ */
+class PerftTest {
+
+    @Test
+    @DisplayName("Kezdőállás perft 1-4 egyezik a publikált értékekkel")
+    void testInitialPositionCounts() {
+        long[] expected = {30, 900, 25_470, 719_731};
+        BitboardPosition pos = new ShogiGame().toBitboardPosition();
+        long key = pos.getKey();
+        Perft perft = new Perft(expected.length);
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], perft.perft(pos, depth), "Mélység " + depth);
+        }
+        assertEquals(key, pos.getKey(), "doMove/undoMove után az állás változatlan");
+    }
+
+    @Test
+    @DisplayName("Divide: gyökérlépésenként kiírva, összege a perft érték")
+    void testDivide() {
+        BitboardPosition pos = new ShogiGame().toBitboardPosition();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        long total = new Perft(2).divide(pos, 2, new PrintStream(buffer));
+        assertEquals(900, total);
+        String output = buffer.toString();
+        assertEquals(30, output.lines().count(), "30 gyökérlépés");
+        assertTrue(output.contains("7g7f: 30"), "7g7f után 30 válasz");
+    }
+}
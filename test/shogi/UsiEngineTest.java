@@ -0,0 +1,136 @@
+package shogi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JUnit tesztek az UsiEngine osztályhoz.
+ * A motort szöveges be- és kimenettel hajtja meg: kézfogás, állás
+ * beállítás, keresés info sorokkal és bestmove válasszal (a bemenet
+ * vége megvárja a keresést), valamint a go infinite és a stop kapcsolata.
+ */
+class UsiEngineTest {
+
+    /**
+     * A parancsok lefuttatása, a kimenet sorai.
+     */
+    private static List<String> run(String... commands) throws Exception {
+        String input = String.join("\n", commands) + "\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new UsiEngine(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)),
+                new PrintStream(output, true, StandardCharsets.US_ASCII)).run();
+        return Arrays.asList(output.toString(StandardCharsets.US_ASCII).split("\\R"));
+    }
+
+    /**
+     * Parancsok küldése a futó motornak.
+     */
+    private static void send(PipedOutputStream commands, String... lines) throws IOException {
+        commands.write((String.join("\n", lines) + "\n").getBytes(StandardCharsets.US_ASCII));
+        commands.flush();
+    }
+
+    /**
+     * Várakozás, amíg a kimenetben megjelenik a szöveg (legfeljebb 10 s).
+     */
+    private static void waitFor(ByteArrayOutputStream output, String text) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!output.toString(StandardCharsets.US_ASCII).contains(text)) {
+            if (System.nanoTime() > deadline) {
+                fail("Nem jött meg: " + text);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("usi / isready kézfogás")
+    void testHandshake() throws Exception {
+        List<String> lines = run("usi", "setoption name USI_Hash value 4", "isready", "quit");
+
+        assertTrue(lines.contains("id name " + UsiEngine.NAME), "Név sor");
+        assertTrue(lines.contains("usiok"), "usiok válasz");
+        assertTrue(lines.indexOf("readyok") > lines.indexOf("usiok"), "readyok az usiok után");
+    }
+
+    @Test
+    @DisplayName("Mélységkorlátos keresés info sorokkal és legális bestmove-val")
+    void testGoDepthReportsInfoAndBestMove() throws Exception {
+        List<String> lines = run("isready", "position startpos moves 7g7f 3c3d", "go depth 3");
+
+        assertTrue(lines.stream().anyMatch(l -> l.startsWith("info depth 3 ") && l.contains(" pv ")),
+                "Info sor a 3. mélységről fő változattal");
+        String best = lines.get(lines.size() - 1);
+        assertTrue(best.matches("bestmove [1-9][a-i][1-9][a-i]\\+?( ponder \\S+)?"),
+                "Táblai bestmove: " + best);
+    }
+
+    @Test
+    @DisplayName("SFEN állásból megtalálja az egylépéses mattot")
+    void testFindsMateFromSfen() throws Exception {
+        List<String> lines = run("position sfen 4k4/9/4G4/9/9/9/9/9/4K4 b G 1", "go depth 3");
+
+        assertTrue(lines.stream().anyMatch(l -> l.contains("score mate 1")), "Matt egy lépésben");
+        assertEquals("bestmove G*5b", lines.get(lines.size() - 1), "G*5b matt");
+    }
+
+    @Test
+    @DisplayName("Lépés nélküli állásban resign a válasz")
+    void testResignsWithoutLegalMoves() throws Exception {
+        List<String> lines = run("position sfen 4k4/4G4/4G4/9/9/9/9/9/4K4 w - 1", "go depth 2");
+
+        assertEquals("bestmove resign", lines.get(lines.size() - 1), "Mattban resign");
+    }
+
+    @Test
+    @DisplayName("A go infinite utáni azonnali stop sem vész el")
+    void testImmediateStopAfterGoInfinite() {
+        List<String> lines = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> run("isready", "go infinite", "stop"));
+
+        String best = lines.get(lines.size() - 1);
+        assertTrue(best.startsWith("bestmove "), "bestmove a stop után: " + best);
+    }
+
+    @Test
+    @DisplayName("go infinite: a bestmove a magától véget ért keresés után is a stop-ra vár")
+    void testInfiniteHoldsBestMoveUntilStop() throws Exception {
+        PipedOutputStream commands = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(commands);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Thread engine = new Thread(() -> {
+            try {
+                new UsiEngine(in, new PrintStream(output, true, StandardCharsets.US_ASCII)).run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        engine.setDaemon(true);
+        engine.start();
+
+        send(commands, "position sfen 4k4/9/4P4/9/9/9/9/9/4K4 b G 1", "go infinite");
+        waitFor(output, "score mate 1");
+        Thread.sleep(200);
+        assertFalse(output.toString(StandardCharsets.US_ASCII).contains("bestmove"),
+                "Matt után sincs bestmove a stop előtt");
+
+        send(commands, "stop");
+        waitFor(output, "bestmove G*5b");
+        send(commands, "quit");
+        engine.join(10_000);
+        assertFalse(engine.isAlive(), "A quit után a motor leáll");
+    }
+}
@@ -0,0 +1,145 @@
+package shogi.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import shogi.model.*;
+
+import java.util.Random;
+
+/**
+ * JUnit tesztek a MateSolver osztályhoz.
+ * Teszteli: egylépéses matt, gyalogledobásos matt tilalma, nincs matt,
+ * véletlen feladványok mattsorainak helyessége, és hogy a közös tábla
+ * nem keveri a két támadó színt.
+ */
+class MateSolverTest {
+
+    /**
+     * Fehér király 1a-n, mellette fehér lándzsa és ezüst, a 1b mezőt
+     * fekete arany védi: a 1b-re ledobott bábu sakkot ad, a király nem
+     * ütheti le és nem léphet el.
+     */
+    private static BitboardPosition cornerPosition(int handKind) {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(0, 8), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(0, 7), BitboardPosition.WHITE, BitboardPosition.LANCE);
+        pos.putPiece(Bitboard.square(1, 7), BitboardPosition.WHITE, BitboardPosition.SILVER);
+        pos.putPiece(Bitboard.square(2, 8), BitboardPosition.BLACK, BitboardPosition.GOLD);
+        pos.putPiece(Bitboard.square(8, 0), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.setHandCount(BitboardPosition.BLACK, handKind, 1);
+        return pos;
+    }
+
+    @Test
+    @DisplayName("Egylépéses matt ledobással")
+    void testMateInOne() {
+        MateResult result = new MateSolver(1).solve(cornerPosition(BitboardPosition.GOLD));
+        assertTrue(result.isMate(), result.toString());
+        assertEquals(1, result.getLength());
+        assertEquals(Move.drop(BitboardPosition.GOLD, Bitboard.square(1, 8)), result.getMoves()[0]);
+    }
+
+    @Test
+    @DisplayName("Gyalogledobással nem adható matt, és a kezdőállásban nincs matt")
+    void testPawnDropMateAndNoMate() {
+        MateSolver solver = new MateSolver(1);
+        solver.setMaxPly(1);
+        assertEquals(MateResult.Status.NO_MATE, solver.solve(cornerPosition(BitboardPosition.PAWN)).getStatus(),
+                "P*1b matt lenne, de tilos");
+
+        MateResult start = new MateSolver(1).solve(new ShogiGame());
+        assertEquals(MateResult.Status.NO_MATE, start.getStatus());
+        assertEquals(0, start.getLength());
+    }
+
+    @Test
+    @DisplayName("Fehér támadó feladványa után a fekete támadóé is helyes (közös tábla)")
+    void testSharedTableKeepsAttackersApart() {
+        // Fekete gyalog 5c-n a fehér király előtt: 5b sakk, de a király leüti
+        BitboardPosition black = new BitboardPosition();
+        black.putPiece(Bitboard.square(0, 4), BitboardPosition.WHITE, BitboardPosition.KING);
+        black.putPiece(Bitboard.square(2, 4), BitboardPosition.BLACK, BitboardPosition.PAWN);
+        black.putPiece(Bitboard.square(8, 4), BitboardPosition.BLACK, BitboardPosition.KING);
+        MateResult fresh = new MateSolver(1).solve(black);
+        assertEquals(MateResult.Status.NO_MATE, fresh.getStatus(), fresh.toString());
+
+        // Ugyanaz a 5b sakk utáni állás fehér támadóval: fehérnek nincs sakkja
+        BitboardPosition white = black.copy();
+        white.doMove(Move.normal(Bitboard.square(2, 4), Bitboard.square(1, 4), BitboardPosition.PAWN, -1, false));
+        MateSolver shared = new MateSolver(1);
+        assertEquals(MateResult.Status.NO_MATE, shared.solve(white).getStatus(), "Fehérnek nincs sakkja");
+
+        MateResult again = shared.solve(black);
+        assertEquals(MateResult.Status.NO_MATE, again.getStatus(), "A fehér cáfolat nem matt: " + again);
+    }
+
+    @Test
+    @DisplayName("Véletlen feladványok: a mattsor legális, a támadó mindig sakkot ad, a végén matt")
+    void testRandomProblemLines() {
+        Random random = new Random(7);
+        MoveGenerator generator = new MoveGenerator();
+        MoveList legal = new MoveList();
+        MateSolver solver = new MateSolver(16);
+        solver.setMaxNodes(50_000);
+        int mates = 0;
+
+        for (int problem = 0; problem < 60; problem++) {
+            BitboardPosition pos = randomProblem(random);
+            if (pos.isInCheck(BitboardPosition.BLACK) || pos.isInCheck(BitboardPosition.WHITE)) {
+                continue;
+            }
+            MateResult result = solver.solve(pos);
+            if (!result.isMate()) {
+                continue;
+            }
+            mates++;
+            assertEquals(1, result.getLength() % 2, "A mattsor a támadó lépésével végződik: " + result);
+            for (int i = 0; i < result.getLength(); i++) {
+                int move = result.getMoves()[i];
+                legal.clear();
+                generator.generateLegal(pos, legal);
+                boolean found = false;
+                for (int j = 0; j < legal.size(); j++) {
+                    found |= legal.get(j) == move;
+                }
+                assertTrue(found, "Szabálytalan lépés: " + Move.toString(move) + " (" + result + ")");
+                if (i % 2 == 0) {
+                    assertTrue(generator.givesCheck(pos, move), "Nem sakk: " + Move.toString(move));
+                }
+                pos.doMove(move);
+            }
+            legal.clear();
+            generator.generateLegal(pos, legal);
+            assertTrue(legal.isEmpty(), "A sor végén nincs matt: " + result);
+        }
+        assertTrue(mates >= 5, "Kevés matt a véletlen feladványokban: " + mates);
+    }
+
+    /**
+     * Fehér király a felső két sorban, körülötte véletlen bábuk, a
+     * támadónak két véletlen bábu a kezében.
+     */
+    private static BitboardPosition randomProblem(Random random) {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(random.nextInt(2), 3 + random.nextInt(6)), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(8, 0), BitboardPosition.BLACK, BitboardPosition.KING);
+        int pieces = 3 + random.nextInt(6);
+        for (int i = 0; i < pieces; i++) {
+            int sq = Bitboard.square(random.nextInt(4), 2 + random.nextInt(7));
+            int kind = BitboardPosition.LANCE + random.nextInt(6); // lándzsa .. bástya, lovag nélkül
+            int color = random.nextInt(2);
+            if (pos.pieceAt(sq) != 0 || kind == BitboardPosition.KNIGHT
+                    || (kind == BitboardPosition.LANCE && Bitboard.row(sq) == (color == BitboardPosition.BLACK ? 0 : 8))) {
+                continue;
+            }
+            pos.putPiece(sq, color, kind);
+        }
+        for (int i = 0; i < 2; i++) {
+            int kind = random.nextInt(BitboardPosition.HAND_KINDS);
+            pos.setHandCount(BitboardPosition.BLACK, kind, pos.getHandCount(BitboardPosition.BLACK, kind) + 1);
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,80 @@
+package shogi.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import shogi.model.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * JUnit tesztek a MovePicker osztályhoz.
+ * Teszteli: minden legális lépés pontosan egyszer, a hash / killer lépés elöl.
+ */
+class MovePickerTest {
+
+    @Test
+    @DisplayName("Véletlen játszmák: a szakaszok együtt pontosan a legális lépéseket adják")
+    void testYieldsEachLegalMoveOnce() {
+        Random random = new Random(3);
+        MoveGenerator generator = new MoveGenerator();
+        MoveHistory history = new MoveHistory();
+        MovePicker picker = new MovePicker(generator, new See(), history);
+        MoveList legal = new MoveList();
+        int[] foreign = new int[64]; // más állásokból származó lépések (hash / killer jelöltek)
+
+        for (int game = 0; game < 20; game++) {
+            BitboardPosition pos = new ShogiGame().toBitboardPosition();
+            for (int ply = 0; ply < 120; ply++) {
+                legal.clear();
+                generator.generateLegal(pos, legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                int hashMove = random.nextBoolean() ? legal.get(random.nextInt(legal.size())) : foreign[ply % 64];
+                history.onCutoff(pos.getSideToMove(), foreign[(ply + 1) % 64], Move.NONE, 1, 3, foreign, 0);
+                picker.init(pos, hashMove, 1, Move.NONE, pos.isInCheck(pos.getSideToMove()));
+
+                int[] picked = new int[MoveGenerator.MAX_MOVES];
+                int count = 0;
+                int move;
+                while ((move = picker.next()) != Move.NONE) {
+                    picked[count++] = move;
+                }
+                int[] expected = new int[legal.size()];
+                boolean hashLegal = false;
+                for (int i = 0; i < expected.length; i++) {
+                    expected[i] = legal.get(i);
+                    hashLegal |= expected[i] == hashMove;
+                }
+                if (hashLegal) {
+                    assertEquals(hashMove, picked[0], "A hash lépés az első");
+                }
+                picked = Arrays.copyOf(picked, count);
+                Arrays.sort(picked);
+                Arrays.sort(expected);
+                assertArrayEquals(expected, picked, "Eltérés a(z) " + game + ". játszma " + ply + ". lépésénél");
+
+                int played = legal.get(random.nextInt(legal.size()));
+                foreign[ply % 64] = played;
+                pos.doMove(played);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Killer lépés közvetlenül a jó ütések után következik")
+    void testKillerAfterGoodCaptures() {
+        BitboardPosition pos = new ShogiGame().toBitboardPosition();
+        MoveGenerator generator = new MoveGenerator();
+        MoveHistory history = new MoveHistory();
+        int killer = Move.normal(Bitboard.square(6, 6), Bitboard.square(5, 6), BitboardPosition.PAWN, -1, false);
+        history.onCutoff(BitboardPosition.BLACK, killer, Move.NONE, 2, 4, new int[0], 0);
+
+        MovePicker picker = new MovePicker(generator, new See(), history);
+        picker.init(pos, Move.NONE, 2, Move.NONE, false);
+        assertEquals(killer, picker.next(), "A kezdőállásban nincs ütés: a killer az első");
+    }
+}
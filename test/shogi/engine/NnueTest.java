@@ -0,0 +1,112 @@
+package shogi.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import shogi.model.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * JUnit tesztek az Nnue és a Network osztályhoz.
+ * Teszteli: növekményes akkumulátor = teljes újraszámolás, súlyfájl
+ * mentés/betöltés, keresés hálózattal.
+ */
+class NnueTest {
+
+    /** Kis véletlen hálózat (a tesztek gyorsak maradnak) */
+    private static final Network NETWORK = Network.random(20, 16, 8);
+
+    /**
+     * Friss (teljesen újraszámolt) értékelés.
+     */
+    private static int freshEvaluate(BitboardPosition pos) {
+        Nnue nnue = new Nnue(NETWORK, 1);
+        nnue.reset(pos);
+        return nnue.evaluate(pos);
+    }
+
+    @Test
+    @DisplayName("A növekményes akkumulátor minden lépés után egyezik a teljes újraszámolással")
+    void testIncrementalMatchesRefresh() {
+        BitboardPosition pos = new ShogiGame().toBitboardPosition();
+        Nnue nnue = new Nnue(NETWORK, 200);
+        nnue.reset(pos);
+
+        MoveGenerator generator = new MoveGenerator();
+        MoveList moves = new MoveList();
+        Random random = new Random(20);
+        int[] played = new int[160];
+        int[] scores = new int[played.length];
+        int count = 0;
+        while (count < played.length) {
+            moves.clear();
+            generator.generateLegal(pos, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            int move = moves.get(random.nextInt(moves.size()));
+            nnue.push(pos, move);
+            pos.doMove(move);
+            played[count] = move;
+            // Nem minden szinten értékelünk: a lusta frissítés több szintet is átlép
+            if (random.nextInt(3) == 0) {
+                scores[count] = nnue.evaluate(pos);
+                assertEquals(freshEvaluate(pos), scores[count], "Eltérés: " + Move.toString(move));
+            } else {
+                scores[count] = Integer.MIN_VALUE;
+            }
+            count++;
+        }
+        assertTrue(count > 40, "Elég hosszú játszma: " + count);
+
+        while (count > 0) {
+            pos.undoMove(played[--count]);
+            nnue.pop();
+            if (count > 0 && scores[count - 1] != Integer.MIN_VALUE) {
+                assertEquals(scores[count - 1], nnue.evaluate(pos), "Visszalépés után ugyanaz");
+            }
+        }
+
+        nnue.pushNull();
+        pos.setSideToMove(BitboardPosition.WHITE);
+        assertEquals(freshEvaluate(pos), nnue.evaluate(pos), "Nullalépés után");
+    }
+
+    @Test
+    @DisplayName("Mentett súlyfájl memóriába képezve betölthető, a hibás fájl nem")
+    void testSaveAndLoad(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("test.nnue");
+        NETWORK.save(file);
+        Network loaded = Network.load(file);
+        assertEquals(NETWORK.getL1(), loaded.getL1());
+        assertEquals(NETWORK.getL2(), loaded.getL2());
+        assertArrayEquals(NETWORK.featureWeights, loaded.featureWeights);
+        assertArrayEquals(NETWORK.hiddenWeights, loaded.hiddenWeights);
+        assertEquals(NETWORK.outputBias, loaded.outputBias);
+
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = dir.resolve("truncated.nnue");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> Network.load(truncated));
+    }
+
+    @Test
+    @DisplayName("Keresés hálózattal: legális lépés, a mattot továbbra is megtalálja")
+    void testSearchWithNetwork() {
+        Search search = new Search();
+        search.setNetwork(NETWORK);
+        SearchResult result = search.search(SearchTest.mateInOnePosition(), SearchLimits.depth(3));
+        assertEquals(Move.drop(BitboardPosition.GOLD, Bitboard.square(1, 8)), result.getBestMove());
+
+        result = search.search(new ShogiGame().toBitboardPosition(), SearchLimits.depth(4));
+        assertNotEquals(Move.NONE, result.getBestMove());
+        assertTrue(Math.abs(result.getScore()) < Search.MATE_BOUND, "Nem matt érték: " + result);
+    }
+}
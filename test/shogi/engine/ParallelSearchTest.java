@@ -0,0 +1,45 @@
+package shogi.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import shogi.model.*;
+
+/**
+ * JUnit tesztek a ParallelSearch osztályhoz.
+ * Teszteli: több szállal is helyes eredmény, segédszálak leállítása.
+ */
+class ParallelSearchTest {
+
+    @Test
+    @DisplayName("Négy szállal is megtalálja az egylépéses mattot")
+    void testFindsMateWithHelpers() {
+        ParallelSearch search = new ParallelSearch(4);
+        try {
+            SearchResult result = search.search(SearchTest.mateInOnePosition(), SearchLimits.depth(3));
+            assertEquals(Move.drop(BitboardPosition.GOLD, Bitboard.square(1, 8)), result.getBestMove(),
+                    "G*1b: " + result);
+            assertEquals(Search.MATE - 1, result.getScore());
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A fő szál végeztével a segédszálak is leállnak, a kereső újrahasználható")
+    void testHelpersStopWithMainThread() {
+        ParallelSearch search = new ParallelSearch(3);
+        try {
+            BitboardPosition pos = new ShogiGame().toBitboardPosition();
+            for (int i = 0; i < 2; i++) {
+                SearchResult result = search.search(pos, SearchLimits.of(SearchLimits.MAX_DEPTH, 200));
+                assertNotEquals(Move.NONE, result.getBestMove());
+                assertTrue(result.getTimeMillis() < 600, "Túllépés: " + result.getTimeMillis() + " ms");
+                assertTrue(result.getNodes() > 0);
+            }
+        } finally {
+            search.shutdown();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package shogi.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import shogi.model.*;
+
+/**
+ * JUnit tesztek a Search osztályhoz.
+ * Teszteli: egylépéses matt, anyagnyerés, időkorlát betartása,
+ * szelektív technikák kapcsolása.
+ */
+class SearchTest {
+
+    /**
+     * Fehér király a sarokban, fekete arany a kézben: G*1b (0,7 → 1,8 elé) matt.
+     */
+    static BitboardPosition mateInOnePosition() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(0, 8), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(0, 7), BitboardPosition.WHITE, BitboardPosition.LANCE);
+        pos.putPiece(Bitboard.square(2, 8), BitboardPosition.BLACK, BitboardPosition.PAWN);
+        pos.putPiece(Bitboard.square(8, 0), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.setHandCount(BitboardPosition.BLACK, BitboardPosition.GOLD, 1);
+        return pos;
+    }
+
+    @Test
+    @DisplayName("Egylépéses mattot talál (aranyledobás)")
+    void testFindsMateInOne() {
+        SearchResult result = new Search().search(mateInOnePosition(), SearchLimits.depth(3));
+        assertEquals(Move.drop(BitboardPosition.GOLD, Bitboard.square(1, 8)), result.getBestMove(),
+                "G*1b: " + result);
+        assertEquals(Search.MATE - 1, result.getScore(), "Matt 1 ply-ban");
+    }
+
+    @Test
+    @DisplayName("Leüti a védtelen bástyát")
+    void testWinsMaterial() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(8, 4), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(0, 4), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(6, 6), BitboardPosition.BLACK, BitboardPosition.BISHOP);
+        pos.putPiece(Bitboard.square(4, 8), BitboardPosition.WHITE, BitboardPosition.ROOK);
+
+        SearchResult result = new Search().search(pos, SearchLimits.depth(3));
+        assertEquals(Bitboard.square(4, 8), Move.to(result.getBestMove()), "Bástya leütése: " + result);
+        assertTrue(Move.isCapture(result.getBestMove()));
+    }
+
+    @Test
+    @DisplayName("Időkorlátos keresés a kereten belül tér vissza érvényes lépéssel")
+    void testTimeLimit() {
+        BitboardPosition pos = new ShogiGame().toBitboardPosition();
+        SearchResult result = new Search().search(pos, SearchLimits.time(200));
+        assertNotEquals(Move.NONE, result.getBestMove());
+        assertTrue(result.getTimeMillis() < 400, "Túllépés: " + result.getTimeMillis() + " ms");
+        assertTrue(result.getDepth() >= 1);
+    }
+
+    @Test
+    @DisplayName("A technikák szövegből kapcsolhatók, és egyenként kikapcsolva is mattot talál")
+    void testSwitchableFeatures() {
+        SearchOptions options = SearchOptions.parse("-lmr, -null");
+        assertFalse(options.isEnabled(SearchOptions.Feature.LMR));
+        assertFalse(options.isEnabled(SearchOptions.Feature.NULL_MOVE));
+        assertTrue(options.isEnabled(SearchOptions.Feature.ASPIRATION));
+        assertEquals("+null,-lmr,-futility,-razor,-aspiration", SearchOptions.parse("none,+null").toString());
+        assertThrows(IllegalArgumentException.class, () -> SearchOptions.parse("-foo"));
+
+        int mate = Move.drop(BitboardPosition.GOLD, Bitboard.square(1, 8));
+        for (SearchOptions.Feature feature : SearchOptions.Feature.values()) {
+            Search search = new Search();
+            search.setOptions(SearchOptions.none().with(feature, true));
+            SearchResult result = search.search(mateInOnePosition(), SearchLimits.depth(5));
+            assertEquals(mate, result.getBestMove(), feature + ": " + result);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package shogi.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import shogi.model.*;
+
+/**
+ * JUnit tesztek a See osztályhoz és a nyugalmi kereséshez.
+ * Teszteli: védett / védtelen bábu ütése, röntgen támadó, ütésváltás a levélen.
+ */
+class SeeTest {
+
+    /**
+     * Fehér gyalog az 5d mezőn, mögötte fehér arany védi; fekete bástya az 5g mezőn.
+     */
+    private static BitboardPosition defendedPawn() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(8, 0), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(0, 8), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(3, 4), BitboardPosition.WHITE, BitboardPosition.PAWN);
+        pos.putPiece(Bitboard.square(2, 4), BitboardPosition.WHITE, BitboardPosition.GOLD);
+        return pos;
+    }
+
+    @Test
+    @DisplayName("Védett gyalog bástyával ütve veszít, védtelen gyalog nyer")
+    void testDefendedAndUndefended() {
+        BitboardPosition pos = defendedPawn();
+        pos.putPiece(Bitboard.square(6, 4), BitboardPosition.BLACK, BitboardPosition.ROOK);
+        int capture = Move.normal(Bitboard.square(6, 4), Bitboard.square(3, 4),
+                BitboardPosition.ROOK, BitboardPosition.PAWN, false);
+        See see = new See();
+        assertEquals(See.exchangeValue(BitboardPosition.PAWN) - See.exchangeValue(BitboardPosition.ROOK),
+                see.evaluate(pos, capture));
+
+        pos.removePiece(Bitboard.square(2, 4));
+        assertEquals(See.exchangeValue(BitboardPosition.PAWN), see.evaluate(pos, capture));
+    }
+
+    @Test
+    @DisplayName("A lándzsa mögötti bástya röntgen támadóként visszaüt")
+    void testXRayAttacker() {
+        BitboardPosition pos = defendedPawn();
+        pos.putPiece(Bitboard.square(5, 4), BitboardPosition.BLACK, BitboardPosition.LANCE);
+        pos.putPiece(Bitboard.square(7, 4), BitboardPosition.BLACK, BitboardPosition.ROOK);
+        int capture = Move.normal(Bitboard.square(5, 4), Bitboard.square(3, 4),
+                BitboardPosition.LANCE, BitboardPosition.PAWN, false);
+        // LxP, GxL, RxG: a fehér jobban jár, ha nem üt vissza
+        assertEquals(See.exchangeValue(BitboardPosition.PAWN), new See().evaluate(pos, capture));
+    }
+
+    @Test
+    @DisplayName("Egy ply-os keresés sem üti le a védett gyalogot (nyugalmi keresés)")
+    void testQuiescenceSeesRecapture() {
+        BitboardPosition pos = defendedPawn();
+        pos.putPiece(Bitboard.square(6, 4), BitboardPosition.BLACK, BitboardPosition.ROOK);
+        SearchResult result = new Search().search(pos, SearchLimits.depth(1));
+        assertNotEquals(Bitboard.square(3, 4), Move.to(result.getBestMove()), "Bástya a védett gyalogra: " + result);
+    }
+}
@@ -0,0 +1,56 @@
+package shogi.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import shogi.model.*;
+
+/**
+ * JUnit tesztek a TimeManager osztályhoz és a puha / kemény időkorláthoz.
+ * Teszteli: időbeosztás, a maradék idő túl nem lépése, korai leállás, stop jelzés.
+ */
+class TimeManagerTest {
+
+    @Test
+    @DisplayName("A kemény korlát soha nem lépi túl a lépésre maradt időt")
+    void testAllocationWithinClock() {
+        SearchLimits normal = TimeManager.allocate(TimeControl.fischer(300_000, 3_000), 300_000, 300_000);
+        assertEquals(300_000 / TimeManager.MOVES_TO_GO + 2_250, normal.getSoftMillis());
+        assertTrue(normal.getTimeMillis() > normal.getSoftMillis());
+
+        SearchLimits byoyomi = TimeManager.allocate(TimeControl.byoyomi(60_000, 10_000), 0, 7_000);
+        assertEquals(7_000 - TimeManager.MOVE_OVERHEAD, byoyomi.getTimeMillis(), "A lépés byoyomijának maradéka");
+
+        for (long left = 0; left <= 2_000; left += 50) {
+            SearchLimits limits = TimeManager.allocate(TimeControl.fischer(60_000, 0), left, left);
+            assertTrue(limits.getSoftMillis() <= limits.getTimeMillis());
+            assertTrue(limits.getTimeMillis() <= Math.max(left - TimeManager.MOVE_OVERHEAD, 10),
+                    left + " ms mellett: " + limits);
+        }
+    }
+
+    @Test
+    @DisplayName("A puha korlát után nem indul új iteráció, a stop jelzés azonnal megállít")
+    void testSoftLimitAndStop() throws InterruptedException {
+        BitboardPosition pos = new ShogiGame().toBitboardPosition();
+        SearchResult soft = new Search().search(pos, SearchLimits.time(50, 10_000));
+        assertNotEquals(Move.NONE, soft.getBestMove());
+        assertTrue(soft.getTimeMillis() < 5_000, "Nem állt meg a puha korlát után: " + soft.getTimeMillis() + " ms");
+
+        Search search = new Search();
+        Thread stopper = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            search.stop();
+        });
+        stopper.start();
+        SearchResult stopped = search.search(pos, SearchLimits.time(30_000));
+        stopper.join();
+        assertNotEquals(Move.NONE, stopped.getBestMove());
+        assertTrue(stopped.getTimeMillis() < 5_000, "Nem állt meg: " + stopped.getTimeMillis() + " ms");
+    }
+}
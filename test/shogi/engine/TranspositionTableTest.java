@@ -0,0 +1,59 @@
+package shogi.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import shogi.model.*;
+
+/**
+ * JUnit tesztek a TranspositionTable osztályhoz.
+ * Teszteli: csomagolás, ütközés felismerés, mattérték tárolás, statisztika.
+ */
+class TranspositionTableTest {
+
+    @Test
+    @DisplayName("Tárolt bejegyzés visszaolvasása, ütköző kulcs nem talál")
+    void testStoreAndProbe() {
+        TranspositionTable tt = new TranspositionTable(1);
+        long key = 0x123456789ABCDEF0L;
+        int move = Move.normal(60, 51, BitboardPosition.PAWN, BitboardPosition.ROOK, true);
+        tt.store(key, move, -1234, 7, TranspositionTable.BOUND_LOWER);
+
+        long data = tt.probe(key);
+        assertNotEquals(0, data);
+        assertEquals(move, TranspositionTable.moveOf(data));
+        assertEquals(-1234, TranspositionTable.scoreOf(data));
+        assertEquals(7, TranspositionTable.depthOf(data));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.boundOf(data));
+
+        // Ugyanarra az indexre eső másik kulcs: XOR ellenőrzés miatt nem talál
+        long other = key ^ (tt.capacity() << 3);
+        assertEquals(0, tt.probe(other));
+        assertEquals(0.5, tt.getHitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Mattérték a csomóponthoz viszonyítva tárolódik")
+    void testMateScoreAdjustment() {
+        int ply = 5;
+        int mateIn3FromRoot = Search.MATE - 8;
+        int stored = TranspositionTable.toStored(mateIn3FromRoot, ply);
+        assertEquals(Search.MATE - 3, stored, "A csomóponttól 3 ply");
+        assertEquals(Search.MATE - 5, TranspositionTable.fromStored(stored, 2), "Másik úton, 2 ply mélyen");
+        assertEquals(100, TranspositionTable.toStored(100, ply), "Nem matt érték változatlan");
+    }
+
+    @Test
+    @DisplayName("Keresés a táblával: második keresés találatokkal, ugyanazzal az eredménnyel")
+    void testSearchUsesTable() {
+        TranspositionTable tt = new TranspositionTable(4);
+        BitboardPosition pos = new ShogiGame().toBitboardPosition();
+        SearchResult first = new Search(tt).search(pos, SearchLimits.depth(4));
+        assertTrue(tt.hashfull() > 0);
+        tt.resetStatistics();
+        SearchResult second = new Search(tt).search(pos, SearchLimits.depth(4));
+        assertTrue(tt.getHitRate() > 0.3, "Találati arány: " + tt.getHitRate());
+        assertTrue(second.getNodes() < first.getNodes(), "Kevesebb csomópont az újrakeresésnél");
+    }
+}
@@ -0,0 +1,81 @@
+package shogi.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * JUnit tesztek az Attacks táblázataihoz.
+ * A táblázatos csúszó támadásokat egy egyszerű, mezőnként lépkedő
+ * referencia implementációval veti össze véletlen foglaltságokon.
+ */
+class AttacksTest {
+
+    /** Referencia: sugarak bejárása mezőről mezőre */
+    private static Bitboard walk(int sq, int[][] dirs, Bitboard occupied) {
+        Bitboard out = new Bitboard();
+        for (int[] d : dirs) {
+            int r = Bitboard.row(sq) + d[0];
+            int c = Bitboard.col(sq) + d[1];
+            while (r >= 0 && r < 9 && c >= 0 && c < 9) {
+                out.set(Bitboard.square(r, c));
+                if (occupied.get(Bitboard.square(r, c))) {
+                    break;
+                }
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return out;
+    }
+
+    private static Bitboard randomOccupancy(Random random) {
+        Bitboard occ = new Bitboard();
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            if (random.nextInt(4) == 0) {
+                occ.set(sq);
+            }
+        }
+        return occ;
+    }
+
+    @Test
+    @DisplayName("Bástya, futó és lándzsa táblázat egyezik a referenciával")
+    void testSlidingTablesMatchReference() {
+        Random random = new Random(12345);
+        int[][] rook = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+        int[][] bishop = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+        int[][] blackLance = {{-1, 0}};
+        int[][] whiteLance = {{1, 0}};
+
+        for (int i = 0; i < 200; i++) {
+            Bitboard occ = randomOccupancy(random);
+            for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                assertEquals(walk(sq, rook, occ), Attacks.rookAttacks(sq, occ, new Bitboard()), "Bástya " + sq);
+                assertEquals(walk(sq, bishop, occ), Attacks.bishopAttacks(sq, occ, new Bitboard()), "Futó " + sq);
+                assertEquals(walk(sq, blackLance, occ),
+                        Attacks.lanceAttacks(BitboardPosition.BLACK, sq, occ, new Bitboard()), "Fekete lándzsa " + sq);
+                assertEquals(walk(sq, whiteLance, occ),
+                        Attacks.lanceAttacks(BitboardPosition.WHITE, sq, occ, new Bitboard()), "Fehér lándzsa " + sq);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Lépő bábuk táblázata: sarok és középső mező")
+    void testStepTables() {
+        Bitboard out = new Bitboard();
+        assertEquals(8, Attacks.stepAttacks(BitboardPosition.BLACK, BitboardPosition.KING,
+                Bitboard.square(4, 4), out).count(), "Király középen 8 mezőt támad");
+        assertEquals(3, Attacks.stepAttacks(BitboardPosition.BLACK, BitboardPosition.KING,
+                Bitboard.square(0, 0), out).count(), "Király sarokban 3 mezőt támad");
+        assertEquals(6, Attacks.stepAttacks(BitboardPosition.WHITE, BitboardPosition.GOLD,
+                Bitboard.square(4, 4), out).count(), "Arany 6 mezőt támad");
+        assertTrue(Attacks.stepAttacks(BitboardPosition.WHITE, BitboardPosition.PAWN,
+                Bitboard.square(4, 4), out).get(Bitboard.square(5, 4)), "Fehér gyalog lefelé támad");
+        assertTrue(Attacks.stepAttacks(BitboardPosition.BLACK, BitboardPosition.KNIGHT,
+                Bitboard.square(8, 0), out).get(Bitboard.square(6, 1)), "Fekete lovag előre ugrik");
+    }
+}
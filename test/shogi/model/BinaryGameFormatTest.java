@@ -0,0 +1,132 @@
+package shogi.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * JUnit tesztek a BinaryGameFormat osztályhoz.
+ * Teszteli: méret, oda-vissza alakítás jegyzéssel és ismétlés
+ * történettel, sérült adat felismerése.
+ */
+class BinaryGameFormatTest {
+
+    @Test
+    @DisplayName("A kezdőállás 69 bájt, és visszaolvasva ugyanaz")
+    void testEncodeInitialPosition() throws IOException {
+        ShogiGame game = new ShogiGame();
+        byte[] data = BinaryGameFormat.encode(game);
+
+        assertEquals(69, data.length, "Fejléc + térkép + 40 bábu + kezek + CRC");
+        ShogiGame loaded = BinaryGameFormat.decode(data);
+        assertEquals(game.getHashKey(), loaded.getHashKey(), "Azonos állás");
+        assertEquals(game.getCurrentPlayer(), loaded.getCurrentPlayer(), "Azonos lépő fél");
+        assertEquals(0, loaded.getRecordMoves().length, "Nincs lépés");
+    }
+
+    @Test
+    @DisplayName("Tábla, ledobás és generált lépések jegyzése oda-vissza")
+    void testRoundTripWithRecord() throws IOException {
+        ShogiGame game = new ShogiGame();
+        assertTrue(game.makeMove(new Position(6, 2), new Position(5, 2)));
+        assertTrue(game.makeMove(new Position(2, 2), new Position(3, 2)));
+        assertTrue(game.makeMove(new Position(5, 2), new Position(4, 2)));
+        assertTrue(game.makeMove(new Position(2, 0), new Position(3, 0)));
+        assertTrue(game.makeMove(new Position(4, 2), new Position(3, 2)), "Ütés");
+        assertTrue(game.makeMove(new Position(3, 0), new Position(4, 0)));
+        assertTrue(game.makeMove(new Position(3, 2), new Position(2, 2)), "Promóció");
+        assertTrue(game.makeMove(new Position(4, 0), new Position(5, 0)));
+        assertTrue(game.dropPiece(PieceType.PAWN, new Position(4, 2)), "Ledobás");
+
+        Random random = new Random(5);
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < 60; ply++) {
+            game.generateLegalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            assertTrue(game.playMove(moves.get(random.nextInt(moves.size()))));
+        }
+
+        byte[] data = BinaryGameFormat.encode(game);
+        ShogiGame loaded = BinaryGameFormat.decode(data);
+
+        assertEquals(game.getHashKey(), loaded.getHashKey(), "Azonos állás");
+        assertEquals(game.getMoveNumber(), loaded.getMoveNumber(), "Azonos lépésszám");
+        assertArrayEquals(game.getRecordMoves(), loaded.getRecordMoves(), "Azonos jegyzés");
+        assertEquals(game.getRepetitionCount(), loaded.getRepetitionCount(), "Azonos ismétlés történet");
+        assertTrue(data.length < 69 + 2 * game.getRecordMoves().length + 2, "Lépésenként 2 bájt");
+    }
+
+    @Test
+    @DisplayName("Az ismétlések száma a visszajátszással együtt betöltődik")
+    void testRepetitionHistorySurvives() throws IOException {
+        ShogiGame game = new ShogiGame();
+        for (int round = 0; round < 2; round++) {
+            assertTrue(game.makeMove(new Position(8, 3), new Position(7, 3)));
+            assertTrue(game.makeMove(new Position(0, 3), new Position(1, 3)));
+            assertTrue(game.makeMove(new Position(7, 3), new Position(8, 3)));
+            assertTrue(game.makeMove(new Position(1, 3), new Position(0, 3)));
+        }
+        assertEquals(3, game.getRepetitionCount(), "Harmadszor a kezdőállás");
+
+        ShogiGame loaded = BinaryGameFormat.decode(BinaryGameFormat.encode(game));
+        assertEquals(3, loaded.getRepetitionCount(), "A történet is visszaáll");
+        assertEquals(9, loaded.getMoveNumber(), "9. lépés következik");
+    }
+
+    @Test
+    @DisplayName("Sérült, csonka vagy idegen adat IOException-t dob")
+    void testRejectsCorruptData() {
+        byte[] data = BinaryGameFormat.encode(new ShogiGame());
+
+        byte[] flipped = data.clone();
+        flipped[20] ^= 1;
+        assertThrows(IOException.class, () -> BinaryGameFormat.decode(flipped), "Ellenőrzőösszeg hiba");
+
+        byte[] truncated = Arrays.copyOf(data, 20);
+        assertThrows(IOException.class, () -> BinaryGameFormat.decode(truncated), "Csonka");
+
+        byte[] foreign = data.clone();
+        foreign[0] = '{';
+        assertThrows(IOException.class, () -> BinaryGameFormat.decode(foreign), "Nem bináris mentés");
+    }
+
+    @Test
+    @DisplayName("Érvényes ellenőrzőösszegű, de szabálytalan lépést tartalmazó fájl IOException-t dob")
+    void testRejectsIllegalRecordedMove() throws IOException {
+        ShogiGame game = new ShogiGame();
+        assertTrue(game.makeMove(new Position(6, 0), new Position(5, 0)));
+        byte[] data = BinaryGameFormat.encode(game);
+        assertEquals(1, BinaryGameFormat.decode(data).getRecordMoves().length, "Az eredeti betölthető");
+
+        // Az egyetlen lépés cseréje: bástya 8h -> 8c a saját 8g gyalogon át
+        int packed = Bitboard.square(2, 1) | (Bitboard.square(7, 1) << 7);
+        int end = data.length - 4;
+        data[end - 2] = (byte) (packed >>> 8);
+        data[end - 1] = (byte) packed;
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, end);
+        int value = (int) crc.getValue();
+        for (int i = 0; i < 4; i++) {
+            data[end + i] = (byte) (value >>> (24 - 8 * i));
+        }
+
+        IOException e = assertThrows(IOException.class, () -> BinaryGameFormat.decode(data), "Átugró bástya");
+        assertTrue(e.getMessage().contains("bad move 1"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("A kiterjesztés választja ki a formátumot")
+    void testBinaryPath() {
+        assertTrue(BinaryGameFormat.isBinaryPath("mentes.shgb"));
+        assertTrue(BinaryGameFormat.isBinaryPath("C:/games/MENTES.SHGB"));
+        assertFalse(BinaryGameFormat.isBinaryPath("mentes.json"));
+        assertFalse(BinaryGameFormat.isBinaryPath("shgb"));
+    }
+}
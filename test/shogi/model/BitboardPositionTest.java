@@ -0,0 +1,125 @@
+package shogi.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * JUnit tesztek a BitboardPosition osztályhoz.
+ * Teszteli: Board &lt;-&gt; bitboard átalakítás, foglaltság, sakk felismerés,
+ * növekményes anyag/mezőtábla pontok.
+ */
+class BitboardPositionTest {
+
+    // ===================================================================
+    //                  ÁTALAKÍTÁS TESZTEK
+    // ===================================================================
+
+    @Test
+    @DisplayName("Kezdőállás átalakítása és visszaalakítása")
+    void testRoundTripInitialPosition() {
+        ShogiGame game = new ShogiGame();
+        BitboardPosition pos = game.toBitboardPosition();
+
+        assertEquals(40, pos.occupied().count(), "40 bábu a táblán");
+        assertEquals(20, pos.pieces(BitboardPosition.BLACK).count(), "20 fekete bábu");
+        assertEquals(Bitboard.square(8, 4), pos.kingSquare(BitboardPosition.BLACK), "Fekete király helye");
+        assertEquals(Bitboard.square(0, 4), pos.kingSquare(BitboardPosition.WHITE), "Fehér király helye");
+
+        Board board = pos.toBoard();
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                Piece original = game.getBoard().getPieceAt(r, c);
+                Piece converted = board.getPieceAt(r, c);
+                if (original == null) {
+                    assertNull(converted, "Üres mező maradjon üres");
+                } else {
+                    assertEquals(original.getClass(), converted.getClass(), "Típus egyezik");
+                    assertEquals(original.getColor(), converted.getColor(), "Szín egyezik");
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Promóció és kéz megmarad az átalakítás során")
+    void testPromotionAndHandsPreserved() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(2, 4), BitboardPosition.BLACK, BitboardPosition.DRAGON);
+        pos.setHandCount(BitboardPosition.WHITE, BitboardPosition.PAWN, 3);
+
+        ShogiGame game = new ShogiGame(pos);
+        Piece rook = game.getBoard().getPieceAt(2, 4);
+
+        assertTrue(rook instanceof Rook, "Bástya a helyén");
+        assertTrue(rook.isPromoted(), "Promóció megmaradt");
+        assertEquals(3, game.getWhiteHand().size(), "Fehér kézben 3 gyalog");
+        assertEquals(3, game.toBitboardPosition().getHandCount(BitboardPosition.WHITE, BitboardPosition.PAWN));
+    }
+
+    // ===================================================================
+    //                  TÁMADÁS TESZTEK
+    // ===================================================================
+
+    @Test
+    @DisplayName("Bástya sakkot ad nyílt vonalon, blokkolva nem")
+    void testRookCheckAndBlock() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(8, 4), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(0, 4), BitboardPosition.WHITE, BitboardPosition.ROOK);
+
+        assertTrue(pos.isInCheck(BitboardPosition.BLACK), "Nyílt oszlop: sakk");
+
+        pos.putPiece(Bitboard.square(5, 4), BitboardPosition.BLACK, BitboardPosition.GOLD);
+        assertFalse(pos.isInCheck(BitboardPosition.BLACK), "Blokkolt oszlop: nincs sakk");
+    }
+
+    @Test
+    @DisplayName("Lovag támadása színfüggő")
+    void testKnightAttackDependsOnColor() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(4, 4), BitboardPosition.BLACK, BitboardPosition.KNIGHT);
+
+        assertTrue(pos.isAttacked(Bitboard.square(2, 3), BitboardPosition.BLACK), "Előre-balra támad");
+        assertTrue(pos.isAttacked(Bitboard.square(2, 5), BitboardPosition.BLACK), "Előre-jobbra támad");
+        assertFalse(pos.isAttacked(Bitboard.square(6, 3), BitboardPosition.BLACK), "Hátrafelé nem támad");
+    }
+
+    // ===================================================================
+    //                  NÖVEKMÉNYES PONTOK TESZTEK
+    // ===================================================================
+
+    @Test
+    @DisplayName("A növekményes pontok lépés és visszavonás után egyeznek az újraszámolással")
+    void testIncrementalScoresFollowMoves() {
+        BitboardPosition pos = new ShogiGame().toBitboardPosition();
+        int blackStart = pos.getBoardScore(BitboardPosition.BLACK);
+        assertEquals(blackStart, pos.getBoardScore(BitboardPosition.WHITE), "A kezdőállás szimmetrikus");
+
+        MoveGenerator generator = new MoveGenerator();
+        MoveList moves = new MoveList();
+        Random random = new Random(19);
+        int[] played = new int[120];
+        int count = 0;
+        while (count < played.length) {
+            moves.clear();
+            generator.generateLegal(pos, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            int move = moves.get(random.nextInt(moves.size()));
+            pos.doMove(move);
+            played[count++] = move;
+            assertTrue(pos.verifyScores(BitboardPosition.BLACK) && pos.verifyScores(BitboardPosition.WHITE),
+                    "Eltérés lépés után: " + Move.toString(move));
+        }
+        while (count > 0) {
+            pos.undoMove(played[--count]);
+        }
+        assertEquals(blackStart, pos.getBoardScore(BitboardPosition.BLACK), "Visszavonás után az eredeti pont");
+        assertEquals(0, pos.getHandScore(BitboardPosition.BLACK), "Üres kéz");
+        assertEquals(0, pos.getHandScore(BitboardPosition.WHITE), "Üres kéz");
+    }
+}
@@ -214,4 +214,41 @@ class BoardTest {
         assertEquals(4, finalPos.getRow(), "Pozíció helyesen frissült");
         assertEquals(4, finalPos.getCol(), "Pozíció helyesen frissült");
     }
+    
+    // ===================================================================
+    //                  KIRÁLY NYILVÁNTARTÁS TESZTEK
+    // ===================================================================
+    
+    @Test
+    @DisplayName("Király mezője követi a setPieceAt() és movePiece() hívásokat")
+    void testKingSquareTracking() {
+        assertNull(board.getKingPosition(Piece.Color.BLACK), "Üres táblán nincs király");
+        
+        King king = new King(Piece.Color.BLACK, new Position(8, 4));
+        board.setPieceAt(8, 4, king);
+        assertEquals(new Position(8, 4), board.getKingPosition(Piece.Color.BLACK), "Elhelyezés után");
+        
+        board.movePiece(new Position(8, 4), new Position(7, 4));
+        assertEquals(new Position(7, 4), board.getKingPosition(Piece.Color.BLACK), "Lépés után");
+        assertEquals(-1, board.getKingSquare(Piece.Color.WHITE), "Fehér király nincs");
+        
+        board.setPieceAt(7, 4, null);
+        assertNull(board.getKingPosition(Piece.Color.BLACK), "Levétel után nincs király");
+    }
+    
+    @Test
+    @DisplayName("Ideiglenes áthelyezés és visszaállítás után helyes a király mezője")
+    void testKingSquareAfterTemporarySwap() {
+        King king = new King(Piece.Color.WHITE, new Position(0, 4));
+        board.setPieceAt(0, 4, king);
+        
+        // Szimulált lépés és visszaállítás (mint a sakk ellenőrzésnél)
+        board.setPieceAt(1, 4, king);
+        board.setPieceAt(0, 4, null);
+        assertEquals(new Position(1, 4), board.getKingPosition(Piece.Color.WHITE));
+        
+        board.setPieceAt(0, 4, king);
+        board.setPieceAt(1, 4, null);
+        assertEquals(new Position(0, 4), board.getKingPosition(Piece.Color.WHITE));
+    }
 }
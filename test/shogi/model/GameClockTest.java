@@ -0,0 +1,60 @@
+package shogi.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tesztek a GameClock osztályhoz (kézzel léptetett időforrással).
+ * Teszteli: alapidő fogyása, byoyomi, Fischer növekmény, zászlóesés.
+ */
+class GameClockTest {
+
+    /** Kézzel léptetett idő nanoszekundumban */
+    private long now;
+
+    private void advance(long millis) {
+        now += millis * 1_000_000L;
+    }
+
+    @Test
+    @DisplayName("Az alapidő csak a lépésen lévő félnél fogy, váltáskor jár a növekmény")
+    void testMainTimeAndIncrement() {
+        GameClock clock = new GameClock(TimeControl.fischer(60_000, 2_000), () -> now);
+        clock.start(Piece.Color.BLACK);
+        advance(5_000);
+        assertEquals(55_000, clock.getRemainingMillis(Piece.Color.BLACK));
+        assertEquals(60_000, clock.getRemainingMillis(Piece.Color.WHITE));
+
+        assertTrue(clock.switchSide());
+        assertEquals(Piece.Color.WHITE, clock.getRunning());
+        assertEquals(57_000, clock.getRemainingMillis(Piece.Color.BLACK), "55 s + 2 s növekmény");
+        advance(1_000);
+        assertEquals(59_000, clock.getRemainingMillis(Piece.Color.WHITE));
+        assertFalse(clock.hasFlagged(Piece.Color.WHITE));
+    }
+
+    @Test
+    @DisplayName("Az alapidő után lépésenként a byoyomi jár, túllépésnél leesik a zászló")
+    void testByoyomiAndFlag() {
+        GameClock clock = new GameClock(TimeControl.byoyomi(10_000, 5_000), () -> now);
+        clock.start(Piece.Color.BLACK);
+        advance(13_000);
+        assertTrue(clock.isInByoyomi(Piece.Color.BLACK));
+        assertEquals(2_000, clock.getMoveTimeLeftMillis(Piece.Color.BLACK));
+        assertTrue(clock.switchSide(), "13 s < 10 s + 5 s byoyomi");
+        assertEquals(0, clock.getRemainingMillis(Piece.Color.BLACK));
+
+        advance(1_000);
+        assertTrue(clock.switchSide());
+        advance(4_900);
+        assertTrue(clock.switchSide(), "A byoyomi lépésenként újraindul");
+        advance(9_000 + 5_000);
+        assertFalse(clock.hasFlagged(Piece.Color.WHITE), "Fehér: 9 s alapidő + 5 s byoyomi");
+        advance(1);
+        assertTrue(clock.hasFlagged(Piece.Color.WHITE), "A járó órán is látszik a túllépés");
+        assertFalse(clock.switchSide());
+        assertTrue(clock.hasFlagged(Piece.Color.WHITE));
+        assertFalse(clock.hasFlagged(Piece.Color.BLACK));
+    }
+}
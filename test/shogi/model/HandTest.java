@@ -0,0 +1,55 @@
+package shogi.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tesztek a Hand osztályhoz.
+ * Teszteli: csomagolt számlálók, ledobás típussal, kezek a játékban.
+ */
+class HandTest {
+
+    @Test
+    @DisplayName("Számlálók maximumig tölthetők, és nem zavarják egymást")
+    void testPackedCounters() {
+        int hand = Hand.EMPTY;
+        for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+            for (int i = 0; i < Hand.MAX_COUNT[kind]; i++) {
+                hand = Hand.add(hand, kind);
+            }
+        }
+        for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+            assertEquals(Hand.MAX_COUNT[kind], Hand.count(hand, kind), "Típus " + kind);
+        }
+        assertEquals(38, Hand.total(hand), "Az összes nem-király bábu");
+
+        hand = Hand.remove(hand, BitboardPosition.LANCE);
+        hand = Hand.set(hand, BitboardPosition.PAWN, 3);
+        assertEquals(3, Hand.count(hand, BitboardPosition.PAWN));
+        assertEquals(3, Hand.count(hand, BitboardPosition.LANCE));
+        assertEquals(2, Hand.count(hand, BitboardPosition.ROOK));
+        assertFalse(Hand.isEmpty(hand));
+    }
+
+    @Test
+    @DisplayName("Leütés a kézbe típusként kerül, ledobás típussal történik")
+    void testCaptureAndTypedDrop() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(8, 4), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(0, 4), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(5, 0), BitboardPosition.BLACK, BitboardPosition.LANCE);
+        pos.putPiece(Bitboard.square(3, 0), BitboardPosition.WHITE, BitboardPosition.PRO_SILVER);
+        ShogiGame game = new ShogiGame(pos);
+
+        assertTrue(game.makeMove(new Position(5, 0), new Position(3, 0)));
+        assertEquals(1, game.getHandCount(Piece.Color.BLACK, PieceType.SILVER), "Promótált ezüst ezüstként a kézben");
+        assertFalse(game.getBlackHand().get(0).isPromoted());
+
+        assertTrue(game.makeMove(new Position(0, 4), new Position(0, 5)));
+        assertFalse(game.dropPiece(PieceType.GOLD, new Position(4, 4)), "Arany nincs a kézben");
+        assertTrue(game.dropPiece(PieceType.SILVER, new Position(4, 4)));
+        assertTrue(Hand.isEmpty(game.getHand(Piece.Color.BLACK)));
+        assertEquals(PieceType.SILVER, game.getBoard().getPieceAt(4, 4).getType());
+    }
+}
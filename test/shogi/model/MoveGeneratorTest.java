@@ -0,0 +1,278 @@
+package shogi.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * JUnit tesztek a MoveGenerator osztályhoz.
+ * Teszteli: egyezés a lépés/sakk vizsgálat/visszavonás módszerrel,
+ * kötött bábu, kettős sakk, gyalogledobásos matt, taktikus lépések
+ * és sakkadás vizsgálata.
+ */
+class MoveGeneratorTest {
+
+    /**
+     * Lépés végrehajtása az állás másolatán (leütött bábu a kézbe kerül).
+     */
+    private static BitboardPosition apply(BitboardPosition pos, int move) {
+        BitboardPosition next = pos.copy();
+        int us = pos.getSideToMove();
+        int to = Move.to(move);
+        if (Move.isDrop(move)) {
+            int kind = Move.pieceKind(move);
+            next.setHandCount(us, kind, next.getHandCount(us, kind) - 1);
+            next.putPiece(to, us, kind);
+        } else {
+            int kind = BitboardPosition.codeKind(next.removePiece(Move.from(move)));
+            next.removePiece(to);
+            if (Move.isCapture(move)) {
+                int base = Move.capturedKind(move) & ~BitboardPosition.PROMOTED;
+                next.setHandCount(us, base, next.getHandCount(us, base) + 1);
+            }
+            next.putPiece(to, us, Move.isPromotion(move) ? kind | BitboardPosition.PROMOTED : kind);
+        }
+        next.setSideToMove(BitboardPosition.opponent(us));
+        return next;
+    }
+
+    /**
+     * Referencia: minden ál-legális lépés megtétele egy másolaton,
+     * majd sakk vizsgálat.
+     */
+    private static int[] bruteForce(BitboardPosition pos, boolean withDrops) {
+        int us = pos.getSideToMove();
+        int them = BitboardPosition.opponent(us);
+        int[] moves = new int[MoveGenerator.MAX_MOVES * 2];
+        int count = 0;
+        Bitboard targets = new Bitboard();
+
+        for (int from = 0; from < Bitboard.SQUARES; from++) {
+            int code = pos.pieceAt(from);
+            if (code == 0 || BitboardPosition.codeColor(code) != us) {
+                continue;
+            }
+            int kind = BitboardPosition.codeKind(code);
+            Attacks.attacks(us, kind, from, pos.occupied(), targets).andNot(pos.pieces(us));
+            while (!targets.isEmpty()) {
+                int to = targets.popLsb();
+                int fromRow = Bitboard.row(from);
+                int toRow = Bitboard.row(to);
+                boolean zone = us == BitboardPosition.BLACK
+                        ? fromRow <= 2 || toRow <= 2 : fromRow >= 6 || toRow >= 6;
+                int lastRank = us == BitboardPosition.BLACK ? toRow : 8 - toRow;
+                boolean forced = ((kind == BitboardPosition.PAWN || kind == BitboardPosition.LANCE) && lastRank == 0)
+                        || (kind == BitboardPosition.KNIGHT && lastRank <= 1);
+                int captured = pos.kindAt(to);
+                if (BitboardPosition.isPromotable(kind) && zone) {
+                    moves[count++] = Move.normal(from, to, kind, captured, true);
+                }
+                if (!(BitboardPosition.isPromotable(kind) && zone && forced)) {
+                    moves[count++] = Move.normal(from, to, kind, captured, false);
+                }
+            }
+        }
+
+        if (withDrops) {
+            for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+                if (pos.getHandCount(us, kind) == 0) {
+                    continue;
+                }
+                for (int to = 0; to < Bitboard.SQUARES; to++) {
+                    if (pos.pieceAt(to) != 0) {
+                        continue;
+                    }
+                    int row = Bitboard.row(to);
+                    int lastRank = us == BitboardPosition.BLACK ? row : 8 - row;
+                    if ((kind == BitboardPosition.PAWN || kind == BitboardPosition.LANCE) && lastRank == 0) {
+                        continue;
+                    }
+                    if (kind == BitboardPosition.KNIGHT && lastRank <= 1) {
+                        continue;
+                    }
+                    if (kind == BitboardPosition.PAWN && hasPawnOnFile(pos, us, Bitboard.col(to))) {
+                        continue;
+                    }
+                    moves[count++] = Move.drop(kind, to);
+                }
+            }
+        }
+
+        int legal = 0;
+        for (int i = 0; i < count; i++) {
+            BitboardPosition next = apply(pos, moves[i]);
+            if (next.isInCheck(us)) {
+                continue;
+            }
+            // Gyalogledobásos matt: az ellenfélnek nincs lépése (ledobás nem segít)
+            if (Move.isDrop(moves[i]) && Move.pieceKind(moves[i]) == BitboardPosition.PAWN
+                    && next.isInCheck(them) && bruteForce(next, false).length == 0) {
+                continue;
+            }
+            moves[legal++] = moves[i];
+        }
+        return Arrays.copyOf(moves, legal);
+    }
+
+    private static boolean hasPawnOnFile(BitboardPosition pos, int color, int col) {
+        for (int row = 0; row < 9; row++) {
+            if (pos.pieceAt(Bitboard.square(row, col)) == BitboardPosition.pieceCode(color, BitboardPosition.PAWN)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static MoveList generate(BitboardPosition pos) {
+        MoveList list = new MoveList();
+        new MoveGenerator().generateLegal(pos, list);
+        return list;
+    }
+
+    private static int[] sorted(int[] moves) {
+        int[] copy = moves.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    // ===================================================================
+    //                  REFERENCIA ÖSSZEHASONLÍTÁS
+    // ===================================================================
+
+    @Test
+    @DisplayName("Véletlen játszmák: a generátor egyezik a lépés-vizsgálat-visszavonás módszerrel")
+    void testMatchesBruteForceOnRandomGames() {
+        Random random = new Random(7);
+        MoveGenerator generator = new MoveGenerator();
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+
+        for (int game = 0; game < 60; game++) {
+            BitboardPosition pos = new ShogiGame().toBitboardPosition();
+            for (int ply = 0; ply < 160; ply++) {
+                int count = generator.generateLegal(pos, buffer);
+                int[] generated = sorted(Arrays.copyOf(buffer, count));
+                assertArrayEquals(sorted(bruteForce(pos, true)), generated,
+                        "Eltérés a(z) " + game + ". játszma " + ply + ". lépésénél");
+                if (count == 0) {
+                    break;
+                }
+                pos = apply(pos, generated[random.nextInt(count)]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Véletlen játszmák: a taktikus lépések és a sakkadás egyezik a legális lépések szűrésével")
+    void testCapturesAndChecksOnRandomGames() {
+        Random random = new Random(11);
+        MoveGenerator generator = new MoveGenerator();
+        MoveList captures = new MoveList();
+
+        for (int game = 0; game < 30; game++) {
+            BitboardPosition pos = new ShogiGame().toBitboardPosition();
+            for (int ply = 0; ply < 160; ply++) {
+                MoveList legal = generate(pos);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                boolean inCheck = pos.isInCheck(pos.getSideToMove());
+                int[] expected = new int[legal.size()];
+                int count = 0;
+                for (int i = 0; i < legal.size(); i++) {
+                    int move = legal.get(i);
+                    if (inCheck || Move.isCapture(move) || Move.isPromotion(move)) {
+                        expected[count++] = move;
+                    }
+                    boolean check = apply(pos, move).isInCheck(BitboardPosition.opponent(pos.getSideToMove()));
+                    assertEquals(check, generator.givesCheck(pos, move), "Sakkadás: " + Move.toString(move));
+                }
+
+                captures.clear();
+                generator.generateCaptures(pos, captures);
+                int[] generated = new int[captures.size()];
+                for (int i = 0; i < generated.length; i++) {
+                    generated[i] = captures.get(i);
+                }
+                assertArrayEquals(sorted(Arrays.copyOf(expected, count)), sorted(generated),
+                        "Eltérés a(z) " + game + ". játszma " + ply + ". lépésénél");
+                pos = apply(pos, legal.get(random.nextInt(legal.size())));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Lépés kódolás: mezők, típus, ütés, promóció visszaolvasása")
+    void testMoveEncoding() {
+        int move = Move.normal(Bitboard.square(2, 7), Bitboard.square(8, 1),
+                BitboardPosition.BISHOP, BitboardPosition.HORSE, true);
+        assertEquals(Bitboard.square(2, 7), Move.from(move));
+        assertEquals(Bitboard.square(8, 1), Move.to(move));
+        assertEquals(BitboardPosition.BISHOP, Move.pieceKind(move));
+        assertEquals(BitboardPosition.HORSE, Move.capturedKind(move));
+        assertTrue(Move.isPromotion(move));
+        assertFalse(Move.isDrop(move));
+        assertEquals("2c8i+", Move.toString(move));
+
+        int drop = Move.drop(BitboardPosition.PAWN, Bitboard.square(4, 4));
+        assertTrue(Move.isDrop(drop));
+        assertFalse(Move.isCapture(drop));
+        assertEquals(-1, Move.capturedKind(drop));
+        assertEquals("P*5e", Move.toString(drop));
+    }
+
+    // ===================================================================
+    //                  SPECIÁLIS HELYZETEK
+    // ===================================================================
+
+    @Test
+    @DisplayName("Kötött bábu csak a kötés vonalán léphet, kettős sakkban csak a király")
+    void testPinAndDoubleCheck() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(8, 4), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(6, 4), BitboardPosition.BLACK, BitboardPosition.GOLD);
+        pos.putPiece(Bitboard.square(2, 4), BitboardPosition.WHITE, BitboardPosition.ROOK);
+        pos.putPiece(Bitboard.square(0, 0), BitboardPosition.WHITE, BitboardPosition.KING);
+
+        MoveList moves = generate(pos);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == Bitboard.square(6, 4)) {
+                assertEquals(4, Bitboard.col(Move.to(move)), "A kötött arany nem hagyhatja el az oszlopot");
+            }
+        }
+
+        // Kettős sakk: bástya az oszlopon, futó az átlón
+        pos.removePiece(Bitboard.square(6, 4));
+        pos.putPiece(Bitboard.square(5, 1), BitboardPosition.WHITE, BitboardPosition.BISHOP);
+        pos.putPiece(Bitboard.square(7, 0), BitboardPosition.BLACK, BitboardPosition.SILVER);
+        pos.setHandCount(BitboardPosition.BLACK, BitboardPosition.GOLD, 1);
+        moves = generate(pos);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            assertEquals(Bitboard.square(8, 4), Move.from(move), "Kettős sakkban csak a király léphet");
+            assertFalse(Move.isDrop(move), "Kettős sakkban nincs ledobás");
+        }
+    }
+
+    @Test
+    @DisplayName("Gyalogledobással nem lehet mattot adni, más ledobással igen")
+    void testPawnDropMate() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(0, 0), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(0, 1), BitboardPosition.WHITE, BitboardPosition.LANCE);
+        pos.putPiece(Bitboard.square(2, 0), BitboardPosition.BLACK, BitboardPosition.GOLD);
+        pos.putPiece(Bitboard.square(2, 2), BitboardPosition.BLACK, BitboardPosition.SILVER);
+        pos.putPiece(Bitboard.square(8, 8), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.setHandCount(BitboardPosition.BLACK, BitboardPosition.PAWN, 1);
+        pos.setHandCount(BitboardPosition.BLACK, BitboardPosition.LANCE, 1);
+
+        MoveList moves = generate(pos);
+        assertFalse(moves.contains(Move.drop(BitboardPosition.PAWN, Bitboard.square(1, 0))),
+                "Gyalogledobásos matt tilos");
+        assertTrue(moves.contains(Move.drop(BitboardPosition.LANCE, Bitboard.square(1, 0))),
+                "Lándzsával szabad mattot adni");
+    }
+}
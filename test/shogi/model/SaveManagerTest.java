@@ -7,10 +7,13 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 
 /**
  * JUnit tesztek a SaveManager osztály save() és load() metódusaihoz.
- * Teszteli a játékállás mentését és betöltését JSON formátumban.
+ * Teszteli a játékállás mentését és betöltését JSON formátumban (tagolt,
+ * tömör, régi mátrixos séma) és binárisan.
  */
 class SaveManagerTest {
     
@@ -233,4 +236,103 @@ class SaveManagerTest {
         // Cleanup
         new File(TEST_SAVE_FILE).delete();
     }
+
+    // ===================================================================
+    //                      STREAM JSON
+    // ===================================================================
+
+    @Test
+    @DisplayName("Tömör mód: egy sor, csak a foglalt mezők, ugyanaz az állás")
+    void testCompactSparseRoundTrip() throws IOException {
+        game.makeMove(new Position(6, 2), new Position(5, 2));
+        game.makeMove(new Position(2, 2), new Position(3, 2));
+
+        StringWriter pretty = new StringWriter();
+        StringWriter compact = new StringWriter();
+        SaveManager.write(game, pretty, false);
+        SaveManager.write(game, compact, true);
+
+        String json = compact.toString();
+        assertFalse(json.contains("\n"), "Tömör: nincs sortörés");
+        assertFalse(json.contains("null"), "Ritka: üres mező nem íródik ki");
+        assertTrue(json.length() < pretty.toString().length() * 2 / 3, "Tömör: jóval rövidebb");
+
+        ShogiGame fromCompact = SaveManager.read(new StringReader(json));
+        ShogiGame fromPretty = SaveManager.read(new StringReader(pretty.toString()));
+        assertEquals(game.getHashKey(), fromCompact.getHashKey(), "Azonos állás (tömör)");
+        assertEquals(game.getHashKey(), fromPretty.getHashKey(), "Azonos állás (tagolt)");
+        assertEquals(3, fromCompact.getMoveNumber(), "Lépésszám");
+    }
+
+    @Test
+    @DisplayName("A régi, teljes 9×9 mátrixos mentés is betölthető")
+    void testReadsLegacyBoardMatrix() throws IOException {
+        StringBuilder board = new StringBuilder("[");
+        for (int row = 0; row < 9; row++) {
+            board.append(row > 0 ? ",[" : "[");
+            for (int col = 0; col < 9; col++) {
+                if (col > 0) {
+                    board.append(',');
+                }
+                if (row == 8 && col == 4) {
+                    board.append("{\"type\":\"King\",\"color\":\"BLACK\",\"row\":8,\"col\":4,\"promoted\":false}");
+                } else if (row == 0 && col == 4) {
+                    board.append("{\"type\":\"King\",\"color\":\"WHITE\",\"row\":0,\"col\":4,\"promoted\":false}");
+                } else if (row == 3 && col == 2) {
+                    board.append("{\"type\":\"Pawn\",\"color\":\"BLACK\",\"row\":3,\"col\":2,\"promoted\":true}");
+                } else {
+                    board.append("null");
+                }
+            }
+            board.append(']');
+        }
+        board.append(']');
+        String legacy = "{\"board\":" + board + ",\"currentPlayer\":\"WHITE\","
+                + "\"blackHand\":[{\"type\":\"Rook\",\"color\":\"BLACK\",\"row\":-1,\"col\":-1,\"promoted\":false}],"
+                + "\"whiteHand\":[],\"comment\":{\"ignored\":[1,2]}}";
+
+        ShogiGame loaded = SaveManager.read(new StringReader(legacy));
+
+        assertEquals(Piece.Color.WHITE, loaded.getCurrentPlayer(), "Lépő fél");
+        assertTrue(loaded.getBoard().getPieceAt(3, 2).isPromoted(), "Tokin");
+        assertInstanceOf(King.class, loaded.getBoard().getPieceAt(0, 4), "Fehér király");
+        assertEquals(1, loaded.getHandCount(Piece.Color.BLACK, PieceType.ROOK), "Bástya kézben");
+        assertEquals(1, loaded.getMoveNumber(), "Lépésszám nélkül 1");
+    }
+
+    @Test
+    @DisplayName("Hibás JSON tartalom IOException-t dob")
+    void testReadRejectsInvalidContent() {
+        assertThrows(IOException.class, () -> SaveManager.read(new StringReader(
+                "{\"currentPlayer\":\"BLACK\",\"pieces\":[{\"type\":\"Dragon\",\"color\":\"BLACK\",\"row\":0,\"col\":0}]}")),
+                "Ismeretlen típus");
+        assertThrows(IOException.class, () -> SaveManager.read(new StringReader(
+                "{\"currentPlayer\":\"BLACK\",\"pieces\":[{\"type\":\"Pawn\",\"color\":\"BLACK\",\"row\":9,\"col\":0}]}")),
+                "Táblán kívüli mező");
+        assertThrows(IOException.class, () -> SaveManager.read(new StringReader(
+                "{\"currentPlayer\":\"RED\"}")), "Ismeretlen szín");
+        assertThrows(IOException.class, () -> SaveManager.read(new StringReader("{\"pieces\":[")), "Csonka");
+    }
+
+    // ===================================================================
+    //                      BINÁRIS FORMÁTUM
+    // ===================================================================
+
+    @Test
+    @DisplayName(".shgb kiterjesztésnél bináris mentés és betöltés")
+    void testBinarySaveByExtension() throws IOException {
+        String binaryFile = "test_save" + BinaryGameFormat.EXTENSION;
+        game.makeMove(new Position(6, 4), new Position(5, 4));
+        game.makeMove(new Position(2, 4), new Position(3, 4));
+
+        SaveManager.save(game, binaryFile);
+        File file = new File(binaryFile);
+        assertTrue(file.length() < 100, "Tömör mentés: " + file.length() + " bájt");
+
+        ShogiGame loadedGame = SaveManager.load(binaryFile);
+        assertEquals(game.getHashKey(), loadedGame.getHashKey(), "Azonos állás");
+        assertEquals(3, loadedGame.getMoveNumber(), "A lépések is betöltődnek");
+
+        file.delete();
+    }
 }
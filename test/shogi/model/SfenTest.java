@@ -0,0 +1,134 @@
+package shogi.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * JUnit tesztek a Sfen osztályhoz.
+ * Teszteli: kezdőállás, kezek, promótált bábuk beolvasása, hibás bemenetek,
+ * kiírás és visszaolvasás, USI lépésjelölés.
+ */
+class SfenTest {
+
+    @Test
+    @DisplayName("A szabványos kezdőállás beolvasása")
+    void testParseStartPosition() {
+        BitboardPosition pos = Sfen.parse(Sfen.START);
+
+        assertEquals(BitboardPosition.BLACK, pos.getSideToMove(), "Fekete lép");
+        assertEquals(40, pos.occupied().count(), "40 bábu a táblán");
+        assertEquals(Bitboard.square(8, 4), pos.kingSquare(BitboardPosition.BLACK), "Fekete király az 5i mezőn");
+        assertEquals(Bitboard.square(0, 4), pos.kingSquare(BitboardPosition.WHITE), "Fehér király az 5a mezőn");
+        assertEquals(BitboardPosition.pieceCode(BitboardPosition.BLACK, BitboardPosition.ROOK),
+                pos.pieceAt(Bitboard.square(7, 7)), "Fekete bástya a 2h mezőn");
+        assertEquals(BitboardPosition.pieceCode(BitboardPosition.WHITE, BitboardPosition.BISHOP),
+                pos.pieceAt(Bitboard.square(1, 7)), "Fehér futó a 2b mezőn");
+    }
+
+    @Test
+    @DisplayName("Kezek, promótált bábu és lépő fél beolvasása")
+    void testParseHandsAndPromotion() {
+        BitboardPosition pos = Sfen.parse("4k4/9/4+P4/9/9/9/9/9/4K4 w 2Pb3p");
+
+        assertEquals(BitboardPosition.WHITE, pos.getSideToMove(), "Fehér lép");
+        assertEquals(BitboardPosition.pieceCode(BitboardPosition.BLACK,
+                BitboardPosition.PAWN | BitboardPosition.PROMOTED), pos.pieceAt(Bitboard.square(2, 4)),
+                "Tokin az 5c mezőn");
+        assertEquals(2, pos.getHandCount(BitboardPosition.BLACK, BitboardPosition.PAWN), "2 fekete gyalog kézben");
+        assertEquals(1, pos.getHandCount(BitboardPosition.WHITE, BitboardPosition.BISHOP), "1 fehér futó kézben");
+        assertEquals(3, pos.getHandCount(BitboardPosition.WHITE, BitboardPosition.PAWN), "3 fehér gyalog kézben");
+    }
+
+    @Test
+    @DisplayName("Hibás SFEN szöveg IllegalArgumentException-t dob")
+    void testParseRejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> Sfen.parse("9/9/9 b -"), "Kevés sor");
+        assertThrows(IllegalArgumentException.class,
+                () -> Sfen.parse("4k4/9/9/9/9/9/9/9/4K5 b -"), "Túl hosszú sor");
+        assertThrows(IllegalArgumentException.class,
+                () -> Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 x -"), "Hibás lépő fél");
+        assertThrows(IllegalArgumentException.class,
+                () -> Sfen.parse("4k4/9/4+G4/9/9/9/9/9/4K4 b -"), "Arany nem promótálható");
+        assertThrows(IllegalArgumentException.class,
+                () -> Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 b 19P"), "Túl sok gyalog kézben");
+        assertThrows(IllegalArgumentException.class,
+                () -> Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 b 0P"), "Nulla darabszám kézben");
+        assertThrows(IllegalArgumentException.class,
+                () -> Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 b 00P"), "Nulla darabszám kézben");
+        assertThrows(IllegalArgumentException.class,
+                () -> Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 b 02P"), "Vezető nulla a darabszámban");
+        assertEquals(10, Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 b 10P")
+                .getHandCount(BitboardPosition.BLACK, BitboardPosition.PAWN), "Kétjegyű darabszám");
+    }
+
+    @Test
+    @DisplayName("Lépésszám beolvasása, elhagyása és hibás értéke")
+    void testMoveNumber() {
+        BitboardPosition pos = new BitboardPosition();
+        assertEquals(37, Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 b - 37", pos), "Megadott lépésszám");
+        assertEquals(1, Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 b -", new BitboardPosition()), "Elhagyott lépésszám");
+        assertThrows(IllegalArgumentException.class,
+                () -> Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 b - 0", new BitboardPosition()), "Nulla lépésszám");
+        assertThrows(IllegalArgumentException.class,
+                () -> Sfen.parse("4k4/9/9/9/9/9/9/9/4K4 b - 1 x", new BitboardPosition()), "Fölösleges mező");
+    }
+
+    @Test
+    @DisplayName("A kiírás visszaadja a beolvasott szöveget")
+    void testToSfenRoundTrip() {
+        assertEquals(Sfen.START, Sfen.toSfen(Sfen.parse(Sfen.START), 1), "Kezdőállás");
+
+        String sfen = "l6nl/5+P1gk/2np1S3/p1p4Pp/3P2Sp1/1PPb2P1P/P5GS1/R8/LN4bKL w RGgsn5p 62";
+        BitboardPosition pos = new BitboardPosition();
+        int moveNumber = Sfen.parse(sfen, pos);
+        assertEquals(sfen, Sfen.toSfen(pos, moveNumber), "Kezek R, B, G, S, N, L, P sorrendben");
+    }
+
+    @Test
+    @DisplayName("Véletlen játszmák: SFEN és USI lépés oda-vissza alakítás")
+    void testRandomGamesRoundTrip() {
+        Random random = new Random(23);
+        MoveGenerator generator = new MoveGenerator();
+        MoveList moves = new MoveList();
+        for (int game = 0; game < 20; game++) {
+            BitboardPosition pos = Sfen.parse(Sfen.START);
+            for (int ply = 0; ply < 120; ply++) {
+                moves.clear();
+                generator.generateLegal(pos, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                for (int i = 0; i < moves.size(); i++) {
+                    int move = moves.get(i);
+                    assertEquals(move, Move.parse(Move.toString(move), pos),
+                            "USI oda-vissza: " + Move.toString(move));
+                }
+
+                String sfen = Sfen.toSfen(pos, ply + 1);
+                BitboardPosition parsed = new BitboardPosition();
+                assertEquals(ply + 1, Sfen.parse(sfen, parsed), "Lépésszám");
+                assertEquals(pos.getKey(), parsed.getKey(), "Azonos állás: " + sfen);
+                assertEquals(sfen, Sfen.toSfen(parsed, ply + 1), "Azonos szöveg");
+
+                pos.doMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Hibás USI lépés NONE")
+    void testParseInvalidUsiMove() {
+        BitboardPosition pos = Sfen.parse(Sfen.START);
+
+        assertEquals(Move.NONE, Move.parse("7g7", pos), "Rövid");
+        assertEquals(Move.NONE, Move.parse("0g7f", pos), "Hibás oszlop");
+        assertEquals(Move.NONE, Move.parse("7j7f", pos), "Hibás sor");
+        assertEquals(Move.NONE, Move.parse("5e5d", pos), "Üres kiindulási mező");
+        assertEquals(Move.NONE, Move.parse("3c3d", pos), "Az ellenfél bábuja");
+        assertEquals(Move.NONE, Move.parse("K*5e", pos), "Király nem dobható");
+        assertEquals(Move.NONE, Move.parse("7g7f=", pos), "Hibás utótag");
+    }
+}
@@ -0,0 +1,322 @@
+package shogi.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * JUnit tesztek a ShogiGame szabálylogikájához.
+ * Teszteli: sakk felismerés (fordított keresés), lépések érvényessége,
+ * ismétlés (sennichite) és örökös sakk.
+ */
+class ShogiGameTest {
+
+    /**
+     * Véletlen állás: két király és néhány véletlen bábu üres mezőkön.
+     */
+    private static ShogiGame randomGame(Random random) {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(random.nextInt(81), BitboardPosition.BLACK, BitboardPosition.KING);
+        int whiteKing;
+        do {
+            whiteKing = random.nextInt(81);
+        } while (pos.pieceAt(whiteKing) != 0);
+        pos.putPiece(whiteKing, BitboardPosition.WHITE, BitboardPosition.KING);
+
+        int[] kinds = {
+            BitboardPosition.PAWN, BitboardPosition.LANCE, BitboardPosition.KNIGHT,
+            BitboardPosition.SILVER, BitboardPosition.GOLD, BitboardPosition.BISHOP,
+            BitboardPosition.ROOK, BitboardPosition.PRO_PAWN, BitboardPosition.PRO_SILVER,
+            BitboardPosition.HORSE, BitboardPosition.DRAGON
+        };
+        for (int i = 0; i < 12; i++) {
+            int sq = random.nextInt(81);
+            if (pos.pieceAt(sq) == 0) {
+                pos.putPiece(sq, random.nextInt(2), kinds[random.nextInt(kinds.length)]);
+            }
+        }
+        return new ShogiGame(pos);
+    }
+
+    // ===================================================================
+    //                  SAKK FELISMERÉS TESZTEK
+    // ===================================================================
+
+    @Test
+    @DisplayName("Fordított sakk-keresés egyezik a bitboard támadásvizsgálattal")
+    void testReverseCheckDetectionMatchesBitboard() {
+        Random random = new Random(2024);
+        for (int i = 0; i < 2000; i++) {
+            ShogiGame game = randomGame(random);
+            BitboardPosition pos = game.toBitboardPosition();
+            for (Piece.Color color : Piece.Color.values()) {
+                assertEquals(pos.isInCheck(BitboardPosition.colorIndex(color)), game.isInCheck(color),
+                        "Sakk eltérés (" + color + ")\n" + pos.occupied());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Lándzsa csak előre ad sakkot, a lovag átugrik")
+    void testLanceAndKnightCheck() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(0, 4), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(8, 8), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(6, 4), BitboardPosition.BLACK, BitboardPosition.LANCE);
+        assertTrue(new ShogiGame(pos).isInCheck(Piece.Color.WHITE), "Fekete lándzsa felfelé sakkot ad");
+
+        pos.removePiece(Bitboard.square(6, 4));
+        pos.putPiece(Bitboard.square(2, 3), BitboardPosition.BLACK, BitboardPosition.KNIGHT);
+        pos.putPiece(Bitboard.square(1, 3), BitboardPosition.WHITE, BitboardPosition.GOLD);
+        assertTrue(new ShogiGame(pos).isInCheck(Piece.Color.WHITE), "Lovag átugorja a köztes bábut");
+    }
+
+    // ===================================================================
+    //                  LÉPÉS / VISSZAVONÁS TESZTEK
+    // ===================================================================
+
+    /**
+     * Az állás teljes leírása: mezők (típus, szín, promóció), kezek, lépő fél.
+     */
+    private static String snapshot(ShogiGame game) {
+        BitboardPosition pos = game.toBitboardPosition();
+        StringBuilder sb = new StringBuilder();
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            sb.append(pos.pieceAt(sq)).append(',');
+        }
+        for (int c = 0; c < 2; c++) {
+            for (int kind = 0; kind < BitboardPosition.HAND_KINDS; kind++) {
+                sb.append(pos.getHandCount(c, kind)).append(',');
+            }
+        }
+        return sb.append(game.getCurrentPlayer()).toString();
+    }
+
+    @Test
+    @DisplayName("doMove/undoMove véletlen játszmákban pontosan visszaállítja az állást")
+    void testDoUndoRestoresPosition() {
+        Random random = new Random(11);
+        MoveList moves = new MoveList();
+        for (int g = 0; g < 20; g++) {
+            ShogiGame game = new ShogiGame();
+            String start = snapshot(game);
+            int plies = 0;
+            for (; plies < 200; plies++) {
+                game.generateLegalMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int move = moves.get(random.nextInt(moves.size()));
+                String before = snapshot(game);
+                game.doMove(move);
+                game.undoMove();
+                assertEquals(before, snapshot(game), "Egy lépés visszavonása: " + Move.toString(move));
+                game.doMove(move);
+            }
+            assertEquals(plies, game.getUndoDepth());
+            while (game.getUndoDepth() > 0) {
+                game.undoMove();
+            }
+            assertEquals(start, snapshot(game), "A teljes játszma visszavonása a kezdőállást adja");
+        }
+    }
+
+    @Test
+    @DisplayName("Leütött promótált bábu visszavonáskor promótáltan kerül vissza")
+    void testUndoRestoresPromotedCapture() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(8, 8), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(0, 0), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(4, 4), BitboardPosition.BLACK, BitboardPosition.ROOK);
+        pos.putPiece(Bitboard.square(2, 4), BitboardPosition.WHITE, BitboardPosition.DRAGON);
+        ShogiGame game = new ShogiGame(pos);
+
+        game.doMove(Move.normal(Bitboard.square(4, 4), Bitboard.square(2, 4),
+                BitboardPosition.ROOK, BitboardPosition.DRAGON, true));
+        assertTrue(game.getBoard().getPieceAt(2, 4).isPromoted(), "A bástya promótált");
+        assertEquals(1, game.getBlackHand().size(), "A sárkány bástyaként a kézbe került");
+        assertFalse(game.getBlackHand().get(0).isPromoted());
+        assertEquals(Piece.Color.WHITE, game.getCurrentPlayer());
+
+        game.undoMove();
+        Piece restored = game.getBoard().getPieceAt(2, 4);
+        assertEquals(Piece.Color.WHITE, restored.getColor(), "Visszakerült a gazdájához");
+        assertTrue(restored.isPromoted(), "Újra sárkány");
+        assertFalse(game.getBoard().getPieceAt(4, 4).isPromoted(), "A bástya promóciója visszavonva");
+        assertTrue(game.getBlackHand().isEmpty());
+        assertEquals(Piece.Color.BLACK, game.getCurrentPlayer());
+    }
+
+    @Test
+    @DisplayName("playMove a generált lépéskódot jegyzi, nem a hívóét")
+    void testPlayMoveRecordsGeneratedEncoding() {
+        BitboardPosition pos = new BitboardPosition();
+        pos.putPiece(Bitboard.square(8, 8), BitboardPosition.BLACK, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(0, 0), BitboardPosition.WHITE, BitboardPosition.KING);
+        pos.putPiece(Bitboard.square(4, 4), BitboardPosition.BLACK, BitboardPosition.ROOK);
+        pos.putPiece(Bitboard.square(4, 6), BitboardPosition.WHITE, BitboardPosition.GOLD);
+        ShogiGame game = new ShogiGame(pos);
+
+        // Csak a mezők helyesek: a bábu (gyalog) és az ütés bitjei hiányoznak
+        int bare = Move.normal(Bitboard.square(4, 4), Bitboard.square(4, 6), BitboardPosition.PAWN, -1, false);
+        assertTrue(game.playMove(bare));
+
+        int recorded = game.getRecordMoves()[0];
+        assertEquals(BitboardPosition.ROOK, Move.pieceKind(recorded), "A lépő bábu a bástya");
+        assertTrue(Move.isCapture(recorded), "Ütésként jegyezve");
+        assertEquals(BitboardPosition.GOLD, Move.capturedKind(recorded), "A leütött arany");
+    }
+
+    @Test
+    @DisplayName("A tábla ürítése után nincs visszavonható lépés")
+    void testClearBoardResetsUndoStack() {
+        ShogiGame game = new ShogiGame();
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        game.doMove(moves.get(0));
+
+        game.clearBoard();
+        assertEquals(0, game.getUndoDepth(), "Üres visszavonási verem");
+        assertThrows(IllegalStateException.class, game::undoMove, "Nincs mit visszavonni");
+        assertEquals(1, game.getMoveNumber(), "A lépésszám nem csökken");
+    }
+
+    // ===================================================================
+    //                  ZOBRIST KULCS TESZTEK
+    // ===================================================================
+
+    @Test
+    @DisplayName("A növekményes Zobrist kulcs egyezik az újraszámolttal és visszaáll")
+    void testIncrementalHashKey() {
+        Random random = new Random(5);
+        MoveList moves = new MoveList();
+        for (int g = 0; g < 10; g++) {
+            ShogiGame game = new ShogiGame();
+            long[] keys = new long[150];
+            int plies = 0;
+            for (; plies < keys.length; plies++) {
+                keys[plies] = game.getHashKey();
+                assertEquals(game.toBitboardPosition().getKey(), keys[plies], "Újraszámolt kulcs");
+                game.generateLegalMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.doMove(moves.get(random.nextInt(moves.size())));
+            }
+            while (plies > 0) {
+                game.undoMove();
+                assertEquals(keys[--plies], game.getHashKey(), "Visszavonás után a régi kulcs");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Különböző lépéssorrend ugyanahhoz az álláshoz ugyanazt a kulcsot adja")
+    void testTranspositionSameKey() {
+        ShogiGame a = new ShogiGame();
+        assertTrue(a.makeMove(new Position(6, 2), new Position(5, 2)));
+        assertTrue(a.makeMove(new Position(2, 6), new Position(3, 6)));
+        assertTrue(a.makeMove(new Position(6, 6), new Position(5, 6)));
+
+        ShogiGame b = new ShogiGame();
+        assertTrue(b.makeMove(new Position(6, 6), new Position(5, 6)));
+        assertTrue(b.makeMove(new Position(2, 6), new Position(3, 6)));
+        assertTrue(b.makeMove(new Position(6, 2), new Position(5, 2)));
+
+        assertEquals(a.getHashKey(), b.getHashKey());
+        assertNotEquals(new ShogiGame().getHashKey(), a.getHashKey());
+    }
+
+    // ===================================================================
+    //                  ISMÉTLÉS (SENNICHITE) TESZTEK
+    // ===================================================================
+
+    @Test
+    @DisplayName("A kezdőállás negyedszeri előfordulása döntetlen, visszavonás után még nem")
+    void testSennichiteDraw() {
+        ShogiGame game = new ShogiGame();
+        Position[][] cycle = {
+            {new Position(8, 3), new Position(7, 3)}, {new Position(0, 3), new Position(1, 3)},
+            {new Position(7, 3), new Position(8, 3)}, {new Position(1, 3), new Position(0, 3)}
+        };
+        for (int round = 0; round < 3; round++) {
+            assertFalse(game.checkSennichite().isSennichite, "Még nincs ismétlés: " + round);
+            for (Position[] move : cycle) {
+                assertTrue(game.makeMove(move[0], move[1]));
+            }
+            assertEquals(round + 2, game.getRepetitionCount(), "Előfordulások száma");
+        }
+        ShogiGame.SennichiteResult result = game.checkSennichite();
+        assertTrue(result.isSennichite, "Negyedik előfordulás");
+        assertNull(result.winner, "Döntetlen");
+        assertFalse(result.perpetualCheck);
+
+        ShogiGame undoable = new ShogiGame();
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 12; i++) {
+            Position[] move = cycle[i % 4];
+            undoable.generateLegalMoves(moves);
+            int from = Bitboard.square(move[0].getRow(), move[0].getCol());
+            int to = Bitboard.square(move[1].getRow(), move[1].getCol());
+            for (int j = 0; j < moves.size(); j++) {
+                if (Move.from(moves.get(j)) == from && Move.to(moves.get(j)) == to && !Move.isDrop(moves.get(j))) {
+                    undoable.doMove(moves.get(j));
+                    break;
+                }
+            }
+        }
+        assertTrue(undoable.checkSennichite().isSennichite, "doMove is rögzít");
+        undoable.undoMove();
+        undoable.undoMove();
+        undoable.undoMove();
+        undoable.undoMove();
+        assertFalse(undoable.checkSennichite().isSennichite, "Visszavonás után 3 előfordulás");
+        assertEquals(3, undoable.getRepetitionCount());
+    }
+
+    @Test
+    @DisplayName("Örökös sakkal ismétlő fél veszít")
+    void testPerpetualCheckLoses() {
+        ShogiGame game = new ShogiGame();
+        game.clearBoard();
+        game.getBoard().setPieceAt(8, 0, new King(Piece.Color.BLACK, new Position(8, 0)));
+        game.getBoard().setPieceAt(0, 4, new King(Piece.Color.WHITE, new Position(0, 4)));
+        game.getBoard().setPieceAt(5, 5, new Rook(Piece.Color.BLACK, new Position(5, 5)));
+        game.setCurrentPlayer(Piece.Color.BLACK);
+
+        for (int round = 0; round < 3; round++) {
+            assertTrue(game.makeMove(new Position(5, 5), new Position(5, 4)));
+            assertTrue(game.isInCheck(Piece.Color.WHITE), "Sakk");
+            assertTrue(game.makeMove(new Position(0, 4), new Position(0, 5)));
+            assertTrue(game.makeMove(new Position(5, 4), new Position(5, 5)));
+            assertTrue(game.isInCheck(Piece.Color.WHITE), "Sakk");
+            assertTrue(game.makeMove(new Position(0, 5), new Position(0, 4)));
+        }
+        ShogiGame.SennichiteResult result = game.checkSennichite();
+        assertTrue(result.isSennichite);
+        assertTrue(result.perpetualCheck, "Fekete végig sakkot adott");
+        assertEquals(Piece.Color.WHITE, result.winner, "A sakkot adó fél veszít");
+    }
+
+    @Test
+    @DisplayName("SFEN kiírás és beolvasás lépésszámmal")
+    void testSfenRoundTrip() {
+        ShogiGame game = ShogiGame.fromSfen(Sfen.START);
+        assertEquals(Sfen.START, game.toSfen(), "Kezdőállás");
+
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        game.doMove(moves.get(0));
+        assertEquals(2, game.getMoveNumber(), "Lépés után nő a lépésszám");
+
+        ShogiGame copy = ShogiGame.fromSfen(game.toSfen());
+        assertEquals(game.getHashKey(), copy.getHashKey(), "Azonos állás");
+        assertEquals(2, copy.getMoveNumber(), "A lépésszám is átjön");
+        assertEquals(game.getCurrentPlayer(), copy.getCurrentPlayer(), "Azonos lépő fél");
+
+        game.undoMove();
+        assertEquals(1, game.getMoveNumber(), "Visszavonáskor csökken");
+    }
+}